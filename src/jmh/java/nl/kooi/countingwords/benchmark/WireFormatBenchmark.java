@@ -0,0 +1,212 @@
+package nl.kooi.countingwords.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.kooi.countingwords.CountingwordsApplication;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.api.WordCountProtobuf;
+import nl.kooi.countingwords.api.dto.FrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.TopFrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyRequestDto;
+import nl.kooi.countingwords.domain.service.WordCountCache;
+import nl.kooi.countingwords.domain.service.WordFrequencyService;
+import nl.kooi.countingwords.mapper.Mapper;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the requests per second of the word count endpoints with JSON bodies and with protocol buffers
+ * bodies, over HTTP against a server running in the benchmark JVM. The texts are short, so the cost of binding,
+ * validating and writing the messages shows next to the counting. The word count cache is disabled, otherwise
+ * every request after the first would only measure a cache hit.
+ * <p>
+ * The {@code ...Messages} benchmarks leave out HTTP and the server, and measure only what a request costs
+ * between its body and its answer: reading the request, validating it, counting and writing the answer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class WireFormatBenchmark {
+    private static final long SEED = 42;
+    private static final int VOCABULARY_SIZE = 1000;
+    private static final int COUNTED_WORD_RANK = 10;
+    private static final int N = 10;
+    private static final String PROTOBUF = WordCountProtobuf.MEDIA_TYPE;
+    private static final String JSON = "application/json";
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        ServletWebServerApplicationContext context;
+        HttpClient client;
+        String baseUri;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(CountingwordsApplication.class)
+                    .run("--server.port=0", "--counting-words.cache.enabled=false", "--logging.level.root=warn");
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            baseUri = "http://localhost:" + context.getWebServer().getPort() + "/rest/word-count/";
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        byte[] post(String operation, String contentType, byte[] body) throws IOException, InterruptedException {
+            var request = HttpRequest.newBuilder(URI.create(baseUri + operation))
+                    .header("Content-Type", contentType)
+                    .header("Accept", contentType)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            var response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(operation + " answered " + response.statusCode());
+            }
+            return response.body();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Messages {
+        WordFrequencyService service;
+        ObjectMapper objectMapper = new ObjectMapper();
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+        @Setup(Level.Trial)
+        public void start() {
+            var properties = new WordCountProperties();
+            properties.getCache().setEnabled(false);
+
+            service = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            service.shutdown();
+        }
+
+        List<WordFrequencyDto> calculateTopNFrequency(TopFrequencyRequestDto request) {
+            if (!validator.validate(request).isEmpty()) {
+                throw new IllegalStateException("The request is invalid.");
+            }
+
+            return Arrays.stream(service.calculateMostFrequentNWords(request.getText(), request.getN()))
+                    .map(Mapper::map).collect(Collectors.toList());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Bodies {
+        @Param({"100", "1KB"})
+        public String size;
+
+        byte[] jsonText;
+        byte[] jsonWord;
+        byte[] jsonTop;
+        byte[] protobufText;
+        byte[] protobufWord;
+        byte[] protobufTop;
+
+        @Setup(Level.Trial)
+        public void encode() throws IOException {
+            var generator = new ZipfTextGenerator(VOCABULARY_SIZE, 1.0, SEED);
+            var text = generator.generate(WordFrequencyServiceBenchmark.parseSize(size));
+            var objectMapper = new ObjectMapper();
+
+            var textRequest = new FrequencyRequestDto();
+            textRequest.setText(text);
+            var wordRequest = new WordFrequencyRequestDto();
+            wordRequest.setText(text);
+            wordRequest.setWord(generator.word(COUNTED_WORD_RANK));
+            var topRequest = new TopFrequencyRequestDto();
+            topRequest.setText(text);
+            topRequest.setN(N);
+
+            jsonText = objectMapper.writeValueAsBytes(textRequest);
+            jsonWord = objectMapper.writeValueAsBytes(wordRequest);
+            jsonTop = objectMapper.writeValueAsBytes(topRequest);
+            protobufText = WordCountProtobuf.encodeRequest(textRequest);
+            protobufWord = WordCountProtobuf.encodeRequest(wordRequest);
+            protobufTop = WordCountProtobuf.encodeRequest(topRequest);
+        }
+    }
+
+    @Benchmark
+    public byte[] jsonHighestFrequency(Server server, Bodies bodies) throws Exception {
+        return server.post("highest-frequency", JSON, bodies.jsonText);
+    }
+
+    @Benchmark
+    public byte[] protobufHighestFrequency(Server server, Bodies bodies) throws Exception {
+        return server.post("highest-frequency", PROTOBUF, bodies.protobufText);
+    }
+
+    @Benchmark
+    public byte[] jsonFrequencyForWord(Server server, Bodies bodies) throws Exception {
+        return server.post("frequency-for-word", JSON, bodies.jsonWord);
+    }
+
+    @Benchmark
+    public byte[] protobufFrequencyForWord(Server server, Bodies bodies) throws Exception {
+        return server.post("frequency-for-word", PROTOBUF, bodies.protobufWord);
+    }
+
+    @Benchmark
+    public byte[] jsonTopFrequency(Server server, Bodies bodies) throws Exception {
+        return server.post("top-frequency", JSON, bodies.jsonTop);
+    }
+
+    @Benchmark
+    public byte[] protobufTopFrequency(Server server, Bodies bodies) throws Exception {
+        return server.post("top-frequency", PROTOBUF, bodies.protobufTop);
+    }
+
+    @Benchmark
+    public byte[] jsonTopFrequencyMessages(Messages messages, Bodies bodies) throws IOException {
+        var request = messages.objectMapper.readValue(bodies.jsonTop, TopFrequencyRequestDto.class);
+
+        return messages.objectMapper.writeValueAsBytes(messages.calculateTopNFrequency(request));
+    }
+
+    @Benchmark
+    public byte[] protobufTopFrequencyMessages(Messages messages, Bodies bodies) throws IOException {
+        var request = (TopFrequencyRequestDto) WordCountProtobuf.decodeRequest(bodies.protobufTop, TopFrequencyRequestDto.class);
+        var out = new ByteArrayOutputStream();
+
+        WordCountProtobuf.encode(messages.calculateTopNFrequency(request), out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,111 @@
+package nl.kooi.countingwords.benchmark;
+
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.service.WordCountCache;
+import nl.kooi.countingwords.domain.service.WordFrequencyService;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the three text operations of {@link WordFrequencyService} on Zipf-distributed texts. The word
+ * count cache is disabled, otherwise every invocation after the first would only measure a cache hit.
+ * <p>
+ * Run with the gc profiler ({@code -prof gc}, the default of the benchmark profile) to get allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WordFrequencyServiceBenchmark {
+    private static final long SEED = 42;
+    private static final double ZIPF_EXPONENT = 1.0;
+    // a frequent word, but not the most frequent one
+    private static final int COUNTED_WORD_RANK = 10;
+
+    @State(Scope.Benchmark)
+    public static class Text {
+        @Param({"1KB", "64KB", "1MB", "100MB"})
+        public String size;
+
+        @Param({"100", "10000", "1000000"})
+        public int vocabularySize;
+
+        String text;
+        String word;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            var generator = new ZipfTextGenerator(vocabularySize, ZIPF_EXPONENT, SEED);
+
+            text = generator.generate(parseSize(size));
+            word = generator.word(Math.min(COUNTED_WORD_RANK, vocabularySize));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TopN {
+        @Param({"10", "1000"})
+        public int n;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Service {
+        WordFrequencyService service;
+
+        @Setup(Level.Trial)
+        public void start() {
+            var properties = new WordCountProperties();
+            properties.getCache().setEnabled(false);
+
+            service = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            service.shutdown();
+        }
+    }
+
+    @Benchmark
+    public int calculateHighestFrequency(Service service, Text text) {
+        return service.service.calculateHighestFrequency(text.text);
+    }
+
+    @Benchmark
+    public int calculateFrequencyForWord(Service service, Text text) {
+        return service.service.calculateFrequencyForWord(text.text, text.word);
+    }
+
+    @Benchmark
+    public WordFrequency[] calculateMostFrequentNWords(Service service, Text text, TopN topN) {
+        return service.service.calculateMostFrequentNWords(text.text, topN.n);
+    }
+
+    static int parseSize(String size) {
+        var normalized = size.trim().toUpperCase(Locale.ROOT);
+
+        if (normalized.endsWith("MB")) {
+            return Integer.parseInt(normalized.substring(0, normalized.length() - 2)) * 1024 * 1024;
+        } else if (normalized.endsWith("KB")) {
+            return Integer.parseInt(normalized.substring(0, normalized.length() - 2)) * 1024;
+        }
+        return Integer.parseInt(normalized);
+    }
+}
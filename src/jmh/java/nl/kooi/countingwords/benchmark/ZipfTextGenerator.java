@@ -0,0 +1,77 @@
+package nl.kooi.countingwords.benchmark;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+/**
+ * Generates texts whose word frequencies follow Zipf's law, like natural language does: the word of rank k
+ * occurs about 1/k^s times as often as the most frequent word.
+ */
+class ZipfTextGenerator {
+    private static final String[] SEPARATORS = {" ", " ", " ", ", ", ". ", "\n"};
+    private static final int MINIMUM_WORD_LENGTH = 2;
+    private static final int MAXIMUM_WORD_LENGTH = 12;
+
+    private final Random random;
+    private final String[] vocabulary;
+    private final double[] cumulativeWeights;
+
+    ZipfTextGenerator(int vocabularySize, double exponent, long seed) {
+        this.random = new Random(seed);
+        this.vocabulary = generateVocabulary(vocabularySize);
+        this.cumulativeWeights = new double[vocabularySize];
+
+        var total = 0.0;
+        for (int rank = 1; rank <= vocabularySize; rank++) {
+            total += 1 / Math.pow(rank, exponent);
+            cumulativeWeights[rank - 1] = total;
+        }
+    }
+
+    /**
+     * @return the word of the given rank, 1 being the most frequent
+     */
+    String word(int rank) {
+        return vocabulary[rank - 1];
+    }
+
+    String generate(int length) {
+        var text = new StringBuilder(length + MAXIMUM_WORD_LENGTH + 2);
+
+        while (text.length() < length) {
+            text.append(nextWord()).append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+
+        text.setLength(length);
+        return text.toString();
+    }
+
+    private String nextWord() {
+        var target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        var index = Arrays.binarySearch(cumulativeWeights, target);
+
+        return vocabulary[Math.min(index >= 0 ? index : -index - 1, vocabulary.length - 1)];
+    }
+
+    private String[] generateVocabulary(int size) {
+        var words = new LinkedHashSet<String>();
+
+        while (words.size() < size) {
+            var length = MINIMUM_WORD_LENGTH + random.nextInt(MAXIMUM_WORD_LENGTH - MINIMUM_WORD_LENGTH + 1);
+            var word = new char[length];
+
+            for (int i = 0; i < length; i++) {
+                word[i] = (char) ('a' + random.nextInt(26));
+            }
+
+            // the first letter is capitalized now and then, counting is case insensitive
+            if (random.nextInt(8) == 0) {
+                word[0] = Character.toUpperCase(word[0]);
+            }
+            words.add(new String(word));
+        }
+
+        return words.toArray(String[]::new);
+    }
+}
@@ -1,15 +1,27 @@
 package nl.kooi.countingwords;
 
+import nl.kooi.countingwords.api.NdjsonRankingMessageConverter;
+import nl.kooi.countingwords.api.ProtobufWordCountMessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
+import springfox.documentation.spring.web.readers.operation.HandlerMethodResolver;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 
 @Configuration
 @EnableSwagger2
@@ -20,7 +32,36 @@ public class SwaggerConfig extends WebMvcConfigurationSupport {
                 .select()
                 .apis(RequestHandlerSelectors.basePackage("nl.kooi.countingwords.api"))
                 .paths(PathSelectors.any())
-                .build();
+                .build()
+                .genericModelSubstitutes(WebAsyncTask.class);
+    }
+
+    /**
+     * Springfox can't document handler mappings that match path patterns instead of using an AntPathMatcher, like
+     * the one of the actuator endpoints, and fails on startup when it sees one. Those mappings are left out.
+     */
+    @Bean
+    public static BeanPostProcessor antPathHandlerMappingsOnly(ObjectProvider<HandlerMethodResolver> methodResolver,
+                                                               ObjectProvider<RequestMappingInfoHandlerMapping> handlerMappings) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof WebMvcRequestHandlerProvider)) {
+                    return bean;
+                }
+
+                return new WebMvcRequestHandlerProvider(methodResolver.getObject(), handlerMappings.orderedStream()
+                        .filter(handlerMapping -> handlerMapping.getPatternParser() == null)
+                        .collect(Collectors.toList()));
+            }
+        };
+    }
+
+    @Override
+    protected void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new NdjsonRankingMessageConverter());
+        // last, so clients accepting anything keep getting JSON
+        converters.add(new ProtobufWordCountMessageConverter());
     }
 
     @Override
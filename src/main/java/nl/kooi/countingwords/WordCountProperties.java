@@ -0,0 +1,325 @@
+package nl.kooi.countingwords;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "counting-words")
+public class WordCountProperties {
+    private Parallel parallel = new Parallel();
+    private FileAnalysis file = new FileAnalysis();
+    private Cache cache = new Cache();
+    private CorpusStorage corpus = new CorpusStorage();
+    private Execution execution = new Execution();
+    private Jobs jobs = new Jobs();
+    private Approximate approximate = new Approximate();
+    private OffHeap offHeap = new OffHeap();
+    private Rankings rankings = new Rankings();
+    private Compression compression = new Compression();
+    private Snapshots snapshots = new Snapshots();
+    private Trends trends = new Trends();
+    private Admission admission = new Admission();
+    private Streams streams = new Streams();
+
+    @Data
+    public static class Parallel {
+        /**
+         * Texts of at least this many characters are counted on all cores.
+         */
+        private int threshold = 1024 * 1024;
+
+        /**
+         * Number of characters a single fork-join task counts on its own.
+         */
+        private int chunkSize = 256 * 1024;
+
+        /**
+         * Number of threads used for parallel counting.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Data
+    public static class FileAnalysis {
+        /**
+         * Directory with the server-local files that may be analyzed; file analysis is disabled when not set.
+         */
+        private Path directory;
+    }
+
+    @Data
+    public static class Cache {
+        /**
+         * Whether the word counts of large texts are cached.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Texts of at least this many characters have their word counts cached.
+         */
+        private int minimumTextLength = 64 * 1024;
+
+        /**
+         * Estimated heap the cached word counts may take in total.
+         */
+        private DataSize maximumWeight = DataSize.ofMegabytes(256);
+
+        /**
+         * How long word counts stay cached after they were computed.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class CorpusStorage {
+        /**
+         * Directory the corpora are stored in; corpora only live in memory when not set.
+         */
+        private Path directory;
+
+        /**
+         * Size after which a new segment of a corpus log is started.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Number of segments after which a corpus log is compacted into a single segment.
+         */
+        private int maximumSegments = 4;
+
+        /**
+         * Number of corpora that may exist, documents for further corpora are rejected.
+         */
+        private int maximumCorpora = 64;
+    }
+
+    @Data
+    public static class Execution {
+        /**
+         * Texts of at least this many characters, or plain text bodies of at least this many bytes, are analyzed
+         * on the pool for large texts.
+         */
+        private long largeTextThreshold = 1024 * 1024;
+
+        /**
+         * Pool analyzing the texts below the large text threshold.
+         */
+        private Pool small = new Pool(Runtime.getRuntime().availableProcessors(), 1000);
+
+        /**
+         * Pool analyzing the texts of at least the large text threshold.
+         */
+        private Pool large = new Pool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 16);
+
+        /**
+         * How long a request may wait for its analysis before it is answered with 503 Service Unavailable.
+         */
+        private Duration timeout = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Jobs {
+        /**
+         * Number of analysis jobs that run at the same time.
+         */
+        private int concurrency = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        /**
+         * Number of analysis jobs that may wait to be run, further jobs are rejected.
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * How long the status and result of a finished job are kept.
+         */
+        private Duration resultTtl = Duration.ofMinutes(15);
+
+        /**
+         * Directory the texts of submitted jobs are stored in until they are analyzed; the system temporary
+         * directory when not set.
+         */
+        private Path spoolDirectory;
+    }
+
+    @Data
+    public static class Approximate {
+        /**
+         * Number of words an approximate count keeps track of; the count of a word is overestimated by at most
+         * the number of words of the text divided by this number.
+         */
+        private int counters = 16 * 1024;
+    }
+
+    @Data
+    public static class OffHeap {
+        /**
+         * Whether the words of large texts, streams and files are counted outside of the heap, in memory that
+         * is freed as soon as the request is done.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Texts of at least this many characters are counted outside of the heap; streams and files always are.
+         */
+        private int threshold = 16 * 1024 * 1024;
+    }
+
+    @Data
+    public static class Rankings {
+        /**
+         * Estimated heap the rankings kept for paging may take in total.
+         */
+        private DataSize maximumWeight = DataSize.ofMegabytes(128);
+
+        /**
+         * How long a ranking is kept after its last page was read.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Compression {
+        /**
+         * Whether request bodies with a gzip or deflate Content-Encoding are accepted and decompressed while they
+         * are read.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of bytes a compressed request body may decompress to, further bytes fail the request.
+         */
+        private DataSize maximumDecompressedSize = DataSize.ofGigabytes(1);
+    }
+
+    @Data
+    public static class Snapshots {
+        /**
+         * Base URLs of the sibling instances a distributed analysis spreads the text over; the text is counted
+         * on this instance alone when there are none.
+         */
+        private List<URI> nodes = new ArrayList<>();
+
+        /**
+         * Texts are split into parts of at least this many characters, so small texts stay on this instance.
+         */
+        private int minimumPartSize = 1024 * 1024;
+
+        /**
+         * How long to wait for the snapshot of a part from a sibling instance before counting the part here.
+         */
+        private Duration timeout = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Trends {
+        /**
+         * The time the counts of a trend are bucketed by, windows slide by this much.
+         */
+        private Duration interval = Duration.ofSeconds(10);
+
+        /**
+         * The windows every trend keeps counts for, rounded up to whole intervals.
+         */
+        private List<Duration> windows = new ArrayList<>(List.of(Duration.ofMinutes(5), Duration.ofHours(1)));
+
+        /**
+         * Number of trends that may exist at the same time, texts for further trends are rejected.
+         */
+        private int maximumTrends = 64;
+    }
+
+    @Data
+    public static class Admission {
+        /**
+         * Whether analysis requests are admitted against a budget of the memory they may hold together.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Estimated bytes the admitted analyses may hold together, half of the maximum heap when not set.
+         */
+        private DataSize maximumCost;
+
+        /**
+         * Estimated bytes every request holds, whatever its size.
+         */
+        private DataSize requestCost = DataSize.ofKilobytes(64);
+
+        /**
+         * Estimated bytes held per byte of a body that is read into memory as a whole, like JSON.
+         */
+        private double bufferedCostPerByte = 4;
+
+        /**
+         * Estimated bytes held per byte of a body that is counted while it is read, like plain text.
+         */
+        private double streamedCostPerByte = 1;
+
+        /**
+         * Size assumed for bodies without a Content-Length, or with a Content-Encoding.
+         */
+        private DataSize unknownSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Number of requests that may wait for the budget, further requests are rejected with 429.
+         */
+        private int maximumWaiting = 64;
+
+        /**
+         * How long a request waits for the budget before it is rejected with 503.
+         */
+        private Duration maximumWait = Duration.ofSeconds(5);
+
+        /**
+         * Bytes analyzed per second, used to tell rejected clients when to retry.
+         */
+        private DataSize throughput = DataSize.ofMegabytes(100);
+    }
+
+    @Data
+    public static class Streams {
+        /**
+         * Number of chunk streams that may be open at the same time, further streams are rejected with 503.
+         */
+        private int maximumStreams = 64;
+
+        /**
+         * How long a stream may be open before it is answered with 503 Service Unavailable.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * Bytes a single chunk of a stream may have.
+         */
+        private DataSize maximumChunkSize = DataSize.ofMegabytes(1);
+
+        /**
+         * Characters the text of a single stream may have in total, a stream that grows longer ends with an error.
+         */
+        private DataSize maximumSize = DataSize.ofMegabytes(256);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+        /**
+         * Number of threads of the pool.
+         */
+        private int size;
+
+        /**
+         * Number of analyses that may wait for a thread, further requests are rejected.
+         */
+        private int queueCapacity;
+    }
+}
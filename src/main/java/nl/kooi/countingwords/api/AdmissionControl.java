@@ -0,0 +1,234 @@
+package nl.kooi.countingwords.api;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admits requests against a global budget of the memory their analyses may hold at the same time, so a burst
+ * of huge bodies is held back or turned away before it is read, instead of exhausting the heap and failing the
+ * small requests along with it.
+ * <p>
+ * The cost of a request is estimated from its size: a fixed cost per request plus a cost per byte, which is
+ * higher for bodies that are read into memory as a whole (JSON, protocol buffers) than for bodies that are
+ * counted while they are read. A request that doesn't fit waits for the budget for a bounded time, with a bounded number of others,
+ * and is rejected with a Retry-After derived from the bytes still being analyzed. A request costing more than
+ * the whole budget is charged the whole budget, so it is analyzed on its own.
+ */
+@Component
+public class AdmissionControl implements MeterBinder {
+    /**
+     * The name of the request attribute holding the {@link Admission} of an admitted request.
+     */
+    public static final String ADMISSION_ATTRIBUTE = AdmissionControl.class.getName() + ".admission";
+
+    // the budget is counted in permits of this many bytes, so budgets of terabytes fit the int of a semaphore
+    private static final long UNIT = 1024;
+    private static final String QUEUE_FULL = "admission_queue_full";
+    private static final String TIMED_OUT = "admission_timed_out";
+    // the states of the analysis an admission is handed to
+    private static final int NO_ANALYSIS = 0;
+    private static final int SUBMITTED = 1;
+    private static final int ANALYZING = 2;
+    private static final int ABANDONED = 3;
+
+    private final long requestCost;
+    private final double bufferedCostPerByte;
+    private final double streamedCostPerByte;
+    private final long unknownSize;
+    private final int maximumWaiting;
+    private final long maximumWaitNanos;
+    private final long throughput;
+    private final int budgetUnits;
+    private final Semaphore budget;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong admittedBytes = new AtomicLong();
+    private final WordCountMetrics metrics;
+
+    public AdmissionControl(WordCountProperties properties, WordCountMetrics metrics) {
+        var admission = properties.getAdmission();
+        var maximumCost = admission.getMaximumCost() != null ?
+                admission.getMaximumCost().toBytes() :
+                Runtime.getRuntime().maxMemory() / 2;
+
+        this.requestCost = admission.getRequestCost().toBytes();
+        this.bufferedCostPerByte = admission.getBufferedCostPerByte();
+        this.streamedCostPerByte = admission.getStreamedCostPerByte();
+        this.unknownSize = admission.getUnknownSize().toBytes();
+        this.maximumWaiting = admission.getMaximumWaiting();
+        this.maximumWaitNanos = admission.getMaximumWait().toNanos();
+        this.throughput = Math.max(1, admission.getThroughput().toBytes());
+        this.budgetUnits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maximumCost / UNIT));
+        this.budget = new Semaphore(budgetUnits);
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param size     the number of bytes of the body, negative when it isn't known up front
+     * @param buffered whether the body is read into memory as a whole before it is analyzed
+     * @return the estimated number of bytes the analysis of the request holds
+     */
+    public long cost(long size, boolean buffered) {
+        var bytes = size < 0 ? unknownSize : size;
+
+        return requestCost + (long) Math.ceil(bytes * (buffered ? bufferedCostPerByte : streamedCostPerByte));
+    }
+
+    /**
+     * Takes the cost of a request from the budget, waiting for it when the budget is used up.
+     *
+     * @param size the number of bytes of the body, negative when it isn't known up front
+     * @return the admission, to release once the request is answered
+     * @throws RejectedException when too many requests are waiting already, or the budget didn't free up in time
+     */
+    public Admission admit(long size, long cost) {
+        var units = (int) Math.min(budgetUnits, Math.max(1, (cost + UNIT - 1) / UNIT));
+        var bytes = size < 0 ? unknownSize : size;
+        var start = System.nanoTime();
+
+        if (budget.tryAcquire(units)) {
+            metrics.recordAdmission("admitted", System.nanoTime() - start);
+            return new Admission(units, bytes);
+        }
+
+        if (waiting.incrementAndGet() > maximumWaiting) {
+            waiting.decrementAndGet();
+            throw reject(HttpStatus.TOO_MANY_REQUESTS, QUEUE_FULL, start, "Too many requests are waiting to be analyzed, try again later.");
+        }
+
+        try {
+            if (budget.tryAcquire(units, maximumWaitNanos, TimeUnit.NANOSECONDS)) {
+                metrics.recordAdmission("admitted", System.nanoTime() - start);
+                return new Admission(units, bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        throw reject(HttpStatus.SERVICE_UNAVAILABLE, TIMED_OUT, start, "The server is too busy to analyze the text, try again later.");
+    }
+
+    private RejectedException reject(HttpStatus status, String reason, long start, String message) {
+        metrics.recordAdmission(reason, System.nanoTime() - start);
+        metrics.recordError(reason);
+
+        return new RejectedException(status, reason, retryAfter(), message);
+    }
+
+    // the budget frees up once the bytes being analyzed now are counted
+    private long retryAfter() {
+        return Math.max(1, (admittedBytes.get() + throughput - 1) / throughput);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("admission.budget.used", budget, semaphore -> (double) (budgetUnits - semaphore.availablePermits()) * UNIT)
+                .description("Estimated bytes held by the admitted analyses")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("admission.budget.maximum", () -> (double) budgetUnits * UNIT)
+                .description("Estimated bytes the admitted analyses may hold")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("admission.waiting", waiting, AtomicInteger::get)
+                .description("Requests waiting for the budget")
+                .register(registry);
+    }
+
+    /**
+     * The part of the budget held by one request.
+     * <p>
+     * A request answered asynchronously hands its admission to its analysis, which gives the cost back once it
+     * is done. That can be after the response completed, when the analysis timed out, as the analysis then
+     * keeps running until it ends and holds its memory all the while.
+     */
+    public class Admission {
+        private final int units;
+        private final long bytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final AtomicInteger analysis = new AtomicInteger(NO_ANALYSIS);
+
+        private Admission(int units, long bytes) {
+            this.units = units;
+            this.bytes = bytes;
+            admittedBytes.addAndGet(bytes);
+        }
+
+        /**
+         * @return the number of body bytes the request was charged for, the assumed size when its size wasn't known
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Gives the cost back to the budget; only the first call does.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                admittedBytes.addAndGet(-bytes);
+                budget.release(units);
+            }
+        }
+
+        /**
+         * Hands the admission to the analysis of the request, which releases it once it is done, whether it
+         * succeeds or fails. An analysis that starts after the response completed is skipped.
+         */
+        public <T> Callable<T> heldBy(Callable<T> analysis) {
+            this.analysis.compareAndSet(NO_ANALYSIS, SUBMITTED);
+
+            return () -> {
+                if (!this.analysis.compareAndSet(SUBMITTED, ANALYZING)) {
+                    throw new CancellationException("The request was answered before its analysis started.");
+                }
+
+                try {
+                    return analysis.call();
+                } finally {
+                    release();
+                }
+            };
+        }
+
+        /**
+         * Gives the cost back once the response is complete, unless the analysis is still running; it then gives
+         * the cost back itself once it is done. An analysis that didn't start yet won't start anymore, which is
+         * the case for analyses that were rejected or cancelled while queued.
+         */
+        public void releaseUnlessAnalyzing() {
+            if (analysis.get() == NO_ANALYSIS || analysis.compareAndSet(SUBMITTED, ABANDONED)) {
+                release();
+            }
+        }
+    }
+
+    @Getter
+    public static class RejectedException extends RuntimeException {
+        private final HttpStatus status;
+        private final String reason;
+        private final long retryAfterSeconds;
+
+        RejectedException(HttpStatus status, String reason, long retryAfterSeconds, String message) {
+            super(message);
+            this.status = status;
+            this.reason = reason;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package nl.kooi.countingwords.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.domain.service.LocalFileResolver;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+
+/**
+ * Admits word count requests through {@link AdmissionControl} before their bodies are read, and holds their
+ * cost until the response is complete, or until their analysis is done when it runs asynchronously. Rejected
+ * requests are answered with 429 Too Many Requests or 503 Service Unavailable and a Retry-After.
+ * <p>
+ * Requests posting a text are admitted, and so are the analyses of local files, which are charged their file
+ * size like a streamed body. Other requests only read what is counted already.
+ * <p>
+ * A compressed body that is read into memory as a whole may only decompress to the bytes it was charged for,
+ * as its compressed length says nothing about what it holds.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final String PATH = "/rest/word-count/";
+    private static final String FILE_PATH = PATH + "file/";
+
+    private final WordCountProperties properties;
+    private final AdmissionControl admissionControl;
+    private final LocalFileResolver fileResolver;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.getAdmission().isEnabled()
+                || !request.getRequestURI().startsWith(request.getContextPath() + PATH)
+                || !HttpMethod.POST.matches(request.getMethod()) && !isFileAnalysis(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        // the length of a compressed body says little about the text it holds
+        var compressed = request.getHeader(HttpHeaders.CONTENT_ENCODING) != null;
+        var size = isFileAnalysis(request) ? fileSize(request) : compressed ? -1 : request.getContentLengthLong();
+        var buffered = isBuffered(request);
+        AdmissionControl.Admission admission;
+
+        try {
+            admission = admissionControl.admit(size, admissionControl.cost(size, buffered));
+        } catch (AdmissionControl.RejectedException e) {
+            reject(e, response);
+            return;
+        }
+
+        request.setAttribute(AdmissionControl.ADMISSION_ATTRIBUTE, admission);
+        if (compressed && buffered) {
+            request.setAttribute(RequestDecompressionFilter.MAXIMUM_SIZE_ATTRIBUTE, admission.getBytes());
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(admission));
+            } else {
+                admission.release();
+            }
+        }
+    }
+
+    private static boolean isFileAnalysis(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) && request.getRequestURI().startsWith(request.getContextPath() + FILE_PATH);
+    }
+
+    // a path that doesn't lead to a readable file is refused by the controller right away
+    private long fileSize(HttpServletRequest request) {
+        var path = request.getParameter("path");
+
+        try {
+            return path != null ? Files.size(fileResolver.resolve(path)) : 0;
+        } catch (WordProcessingException | IOException e) {
+            return 0;
+        }
+    }
+
+    private static boolean isBuffered(HttpServletRequest request) {
+        try {
+            var contentType = request.getContentType();
+            if (contentType == null) {
+                return false;
+            }
+
+            var mediaType = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)
+                    || ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF.isCompatibleWith(mediaType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void reject(AdmissionControl.RejectedException rejection, HttpServletResponse response) throws IOException {
+        log.error("Request rejected by admission control: {}", rejection.getReason());
+
+        response.setStatus(rejection.getStatus().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rejection.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponseDto().reason(rejection.getMessage()).reference(UUID.randomUUID()));
+    }
+
+    /**
+     * Releases the admission when the asynchronously answered request completes, which also follows a timeout or
+     * an error, unless its analysis is still running and releases it once done.
+     */
+    @RequiredArgsConstructor
+    private static class ReleasingListener implements AsyncListener {
+        private final AdmissionControl.Admission admission;
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            admission.releaseUnlessAnalyzing();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
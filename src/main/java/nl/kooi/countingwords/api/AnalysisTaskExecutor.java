@@ -0,0 +1,124 @@
+package nl.kooi.countingwords.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import nl.kooi.countingwords.WordCountProperties;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the analysis of a request on one of two bounded compute pools, chosen by the size of the text.
+ * <p>
+ * Texts of at least the large text threshold get a pool of their own with fewer threads than there are cores,
+ * so a few huge texts can never take every worker and small texts keep being answered quickly. The request
+ * thread is handed back to the container while the analysis runs. When the queue of a pool is full the
+ * analysis is rejected instead of piling up.
+ * <p>
+ * Streams of chunks are read and counted on a third pool with a thread per stream that may be open, as they
+ * last as long as their client keeps sending, and further streams are rejected.
+ * <p>
+ * The {@link AdmissionControl.Admission admission} of the request is held by its analysis, so its cost is given
+ * back when the analysis is done rather than when the response completes, which comes first on a timeout.
+ */
+@Component
+public class AnalysisTaskExecutor implements MeterBinder {
+    private final long largeTextThreshold;
+    private final long timeout;
+    private final long streamTimeout;
+    private final ThreadPoolExecutor smallPool;
+    private final ThreadPoolExecutor largePool;
+    private final ThreadPoolExecutor streamPool;
+    private final ConcurrentTaskExecutor smallExecutor;
+    private final ConcurrentTaskExecutor largeExecutor;
+    private final ConcurrentTaskExecutor streamExecutor;
+
+    public AnalysisTaskExecutor(WordCountProperties properties) {
+        var execution = properties.getExecution();
+
+        this.largeTextThreshold = execution.getLargeTextThreshold();
+        this.timeout = execution.getTimeout().toMillis();
+        this.smallPool = pool(execution.getSmall(), "analysis-small-");
+        this.largePool = pool(execution.getLarge(), "analysis-large-");
+        this.streamTimeout = properties.getStreams().getTimeout().toMillis();
+        this.streamPool = streamPool(properties.getStreams().getMaximumStreams());
+        this.smallExecutor = new ConcurrentTaskExecutor(smallPool);
+        this.largeExecutor = new ConcurrentTaskExecutor(largePool);
+        this.streamExecutor = new ConcurrentTaskExecutor(streamPool);
+    }
+
+    /**
+     * @param size the number of characters of the text, or the number of bytes of a plain text body; a negative
+     *             size means the size is unknown and is treated as large
+     * @return the analysis as a task Spring MVC runs asynchronously on the pool that fits the size
+     */
+    public <T> WebAsyncTask<T> submit(long size, Callable<T> analysis) {
+        return new WebAsyncTask<>(timeout, isLarge(size) ? largeExecutor : smallExecutor, heldByAdmission(analysis));
+    }
+
+    /**
+     * @return the reading and counting of a stream of chunks as a task Spring MVC runs asynchronously on the
+     * stream pool
+     */
+    public <T> WebAsyncTask<T> submitStream(Callable<T> analysis) {
+        return new WebAsyncTask<>(streamTimeout, streamExecutor, heldByAdmission(analysis));
+    }
+
+    private static <T> Callable<T> heldByAdmission(Callable<T> analysis) {
+        var attributes = RequestContextHolder.getRequestAttributes();
+        var admission = attributes != null ?
+                attributes.getAttribute(AdmissionControl.ADMISSION_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) :
+                null;
+
+        return admission != null ? ((AdmissionControl.Admission) admission).heldBy(analysis) : analysis;
+    }
+
+    boolean isLarge(long size) {
+        return size < 0 || size >= largeTextThreshold;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        smallPool.shutdownNow();
+        largePool.shutdownNow();
+        streamPool.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(smallPool, "analysis.small", Tags.empty()).bindTo(registry);
+        new ExecutorServiceMetrics(largePool, "analysis.large", Tags.empty()).bindTo(registry);
+        new ExecutorServiceMetrics(streamPool, "analysis.streams", Tags.empty()).bindTo(registry);
+    }
+
+    private static ThreadPoolExecutor pool(WordCountProperties.Pool pool, String threadNamePrefix) {
+        var threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+
+        return new ThreadPoolExecutor(pool.getSize(), pool.getSize(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, pool.getQueueCapacity())), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // streams don't wait for a thread: the threads of streams that ended are given back after a minute
+    private static ThreadPoolExecutor streamPool(int maximumStreams) {
+        var threadFactory = new CustomizableThreadFactory("analysis-stream-");
+        threadFactory.setDaemon(true);
+
+        var pool = new ThreadPoolExecutor(Math.max(1, maximumStreams), Math.max(1, maximumStreams), 1, TimeUnit.MINUTES,
+                new SynchronousQueue<>(), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
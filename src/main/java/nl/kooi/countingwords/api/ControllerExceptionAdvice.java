@@ -1,40 +1,91 @@
 package nl.kooi.countingwords.api;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nl.kooi.countingwords.api.dto.ErrorResponseDto;
 import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Slf4j
 @ControllerAdvice
+@RequiredArgsConstructor
 public class ControllerExceptionAdvice {
+    // error reasons next to the ones of WordProcessingException
+    private static final String INVALID_REQUEST = "invalid_request";
+    private static final String SERVER_ERROR = "server_error";
+    private static final String SERVER_BUSY = "server_busy";
+
+    private final WordCountMetrics metrics;
 
     @ExceptionHandler({WordProcessingException.class})
     public ResponseEntity<ErrorResponseDto> handleWordProcessingException(WordProcessingException exception) {
         log.error(exception.getMessage());
+        metrics.recordError(exception.getReason().name());
         return ResponseEntity
-                .badRequest()
+                .status(status(exception.getReason()))
                 .body(new ErrorResponseDto().reason(exception.getMessage()).reference(UUID.randomUUID()));
     }
 
+    // resources that are looked up by their id or name are not found rather than asked for badly, so clients
+    // polling them can tell them apart, and a job without a result yet conflicts with asking for it
+    private static HttpStatus status(Reason reason) {
+        return switch (reason) {
+            case UNKNOWN_JOB, UNKNOWN_RANKING, UNKNOWN_CORPUS, UNKNOWN_TREND -> HttpStatus.NOT_FOUND;
+            case JOB_NOT_FINISHED -> HttpStatus.CONFLICT;
+            default -> HttpStatus.BAD_REQUEST;
+        };
+    }
+
+    // a body that fails while it is read, like one that decompresses to too many bytes, is refused for that reason
+    @ExceptionHandler({HttpMessageNotReadableException.class})
+    public ResponseEntity<ErrorResponseDto> handleNotReadableException(HttpMessageNotReadableException exception) {
+        for (var cause = exception.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof WordProcessingException) {
+                return handleWordProcessingException((WordProcessingException) cause);
+            }
+        }
+        return handleRuntimeException(exception);
+    }
+
     @ExceptionHandler({RuntimeException.class})
     public ResponseEntity<ErrorResponseDto> handleRuntimeException(RuntimeException exception) {
         log.error(exception.getMessage());
+        metrics.recordError(SERVER_ERROR);
         return ResponseEntity
                 .internalServerError()
                 .body(new ErrorResponseDto().reason(exception.getMessage()).reference(UUID.randomUUID()));
     }
 
+    @ExceptionHandler({RejectedExecutionException.class, AsyncRequestTimeoutException.class})
+    public ResponseEntity<ErrorResponseDto> handleServerBusyException(RuntimeException exception) {
+        log.error("Analysis rejected or timed out: {}", exception.toString());
+        metrics.recordError(SERVER_BUSY);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponseDto().reason("The server is too busy to analyze the text, try again later.").reference(UUID.randomUUID()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponseDto> handleValidationException(MethodArgumentNotValidException exception) {
         log.error(exception.getMessage());
+        metrics.recordError(INVALID_REQUEST);
 
         var message = "";
 
@@ -45,4 +96,37 @@ public class ControllerExceptionAdvice {
                 .badRequest()
                 .body(new ErrorResponseDto().reason("The following fields were invalid: " + message).reference(UUID.randomUUID()));
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponseDto> handleConstraintViolationException(ConstraintViolationException exception) {
+        log.error(exception.getMessage());
+        metrics.recordError(INVALID_REQUEST);
+
+        var message = exception.getConstraintViolations().stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining(", "));
+
+        return ResponseEntity
+                .badRequest()
+                .body(new ErrorResponseDto().reason("The following parameters were invalid: " + message).reference(UUID.randomUUID()));
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponseDto> handleTypeMismatchException(MethodArgumentTypeMismatchException exception) {
+        log.error(exception.getMessage());
+        metrics.recordError(INVALID_REQUEST);
+        return ResponseEntity
+                .badRequest()
+                .body(new ErrorResponseDto().reason(String.format("Parameter [%s] has an invalid value: %s", exception.getName(), exception.getValue()))
+                        .reference(UUID.randomUUID()));
+    }
+
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<ErrorResponseDto> handleMissingParameterException(MissingServletRequestParameterException exception) {
+        log.error(exception.getMessage());
+        metrics.recordError(INVALID_REQUEST);
+        return ResponseEntity
+                .badRequest()
+                .body(new ErrorResponseDto().reason(exception.getMessage()).reference(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,180 @@
+package nl.kooi.countingwords.api;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import nl.kooi.countingwords.api.dto.CorpusDto;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import nl.kooi.countingwords.api.dto.FrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.domain.service.CorpusService;
+import nl.kooi.countingwords.mapper.Mapper;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/rest/word-count/corpus/{name}")
+@Validated
+public class CorpusController {
+
+    private final CorpusService service;
+    private final AnalysisTaskExecutor executor;
+
+    /**
+     * POST /rest/word-count/corpus/{name}/documents : Add a document to a corpus, which is created when it doesn't exist.
+     *
+     * @param name The name of the corpus
+     * @param body The FrequencyRequestDto object with the document as text
+     * @return The corpus information object (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Add a document to a corpus, which is created when it doesn't exist.", nickname = "addDocument", response = CorpusDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The corpus information", response = CorpusDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping("/documents")
+    public WebAsyncTask<CorpusDto> addDocument(@PathVariable String name, @RequestBody @Valid FrequencyRequestDto body) {
+        return executor.submit(body.getText().length(), () -> Mapper.map(service.addDocument(name, body.getText())));
+    }
+
+    /**
+     * POST /rest/word-count/corpus/{name}/documents : Add a plain text document to a corpus, which is created when it
+     * doesn't exist. The body is counted while it is read, so it is never held in memory as a whole.
+     *
+     * @param name    The name of the corpus
+     * @param request The request with the document as body
+     * @return The corpus information object (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Add a plain text document to a corpus, which is created when it doesn't exist.", nickname = "addTextDocument", response = CorpusDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The corpus information", response = CorpusDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(value = "/documents", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public WebAsyncTask<CorpusDto> addTextDocument(@PathVariable String name, HttpServletRequest request) {
+        var charset = request.getCharacterEncoding() != null ?
+                Charset.forName(request.getCharacterEncoding()) :
+                StandardCharsets.UTF_8;
+
+        return executor.submit(request.getContentLengthLong(), () -> {
+            try (var reader = new InputStreamReader(request.getInputStream(), charset)) {
+                return Mapper.map(service.addDocumentInStream(name, reader));
+            }
+        });
+    }
+
+    /**
+     * GET /rest/word-count/corpus/{name} : Get the number of documents and distinct words of a corpus.
+     *
+     * @param name The name of the corpus
+     * @return The corpus information object (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the corpus doesn't exist (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Get the number of documents and distinct words of a corpus.", nickname = "getCorpus", response = CorpusDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The corpus information", response = CorpusDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Corpus not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @GetMapping
+    public CorpusDto getCorpus(@PathVariable String name) {
+        return Mapper.map(service.getSummary(name));
+    }
+
+    /**
+     * GET /rest/word-count/corpus/{name}/highest-frequency : Get the highest frequency of one word in a corpus.
+     *
+     * @param name The name of the corpus
+     * @return The word frequency information object (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the corpus doesn't exist (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Get the highest frequency of one word in a corpus.", nickname = "calculateHighestFrequencyInCorpus", response = FrequencyDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The frequency information", response = FrequencyDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Corpus not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @GetMapping("/highest-frequency")
+    public FrequencyDto calculateHighestFrequency(@PathVariable String name) {
+        return new FrequencyDto().frequency(service.calculateHighestFrequency(name));
+    }
+
+    /**
+     * GET /rest/word-count/corpus/{name}/frequency-for-word : Get the frequency of a certain word in a corpus.
+     *
+     * @param name The name of the corpus
+     * @param word The word to count
+     * @return The word frequency information object (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the corpus doesn't exist (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Get the frequency of a certain word in a corpus.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Corpus not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @GetMapping("/frequency-for-word")
+    public WordFrequencyDto calculateFrequencyForWord(@PathVariable String name, @RequestParam String word) {
+        var frequencyForWord = service.calculateFrequencyForWord(name, word);
+
+        return new WordFrequencyDto().word(word.toLowerCase()).frequency(frequencyForWord);
+    }
+
+    /**
+     * GET /rest/word-count/corpus/{name}/top-frequency : Get the top n highest frequency words in a corpus.
+     *
+     * @param name The name of the corpus
+     * @param n    The number of words to return
+     * @return A list of the top n word frequency information objects sorted descending by frequency (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the corpus doesn't exist (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Get the top n highest frequency words in a corpus.", nickname = "calculateTopNFrequencyInCorpus", response = WordFrequencyDto.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Corpus not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @GetMapping("/top-frequency")
+    public List<WordFrequencyDto> calculateTopNFrequency(@PathVariable String name,
+                                                         @RequestParam @Positive(message = "parameter [n] can't be smaller than 1") int n) {
+        return Arrays.stream(service.calculateMostFrequentNWords(name, n))
+                .map(Mapper::map).collect(Collectors.toList());
+    }
+}
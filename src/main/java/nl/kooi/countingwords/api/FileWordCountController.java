@@ -0,0 +1,120 @@
+package nl.kooi.countingwords.api;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.domain.service.LocalFileResolver;
+import nl.kooi.countingwords.domain.service.WordFrequencyService;
+import nl.kooi.countingwords.mapper.Mapper;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.validation.constraints.Positive;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/rest/word-count/file")
+@Validated
+public class FileWordCountController {
+
+    private final WordFrequencyService service;
+    private final LocalFileResolver fileResolver;
+    private final AnalysisTaskExecutor executor;
+
+    /**
+     * GET /rest/word-count/file/highest-frequency : Calculate the highest frequency of one word in a file on the server.
+     *
+     * @param path The path of the file, relative to the analysis directory
+     * @return The word frequency information object (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the highest frequency of one word in a file on the server.", nickname = "calculateHighestFrequencyInFile", response = FrequencyDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The frequency information", response = FrequencyDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @GetMapping("/highest-frequency")
+    public WebAsyncTask<FrequencyDto> calculateHighestFrequency(@RequestParam String path) {
+        var file = fileResolver.resolve(path);
+
+        return executor.submit(size(file), () -> new FrequencyDto().frequency(service.calculateHighestFrequencyInFile(file)));
+    }
+
+    /**
+     * GET /rest/word-count/file/frequency-for-word : Calculate the frequency of a certain word in a file on the server.
+     *
+     * @param path The path of the file, relative to the analysis directory
+     * @param word The word to count
+     * @return The word frequency information object (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the frequency of a certain word in a file on the server.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @GetMapping("/frequency-for-word")
+    public WebAsyncTask<WordFrequencyDto> calculateFrequencyForWord(@RequestParam String path, @RequestParam String word) {
+        var file = fileResolver.resolve(path);
+
+        return executor.submit(size(file), () -> {
+            var frequencyForWord = service.calculateFrequencyForWordInFile(file, word);
+
+            return new WordFrequencyDto().word(word.toLowerCase()).frequency(frequencyForWord);
+        });
+    }
+
+    /**
+     * GET /rest/word-count/file/top-frequency : Calculate the top n highest frequency words in a file on the server.
+     *
+     * @param path The path of the file, relative to the analysis directory
+     * @param n    The number of words to return
+     * @return A list of the top n word frequency information objects sorted descending by frequency (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the top n highest frequency words in a file on the server.", nickname = "calculateTopNFrequencyInFile", response = WordFrequencyDto.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @GetMapping("/top-frequency")
+    public WebAsyncTask<List<WordFrequencyDto>> calculateTopNFrequency(@RequestParam String path,
+                                                                       @RequestParam @Positive(message = "parameter [n] can't be smaller than 1") int n) {
+        var file = fileResolver.resolve(path);
+
+        return executor.submit(size(file), () -> Arrays.stream(service.calculateMostFrequentNWordsInFile(file, n))
+                .map(Mapper::map).collect(Collectors.toList()));
+    }
+
+    // the size of a file that can't be read is unknown, its analysis fails on the pool then
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package nl.kooi.countingwords.api;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import nl.kooi.countingwords.api.dto.AnalysisDto;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.JobDto;
+import nl.kooi.countingwords.api.dto.JobRequestDto;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.job.AnalysisJob;
+import nl.kooi.countingwords.domain.job.JobPriority;
+import nl.kooi.countingwords.domain.service.AnalysisJobService;
+import nl.kooi.countingwords.mapper.Mapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/rest/word-count/jobs")
+@Validated
+public class JobController {
+
+    private final AnalysisJobService service;
+
+    /**
+     * POST /rest/word-count/jobs : Submit the analysis of a text or a local file as a background job.
+     *
+     * @param body The JobRequestDto object with either a text or the path of a file in the analysis directory
+     * @return The job information object, with the job's location (status code 202)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the job queue is full (status code 503)
+     */
+    @ApiOperation(value = "Submit the analysis of a text or a local file as a background job.", nickname = "submitJob", response = JobDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 202, message = "The job information", response = JobDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Job queue full", response = ErrorResponseDto.class)})
+    @PostMapping
+    public ResponseEntity<JobDto> submitJob(@RequestBody @Valid JobRequestDto body) {
+        var query = AnalysisQuery.of(body.isHighestFrequency(), body.getWords(), body.getTopN());
+
+        return accepted(body.getText() != null ?
+                service.submitText(body.getText(), query, body.getPriority()) :
+                service.submitFile(body.getFile(), query, body.getPriority()));
+    }
+
+    /**
+     * POST /rest/word-count/jobs : Submit the analysis of a plain text body as a background job.
+     *
+     * @param highestFrequency Whether to calculate the highest frequency
+     * @param words            The words to count
+     * @param n                The numbers of top words to return
+     * @param priority         The priority of the job
+     * @param request          The request with the text as body
+     * @return The job information object, with the job's location (status code 202)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the job queue is full (status code 503)
+     */
+    @ApiOperation(value = "Submit the analysis of a plain text body as a background job.", nickname = "submitTextJob", response = JobDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 202, message = "The job information", response = JobDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Job queue full", response = ErrorResponseDto.class)})
+    @PostMapping(consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<JobDto> submitTextJob(@RequestParam(defaultValue = "false") boolean highestFrequency,
+                                                @RequestParam(name = "word", required = false) List<String> words,
+                                                @RequestParam(name = "n", required = false) List<@Positive(message = "parameter [n] can't be smaller than 1") Integer> n,
+                                                @RequestParam(defaultValue = "NORMAL") JobPriority priority,
+                                                HttpServletRequest request) throws IOException {
+        var charset = request.getCharacterEncoding() != null ?
+                Charset.forName(request.getCharacterEncoding()) :
+                StandardCharsets.UTF_8;
+
+        try (var reader = new InputStreamReader(request.getInputStream(), charset)) {
+            return accepted(service.submitText(reader, AnalysisQuery.of(highestFrequency, words, n), priority));
+        }
+    }
+
+    /**
+     * GET /rest/word-count/jobs/{id} : Get the state and progress of a job.
+     *
+     * @param id The id of the job
+     * @return The job information object (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the job doesn't exist (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Get the state and progress of a job.", nickname = "getJob", response = JobDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The job information", response = JobDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Job not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @GetMapping("/{id}")
+    public JobDto getJob(@PathVariable UUID id) {
+        return Mapper.map(service.getJob(id));
+    }
+
+    /**
+     * GET /rest/word-count/jobs/{id}/result : Get the analysis of a job that succeeded.
+     *
+     * @param id The id of the job
+     * @return The highest frequency, the word frequencies and the top n lists that were asked for (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the job doesn't exist (status code 404)
+     * or Conflict, when the job has no result because it didn't succeed (yet) (status code 409)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Get the analysis of a job that succeeded.", nickname = "getJobResult", response = AnalysisDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The analysis of the text", response = AnalysisDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Job not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 409, message = "Job has no result", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @GetMapping("/{id}/result")
+    public AnalysisDto getJobResult(@PathVariable UUID id) {
+        return Mapper.map(service.getResult(id));
+    }
+
+    /**
+     * DELETE /rest/word-count/jobs/{id} : Cancel a job; a running job stops shortly after.
+     *
+     * @param id The id of the job
+     * @return The job information object (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the job doesn't exist (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Cancel a job; a running job stops shortly after.", nickname = "cancelJob", response = JobDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The job information", response = JobDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Job not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @DeleteMapping("/{id}")
+    public JobDto cancelJob(@PathVariable UUID id) {
+        return Mapper.map(service.cancel(id));
+    }
+
+    private static ResponseEntity<JobDto> accepted(AnalysisJob job) {
+        var location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(Mapper.map(job));
+    }
+}
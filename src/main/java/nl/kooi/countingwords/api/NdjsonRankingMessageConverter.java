@@ -0,0 +1,58 @@
+package nl.kooi.countingwords.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import nl.kooi.countingwords.api.dto.RankingPageDto;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes a page of a ranking as newline delimited JSON, one {@code {"word":...,"frequency":...}} object per
+ * line in rank order. The entries go straight from the ranking to the response stream, which is sent in
+ * chunks as it fills up, so no list of the page is ever built.
+ */
+public class NdjsonRankingMessageConverter extends AbstractHttpMessageConverter<RankingPageDto> {
+    // every entry ends its own line, instead of being separated from the previous one by a space
+    private final JsonFactory jsonFactory = new JsonFactory()
+            .setRootValueSeparator(null)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    public NdjsonRankingMessageConverter() {
+        super(MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RankingPageDto.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected RankingPageDto readInternal(Class<? extends RankingPageDto> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Rankings can't be read.", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(RankingPageDto page, HttpOutputMessage outputMessage) throws IOException {
+        var ranking = page.getRanking();
+
+        try (var generator = jsonFactory.createGenerator(outputMessage.getBody())) {
+            for (int rank = Math.max(page.getOffset(), 0); rank < page.end(); rank++) {
+                generator.writeStartObject();
+                generator.writeStringField("word", ranking.word(rank));
+                generator.writeNumberField("frequency", ranking.frequency(rank));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package nl.kooi.countingwords.api;
+
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads the requests and writes the answers of the highest-frequency, frequency-for-word and top-frequency
+ * operations as {@link WordCountProtobuf protocol buffers}, when a client asks for them with the
+ * {@code application/x-protobuf} Content-Type or Accept header. Errors are written in the same format, so a
+ * client that only accepts protocol buffers can still read them.
+ */
+public class ProtobufWordCountMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType(WordCountProtobuf.MEDIA_TYPE);
+
+    public ProtobufWordCountMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return WordCountProtobuf.canDecode(clazz) || FrequencyDto.class.isAssignableFrom(clazz)
+                || ErrorResponseDto.class.isAssignableFrom(clazz) || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type instanceof Class && WordCountProtobuf.canDecode((Class<?>) type) && canRead(mediaType);
+    }
+
+    // a list is only written when its declared elements are frequencies
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        var resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+
+        if (List.class.isAssignableFrom(resolved.toClass())) {
+            return FrequencyDto.class.isAssignableFrom(resolved.asCollection().getGeneric().toClass()) && canWrite(mediaType);
+        }
+        return (FrequencyDto.class.isAssignableFrom(resolved.toClass()) || ErrorResponseDto.class.isAssignableFrom(resolved.toClass()))
+                && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal((Class<?>) type, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return WordCountProtobuf.decodeRequest(StreamUtils.copyToByteArray(inputMessage.getBody()), clazz);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        WordCountProtobuf.encode(value, outputMessage.getBody());
+    }
+}
@@ -0,0 +1,185 @@
+package nl.kooi.countingwords.api;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.RankingPageDto;
+import nl.kooi.countingwords.api.dto.TopFrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.domain.service.WordFrequencyService;
+import nl.kooi.countingwords.domain.service.WordRankingCache;
+import nl.kooi.countingwords.domain.text.WordRanking;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/rest/word-count/rankings")
+@Validated
+public class RankingController {
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private final WordFrequencyService service;
+    private final WordRankingCache rankings;
+    private final AnalysisTaskExecutor executor;
+
+    /**
+     * POST /rest/word-count/rankings : Rank the top n highest frequency words in a text, and stream a page of the
+     * ranking as newline delimited JSON. The ranking is kept for a while, so further pages can be read from its
+     * location.
+     *
+     * @param offset The rank of the first word of the page, starting at 0
+     * @param limit  The number of words of the page, all ranked words when not given
+     * @param body   The TopFrequencyRequestDto object
+     * @return The page of word frequency information objects sorted descending by frequency, with the location of
+     * the ranking, its size and the link to the next page (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Rank the top n highest frequency words in a text, and stream a page of the ranking.", nickname = "rankTopNFrequency",
+            response = WordFrequencyDto.class, responseContainer = "List", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "A page of the word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping
+    public WebAsyncTask<ResponseEntity<RankingPageDto>> rankTopNFrequency(@RequestParam(defaultValue = "0") @PositiveOrZero(message = "parameter [offset] can't be smaller than 0") int offset,
+                                                                          @RequestParam(required = false) @Positive(message = "parameter [limit] can't be smaller than 1") Integer limit,
+                                                                          @RequestBody @Valid TopFrequencyRequestDto body) {
+        var location = rankingLocation();
+
+        return executor.submit(body.getText().length(),
+                () -> created(location, service.rankMostFrequentNWords(body.getText(), body.getN()), offset, limit));
+    }
+
+    /**
+     * POST /rest/word-count/rankings : Rank the top n highest frequency words in a plain text body, and stream a
+     * page of the ranking as newline delimited JSON. The body is counted while it is read, so it is never held in
+     * memory as a whole.
+     *
+     * @param n       The number of words to rank
+     * @param offset  The rank of the first word of the page, starting at 0
+     * @param limit   The number of words of the page, all ranked words when not given
+     * @param request The request with the text as body
+     * @return The page of word frequency information objects sorted descending by frequency, with the location of
+     * the ranking, its size and the link to the next page (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Rank the top n highest frequency words in a plain text body, and stream a page of the ranking.", nickname = "rankTopNFrequencyOfText",
+            response = WordFrequencyDto.class, responseContainer = "List", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "A page of the word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(consumes = MediaType.TEXT_PLAIN_VALUE)
+    public WebAsyncTask<ResponseEntity<RankingPageDto>> rankTopNFrequencyOfText(@RequestParam @Positive(message = "parameter [n] can't be smaller than 1") int n,
+                                                                                @RequestParam(defaultValue = "0") @PositiveOrZero(message = "parameter [offset] can't be smaller than 0") int offset,
+                                                                                @RequestParam(required = false) @Positive(message = "parameter [limit] can't be smaller than 1") Integer limit,
+                                                                                HttpServletRequest request) {
+        var location = rankingLocation();
+
+        return executor.submit(request.getContentLengthLong(), () -> {
+            var charset = request.getCharacterEncoding() != null ?
+                    Charset.forName(request.getCharacterEncoding()) :
+                    StandardCharsets.UTF_8;
+
+            try (var reader = new InputStreamReader(request.getInputStream(), charset)) {
+                return created(location, service.rankMostFrequentNWordsInStream(reader, n), offset, limit);
+            }
+        });
+    }
+
+    /**
+     * GET /rest/word-count/rankings/{id} : Stream a page of a ranking as newline delimited JSON.
+     *
+     * @param id     The id of the ranking
+     * @param offset The rank of the first word of the page, starting at 0
+     * @param limit  The number of words of the page, all remaining words when not given
+     * @return The page of word frequency information objects sorted descending by frequency, with the size of the
+     * ranking and the link to the next page (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the ranking doesn't exist or has expired (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Stream a page of a ranking.", nickname = "getRankingPage",
+            response = WordFrequencyDto.class, responseContainer = "List", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "A page of the word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Ranking not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @GetMapping("/{id}")
+    public ResponseEntity<RankingPageDto> getRankingPage(@PathVariable UUID id,
+                                                         @RequestParam(defaultValue = "0") @PositiveOrZero(message = "parameter [offset] can't be smaller than 0") int offset,
+                                                         @RequestParam(required = false) @Positive(message = "parameter [limit] can't be smaller than 1") Integer limit) {
+        var page = page(rankings.get(id), offset, limit);
+
+        return pageHeaders(rankingLocation(), id, page).body(page);
+    }
+
+    // the request attributes aren't available on the analysis threads, so the location is built up front
+    private static UriComponentsBuilder rankingLocation() {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().path("/rest/word-count/rankings/{id}");
+    }
+
+    private ResponseEntity<RankingPageDto> created(UriComponentsBuilder location, WordRanking ranking, int offset, Integer limit) {
+        var id = rankings.put(ranking);
+        var page = page(ranking, offset, limit);
+
+        return pageHeaders(location, id, page)
+                .location(location.cloneBuilder().buildAndExpand(id).toUri())
+                .body(page);
+    }
+
+    private static RankingPageDto page(WordRanking ranking, int offset, Integer limit) {
+        return RankingPageDto.of(ranking, offset, limit != null ? limit : Math.max(0, ranking.size() - offset));
+    }
+
+    private static ResponseEntity.BodyBuilder pageHeaders(UriComponentsBuilder location, UUID id, RankingPageDto page) {
+        var size = page.getRanking().size();
+        var headers = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(TOTAL_COUNT_HEADER, Integer.toString(size));
+
+        if (page.end() < size) {
+            var next = location.cloneBuilder()
+                    .queryParam("offset", page.end())
+                    .queryParam("limit", page.getLimit())
+                    .buildAndExpand(id)
+                    .toUri();
+
+            headers.header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"", next));
+        }
+
+        return headers;
+    }
+}
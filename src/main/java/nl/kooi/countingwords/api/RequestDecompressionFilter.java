@@ -0,0 +1,376 @@
+package nl.kooi.countingwords.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Accepts word count requests with a gzip or deflate compressed body. The body is decompressed while the
+ * controller reads it, so plain text bodies go from the compressed bytes straight into the tokenizer and the
+ * decompressed text is never held in memory as a whole.
+ * <p>
+ * Decompressed bodies have no known length, so they are analyzed on the pool for large texts. Bodies that
+ * decompress to more than {@code counting-words.compression.maximum-decompressed-size} bytes are refused, or to
+ * more than the {@link #MAXIMUM_SIZE_ATTRIBUTE} of the request when that is smaller. Other content codings are
+ * refused with 415 Unsupported Media Type and the supported codings in {@code Accept-Encoding}.
+ * <p>
+ * A body that is read with a {@link ReadListener} is received without blocking first, up to the same maximum
+ * of compressed bytes, and the listener is told it can be read once all of it arrived. The decompressed body
+ * is then read from memory and never blocks.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+    /**
+     * The name of the request attribute holding a lower maximum number of bytes the body may decompress to, such
+     * as the size the request was admitted for.
+     */
+    public static final String MAXIMUM_SIZE_ATTRIBUTE = RequestDecompressionFilter.class.getName() + ".maximumSize";
+
+    private static final String PATH = "/rest/word-count/";
+    private static final String SUPPORTED_ENCODINGS = "gzip, deflate";
+    private static final String UNSUPPORTED_ENCODING = "unsupported_encoding";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WordCountProperties properties;
+    private final ObjectMapper objectMapper;
+    private final WordCountMetrics metrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.getCompression().isEnabled()
+                || request.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                || !request.getRequestURI().startsWith(request.getContextPath() + PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        var encodings = new ArrayList<String>();
+
+        for (var encoding : request.getHeader(HttpHeaders.CONTENT_ENCODING).split(",")) {
+            var name = encoding.trim().toLowerCase(Locale.ROOT);
+
+            if (!name.isEmpty() && !name.equals("identity")) {
+                encodings.add(name);
+            }
+        }
+
+        var unsupported = encodings.stream().filter(encoding -> !isSupported(encoding)).findFirst();
+
+        if (unsupported.isPresent()) {
+            rejectEncoding(unsupported.get(), response);
+        } else if (encodings.isEmpty()) {
+            chain.doFilter(request, response);
+        } else {
+            chain.doFilter(new DecompressedRequest(request, encodings, properties.getCompression().getMaximumDecompressedSize().toBytes()), response);
+        }
+    }
+
+    private void rejectEncoding(String encoding, HttpServletResponse response) throws IOException {
+        var message = String.format("Content-Encoding %s is not supported, use one of: %s.", encoding, SUPPORTED_ENCODINGS);
+        log.error(message);
+        metrics.recordError(UNSUPPORTED_ENCODING);
+
+        response.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+        response.setHeader(HttpHeaders.ACCEPT_ENCODING, SUPPORTED_ENCODINGS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponseDto().reason(message).reference(UUID.randomUUID()));
+    }
+
+    private static boolean isSupported(String encoding) {
+        return encoding.equals("gzip") || encoding.equals("x-gzip") || encoding.equals("deflate");
+    }
+
+    private static WordProcessingException corrupt(IOException e) {
+        return new WordProcessingException(Reason.INVALID_CONTENT_ENCODING,
+                String.format("The request body can't be decompressed: %s", e.getMessage()));
+    }
+
+    /**
+     * The request as the controllers see it: the decompressed body, without the Content-Encoding and the
+     * Content-Length of the compressed body.
+     */
+    private static class DecompressedRequest extends HttpServletRequestWrapper {
+        private final List<String> encodings;
+        private final long maximumSize;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        DecompressedRequest(HttpServletRequest request, List<String> encodings, long maximumSize) {
+            super(request);
+            this.encodings = encodings;
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (reader != null) {
+                throw new IllegalStateException("getReader() has already been called for this request.");
+            }
+            if (inputStream == null) {
+                inputStream = new DecompressingInputStream(super.getInputStream(), this::decompress, maximumSize());
+            }
+            return inputStream;
+        }
+
+        // read once the body is, so filters further down the chain can still lower the maximum
+        private long maximumSize() {
+            var attribute = getAttribute(MAXIMUM_SIZE_ATTRIBUTE);
+
+            return attribute instanceof Long ? Math.min(maximumSize, (Long) attribute) : maximumSize;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                var charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.ISO_8859_1;
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            var names = Collections.list(super.getHeaderNames());
+            names.removeIf(DecompressedRequest::isHidden);
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public int getIntHeader(String name) {
+            return isHidden(name) ? -1 : super.getIntHeader(name);
+        }
+
+        // the codings are listed in the order they were applied, so they are undone from last to first
+        private InputStream decompress(InputStream body) throws IOException {
+            var decompressed = body;
+
+            for (int i = encodings.size() - 1; i >= 0; i--) {
+                decompressed = encodings.get(i).equals("deflate") ?
+                        inflate(decompressed) :
+                        new GZIPInputStream(decompressed, BUFFER_SIZE);
+            }
+
+            return decompressed;
+        }
+
+        // an inflater that is passed in isn't ended on close, unlike the default one with its small buffer
+        private static InputStream inflate(InputStream compressed) {
+            return new InflaterInputStream(compressed, new Inflater(), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inf.end();
+                    }
+                }
+            };
+        }
+
+        private static boolean isHidden(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    private interface Decompression {
+        InputStream decompress(InputStream compressed) throws IOException;
+    }
+
+    /**
+     * Reads the decompressed body, turning corrupt data and bodies that decompress to too many bytes into
+     * bad requests. The decompression starts with the first read, from the request body when it is read blocking
+     * and from the received body when it is read with a listener.
+     */
+    private static class DecompressingInputStream extends ServletInputStream {
+        private final ServletInputStream compressed;
+        private final Decompression decompression;
+        private final long maximumSize;
+        private InputStream decompressed;
+        private ReceivedBody received;
+        private ReadListener listener;
+        private boolean ready;
+        private long size;
+        private boolean finished;
+
+        DecompressingInputStream(ServletInputStream compressed, Decompression decompression, long maximumSize) {
+            this.compressed = compressed;
+            this.decompression = decompression;
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            var b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (listener != null && !ready) {
+                throw new IllegalStateException("The request body can't be read before its read listener is told it is ready.");
+            }
+
+            int read;
+
+            try {
+                if (decompressed == null) {
+                    decompressed = decompression.decompress(listener == null ? compressed : received.toInputStream());
+                }
+                read = decompressed.read(b, off, len);
+            } catch (ZipException | EOFException e) {
+                throw corrupt(e);
+            }
+
+            if (read == -1) {
+                finished = true;
+            } else if ((size += read) > maximumSize) {
+                throw new WordProcessingException(Reason.BODY_TOO_LARGE,
+                        String.format("The request body decompresses to more than %d bytes.", maximumSize));
+            }
+
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return listener == null ? compressed.isReady() : ready;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (listener != null) {
+                throw new IllegalStateException("The request body has a read listener already.");
+            }
+            if (decompressed != null) {
+                throw new IllegalStateException("The request body is read blocking already.");
+            }
+
+            listener = readListener;
+            received = new ReceivedBody();
+            compressed.setReadListener(new Receiver());
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (decompressed != null) {
+                decompressed.close();
+            } else {
+                compressed.close();
+            }
+        }
+
+        /**
+         * Receives the compressed body as it arrives, and hands the decompressed body to the listener once it's
+         * complete.
+         */
+        private class Receiver implements ReadListener {
+            private final byte[] buffer = new byte[BUFFER_SIZE];
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (compressed.isReady() && !compressed.isFinished()) {
+                    var read = compressed.read(buffer);
+                    if (read == -1) {
+                        return;
+                    }
+
+                    received.write(buffer, 0, read);
+                    if (received.size() > maximumSize) {
+                        throw new WordProcessingException(Reason.BODY_TOO_LARGE,
+                                String.format("The compressed request body is larger than %d bytes.", maximumSize));
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() throws IOException {
+                ready = true;
+                // the body stays ready until it's read completely, so the listener reads all of it at once
+                listener.onDataAvailable();
+                if (finished) {
+                    listener.onAllDataRead();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                listener.onError(t);
+            }
+        }
+    }
+
+    // reads the received bytes without copying them
+    private static class ReceivedBody extends ByteArrayOutputStream {
+        ReceivedBody() {
+            super(BUFFER_SIZE);
+        }
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
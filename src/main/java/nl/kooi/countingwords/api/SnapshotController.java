@@ -0,0 +1,209 @@
+package nl.kooi.countingwords.api;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import nl.kooi.countingwords.api.dto.AnalysisDto;
+import nl.kooi.countingwords.api.dto.AnalysisRequestDto;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyRequestDto;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.service.SnapshotService;
+import nl.kooi.countingwords.domain.service.WordFrequencyService;
+import nl.kooi.countingwords.domain.snapshot.WordCountSnapshot;
+import nl.kooi.countingwords.mapper.Mapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Word count snapshots, for analyzing a corpus that is sharded over several instances: every instance makes a
+ * snapshot of the counts of its shard, and the merged snapshots answer questions about the whole corpus exactly.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/rest/word-count/snapshots")
+@Validated
+public class SnapshotController {
+    static final String MAXIMUM_ERROR_HEADER = "X-Maximum-Error";
+
+    private final WordFrequencyService wordFrequencyService;
+    private final SnapshotService snapshotService;
+    private final AnalysisTaskExecutor executor;
+
+    /**
+     * POST /rest/word-count/snapshots : Count the words of a text into a binary snapshot.
+     *
+     * @param minimumCount The count from which words are in the snapshot, all words when not given
+     * @param body         The FrequencyRequestDto object
+     * @return The snapshot (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Count the words of a text into a binary snapshot.", nickname = "createSnapshot", produces = WordCountSnapshot.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The snapshot"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public WebAsyncTask<ResponseEntity<byte[]>> createSnapshot(@RequestParam(defaultValue = "1") @Positive(message = "parameter [minimumCount] can't be smaller than 1") int minimumCount,
+                                                               @RequestBody @Valid FrequencyRequestDto body) {
+        return executor.submit(body.getText().length(), () -> {
+            var counts = wordFrequencyService.countWords(body.getText());
+
+            return snapshot(out -> WordCountSnapshot.write(counts, minimumCount, out), 0);
+        });
+    }
+
+    /**
+     * POST /rest/word-count/snapshots : Count the words of a plain text body into a binary snapshot. The body is
+     * counted while it is read, so it is never held in memory as a whole.
+     *
+     * @param minimumCount The count from which words are in the snapshot, all words when not given
+     * @param request      The request with the text as body
+     * @return The snapshot (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Count the words of a plain text body into a binary snapshot.", nickname = "createSnapshotOfText", produces = WordCountSnapshot.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The snapshot"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(consumes = MediaType.TEXT_PLAIN_VALUE)
+    public WebAsyncTask<ResponseEntity<byte[]>> createSnapshotOfText(@RequestParam(defaultValue = "1") @Positive(message = "parameter [minimumCount] can't be smaller than 1") int minimumCount,
+                                                                     HttpServletRequest request) {
+        return executor.submit(request.getContentLengthLong(), () -> {
+            var charset = request.getCharacterEncoding() != null ?
+                    Charset.forName(request.getCharacterEncoding()) :
+                    StandardCharsets.UTF_8;
+
+            try (var reader = new InputStreamReader(request.getInputStream(), charset)) {
+                var counts = wordFrequencyService.countWordsInStream(reader);
+
+                return snapshot(out -> WordCountSnapshot.write(counts, minimumCount, out), 0);
+            }
+        });
+    }
+
+    /**
+     * POST /rest/word-count/snapshots/merge : Merge the concatenated snapshots of the body into one snapshot.
+     *
+     * @param minimumCount The count from which words are in the merged snapshot, all words when not given
+     * @param request      The request with the snapshots as body
+     * @return The merged snapshot, with its maximum error (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Merge snapshots into one snapshot.", nickname = "mergeSnapshots", produces = WordCountSnapshot.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The merged snapshot"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(path = "/merge", consumes = WordCountSnapshot.MEDIA_TYPE)
+    public WebAsyncTask<ResponseEntity<byte[]>> mergeSnapshots(@RequestParam(defaultValue = "1") @Positive(message = "parameter [minimumCount] can't be smaller than 1") int minimumCount,
+                                                               HttpServletRequest request) {
+        return executor.submit(request.getContentLengthLong(), () -> {
+            var merged = snapshotService.merge(request.getInputStream());
+
+            return snapshot(out -> merged.writeTo(out, minimumCount), merged.getMaximumError() + minimumCount - 1);
+        });
+    }
+
+    /**
+     * POST /rest/word-count/snapshots/batch : Answer several questions about the merged counts of the
+     * concatenated snapshots of the body.
+     *
+     * @param highestFrequency Whether to calculate the highest frequency
+     * @param words            The words to count
+     * @param n                The numbers of top words to return
+     * @param request          The request with the snapshots as body
+     * @return The highest frequency, the word frequencies and the top n lists that were asked for, with the maximum
+     * error of the frequencies (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Answer several questions about the merged counts of snapshots.", nickname = "analyzeSnapshots", response = AnalysisDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The analysis of the snapshots", response = AnalysisDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(path = "/batch", consumes = WordCountSnapshot.MEDIA_TYPE)
+    public WebAsyncTask<ResponseEntity<AnalysisDto>> analyzeSnapshots(@RequestParam(defaultValue = "false") boolean highestFrequency,
+                                                                      @RequestParam(name = "word", required = false) List<String> words,
+                                                                      @RequestParam(name = "n", required = false) List<@Positive(message = "parameter [n] can't be smaller than 1") Integer> topN,
+                                                                      HttpServletRequest request) {
+        var query = AnalysisQuery.of(highestFrequency, words, topN);
+
+        return executor.submit(request.getContentLengthLong(), () -> {
+            var merged = snapshotService.merge(request.getInputStream());
+
+            return ResponseEntity.ok()
+                    .header(MAXIMUM_ERROR_HEADER, String.valueOf(merged.getMaximumError()))
+                    .body(Mapper.map(snapshotService.analyze(merged, query)));
+        });
+    }
+
+    /**
+     * POST /rest/word-count/snapshots/distributed-batch : Answer several questions about one text, which is split
+     * into parts that are counted on the sibling instances at the same time.
+     *
+     * @param body The AnalysisRequestDto object
+     * @return The highest frequency, the word frequencies and the top n lists that were asked for (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Answer several questions about one text, counted on several instances.", nickname = "analyzeDistributed", response = AnalysisDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The analysis of the text", response = AnalysisDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(path = "/distributed-batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public WebAsyncTask<AnalysisDto> analyzeDistributed(@RequestBody @Valid AnalysisRequestDto body) {
+        var query = AnalysisQuery.of(body.isHighestFrequency(), body.getWords(), body.getTopN());
+
+        return executor.submit(body.getText().length(), () -> Mapper.map(snapshotService.analyzeDistributed(body.getText(), query)));
+    }
+
+    private static ResponseEntity<byte[]> snapshot(SnapshotWriter writer, long maximumError) throws IOException {
+        var out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(WordCountSnapshot.MEDIA_TYPE))
+                .header(MAXIMUM_ERROR_HEADER, String.valueOf(maximumError))
+                .body(out.toByteArray());
+    }
+
+    @FunctionalInterface
+    private interface SnapshotWriter {
+        void writeTo(ByteArrayOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,195 @@
+package nl.kooi.countingwords.api;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import nl.kooi.countingwords.api.dto.FrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.domain.service.TrendService;
+import nl.kooi.countingwords.mapper.Mapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Trending words of a continuous stream of texts: the texts of a trend are counted when they arrive, and the
+ * questions are answered for a sliding window like the last five minutes or the last hour.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/rest/word-count/trends/{name}")
+@Validated
+public class TrendController {
+
+    private final TrendService service;
+    private final AnalysisTaskExecutor executor;
+
+    /**
+     * POST /rest/word-count/trends/{name}/texts : Add a text to a trend, which is created when it doesn't exist.
+     *
+     * @param name The name of the trend
+     * @param body The FrequencyRequestDto object
+     * @return No content (status code 204)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Add a text to a trend, which is created when it doesn't exist.", nickname = "addTrendText")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "The text was added"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping("/texts")
+    public WebAsyncTask<ResponseEntity<Void>> addText(@PathVariable String name, @RequestBody @Valid FrequencyRequestDto body) {
+        return executor.submit(body.getText().length(), () -> {
+            service.addText(name, body.getText());
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    /**
+     * POST /rest/word-count/trends/{name}/texts : Add a plain text to a trend, which is created when it doesn't
+     * exist. The body is counted while it is read, so it is never held in memory as a whole.
+     *
+     * @param name    The name of the trend
+     * @param request The request with the text as body
+     * @return No content (status code 204)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Add a plain text to a trend, which is created when it doesn't exist.", nickname = "addTrendPlainText")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "The text was added"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(value = "/texts", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public WebAsyncTask<ResponseEntity<Void>> addPlainText(@PathVariable String name, HttpServletRequest request) {
+        var charset = request.getCharacterEncoding() != null ?
+                Charset.forName(request.getCharacterEncoding()) :
+                StandardCharsets.UTF_8;
+
+        return executor.submit(request.getContentLengthLong(), () -> {
+            try (var reader = new InputStreamReader(request.getInputStream(), charset)) {
+                service.addTextInStream(name, reader);
+            }
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    /**
+     * DELETE /rest/word-count/trends/{name} : Remove a trend with all its counts.
+     *
+     * @param name The name of the trend
+     * @return No content (status code 204)
+     * or Bad request (status code 400)
+     * or Not found, when the trend doesn't exist (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Remove a trend with all its counts.", nickname = "deleteTrend")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "The trend was removed"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Trend not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @DeleteMapping
+    public ResponseEntity<Void> deleteTrend(@PathVariable String name) {
+        service.delete(name);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * GET /rest/word-count/trends/{name}/highest-frequency : Get the highest frequency of one word in a window of a trend.
+     *
+     * @param name   The name of the trend
+     * @param window The window, like 5m or 1h, the first configured window when not given
+     * @return The word frequency information object (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the trend doesn't exist (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Get the highest frequency of one word in a window of a trend.", nickname = "calculateHighestFrequencyInTrend", response = FrequencyDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The frequency information", response = FrequencyDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Trend not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @GetMapping("/highest-frequency")
+    public FrequencyDto calculateHighestFrequency(@PathVariable String name, @RequestParam(required = false) String window) {
+        return new FrequencyDto().frequency(service.calculateHighestFrequency(name, window));
+    }
+
+    /**
+     * GET /rest/word-count/trends/{name}/frequency-for-word : Get the frequency of a certain word in a window of a trend.
+     *
+     * @param name   The name of the trend
+     * @param word   The word to count
+     * @param window The window, like 5m or 1h, the first configured window when not given
+     * @return The word frequency information object (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the trend doesn't exist (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Get the frequency of a certain word in a window of a trend.", nickname = "calculateFrequencyForWordInTrend", response = WordFrequencyDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Trend not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @GetMapping("/frequency-for-word")
+    public WordFrequencyDto calculateFrequencyForWord(@PathVariable String name, @RequestParam String word,
+                                                      @RequestParam(required = false) String window) {
+        var frequencyForWord = service.calculateFrequencyForWord(name, word, window);
+
+        return new WordFrequencyDto().word(word.toLowerCase()).frequency(frequencyForWord);
+    }
+
+    /**
+     * GET /rest/word-count/trends/{name}/top-frequency : Get the top n highest frequency words in a window of a trend.
+     *
+     * @param name   The name of the trend
+     * @param n      The number of words to return
+     * @param window The window, like 5m or 1h, the first configured window when not given
+     * @return A list of the top n word frequency information objects sorted descending by frequency (status code 200)
+     * or Bad request (status code 400)
+     * or Not found, when the trend doesn't exist (status code 404)
+     * or Server side problem (status code 500)
+     */
+    @ApiOperation(value = "Get the top n highest frequency words in a window of a trend.", nickname = "calculateTopNFrequencyInTrend", response = WordFrequencyDto.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 404, message = "Trend not found", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+    @GetMapping("/top-frequency")
+    public List<WordFrequencyDto> calculateTopNFrequency(@PathVariable String name,
+                                                         @RequestParam @Positive(message = "parameter [n] can't be smaller than 1") int n,
+                                                         @RequestParam(required = false) String window) {
+        return Arrays.stream(service.calculateMostFrequentNWords(name, n, window))
+                .map(Mapper::map).collect(Collectors.toList());
+    }
+}
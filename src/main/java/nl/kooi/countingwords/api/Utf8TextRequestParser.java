@@ -0,0 +1,63 @@
+package nl.kooi.countingwords.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonToken;
+import nl.kooi.countingwords.api.dto.Utf8TextRequestDto;
+import nl.kooi.countingwords.domain.text.JsonStrings;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a JSON word count request from its UTF-8 bytes, decoding every field but the text. The parser skips
+ * over the text without decoding it, its bytes are unescaped in place and handed out as a view of the body.
+ */
+final class Utf8TextRequestParser {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private Utf8TextRequestParser() {
+    }
+
+    static Utf8TextRequestDto parse(byte[] body) {
+        var textFrom = -1;
+        var textTo = -1;
+        String word = null;
+        Integer n = null;
+
+        try (var parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw invalid("The request body must be a JSON object.");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var field = parser.getCurrentName();
+                var token = parser.nextToken();
+
+                if ("text".equals(field) && token == JsonToken.VALUE_STRING) {
+                    textFrom = (int) parser.getTokenLocation().getByteOffset() + 1;
+                    textTo = JsonStrings.endOfString(body, textFrom);
+                } else if ("word".equals(field) && token == JsonToken.VALUE_STRING) {
+                    word = parser.getText();
+                } else if ("n".equals(field) && token == JsonToken.VALUE_NUMBER_INT) {
+                    n = parser.getIntValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            // the parser reads the body itself, so the text is only unescaped once the whole body was parsed
+            var text = textFrom < 0 ? null :
+                    ByteBuffer.wrap(body, textFrom, JsonStrings.unescapeInPlace(body, textFrom, textTo) - textFrom).slice();
+
+            return Utf8TextRequestDto.of(text, word, n);
+        } catch (IOException | IllegalArgumentException e) {
+            throw invalid("The request body is not valid JSON: " + e.getMessage());
+        }
+    }
+
+    private static WordProcessingException invalid(String message) {
+        return new WordProcessingException(Reason.INVALID_REQUEST_BODY, message);
+    }
+}
@@ -0,0 +1,141 @@
+package nl.kooi.countingwords.api;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import nl.kooi.countingwords.api.dto.Utf8TextRequestDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.domain.service.WordFrequencyService;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import nl.kooi.countingwords.mapper.Mapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The JSON word count endpoints, answered without decoding the text into a String: the text is counted on the
+ * UTF-8 bytes of the request body, and only the words of the response become Strings.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/rest/word-count/utf8", consumes = MediaType.APPLICATION_JSON_VALUE)
+public class Utf8WordCountController {
+
+    private final WordFrequencyService service;
+    private final AnalysisTaskExecutor executor;
+
+    /**
+     * POST /rest/word-count/utf8/highest-frequency : Calculate the highest frequency of one word in a text, on the
+     * bytes of the request.
+     *
+     * @param body The UTF-8 encoded FrequencyRequestDto object
+     * @return The word frequency information object (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the highest frequency of one word in a text, on the bytes of the request.", nickname = "calculateHighestFrequencyInUtf8", response = FrequencyDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The frequency information", response = FrequencyDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping("/highest-frequency")
+    public WebAsyncTask<FrequencyDto> calculateHighestFrequency(@RequestBody(required = false) byte[] body) {
+        return executor.submit(length(body), () -> {
+            var request = parse(body);
+
+            return new FrequencyDto().frequency(service.calculateHighestFrequencyInUtf8(request.getText()));
+        });
+    }
+
+    /**
+     * POST /rest/word-count/utf8/frequency-for-word : Calculate the frequency of a certain word in a text, on the
+     * bytes of the request.
+     *
+     * @param body The UTF-8 encoded WordFrequencyRequestDto object
+     * @return The word frequency information object (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the frequency of a certain word in a text, on the bytes of the request.", nickname = "calculateFrequencyForWordInUtf8", response = WordFrequencyDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping("/frequency-for-word")
+    public WebAsyncTask<WordFrequencyDto> calculateFrequencyForWord(@RequestBody(required = false) byte[] body) {
+        return executor.submit(length(body), () -> {
+            var request = parse(body);
+
+            if (request.getWord() == null) {
+                throw invalidFields("field [word] can't be null");
+            }
+
+            var frequencyForWord = service.calculateFrequencyForWordInUtf8(request.getText(), request.getWord());
+
+            return new WordFrequencyDto().word(request.getWord().toLowerCase()).frequency(frequencyForWord);
+        });
+    }
+
+    /**
+     * POST /rest/word-count/utf8/top-frequency : Calculate the top n highest frequency words in a text, on the
+     * bytes of the request.
+     *
+     * @param body The UTF-8 encoded TopFrequencyRequestDto object
+     * @return A list of the top n word frequency information objects sorted descending by frequency (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the top n highest frequency words in a text, on the bytes of the request.", nickname = "calculateTopNFrequencyInUtf8", response = WordFrequencyDto.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping("/top-frequency")
+    public WebAsyncTask<List<WordFrequencyDto>> calculateTopNFrequency(@RequestBody(required = false) byte[] body) {
+        return executor.submit(length(body), () -> {
+            var request = parse(body);
+
+            if (request.getN() == null || request.getN() < 1) {
+                throw invalidFields("field [n] can't be smaller than 1");
+            }
+
+            return Arrays.stream(service.calculateMostFrequentNWordsInUtf8(request.getText(), request.getN()))
+                    .map(Mapper::map).collect(Collectors.toList());
+        });
+    }
+
+    private static long length(byte[] body) {
+        return body != null ? body.length : 0;
+    }
+
+    private static Utf8TextRequestDto parse(byte[] body) {
+        var request = Utf8TextRequestParser.parse(body != null ? body : new byte[0]);
+
+        if (request.getText() == null) {
+            throw invalidFields("field [text] can't be null");
+        }
+
+        return request;
+    }
+
+    private static WordProcessingException invalidFields(String message) {
+        return new WordProcessingException(Reason.INVALID_REQUEST_BODY, "The following fields were invalid: " + message);
+    }
+}
@@ -6,13 +6,24 @@ import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import nl.kooi.countingwords.api.dto.*;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.EstimatedWordFrequency;
 import nl.kooi.countingwords.domain.service.WordFrequencyService;
 import nl.kooi.countingwords.mapper.Mapper;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -25,23 +36,30 @@ import java.util.stream.Collectors;
 public class WordCountController {
 
     private final WordFrequencyService service;
+    private final AnalysisTaskExecutor executor;
 
     /**
      * POST /rest/word-count/highest-frequency : Calculate the highest frequency of one word in a text.
      *
-     * @param body The FrequencyRequestDto object
+     * @param approximate Whether to estimate the frequency in fixed memory, with its error in the response
+     * @param body        The FrequencyRequestDto object
      * @return The word frequency information object (status code 200)
      * or Bad request (status code 400)
      * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
      */
     @ApiOperation(value = "Calculate the highest frequency of one word in a text.", nickname = "calculateHighestFrequency", response = FrequencyDto.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "The frequency information", response = FrequencyDto.class),
             @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
-            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
     @PostMapping(value = "/highest-frequency")
-    public FrequencyDto calculateHighestFrequency(@RequestBody @Valid FrequencyRequestDto body) {
-        return new FrequencyDto().frequency(service.calculateHighestFrequency(body.getText()));
+    public WebAsyncTask<FrequencyDto> calculateHighestFrequency(@RequestParam(defaultValue = "false") boolean approximate,
+                                                                @RequestBody @Valid FrequencyRequestDto body) {
+        return executor.submit(body.getText().length(), () -> approximate ?
+                map(service.estimateHighestFrequency(body.getText())) :
+                new FrequencyDto().frequency(service.calculateHighestFrequency(body.getText())));
     }
 
     /**
@@ -51,40 +69,273 @@ public class WordCountController {
      * @return The word frequency information object (status code 200)
      * or Bad request (status code 400)
      * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
      */
     @ApiOperation(value = "Calculate the frequency of a certain word in a text.")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class),
             @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
-            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
     @PostMapping("/frequency-for-word")
     @ResponseStatus(value = HttpStatus.OK)
-    public WordFrequencyDto calculateFrequencyForWord(@RequestBody @Valid WordFrequencyRequestDto body) {
-        var frequencyForWord = service.calculateFrequencyForWord(body.getText(), body.getWord());
+    public WebAsyncTask<WordFrequencyDto> calculateFrequencyForWord(@RequestBody @Valid WordFrequencyRequestDto body) {
+        return executor.submit(body.getText().length(), () -> {
+            var frequencyForWord = service.calculateFrequencyForWord(body.getText(), body.getWord());
+
+            return new WordFrequencyDto().word(body.getWord().toLowerCase()).frequency(frequencyForWord);
+        });
+    }
 
-        return new WordFrequencyDto().word(body.getWord().toLowerCase()).frequency(frequencyForWord);
+    /**
+     * POST /rest/word-count/frequency-for-words : Calculate the frequencies of several words in a text, which is
+     * scanned only once.
+     *
+     * @param body The WordFrequenciesRequestDto object
+     * @return A list of word frequency information objects, one per distinct word in the order given (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the frequencies of several words in a text, which is scanned only once.", nickname = "calculateFrequencyForWords", response = WordFrequencyDto.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping("/frequency-for-words")
+    @ResponseStatus(value = HttpStatus.OK)
+    public WebAsyncTask<List<WordFrequencyDto>> calculateFrequencyForWords(@RequestBody @Valid WordFrequenciesRequestDto body) {
+        return executor.submit(body.getText().length(), () -> Arrays.stream(service.calculateFrequencyForWords(body.getText(), body.getWords()))
+                .map(Mapper::map).collect(Collectors.toList()));
     }
 
     /**
      * POST /rest/word-count/top-frequency : Calculate the top n highest frequency words in a text.
      *
-     * @param body The TopFrequencyRequestDto object
+     * @param approximate Whether to estimate the frequencies in fixed memory, with their errors in the response
+     * @param body        The TopFrequencyRequestDto object
      * @return A list of the top n word frequency information objects sorted descending by frequency (status code 200)
      * or Bad request (status code 400)
      * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
      */
     @ApiOperation(value = "Calculate the top n highest frequency words in a text.", nickname = "calculateTopNFrequency", response = WordFrequencyDto.class, responseContainer = "List")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
             @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
-            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class)})
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
     @PostMapping("/top-frequency")
     @ResponseStatus(value = HttpStatus.OK)
-    public List<WordFrequencyDto> calculateTopNFrequency(@RequestBody @Valid TopFrequencyRequestDto body) {
-        var wordFrequencies = service.calculateMostFrequentNWords(body.getText(), body.getN());
+    public WebAsyncTask<List<WordFrequencyDto>> calculateTopNFrequency(@RequestParam(defaultValue = "false") boolean approximate,
+                                                                       @RequestBody @Valid TopFrequencyRequestDto body) {
+        return executor.submit(body.getText().length(), () -> {
+            if (approximate) {
+                return map(service.estimateMostFrequentNWords(body.getText(), body.getN()));
+            }
+
+            var wordFrequencies = service.calculateMostFrequentNWords(body.getText(), body.getN());
+
+            return Arrays.stream(wordFrequencies)
+                    .map(Mapper::map).collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * POST /rest/word-count/batch : Answer several questions about one text, which is counted only once.
+     *
+     * @param body The AnalysisRequestDto object
+     * @return The highest frequency, the word frequencies and the top n lists that were asked for (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Answer several questions about one text, which is counted only once.", nickname = "analyze", response = AnalysisDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The analysis of the text", response = AnalysisDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping("/batch")
+    @ResponseStatus(value = HttpStatus.OK)
+    public WebAsyncTask<AnalysisDto> analyze(@RequestBody @Valid AnalysisRequestDto body) {
+        var query = AnalysisQuery.of(body.isHighestFrequency(), body.getWords(), body.getTopN());
+
+        return executor.submit(body.getText().length(), () -> Mapper.map(service.analyze(body.getText(), query)));
+    }
+
+    /**
+     * POST /rest/word-count/highest-frequency : Calculate the highest frequency of one word in a plain text body.
+     * The body is counted while it is read, so it is never held in memory as a whole.
+     *
+     * @param approximate Whether to estimate the frequency in fixed memory, with its error in the response
+     * @param request     The request with the text as body
+     * @return The word frequency information object (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the highest frequency of one word in a plain text body.", nickname = "calculateHighestFrequencyOfText", response = FrequencyDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The frequency information", response = FrequencyDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(value = "/highest-frequency", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public WebAsyncTask<FrequencyDto> calculateHighestFrequencyOfText(@RequestParam(defaultValue = "false") boolean approximate,
+                                                                      HttpServletRequest request) {
+        return executor.submit(request.getContentLengthLong(), () -> {
+            try (var reader = getReader(request)) {
+                return approximate ?
+                        map(service.estimateHighestFrequencyInStream(reader)) :
+                        new FrequencyDto().frequency(service.calculateHighestFrequencyInStream(reader));
+            }
+        });
+    }
+
+    /**
+     * POST /rest/word-count/frequency-for-word : Calculate the frequency of a certain word in a plain text body.
+     * The body is counted while it is read, so it is never held in memory as a whole.
+     *
+     * @param word    The word to count
+     * @param request The request with the text as body
+     * @return The word frequency information object (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the frequency of a certain word in a plain text body.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(value = "/frequency-for-word", consumes = MediaType.TEXT_PLAIN_VALUE)
+    @ResponseStatus(value = HttpStatus.OK)
+    public WebAsyncTask<WordFrequencyDto> calculateFrequencyForWordInText(@RequestParam String word, HttpServletRequest request) {
+        return executor.submit(request.getContentLengthLong(), () -> {
+            try (var reader = getReader(request)) {
+                var frequencyForWord = service.calculateFrequencyForWordInStream(reader, word);
 
+                return new WordFrequencyDto().word(word.toLowerCase()).frequency(frequencyForWord);
+            }
+        });
+    }
+
+    /**
+     * POST /rest/word-count/frequency-for-words : Calculate the frequencies of several words in a plain text body.
+     * The body is scanned once while it is read, so it is never held in memory as a whole.
+     *
+     * @param words   The words to count
+     * @param request The request with the text as body
+     * @return A list of word frequency information objects, one per distinct word in the order given (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the frequencies of several words in a plain text body.", nickname = "calculateFrequencyForWordsInText", response = WordFrequencyDto.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(value = "/frequency-for-words", consumes = MediaType.TEXT_PLAIN_VALUE)
+    @ResponseStatus(value = HttpStatus.OK)
+    public WebAsyncTask<List<WordFrequencyDto>> calculateFrequencyForWordsInText(@RequestParam(name = "word") List<String> words, HttpServletRequest request) {
+        return executor.submit(request.getContentLengthLong(), () -> {
+            try (var reader = getReader(request)) {
+                return Arrays.stream(service.calculateFrequencyForWordsInStream(reader, words))
+                        .map(Mapper::map).collect(Collectors.toList());
+            }
+        });
+    }
+
+    /**
+     * POST /rest/word-count/top-frequency : Calculate the top n highest frequency words in a plain text body.
+     * The body is counted while it is read, so it is never held in memory as a whole.
+     *
+     * @param n           The number of words to return
+     * @param approximate Whether to estimate the frequencies in fixed memory, with their errors in the response
+     * @param request     The request with the text as body
+     * @return A list of the top n word frequency information objects sorted descending by frequency (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Calculate the top n highest frequency words in a plain text body.", nickname = "calculateTopNFrequencyOfText", response = WordFrequencyDto.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(value = "/top-frequency", consumes = MediaType.TEXT_PLAIN_VALUE)
+    @ResponseStatus(value = HttpStatus.OK)
+    public WebAsyncTask<List<WordFrequencyDto>> calculateTopNFrequencyOfText(@RequestParam @Positive(message = "parameter [n] can't be smaller than 1") int n,
+                                                                             @RequestParam(defaultValue = "false") boolean approximate,
+                                                                             HttpServletRequest request) {
+        return executor.submit(request.getContentLengthLong(), () -> {
+            try (var reader = getReader(request)) {
+                if (approximate) {
+                    return map(service.estimateMostFrequentNWordsInStream(reader, n));
+                }
+
+                var wordFrequencies = service.calculateMostFrequentNWordsInStream(reader, n);
+
+                return Arrays.stream(wordFrequencies)
+                        .map(Mapper::map).collect(Collectors.toList());
+            }
+        });
+    }
+
+    /**
+     * POST /rest/word-count/batch : Answer several questions about a plain text body, which is counted only once
+     * while it is read.
+     *
+     * @param highestFrequency Whether to calculate the highest frequency
+     * @param words            The words to count
+     * @param n                The numbers of top words to return
+     * @param request          The request with the text as body
+     * @return The highest frequency, the word frequencies and the top n lists that were asked for (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when the server is too busy (status code 503)
+     */
+    @ApiOperation(value = "Answer several questions about a plain text body, which is counted only once.", nickname = "analyzeText", response = AnalysisDto.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The analysis of the text", response = AnalysisDto.class),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(value = "/batch", consumes = MediaType.TEXT_PLAIN_VALUE)
+    @ResponseStatus(value = HttpStatus.OK)
+    public WebAsyncTask<AnalysisDto> analyzeText(@RequestParam(defaultValue = "false") boolean highestFrequency,
+                                                 @RequestParam(name = "word", required = false) List<String> words,
+                                                 @RequestParam(name = "n", required = false) List<@Positive(message = "parameter [n] can't be smaller than 1") Integer> topN,
+                                                 HttpServletRequest request) {
+        var query = AnalysisQuery.of(highestFrequency, words, topN);
+
+        return executor.submit(request.getContentLengthLong(), () -> {
+            try (var reader = getReader(request)) {
+                return Mapper.map(service.analyzeInStream(reader, query));
+            }
+        });
+    }
+
+    private static FrequencyDto map(EstimatedWordFrequency highest) {
+        return new FrequencyDto().frequency(highest.getFrequency()).error(highest.getError());
+    }
+
+    private static List<WordFrequencyDto> map(EstimatedWordFrequency[] wordFrequencies) {
         return Arrays.stream(wordFrequencies)
                 .map(Mapper::map).collect(Collectors.toList());
     }
 
+    private static Reader getReader(HttpServletRequest request) throws IOException {
+        var charset = request.getCharacterEncoding() != null ?
+                Charset.forName(request.getCharacterEncoding()) :
+                StandardCharsets.UTF_8;
+
+        return new InputStreamReader(request.getInputStream(), charset);
+    }
 }
@@ -0,0 +1,297 @@
+package nl.kooi.countingwords.api;
+
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import nl.kooi.countingwords.api.dto.FrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.TopFrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyRequestDto;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Hand-written codec of the word count messages in the protocol buffers wire format, so clients can generate
+ * their side from this schema while the service needs neither a protobuf runtime nor generated classes:
+ * <pre>
+ * message TextRequest { string text = 1; string word = 2; int32 n = 3; }
+ * message Frequency { int32 frequency = 1; int32 error = 2; string word = 3; }
+ * message Frequencies { repeated Frequency frequencies = 1; }
+ * message Error { string reason = 1; string reference = 2; }
+ * </pre>
+ * A {@code TextRequest} is the body of all three operations, with the word of {@code frequency-for-word} and the
+ * n of {@code top-frequency}. {@code highest-frequency} and {@code frequency-for-word} answer a
+ * {@code Frequency}, {@code top-frequency} answers {@code Frequencies}, and failures answer an {@code Error}.
+ * Fields this service doesn't know are skipped, as protocol buffers require.
+ * <p>
+ * Streams of chunks, {@code application/x-protobuf-delimited}, are sequences of messages that are each preceded
+ * by their length as a varint, like {@code writeDelimitedTo} of protocol buffers writes them. A stream of
+ * {@code Frequencies} ends early with one that holds an {@code Error} as field 2, instead of frequencies.
+ */
+public final class WordCountProtobuf {
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+    public static final String DELIMITED_MEDIA_TYPE = "application/x-protobuf-delimited";
+
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+
+    private WordCountProtobuf() {
+    }
+
+    public static boolean canDecode(Class<?> type) {
+        return type == FrequencyRequestDto.class || type == WordFrequencyRequestDto.class || type == TopFrequencyRequestDto.class;
+    }
+
+    /**
+     * @param type one of the request types {@link #canDecode(Class) that can be decoded}
+     * @throws WordProcessingException when the message is malformed
+     */
+    public static FrequencyRequestDto decodeRequest(byte[] message, Class<?> type) {
+        var request = type == WordFrequencyRequestDto.class ? new WordFrequencyRequestDto() :
+                type == TopFrequencyRequestDto.class ? new TopFrequencyRequestDto() :
+                        new FrequencyRequestDto();
+        var reader = new Reader(message);
+
+        while (reader.hasMore()) {
+            var key = reader.readVarint();
+            var field = (int) (key >>> 3);
+            var wireType = (int) (key & 0x7);
+
+            if (field == 1 && wireType == LENGTH_DELIMITED) {
+                request.setText(reader.readString());
+            } else if (field == 2 && wireType == LENGTH_DELIMITED && request instanceof WordFrequencyRequestDto) {
+                ((WordFrequencyRequestDto) request).setWord(reader.readString());
+            } else if (field == 3 && wireType == VARINT && request instanceof TopFrequencyRequestDto) {
+                ((TopFrequencyRequestDto) request).setN((int) reader.readVarint());
+            } else {
+                reader.skip(wireType);
+            }
+        }
+
+        return request;
+    }
+
+    /**
+     * Reads the next message of a stream of length-delimited requests.
+     *
+     * @param maximumSize the number of bytes a message may have
+     * @return the request, or {@code null} when the stream ended
+     * @throws WordProcessingException when the message is malformed or larger than the maximum size
+     */
+    public static FrequencyRequestDto readDelimitedRequest(InputStream in, Class<?> type, int maximumSize) throws IOException {
+        var length = 0L;
+
+        for (int shift = 0, b; ; shift += 7) {
+            if ((b = in.read()) == -1) {
+                if (shift == 0) {
+                    return null;
+                }
+                throw malformed("it ends within a number");
+            }
+            if (shift == 63 && b > 1) {
+                throw malformed("it holds a number that is too large");
+            }
+
+            length |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+
+        if (length < 0 || length > maximumSize) {
+            throw new WordProcessingException(Reason.INVALID_REQUEST_BODY, String.format("A message of %d bytes is larger than the maximum of %d bytes.", length, maximumSize));
+        }
+
+        var message = in.readNBytes((int) length);
+        if (message.length < length) {
+            throw malformed("it ends within a message");
+        }
+        return decodeRequest(message, type);
+    }
+
+    /**
+     * Encodes a request the way a client sends it.
+     */
+    public static byte[] encodeRequest(FrequencyRequestDto request) {
+        var message = new ByteArrayOutputStream();
+
+        writeString(1, request.getText(), message);
+        if (request instanceof WordFrequencyRequestDto) {
+            writeString(2, ((WordFrequencyRequestDto) request).getWord(), message);
+        }
+        if (request instanceof TopFrequencyRequestDto) {
+            writeVarint(3L << 3 | VARINT, message);
+            writeVarint(((TopFrequencyRequestDto) request).getN(), message);
+        }
+
+        return message.toByteArray();
+    }
+
+    /**
+     * @param value a {@link FrequencyDto}, a list of them or an {@link ErrorResponseDto}
+     */
+    public static void encode(Object value, OutputStream out) throws IOException {
+        message(value).writeTo(out);
+    }
+
+    /**
+     * Writes a message of a stream of length-delimited messages.
+     *
+     * @param value a {@link FrequencyDto} or a list of them
+     */
+    public static void encodeDelimited(Object value, OutputStream out) throws IOException {
+        writeDelimited(message(value), out);
+    }
+
+    /**
+     * Writes the {@code Frequencies} message that ends a stream of them with an error.
+     */
+    public static void encodeDelimitedError(ErrorResponseDto error, OutputStream out) throws IOException {
+        var frequencies = new ByteArrayOutputStream();
+
+        writeVarint(2L << 3 | LENGTH_DELIMITED, frequencies);
+        writeDelimited(message(error), frequencies);
+        writeDelimited(frequencies, out);
+    }
+
+    private static ByteArrayOutputStream message(Object value) {
+        var message = new ByteArrayOutputStream();
+
+        if (value instanceof FrequencyDto) {
+            writeFrequency((FrequencyDto) value, message);
+        } else if (value instanceof ErrorResponseDto) {
+            var error = (ErrorResponseDto) value;
+            writeString(1, error.getReason(), message);
+            writeString(2, error.getReference() == null ? null : error.getReference().toString(), message);
+        } else {
+            var entry = new ByteArrayOutputStream();
+
+            for (var frequency : (List<?>) value) {
+                entry.reset();
+                writeFrequency((FrequencyDto) frequency, entry);
+
+                writeVarint(1L << 3 | LENGTH_DELIMITED, message);
+                writeVarint(entry.size(), message);
+                message.writeBytes(entry.toByteArray());
+            }
+        }
+
+        return message;
+    }
+
+    private static void writeDelimited(ByteArrayOutputStream message, OutputStream out) throws IOException {
+        var length = new ByteArrayOutputStream(5);
+
+        writeVarint(message.size(), length);
+        length.writeTo(out);
+        message.writeTo(out);
+    }
+
+    private static void writeFrequency(FrequencyDto frequency, ByteArrayOutputStream out) {
+        writeVarint(1L << 3 | VARINT, out);
+        writeVarint(frequency.getFrequency(), out);
+
+        if (frequency.getError() != null) {
+            writeVarint(2L << 3 | VARINT, out);
+            writeVarint(frequency.getError(), out);
+        }
+        if (frequency instanceof WordFrequencyDto) {
+            writeString(3, ((WordFrequencyDto) frequency).getWord(), out);
+        }
+    }
+
+    private static void writeString(int field, String value, ByteArrayOutputStream out) {
+        if (value != null) {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            writeVarint((long) field << 3 | LENGTH_DELIMITED, out);
+            writeVarint(bytes.length, out);
+            out.write(bytes, 0, bytes.length);
+        }
+    }
+
+    // negative int32 values are sign-extended to ten bytes, like protocol buffers do
+    private static void writeVarint(long value, ByteArrayOutputStream out) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static WordProcessingException malformed(String problem) {
+        return new WordProcessingException(Reason.INVALID_REQUEST_BODY, String.format("The protobuf request body can't be decoded, %s.", problem));
+    }
+
+    private static class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean hasMore() {
+            return position < bytes.length;
+        }
+
+        long readVarint() {
+            var value = 0L;
+
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                if (position >= bytes.length) {
+                    throw malformed("it ends within a number");
+                }
+
+                var b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw malformed("it holds a number that is too large");
+        }
+
+        String readString() {
+            var length = readLength();
+            var value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        void skip(int wireType) {
+            switch (wireType) {
+                case VARINT -> readVarint();
+                case FIXED64 -> advance(Long.BYTES);
+                case LENGTH_DELIMITED -> advance(readLength());
+                case FIXED32 -> advance(Integer.BYTES);
+                default -> throw malformed("it holds a field of unknown wire type " + wireType);
+            }
+        }
+
+        private int readLength() {
+            var length = readVarint();
+
+            if (length < 0 || length > bytes.length - position) {
+                throw malformed("it ends within a field");
+            }
+            return (int) length;
+        }
+
+        private void advance(int length) {
+            if (length > bytes.length - position) {
+                throw malformed("it ends within a field");
+            }
+            position += length;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package nl.kooi.countingwords.api;
+
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.service.WordCountStream;
+import nl.kooi.countingwords.domain.service.WordFrequencyService;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.mapper.Mapper;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Positive;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Texts sent as a stream of chunks, {@link WordCountProtobuf length-delimited} {@code TextRequest} messages of
+ * which only the text is used, for callers that produce a text piece by piece.
+ * <p>
+ * A stream is read, counted and answered one chunk at a time on the stream pool of the
+ * {@link AnalysisTaskExecutor}, so the request thread is handed back to the container while it lasts, and a
+ * stream may last longer than an analysis may take. That pool bounds the number of streams that are open at the
+ * same time. A chunk is only
+ * read after the answer to the previous one is written, so a client that sends faster than the text is counted,
+ * or than it reads the answers, is held back by the flow control of its connection instead of being buffered.
+ * Chunks and the text of a stream as a whole are limited in size, so an open stream holds a bounded amount of
+ * memory however long it lasts.
+ */
+@Slf4j
+@RestController
+@RequestMapping(path = "/rest/word-count/streams")
+@Validated
+public class WordCountStreamController {
+
+    private final WordFrequencyService service;
+    private final AnalysisTaskExecutor executor;
+    private final WordCountMetrics metrics;
+    private final int maximumChunkSize;
+
+    public WordCountStreamController(WordFrequencyService service, AnalysisTaskExecutor executor, WordCountProperties properties, WordCountMetrics metrics) {
+        this.service = service;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.maximumChunkSize = (int) Math.min(Integer.MAX_VALUE, properties.getStreams().getMaximumChunkSize().toBytes());
+    }
+
+    /**
+     * POST /rest/word-count/streams/top-frequency : Calculate the top n highest frequency words in a text sent as
+     * a stream of chunks.
+     *
+     * @param n       The number of words to return
+     * @param request The request with the stream of chunks as body
+     * @return A list of the top n word frequency information objects sorted descending by frequency (status code 200)
+     * or Bad request (status code 400)
+     * or Server side problem (status code 500)
+     * or Service unavailable, when too many streams are open (status code 503)
+     */
+    @ApiOperation(value = "Calculate the top n highest frequency words in a text sent as a stream of chunks.", nickname = "calculateTopNFrequencyOfStream", response = WordFrequencyDto.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The word frequency information", response = WordFrequencyDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(value = "/top-frequency", consumes = WordCountProtobuf.DELIMITED_MEDIA_TYPE)
+    public WebAsyncTask<List<WordFrequencyDto>> calculateTopNFrequency(@RequestParam @Positive(message = "parameter [n] can't be smaller than 1") int n,
+                                                                       HttpServletRequest request) {
+        return executor.submitStream(() -> {
+            try (var in = request.getInputStream()) {
+                var stream = service.openStream();
+
+                FrequencyRequestDto chunk;
+                while ((chunk = readChunk(in)) != null) {
+                    add(stream, chunk);
+                }
+
+                stream.finish();
+                return map(stream.mostFrequentNWords(n));
+            }
+        });
+    }
+
+    /**
+     * POST /rest/word-count/streams/running-top-frequency : Calculate the top n highest frequency words of the
+     * text received so far after every chunk of a text sent as a stream of chunks. The answer is a stream of
+     * length-delimited {@code Frequencies} messages: one per chunk, and one for the whole text once it ended.
+     * Errors in the stream of chunks end the answer with a {@code Frequencies} message holding the error, as
+     * the status code is sent with the first answer already.
+     *
+     * @param n        The number of words to return per chunk
+     * @param request  The request with the stream of chunks as body
+     * @param response The response to write the stream of top n lists to (status code 200),
+     *                 or Bad request (status code 400)
+     *                 or Server side problem (status code 500)
+     *                 or Service unavailable, when too many streams are open (status code 503)
+     */
+    @ApiOperation(value = "Calculate the top n highest frequency words of the text received so far after every chunk of a text sent as a stream of chunks.", nickname = "calculateRunningTopNFrequencyOfStream")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "A stream of the word frequency information after every chunk"),
+            @ApiResponse(code = 400, message = "Bad request", response = ErrorResponseDto.class),
+            @ApiResponse(code = 500, message = "Server side problem", response = ErrorResponseDto.class),
+            @ApiResponse(code = 503, message = "Server too busy", response = ErrorResponseDto.class)})
+    @PostMapping(value = "/running-top-frequency", consumes = WordCountProtobuf.DELIMITED_MEDIA_TYPE, produces = WordCountProtobuf.DELIMITED_MEDIA_TYPE)
+    public WebAsyncTask<Void> calculateRunningTopNFrequency(@RequestParam @Positive(message = "parameter [n] can't be smaller than 1") int n,
+                                                            HttpServletRequest request, HttpServletResponse response) {
+        return executor.submitStream(() -> {
+            writeRunningTopNFrequency(n, request, response);
+            // the answers are written to the response already
+            return null;
+        });
+    }
+
+    private void writeRunningTopNFrequency(int n, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (var in = request.getInputStream()) {
+            var stream = service.openStream();
+
+            response.setContentType(WordCountProtobuf.DELIMITED_MEDIA_TYPE);
+            var out = response.getOutputStream();
+
+            try {
+                FrequencyRequestDto chunk;
+                while ((chunk = readChunk(in)) != null) {
+                    add(stream, chunk);
+
+                    WordCountProtobuf.encodeDelimited(map(stream.mostFrequentNWords(n)), out);
+                    out.flush();
+                }
+            } catch (WordProcessingException e) {
+                log.error(e.getMessage());
+                metrics.recordError(e.getReason().name());
+                WordCountProtobuf.encodeDelimitedError(new ErrorResponseDto().reason(e.getMessage()).reference(UUID.randomUUID()), out);
+                return;
+            }
+
+            stream.finish();
+            WordCountProtobuf.encodeDelimited(map(stream.mostFrequentNWords(n)), out);
+        }
+    }
+
+    private FrequencyRequestDto readChunk(InputStream in) throws IOException {
+        return WordCountProtobuf.readDelimitedRequest(in, FrequencyRequestDto.class, maximumChunkSize);
+    }
+
+    private static void add(WordCountStream stream, FrequencyRequestDto chunk) {
+        if (chunk.getText() != null) {
+            stream.add(chunk.getText());
+        }
+    }
+
+    private static List<WordFrequencyDto> map(WordFrequency[] wordFrequencies) {
+        return Arrays.stream(wordFrequencies).map(Mapper::map).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,29 @@
+package nl.kooi.countingwords.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AnalysisDto {
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer highestFrequency;
+    private List<WordFrequencyDto> wordFrequencies;
+    private List<TopFrequencyDto> topFrequencies;
+
+    public AnalysisDto highestFrequency(Integer highestFrequency) {
+        this.highestFrequency = highestFrequency;
+        return this;
+    }
+
+    public AnalysisDto wordFrequencies(List<WordFrequencyDto> wordFrequencies) {
+        this.wordFrequencies = wordFrequencies;
+        return this;
+    }
+
+    public AnalysisDto topFrequencies(List<TopFrequencyDto> topFrequencies) {
+        this.topFrequencies = topFrequencies;
+        return this;
+    }
+}
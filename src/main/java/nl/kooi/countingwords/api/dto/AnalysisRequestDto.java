@@ -0,0 +1,19 @@
+package nl.kooi.countingwords.api.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class AnalysisRequestDto extends FrequencyRequestDto {
+    private boolean highestFrequency;
+
+    private List<@NotNull(message = "field [words] can't contain null") String> words;
+
+    private List<@NotNull(message = "field [topN] can't contain null")
+    @Positive(message = "field [topN] can't contain values smaller than 1") Integer> topN;
+}
@@ -0,0 +1,25 @@
+package nl.kooi.countingwords.api.dto;
+
+import lombok.Data;
+
+@Data
+public class CorpusDto {
+    private String name;
+    private long documents;
+    private int words;
+
+    public CorpusDto name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public CorpusDto documents(long documents) {
+        this.documents = documents;
+        return this;
+    }
+
+    public CorpusDto words(int words) {
+        this.words = words;
+        return this;
+    }
+}
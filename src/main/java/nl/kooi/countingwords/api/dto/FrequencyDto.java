@@ -1,13 +1,21 @@
 package nl.kooi.countingwords.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
 public class FrequencyDto {
     protected int frequency;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    protected Integer error;
 
     public FrequencyDto frequency(int frequency) {
         this.frequency = frequency;
         return this;
     }
+
+    public FrequencyDto error(Integer error) {
+        this.error = error;
+        return this;
+    }
 }
@@ -0,0 +1,69 @@
+package nl.kooi.countingwords.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import nl.kooi.countingwords.domain.job.JobPriority;
+import nl.kooi.countingwords.domain.job.JobState;
+
+import java.util.UUID;
+
+@Data
+public class JobDto {
+    private UUID id;
+    private JobState state;
+    private JobPriority priority;
+    private long processedBytes;
+    private long totalBytes;
+    private String submittedAt;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String startedAt;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String finishedAt;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    public JobDto id(UUID id) {
+        this.id = id;
+        return this;
+    }
+
+    public JobDto state(JobState state) {
+        this.state = state;
+        return this;
+    }
+
+    public JobDto priority(JobPriority priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    public JobDto processedBytes(long processedBytes) {
+        this.processedBytes = processedBytes;
+        return this;
+    }
+
+    public JobDto totalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+        return this;
+    }
+
+    public JobDto submittedAt(String submittedAt) {
+        this.submittedAt = submittedAt;
+        return this;
+    }
+
+    public JobDto startedAt(String startedAt) {
+        this.startedAt = startedAt;
+        return this;
+    }
+
+    public JobDto finishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+        return this;
+    }
+
+    public JobDto error(String error) {
+        this.error = error;
+        return this;
+    }
+}
@@ -0,0 +1,33 @@
+package nl.kooi.countingwords.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import nl.kooi.countingwords.domain.job.JobPriority;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.util.List;
+
+@Data
+public class JobRequestDto {
+    private String text;
+
+    private String file;
+
+    private boolean highestFrequency;
+
+    private List<@NotNull(message = "field [words] can't contain null") String> words;
+
+    private List<@NotNull(message = "field [topN] can't contain null")
+    @Positive(message = "field [topN] can't contain values smaller than 1") Integer> topN;
+
+    @NotNull(message = "field [priority] can't be null")
+    private JobPriority priority = JobPriority.NORMAL;
+
+    @JsonIgnore
+    @AssertTrue(message = "exactly one of the fields [text] and [file] must be set")
+    public boolean isTextOrFile() {
+        return (text == null) != (file == null);
+    }
+}
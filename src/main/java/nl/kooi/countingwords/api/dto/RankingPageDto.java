@@ -0,0 +1,24 @@
+package nl.kooi.countingwords.api.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import nl.kooi.countingwords.domain.text.WordRanking;
+
+/**
+ * A page of a ranking, which is written entry by entry straight from the ranking instead of being mapped to a
+ * list of word frequency objects first.
+ */
+@Getter
+@RequiredArgsConstructor(staticName = "of")
+public class RankingPageDto {
+    private final WordRanking ranking;
+    private final int offset;
+    private final int limit;
+
+    /**
+     * @return the rank after the last one of the page
+     */
+    public int end() {
+        return (int) Math.min(ranking.size(), Math.max(offset, 0) + (long) Math.max(limit, 0));
+    }
+}
@@ -0,0 +1,21 @@
+package nl.kooi.countingwords.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TopFrequencyDto {
+    private int n;
+    private List<WordFrequencyDto> wordFrequencies;
+
+    public TopFrequencyDto n(int n) {
+        this.n = n;
+        return this;
+    }
+
+    public TopFrequencyDto wordFrequencies(List<WordFrequencyDto> wordFrequencies) {
+        this.wordFrequencies = wordFrequencies;
+        return this;
+    }
+}
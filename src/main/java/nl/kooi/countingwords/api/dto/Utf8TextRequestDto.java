@@ -0,0 +1,18 @@
+package nl.kooi.countingwords.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A word count request of which the text stayed UTF-8 bytes: a view of the unescaped text within the request
+ * body, from index 0 up to its limit.
+ */
+@Getter
+@AllArgsConstructor(staticName = "of")
+public class Utf8TextRequestDto {
+    private final ByteBuffer text;
+    private final String word;
+    private final Integer n;
+}
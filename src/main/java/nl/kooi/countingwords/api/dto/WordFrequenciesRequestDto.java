@@ -0,0 +1,15 @@
+package nl.kooi.countingwords.api.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class WordFrequenciesRequestDto extends FrequencyRequestDto {
+    @NotEmpty(message = "field [words] can't be empty")
+    private List<@NotNull(message = "field [words] can't contain null") String> words;
+}
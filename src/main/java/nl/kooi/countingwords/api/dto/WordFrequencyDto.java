@@ -17,4 +17,9 @@ public class WordFrequencyDto extends FrequencyDto {
         super.frequency = frequency;
         return this;
     }
+
+    public WordFrequencyDto error(Integer error) {
+        super.error = error;
+        return this;
+    }
 }
@@ -0,0 +1,26 @@
+package nl.kooi.countingwords.domain;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The questions to answer about one text: its highest frequency, the frequencies of some words and the top n
+ * words for some values of n.
+ */
+@Getter
+public class AnalysisQuery {
+    private final boolean highestFrequency;
+    private final List<String> words;
+    private final List<Integer> topN;
+
+    private AnalysisQuery(boolean highestFrequency, List<String> words, List<Integer> topN) {
+        this.highestFrequency = highestFrequency;
+        this.words = words == null ? List.of() : List.copyOf(words);
+        this.topN = topN == null ? List.of() : List.copyOf(topN);
+    }
+
+    public static AnalysisQuery of(boolean highestFrequency, List<String> words, List<Integer> topN) {
+        return new AnalysisQuery(highestFrequency, words, topN);
+    }
+}
@@ -0,0 +1,17 @@
+package nl.kooi.countingwords.domain;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor(staticName = "of")
+@Getter
+public class AnalysisResult {
+    // null when the highest frequency wasn't asked for
+    private final Integer highestFrequency;
+    private final List<WordFrequency> wordFrequencies;
+    // the top n words by n, in the order the values of n were asked for
+    private final Map<Integer, WordFrequency[]> topFrequencies;
+}
@@ -0,0 +1,16 @@
+package nl.kooi.countingwords.domain;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The estimated frequency of a word, which is an upper bound of its actual frequency: the actual frequency lies
+ * between {@code frequency - error} and {@code frequency}.
+ */
+@RequiredArgsConstructor(staticName = "of")
+@Getter
+public class EstimatedWordFrequency implements WordFrequency {
+    private final String word;
+    private final int frequency;
+    private final int error;
+}
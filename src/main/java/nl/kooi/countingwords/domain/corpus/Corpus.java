@@ -0,0 +1,109 @@
+package nl.kooi.countingwords.domain.corpus;
+
+import lombok.Getter;
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A named, growing set of documents whose word counts are kept in an index. Documents are written to the
+ * segment log before they are added to the index, so a document that was added survives a restart.
+ */
+public class Corpus implements Closeable {
+    @Getter
+    private final String name;
+    private final CorpusIndex index;
+    // null when the corpus only lives in memory
+    private final SegmentLog log;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Corpus(String name, CorpusIndex index, SegmentLog log) {
+        this.name = name;
+        this.index = index;
+        this.log = log;
+    }
+
+    public static Corpus inMemory(String name) {
+        return new Corpus(name, new CorpusIndex(), null);
+    }
+
+    /**
+     * Opens the corpus stored in the directory, which is created when it doesn't exist yet.
+     */
+    public static Corpus persistent(String name, Path directory, long segmentSize, int maximumSegments) throws IOException {
+        var index = new CorpusIndex();
+        return new Corpus(name, index, SegmentLog.open(directory, segmentSize, maximumSegments, index));
+    }
+
+    public CorpusSummary addDocument(WordCountTable document) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (log != null) {
+                log.append(document);
+            }
+
+            index.addDocument(document);
+
+            if (log != null && log.needsCompaction()) {
+                log.compact(index);
+            }
+
+            return CorpusSummary.of(name, index.getDocuments(), index.getWords());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int highestFrequency() {
+        lock.readLock().lock();
+        try {
+            return index.highestFrequency();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int frequencyForWord(String word) {
+        lock.readLock().lock();
+        try {
+            return index.frequencyForWord(word);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public WordFrequency[] mostFrequentNWords(int n) {
+        lock.readLock().lock();
+        try {
+            return index.mostFrequentNWords(n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public CorpusSummary summary() {
+        lock.readLock().lock();
+        try {
+            return CorpusSummary.of(name, index.getDocuments(), index.getWords());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            lock.writeLock().lock();
+            try {
+                log.close();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
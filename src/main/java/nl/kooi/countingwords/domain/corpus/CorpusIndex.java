@@ -0,0 +1,79 @@
+package nl.kooi.countingwords.domain.corpus;
+
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.WordFrequencyInfo;
+import nl.kooi.countingwords.domain.text.TopWordsSelector;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+
+import java.util.TreeSet;
+
+/**
+ * Word counts of all documents of a corpus. Next to the counts, the words are kept ranked by frequency, so the
+ * frequency of a word is a hash lookup and the top n words are read off the ranking in O(log V + n) time.
+ * <p>
+ * The index isn't thread-safe, {@link Corpus} guards it.
+ */
+public class CorpusIndex {
+    private WordCountTable counts = new WordCountTable();
+    private final TreeSet<WordFrequency> ranking = new TreeSet<>(TopWordsSelector.FREQUENCY_DESC_WORD_ASC);
+    private long documents;
+
+    public void addDocument(WordCountTable document) {
+        document.forEach(this::add);
+        documents++;
+    }
+
+    void add(String word, int count, int delimitedCount) {
+        // the empty word only shows up in the counts of a single text that starts with a separator
+        if (word.isEmpty()) {
+            return;
+        }
+
+        var previousCount = counts.count(word);
+        if (previousCount > 0) {
+            ranking.remove(WordFrequencyInfo.of(word, previousCount));
+        }
+
+        counts.add(word, count, delimitedCount);
+        ranking.add(WordFrequencyInfo.of(word, previousCount + count));
+    }
+
+    void addDocuments(long documents) {
+        this.documents += documents;
+    }
+
+    void clear() {
+        counts = new WordCountTable();
+        ranking.clear();
+        documents = 0;
+    }
+
+    public int highestFrequency() {
+        return ranking.isEmpty() ? 0 : ranking.first().getFrequency();
+    }
+
+    /**
+     * @param word a lower case word
+     */
+    public int frequencyForWord(String word) {
+        return counts.delimitedCount(word);
+    }
+
+    public WordFrequency[] mostFrequentNWords(int n) {
+        return ranking.stream()
+                .limit(Math.max(n, 0))
+                .toArray(WordFrequency[]::new);
+    }
+
+    public long getDocuments() {
+        return documents;
+    }
+
+    public int getWords() {
+        return counts.size();
+    }
+
+    WordCountTable getCounts() {
+        return counts;
+    }
+}
@@ -0,0 +1,12 @@
+package nl.kooi.countingwords.domain.corpus;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor(staticName = "of")
+@Getter
+public class CorpusSummary {
+    private final String name;
+    private final long documents;
+    private final int words;
+}
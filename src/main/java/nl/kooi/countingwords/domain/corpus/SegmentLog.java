@@ -0,0 +1,329 @@
+package nl.kooi.countingwords.domain.corpus;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the documents added to a corpus, stored as numbered segment files in the corpus directory.
+ * <p>
+ * Every document is appended as one record with its word counts. A segment that grew beyond the segment size is
+ * closed and a new one is started. Once there are more segments than allowed, the log is compacted: the whole
+ * index is written to a new segment that starts with a reset record, after which the older segments are deleted.
+ * Replaying the segments in order rebuilds the index; a reset record discards everything before it, so a crash
+ * between writing the compacted segment and deleting the older ones is harmless.
+ * <p>
+ * A record is its payload length, the CRC-32 of its payload and the payload. A record that was only partly
+ * written when the process died is cut off the last segment on replay. A failed append is cut off right away,
+ * or, when that fails as well, the next append starts a new segment, so no record is written after a torn one.
+ * Replay skips and logs records that don't match their checksum, and the rest of an earlier segment that ends
+ * within a record, rather than refusing to open the log; the documents of those records are lost.
+ */
+@Slf4j
+public class SegmentLog implements Closeable {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{10})\\.log");
+    private static final int HEADER_SIZE = 8;
+    private static final byte DELTA = 0;
+    private static final byte RESET = 1;
+    // entries per record when the whole index is written during compaction
+    private static final int COMPACTION_RECORD_ENTRIES = 64 * 1024;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final int maximumSegments;
+    private final List<Long> segments;
+
+    private FileChannel activeSegment;
+    // set when a failed append couldn't be cut off, the active segment then ends within a record
+    private boolean torn;
+
+    private SegmentLog(Path directory, long segmentSize, int maximumSegments, List<Long> segments) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maximumSegments = Math.max(maximumSegments, 1);
+        this.segments = segments;
+    }
+
+    /**
+     * Opens the log in the directory, creating it when it doesn't exist, and replays its records into the index.
+     */
+    public static SegmentLog open(Path directory, long segmentSize, int maximumSegments, CorpusIndex index) throws IOException {
+        Files.createDirectories(directory);
+
+        List<Long> segments;
+        try (var files = Files.list(directory)) {
+            segments = files.map(file -> SEGMENT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+
+        var log = new SegmentLog(directory, segmentSize, maximumSegments, segments);
+
+        for (int i = 0; i < segments.size(); i++) {
+            log.replay(segments.get(i), i == segments.size() - 1, index);
+        }
+
+        if (segments.isEmpty()) {
+            log.startSegment(1);
+        } else {
+            log.activeSegment = FileChannel.open(log.segmentFile(segments.get(segments.size() - 1)),
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        return log;
+    }
+
+    public void append(WordCountTable document) throws IOException {
+        if (torn || activeSegment.size() >= segmentSize) {
+            activeSegment.close();
+            startSegment(segments.get(segments.size() - 1) + 1);
+            torn = false;
+        }
+
+        var position = activeSegment.size();
+        try {
+            write(activeSegment, record(DELTA, 1, document));
+            activeSegment.force(false);
+        } catch (IOException e) {
+            cutOff(position);
+            throw e;
+        }
+    }
+
+    private void cutOff(long position) {
+        try {
+            activeSegment.truncate(position);
+        } catch (IOException e) {
+            log.error("Cutting off the failed append at offset {} of segment {} failed, the next append starts a new segment.",
+                    position, segments.get(segments.size() - 1), e);
+            torn = true;
+        }
+    }
+
+    public boolean needsCompaction() {
+        return segments.size() > maximumSegments;
+    }
+
+    /**
+     * Replaces all segments by a single one holding the index.
+     */
+    public void compact(CorpusIndex index) throws IOException {
+        var sequence = segments.get(segments.size() - 1) + 1;
+        var temporaryFile = directory.resolve(segmentFile(sequence).getFileName() + ".tmp");
+
+        try (var channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            var record = new Record[]{new Record(RESET, index.getDocuments())};
+
+            index.getCounts().forEach((word, count, delimitedCount) -> {
+                if (record[0].entries == COMPACTION_RECORD_ENTRIES) {
+                    writeUnchecked(channel, record[0].toBuffer());
+                    record[0] = new Record(DELTA, 0);
+                }
+                record[0].add(word, count, delimitedCount);
+            });
+
+            write(channel, record[0].toBuffer());
+            channel.force(true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        activeSegment.close();
+        Files.move(temporaryFile, segmentFile(sequence), StandardCopyOption.ATOMIC_MOVE);
+
+        for (var segment : segments) {
+            Files.delete(segmentFile(segment));
+        }
+        segments.clear();
+        segments.add(sequence);
+
+        activeSegment = FileChannel.open(segmentFile(sequence), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void close() throws IOException {
+        activeSegment.close();
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    private void startSegment(long sequence) throws IOException {
+        activeSegment = FileChannel.open(segmentFile(sequence), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.add(sequence);
+    }
+
+    private Path segmentFile(long sequence) {
+        return directory.resolve(String.format("segment-%010d.log", sequence));
+    }
+
+    private static ByteBuffer record(byte type, long documents, WordCountTable counts) {
+        var record = new Record(type, documents);
+        counts.forEach(record::add);
+        return record.toBuffer();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void writeUnchecked(FileChannel channel, ByteBuffer buffer) {
+        try {
+            write(channel, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void replay(long sequence, boolean lastSegment, CorpusIndex index) throws IOException {
+        var file = segmentFile(sequence);
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var position = 0L;
+            var size = channel.size();
+
+            while (position < size) {
+                var length = recordLength(channel, position, size);
+
+                if (length < 0) {
+                    if (!lastSegment) {
+                        log.error("Skipping the rest of segment {} from offset {}, it ends within a record.", file, position);
+                        break;
+                    }
+                    log.warn("Cutting off the incomplete record at offset {} of segment {}.", position, file);
+                    channel.truncate(position);
+                    break;
+                }
+
+                var payload = readRecord(channel, position, length);
+                if (payload != null) {
+                    apply(payload, index);
+                } else {
+                    log.error("Skipping the record at offset {} of segment {}, it doesn't match its checksum.", position, file);
+                }
+                position += HEADER_SIZE + length;
+            }
+        }
+    }
+
+    // returns -1 when the record at the position doesn't fit in the segment
+    private static int recordLength(FileChannel channel, long position, long size) throws IOException {
+        if (size - position < HEADER_SIZE) {
+            return -1;
+        }
+
+        var header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, header, position);
+        var length = header.flip().getInt();
+
+        return length < 0 || size - position - HEADER_SIZE < length ? -1 : length;
+    }
+
+    // returns null when the record doesn't match its checksum
+    private static ByteBuffer readRecord(FileChannel channel, long position, int length) throws IOException {
+        var header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, position);
+        var checksum = header.flip().getInt(Integer.BYTES);
+
+        var payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, position + HEADER_SIZE);
+        payload.flip();
+
+        var crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        return (int) crc.getValue() == checksum ? payload : null;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment.");
+            }
+        }
+    }
+
+    private static void apply(ByteBuffer payload, CorpusIndex index) {
+        var type = payload.get();
+        var documents = payload.getLong();
+        var entries = payload.getInt();
+
+        if (type == RESET) {
+            index.clear();
+        }
+        index.addDocuments(documents);
+
+        for (int i = 0; i < entries; i++) {
+            var word = new byte[payload.getInt()];
+            payload.get(word);
+            index.add(new String(word, StandardCharsets.ISO_8859_1), payload.getInt(), payload.getInt());
+        }
+    }
+
+    private static class Record {
+        private final byte type;
+        private final long documents;
+        private final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(entryBytes);
+        private int entries;
+
+        Record(byte type, long documents) {
+            this.type = type;
+            this.documents = documents;
+        }
+
+        void add(String word, int count, int delimitedCount) {
+            try {
+                out.writeInt(word.length());
+                out.writeBytes(word);
+                out.writeInt(count);
+                out.writeInt(delimitedCount);
+                entries++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // payload: type, number of documents, number of entries and the entries
+        ByteBuffer toBuffer() {
+            var payload = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + entryBytes.size())
+                    .put(type)
+                    .putLong(documents)
+                    .putInt(entries)
+                    .put(entryBytes.toByteArray())
+                    .flip();
+
+            var crc = new CRC32();
+            crc.update(payload.duplicate());
+
+            return ByteBuffer.allocate(HEADER_SIZE + payload.capacity())
+                    .putInt(payload.capacity())
+                    .putInt((int) crc.getValue())
+                    .put(payload)
+                    .flip();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package nl.kooi.countingwords.domain.job;
+
+import lombok.Getter;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.AnalysisResult;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An analysis of a text file that runs in the background. The state moves from queued through running to one
+ * of the finished states, or from queued straight to cancelled.
+ * <p>
+ * A running job can't be stopped from the outside; cancelling it asks the job to stop, which it does the next
+ * time it reads from its input.
+ */
+@Getter
+public class AnalysisJob {
+    private final UUID id = UUID.randomUUID();
+    private final JobPriority priority;
+    private final AnalysisQuery query;
+    private final Path input;
+    private final boolean spooled;
+    private final long totalBytes;
+    private final Instant submittedAt = Instant.now();
+
+    private JobState state = JobState.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private AnalysisResult result;
+    private String error;
+    private volatile boolean cancelRequested;
+
+    private final AtomicLong processedBytes = new AtomicLong();
+
+    /**
+     * @param spooled whether the input is a copy owned by the job, which is deleted once the job is finished
+     */
+    public AnalysisJob(JobPriority priority, AnalysisQuery query, Path input, boolean spooled, long totalBytes) {
+        this.priority = priority;
+        this.query = query;
+        this.input = input;
+        this.spooled = spooled;
+        this.totalBytes = totalBytes;
+    }
+
+    public synchronized JobState getState() {
+        return state;
+    }
+
+    public synchronized Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized AnalysisResult getResult() {
+        return result;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    public long getProcessedBytes() {
+        return processedBytes.get();
+    }
+
+    public synchronized boolean isFinished() {
+        return state.isFinished();
+    }
+
+    void addProcessedBytes(long bytes) {
+        processedBytes.addAndGet(bytes);
+    }
+
+    /**
+     * @return whether the job was still queued, and is now running
+     */
+    public synchronized boolean start() {
+        if (state != JobState.QUEUED) {
+            return false;
+        }
+
+        state = JobState.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    public synchronized void succeed(AnalysisResult result) {
+        if (cancelRequested) {
+            finish(JobState.CANCELLED);
+        } else {
+            this.result = result;
+            finish(JobState.SUCCEEDED);
+        }
+    }
+
+    public synchronized void fail(String error) {
+        if (cancelRequested) {
+            finish(JobState.CANCELLED);
+        } else {
+            this.error = error;
+            finish(JobState.FAILED);
+        }
+    }
+
+    /**
+     * Cancels a queued job right away, and asks a running job to stop.
+     *
+     * @return whether the job was queued and is cancelled now
+     */
+    public synchronized boolean cancel() {
+        if (state == JobState.QUEUED) {
+            finish(JobState.CANCELLED);
+            return true;
+        }
+
+        if (state == JobState.RUNNING) {
+            cancelRequested = true;
+        }
+        return false;
+    }
+
+    private void finish(JobState finishedState) {
+        state = finishedState;
+        finishedAt = Instant.now();
+    }
+}
@@ -0,0 +1,11 @@
+package nl.kooi.countingwords.domain.job;
+
+/**
+ * Jobs of a higher priority are run before queued jobs of a lower priority, jobs of the same priority in the
+ * order they were submitted.
+ */
+public enum JobPriority {
+    LOW,
+    NORMAL,
+    HIGH
+}
@@ -0,0 +1,56 @@
+package nl.kooi.countingwords.domain.job;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Reports the bytes read from the input of a job as its progress, and stops the job by failing the next read
+ * once it has been asked to cancel.
+ */
+public class ProgressInputStream extends FilterInputStream {
+    private final AnalysisJob job;
+
+    public ProgressInputStream(InputStream in, AnalysisJob job) {
+        super(in);
+        this.job = job;
+    }
+
+    @Override
+    public int read() throws IOException {
+        verifyNotCancelled();
+
+        var b = super.read();
+        if (b != -1) {
+            job.addProcessedBytes(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        verifyNotCancelled();
+
+        var read = super.read(b, off, len);
+        if (read > 0) {
+            job.addProcessedBytes(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        verifyNotCancelled();
+
+        var skipped = super.skip(n);
+        job.addProcessedBytes(skipped);
+        return skipped;
+    }
+
+    private void verifyNotCancelled() throws InterruptedIOException {
+        if (job.isCancelRequested()) {
+            throw new InterruptedIOException(String.format("Job %s was cancelled.", job.getId()));
+        }
+    }
+}
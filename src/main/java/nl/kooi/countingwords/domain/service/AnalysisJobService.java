@@ -0,0 +1,274 @@
+package nl.kooi.countingwords.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.AnalysisResult;
+import nl.kooi.countingwords.domain.job.AnalysisJob;
+import nl.kooi.countingwords.domain.job.JobPriority;
+import nl.kooi.countingwords.domain.job.ProgressInputStream;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs analyses of large texts in the background, so clients submit a text or a local file, get a job back
+ * right away and poll it for its progress and result.
+ * <p>
+ * Submitted texts are stored in a spool file first, so every job reads its input from a file and reports the
+ * bytes read so far as progress. Jobs wait in a bounded priority queue for one of a fixed number of threads.
+ * Finished jobs are kept for the result TTL, running and queued jobs until they finish.
+ */
+@Slf4j
+@Service
+public class AnalysisJobService implements MeterBinder {
+    private static final Comparator<JobTask> PRIORITY_ORDER = Comparator
+            .comparing((JobTask task) -> task.job.getPriority()).reversed()
+            .thenComparingLong(task -> task.sequence);
+
+    private final WordFrequencyService wordFrequencyService;
+    private final LocalFileResolver fileResolver;
+    private final Path spoolDirectory;
+    private final Semaphore queueSlots;
+    private final ThreadPoolExecutor executor;
+    private final Cache<UUID, AnalysisJob> jobs;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public AnalysisJobService(WordFrequencyService wordFrequencyService, LocalFileResolver fileResolver, WordCountProperties properties) {
+        var jobProperties = properties.getJobs();
+        var threadFactory = new CustomizableThreadFactory("analysis-job-");
+        threadFactory.setDaemon(true);
+
+        this.wordFrequencyService = wordFrequencyService;
+        this.fileResolver = fileResolver;
+        this.spoolDirectory = jobProperties.getSpoolDirectory();
+        this.queueSlots = new Semaphore(jobProperties.getQueueCapacity());
+        this.executor = new ThreadPoolExecutor(jobProperties.getConcurrency(), jobProperties.getConcurrency(), 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(16, (first, second) -> PRIORITY_ORDER.compare((JobTask) first, (JobTask) second)),
+                threadFactory);
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(finishedFor(jobProperties.getResultTtl().toNanos()))
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+    }
+
+    public AnalysisJob submitText(String text, AnalysisQuery query, JobPriority priority) {
+        WordFrequencyService.verifyText(text);
+
+        return submitText(new StringReader(text), query, priority);
+    }
+
+    public AnalysisJob submitText(Reader reader, AnalysisQuery query, JobPriority priority) {
+        verifyQuery(query);
+        reserveQueueSlot();
+
+        Path input = null;
+        try {
+            input = spoolDirectory != null ?
+                    Files.createTempFile(Files.createDirectories(spoolDirectory), "job-", ".txt") :
+                    Files.createTempFile("job-", ".txt");
+
+            try (var writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+                reader.transferTo(writer);
+            }
+
+            return enqueue(new AnalysisJob(priority, query, input, true, Files.size(input)));
+        } catch (IOException | RuntimeException e) {
+            queueSlots.release();
+            deleteSpoolFile(input);
+
+            if (e instanceof IOException) {
+                throw new UncheckedIOException("Storing the text of the job failed.", (IOException) e);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    public AnalysisJob submitFile(String path, AnalysisQuery query, JobPriority priority) {
+        var file = fileResolver.resolve(path);
+        verifyQuery(query);
+        reserveQueueSlot();
+
+        try {
+            return enqueue(new AnalysisJob(priority, query, file, false, Files.size(file)));
+        } catch (IOException e) {
+            queueSlots.release();
+            throw new WordProcessingException(Reason.FILE_UNREADABLE, String.format("File %s can't be read from the analysis directory.", path));
+        }
+    }
+
+    public AnalysisJob getJob(UUID id) {
+        var job = id == null ? null : jobs.getIfPresent(id);
+
+        if (job == null) {
+            throw new WordProcessingException(Reason.UNKNOWN_JOB, String.format("Job %s doesn't exist.", id));
+        }
+
+        return job;
+    }
+
+    public AnalysisResult getResult(UUID id) {
+        var job = getJob(id);
+        var result = job.getResult();
+
+        if (result == null) {
+            throw new WordProcessingException(Reason.JOB_NOT_FINISHED, String.format("Job %s has no result, it is %s.",
+                    id, job.getState().name().toLowerCase()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Cancels a queued job right away and asks a running job to stop; finished jobs are left as they are.
+     */
+    public AnalysisJob cancel(UUID id) {
+        var job = getJob(id);
+
+        if (job.cancel() && executor.getQueue().removeIf(task -> ((JobTask) task).job == job)) {
+            queueSlots.release();
+            finished(job);
+        }
+
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow().forEach(task -> {
+            var job = ((JobTask) task).job;
+            job.cancel();
+            deleteSpoolFile(job);
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "analysis.jobs", Tags.empty()).bindTo(registry);
+    }
+
+    private AnalysisJob enqueue(AnalysisJob job) {
+        jobs.put(job.getId(), job);
+        executor.execute(new JobTask(job, sequence.getAndIncrement()));
+
+        log.info("Queued job {} with priority {} for {} bytes.", job.getId(), job.getPriority(), job.getTotalBytes());
+        return job;
+    }
+
+    private void run(AnalysisJob job) {
+        queueSlots.release();
+
+        if (!job.start()) {
+            finished(job);
+            return;
+        }
+
+        try (var reader = new InputStreamReader(new ProgressInputStream(Files.newInputStream(job.getInput()), job), StandardCharsets.UTF_8)) {
+            job.succeed(wordFrequencyService.analyzeInStream(reader, job.getQuery()));
+        } catch (IOException | RuntimeException e) {
+            job.fail(e.getMessage());
+        } catch (Error e) {
+            job.fail(e.toString());
+            throw e;
+        } finally {
+            finished(job);
+        }
+
+        log.info("Job {} {} after {} bytes.", job.getId(), job.getState().name().toLowerCase(), job.getProcessedBytes());
+    }
+
+    // putting the job again makes the cache start its time to live
+    private void finished(AnalysisJob job) {
+        deleteSpoolFile(job);
+        jobs.put(job.getId(), job);
+    }
+
+    private void reserveQueueSlot() {
+        if (!queueSlots.tryAcquire()) {
+            throw new RejectedExecutionException("The job queue is full.");
+        }
+    }
+
+    private static void verifyQuery(AnalysisQuery query) {
+        query.getWords().forEach(WordFrequencyService::verifyWord);
+    }
+
+    private static void deleteSpoolFile(AnalysisJob job) {
+        if (job.isSpooled()) {
+            deleteSpoolFile(job.getInput());
+        }
+    }
+
+    private static void deleteSpoolFile(Path file) {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Deleting spool file {} failed.", file, e);
+        }
+    }
+
+    private static Expiry<UUID, AnalysisJob> finishedFor(long resultTtl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(UUID id, AnalysisJob job, long currentTime) {
+                return job.isFinished() ? resultTtl : Long.MAX_VALUE;
+            }
+
+            @Override
+            public long expireAfterUpdate(UUID id, AnalysisJob job, long currentTime, long currentDuration) {
+                return expireAfterCreate(id, job, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(UUID id, AnalysisJob job, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private class JobTask implements Runnable {
+        private final AnalysisJob job;
+        private final long sequence;
+
+        JobTask(AnalysisJob job, long sequence) {
+            this.job = job;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            AnalysisJobService.this.run(job);
+        }
+    }
+}
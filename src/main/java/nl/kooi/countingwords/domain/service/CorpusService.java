@@ -0,0 +1,160 @@
+package nl.kooi.countingwords.domain.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.corpus.Corpus;
+import nl.kooi.countingwords.domain.corpus.CorpusSummary;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps named corpora: documents are counted once when they are added, and questions about a corpus are
+ * answered from its index instead of by counting its documents again.
+ * <p>
+ * Only a limited number of corpora is created, as each holds its index in memory and its log on disk. The
+ * corpora stored already are all loaded, also when there are more of them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CorpusService {
+    private static final Pattern CORPUS_NAME = Pattern.compile("[a-z0-9_-]{1,64}");
+
+    private final WordFrequencyService wordFrequencyService;
+    private final WordCountProperties properties;
+    private final Map<String, Corpus> corpora = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadCorpora() throws IOException {
+        var directory = properties.getCorpus().getDirectory();
+
+        if (directory == null) {
+            log.info("No corpus directory configured, corpora only live in memory.");
+            return;
+        }
+
+        Files.createDirectories(directory);
+
+        List<Path> corpusDirectories;
+        try (var files = Files.list(directory)) {
+            corpusDirectories = files.filter(Files::isDirectory)
+                    .filter(file -> CORPUS_NAME.matcher(file.getFileName().toString()).matches())
+                    .collect(Collectors.toList());
+        }
+
+        for (var corpusDirectory : corpusDirectories) {
+            var corpus = open(corpusDirectory.getFileName().toString(), false);
+            log.info("Loaded corpus {} with {} documents.", corpus.getName(), corpus.summary().getDocuments());
+        }
+    }
+
+    @PreDestroy
+    public void closeCorpora() {
+        corpora.values().forEach(corpus -> {
+            try {
+                corpus.close();
+            } catch (IOException e) {
+                log.error("Closing corpus {} failed.", corpus.getName(), e);
+            }
+        });
+    }
+
+    public CorpusSummary addDocument(String corpusName, String text) {
+        verifyCorpusName(corpusName);
+        return addDocument(corpusName, wordFrequencyService.countWords(text));
+    }
+
+    public CorpusSummary addDocumentInStream(String corpusName, Reader reader) {
+        verifyCorpusName(corpusName);
+        return addDocument(corpusName, wordFrequencyService.countWordsInStream(reader));
+    }
+
+    private CorpusSummary addDocument(String corpusName, WordCountTable document) {
+        try {
+            return open(corpusName, true).addDocument(document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Storing the document in corpus %s failed.", corpusName), e);
+        }
+    }
+
+    public CorpusSummary getSummary(String corpusName) {
+        return get(corpusName).summary();
+    }
+
+    public int calculateHighestFrequency(String corpusName) {
+        return get(corpusName).highestFrequency();
+    }
+
+    public int calculateFrequencyForWord(String corpusName, String word) {
+        WordFrequencyService.verifyWord(word);
+
+        return get(corpusName).frequencyForWord(word.toLowerCase(Locale.ROOT));
+    }
+
+    public WordFrequency[] calculateMostFrequentNWords(String corpusName, int n) {
+        return get(corpusName).mostFrequentNWords(n);
+    }
+
+    private Corpus get(String corpusName) {
+        var corpus = corpusName == null ? null : corpora.get(corpusName);
+
+        if (corpus == null) {
+            throw new WordProcessingException(Reason.UNKNOWN_CORPUS, String.format("Corpus %s doesn't exist.", corpusName));
+        }
+
+        return corpus;
+    }
+
+    private Corpus open(String corpusName, boolean limited) throws IOException {
+        // the limit is checked before the corpus is created, so concurrent documents may exceed it by a few corpora
+        var maximumCorpora = properties.getCorpus().getMaximumCorpora();
+        if (limited && !corpora.containsKey(corpusName) && corpora.size() >= maximumCorpora) {
+            throw new WordProcessingException(Reason.TOO_MANY_CORPORA, String.format("Corpus %s can't be created, there are already " +
+                    "%d corpora.", corpusName, maximumCorpora));
+        }
+
+        try {
+            return corpora.computeIfAbsent(corpusName, name -> {
+                var storage = properties.getCorpus();
+
+                if (storage.getDirectory() == null) {
+                    return Corpus.inMemory(name);
+                }
+
+                try {
+                    return Corpus.persistent(name, storage.getDirectory().resolve(name),
+                            storage.getSegmentSize().toBytes(), storage.getMaximumSegments());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void verifyCorpusName(String corpusName) {
+        if (corpusName == null || !CORPUS_NAME.matcher(corpusName).matches()) {
+            throw new WordProcessingException(Reason.INVALID_CORPUS_NAME, String.format("Corpus name %s is invalid, it may only contain 1 to 64 " +
+                    "lower case letters, digits, '-' and '_'.", corpusName));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package nl.kooi.countingwords.domain.service;
+
+import lombok.RequiredArgsConstructor;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+/**
+ * Resolves client supplied paths against the configured analysis directory, and refuses every path that
+ * leads outside of it, including through symbolic links.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocalFileResolver {
+
+    private final WordCountProperties properties;
+
+    public Path resolve(String path) {
+        var directory = properties.getFile().getDirectory();
+
+        if (directory == null) {
+            throw new WordProcessingException(Reason.FILE_ANALYSIS_DISABLED, "Analysis of local files is disabled.");
+        }
+
+        try {
+            var baseDirectory = directory.toRealPath();
+            var file = baseDirectory.resolve(path).normalize();
+
+            if (!file.startsWith(baseDirectory) || !Files.isRegularFile(file) || !file.toRealPath().startsWith(baseDirectory)) {
+                throw new WordProcessingException(Reason.FILE_NOT_FOUND, String.format("File %s doesn't exist in the analysis directory.", path));
+            }
+
+            return file.toRealPath();
+        } catch (IOException | InvalidPathException e) {
+            throw new WordProcessingException(Reason.FILE_UNREADABLE, String.format("File %s can't be read from the analysis directory.", path));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package nl.kooi.countingwords.domain.service;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.AnalysisResult;
+import nl.kooi.countingwords.domain.snapshot.WordCountSnapshot;
+import nl.kooi.countingwords.domain.text.AsciiLetterTokenizer;
+import nl.kooi.countingwords.domain.text.WordCounts;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Merges word count snapshots and answers questions about them, and coordinates distributed analyses: a large
+ * text is split into parts, the sibling instances each count a part into a snapshot while this instance counts
+ * the first one, and the merged snapshots give the exact counts of the whole text.
+ * <p>
+ * A part that a sibling instance fails to count in time is counted here, so an unreachable instance slows an
+ * analysis down instead of failing it.
+ */
+@Slf4j
+@Service
+public class SnapshotService {
+    private static final String SNAPSHOT_PATH = "/rest/word-count/snapshots";
+
+    private final WordFrequencyService wordFrequencyService;
+    private final List<URI> nodes;
+    private final int minimumPartSize;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    public SnapshotService(WordFrequencyService wordFrequencyService, WordCountProperties properties) {
+        this.wordFrequencyService = wordFrequencyService;
+        this.nodes = List.copyOf(properties.getSnapshots().getNodes());
+        this.minimumPartSize = Math.max(properties.getSnapshots().getMinimumPartSize(), 1);
+        this.timeout = properties.getSnapshots().getTimeout();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * Reads and merges all snapshots in the stream.
+     */
+    public WordCountSnapshot merge(InputStream snapshots) throws IOException {
+        var merged = new WordCountSnapshot();
+        merged.readFrom(snapshots);
+        return merged;
+    }
+
+    public AnalysisResult analyze(WordCountSnapshot snapshot, AnalysisQuery query) {
+        query.getWords().forEach(WordFrequencyService::verifyWord);
+
+        return wordFrequencyService.analyzeCounts(snapshot.getCounts(), query);
+    }
+
+    /**
+     * Analyzes the text like {@link WordFrequencyService#analyze(String, AnalysisQuery)}, counting its parts on the
+     * sibling instances.
+     */
+    public AnalysisResult analyzeDistributed(String text, AnalysisQuery query) {
+        WordFrequencyService.verifyText(text);
+        query.getWords().forEach(WordFrequencyService::verifyWord);
+
+        return wordFrequencyService.analyzeCounts(countDistributed(text).getCounts(), query);
+    }
+
+    /**
+     * @return the exact counts of the text, made from the counts of its parts
+     */
+    public WordCountSnapshot countDistributed(String text) {
+        var parts = split(text, Math.min(nodes.size() + 1, Math.max(1, text.length() / minimumPartSize)));
+        var snapshot = new WordCountSnapshot();
+
+        var requests = new ArrayList<CompletableFuture<HttpResponse<InputStream>>>();
+        for (int i = 1; i < parts.size(); i++) {
+            requests.add(requestSnapshot(nodes.get(i - 1), parts.get(i)));
+        }
+
+        addWords(snapshot, wordFrequencyService.countWords(parts.get(0)));
+
+        for (int i = 1; i < parts.size(); i++) {
+            addWords(snapshot, receiveSnapshot(nodes.get(i - 1), requests.get(i - 1), parts.get(i)));
+        }
+
+        // the parts all had their own leading empty word, the whole text has it when it starts with a separator
+        if (!text.isEmpty() && !AsciiLetterTokenizer.isLetter(text.charAt(0)) && !snapshot.getCounts().isEmpty()) {
+            snapshot.add("", 1, 0);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Splits the text into at most the given number of parts of about the same size. Every part but the first
+     * starts right after an ASCII character that is no word character, so each part is tokenized and its words
+     * are delimited exactly like they are in the whole text.
+     */
+    static List<String> split(String text, int parts) {
+        var result = new ArrayList<String>(parts);
+        var from = 0;
+
+        for (int i = 1; i < parts; i++) {
+            var split = nextSplitIndex(text, Math.max(from, (int) ((long) text.length() * i / parts)));
+
+            if (split >= text.length()) {
+                break;
+            }
+            if (split > from) {
+                result.add(text.substring(from, split));
+                from = split;
+            }
+        }
+
+        result.add(text.substring(from));
+        return result;
+    }
+
+    private static int nextSplitIndex(String text, int index) {
+        while (index < text.length() && (index == 0 || !isSeparator(text.charAt(index - 1)))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c < 128 && !AsciiLetterTokenizer.isWordCharacter(c);
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> requestSnapshot(URI node, String part) {
+        var request = HttpRequest.newBuilder(URI.create(node.toString().replaceAll("/+$", "") + SNAPSHOT_PATH))
+                .timeout(timeout)
+                .header("Content-Type", "text/plain;charset=UTF-8")
+                .header("Accept", WordCountSnapshot.MEDIA_TYPE)
+                .POST(HttpRequest.BodyPublishers.ofString(part, StandardCharsets.UTF_8))
+                .build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private WordCounts receiveSnapshot(URI node, CompletableFuture<HttpResponse<InputStream>> request, String part) {
+        try {
+            var response = request.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+            try (var body = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new IOException("Status code " + response.statusCode());
+                }
+                return merge(body).getCounts();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for the snapshot of " + node, e);
+        } catch (ExecutionException | TimeoutException | IOException | RuntimeException e) {
+            log.warn("Counting a part of {} characters on {} failed, counting it here: {}", part.length(), node, e.toString());
+            request.cancel(true);
+            return wordFrequencyService.countWords(part);
+        }
+    }
+
+    private static void addWords(WordCountSnapshot snapshot, WordCounts part) {
+        part.forEach((word, count, delimitedCount) -> {
+            if (!word.isEmpty()) {
+                snapshot.add(word, count, delimitedCount);
+            }
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package nl.kooi.countingwords.domain.service;
+
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.text.WordCounts;
+import nl.kooi.countingwords.domain.trend.Trend;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Service;
+
+import java.io.Reader;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps named trends: texts are counted once when they arrive, and questions about the words of the last few
+ * minutes or hours are answered from the running counts of the trend.
+ */
+@Service
+public class TrendService {
+    private static final Pattern TREND_NAME = Pattern.compile("[a-z0-9_-]{1,64}");
+
+    private final WordFrequencyService wordFrequencyService;
+    private final Duration interval;
+    private final List<Duration> windows;
+    private final int maximumTrends;
+    private final Clock clock;
+    private final Map<String, Trend> trends = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TrendService(WordFrequencyService wordFrequencyService, WordCountProperties properties) {
+        this(wordFrequencyService, properties, Clock.systemUTC());
+    }
+
+    public TrendService(WordFrequencyService wordFrequencyService, WordCountProperties properties, Clock clock) {
+        var trendProperties = properties.getTrends();
+
+        this.wordFrequencyService = wordFrequencyService;
+        this.interval = trendProperties.getInterval();
+        this.windows = trendProperties.getWindows().stream().distinct().collect(Collectors.toUnmodifiableList());
+        this.maximumTrends = trendProperties.getMaximumTrends();
+        this.clock = clock;
+
+        if (windows.isEmpty()) {
+            throw new IllegalArgumentException("counting-words.trends.windows needs at least one window.");
+        }
+    }
+
+    public void addText(String trendName, String text) {
+        verifyTrendName(trendName);
+        add(trendName, wordFrequencyService.countWords(text));
+    }
+
+    public void addTextInStream(String trendName, Reader reader) {
+        verifyTrendName(trendName);
+        add(trendName, wordFrequencyService.countWordsInStream(reader));
+    }
+
+    private void add(String trendName, WordCounts text) {
+        open(trendName).add(text, clock.millis());
+    }
+
+    public void delete(String trendName) {
+        if (trends.remove(trendName) == null) {
+            throw unknownTrend(trendName);
+        }
+    }
+
+    /**
+     * @param window the window, like 5m or PT1H, the first configured window when not given
+     */
+    public int calculateHighestFrequency(String trendName, String window) {
+        return get(trendName).highestFrequency(parseWindow(window), clock.millis());
+    }
+
+    public int calculateFrequencyForWord(String trendName, String word, String window) {
+        WordFrequencyService.verifyWord(word);
+
+        return get(trendName).frequencyForWord(parseWindow(window), word.toLowerCase(Locale.ROOT), clock.millis());
+    }
+
+    public WordFrequency[] calculateMostFrequentNWords(String trendName, int n, String window) {
+        return get(trendName).mostFrequentNWords(parseWindow(window), n, clock.millis());
+    }
+
+    private Trend get(String trendName) {
+        var trend = trendName == null ? null : trends.get(trendName);
+
+        if (trend == null) {
+            throw unknownTrend(trendName);
+        }
+
+        return trend;
+    }
+
+    private Trend open(String trendName) {
+        var trend = trends.get(trendName);
+
+        if (trend != null) {
+            return trend;
+        }
+
+        // the limit is checked before the trend is created, so concurrent texts may exceed it by a few trends
+        if (trends.size() >= maximumTrends) {
+            throw new WordProcessingException(Reason.TOO_MANY_TRENDS, String.format("Trend %s can't be created, there are already " +
+                    "%d trends.", trendName, maximumTrends));
+        }
+
+        return trends.computeIfAbsent(trendName, name -> new Trend(name, interval, windows));
+    }
+
+    private Duration parseWindow(String window) {
+        if (window == null) {
+            return windows.get(0);
+        }
+
+        try {
+            var duration = DurationStyle.detectAndParse(window);
+
+            if (windows.contains(duration)) {
+                return duration;
+            }
+        } catch (IllegalArgumentException e) {
+            // reported as an unknown window below
+        }
+
+        throw new WordProcessingException(Reason.UNKNOWN_WINDOW, String.format("Window %s isn't kept, use one of: %s.", window,
+                windows.stream().map(Duration::toString).collect(Collectors.joining(", "))));
+    }
+
+    private static WordProcessingException unknownTrend(String trendName) {
+        return new WordProcessingException(Reason.UNKNOWN_TREND, String.format("Trend %s doesn't exist.", trendName));
+    }
+
+    private static void verifyTrendName(String trendName) {
+        if (trendName == null || !TREND_NAME.matcher(trendName).matches()) {
+            throw new WordProcessingException(Reason.INVALID_TREND_NAME, String.format("Trend name %s is invalid, it may only contain 1 to 64 " +
+                    "lower case letters, digits, '-' and '_'.", trendName));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package nl.kooi.countingwords.domain.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.text.ContentHash;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Keeps the word counts of recently analyzed large texts, keyed by a fingerprint of their content, so the same
+ * text sent to several endpoints is tokenized once.
+ * <p>
+ * The fingerprint is seeded randomly per process, and an entry keeps its text, so a hit is only answered when
+ * the texts are equal. A text crafted to share the fingerprint of another is counted on its own, rather than
+ * being answered with the counts of the other text or taking its place.
+ * <p>
+ * Entries are weighed by the estimated heap size of their counts and text, and expire a while after they were
+ * computed. Cached tables are shared between requests and must not be modified.
+ * <p>
+ * A text that isn't cached yet is counted by the first request for it, outside of the cache, and requests for
+ * the same text wait for that count. Counting a large text inside the cache would also block requests for
+ * other texts that happen to share a bin of the underlying map.
+ */
+@Component
+public class WordCountCache implements MeterBinder {
+    private static final String CACHE_NAME = "word-counts";
+
+    private final boolean enabled;
+    private final int minimumTextLength;
+    private final Function<String, ContentHash> fingerprint;
+    private final AsyncCache<ContentHash, Entry> cache;
+
+    @Autowired
+    public WordCountCache(WordCountProperties properties) {
+        this(properties, seeded(new SecureRandom().nextLong()));
+    }
+
+    WordCountCache(WordCountProperties properties, Function<String, ContentHash> fingerprint) {
+        var cacheProperties = properties.getCache();
+
+        this.enabled = cacheProperties.isEnabled();
+        this.minimumTextLength = cacheProperties.getMinimumTextLength();
+        this.fingerprint = fingerprint;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheProperties.getMaximumWeight().toBytes())
+                .weigher((ContentHash key, Entry entry) -> (int) Math.min(entry.estimatedHeapSize(), Integer.MAX_VALUE))
+                .expireAfterWrite(cacheProperties.getTtl())
+                .recordStats()
+                .buildAsync();
+    }
+
+    public boolean isCacheable(String text) {
+        return enabled && text.length() >= minimumTextLength;
+    }
+
+    /**
+     * @return the cached counts of the text, or the counts computed by the function when the text is not cached
+     */
+    public WordCountTable get(String text, Function<String, WordCountTable> counter) {
+        if (!isCacheable(text)) {
+            return counter.apply(text);
+        }
+
+        var counting = new CompletableFuture<Entry>();
+        var entry = cache.get(fingerprint.apply(text), (key, executor) -> counting);
+
+        if (entry != counting) {
+            var cached = join(entry);
+            return cached.text.equals(text) ? cached.counts : counter.apply(text);
+        }
+
+        try {
+            var computed = counter.apply(text);
+            counting.complete(new Entry(text, computed));
+            return computed;
+        } catch (RuntimeException | Error e) {
+            // a failed count is removed from the cache, and the requests waiting for it fail as well
+            counting.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Function<String, ContentHash> seeded(long seed) {
+        return text -> ContentHash.of(text, seed);
+    }
+
+    private static Entry join(CompletableFuture<Entry> entry) {
+        try {
+            return entry.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final String text;
+        private final WordCountTable counts;
+
+        // two bytes per character, as texts that aren't Latin-1 take
+        long estimatedHeapSize() {
+            return counts.estimatedHeapSize() + 2L * text.length();
+        }
+    }
+}
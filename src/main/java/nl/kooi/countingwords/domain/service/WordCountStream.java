@@ -0,0 +1,120 @@
+package nl.kooi.countingwords.domain.service;
+
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.text.StreamingTokenizer;
+import nl.kooi.countingwords.domain.text.TopWordsSelector;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+
+/**
+ * Counts a text that arrives in chunks, and answers for the text received so far after every chunk. Once the
+ * stream is finished its answers are the ones for the whole text at once.
+ * <p>
+ * A word at the end of a chunk is counted when the next chunk, or the end of the text, shows where it ends. A
+ * stream is used by one thread at a time.
+ * <p>
+ * Counts only grow, so the n most frequent words are among the previous answer and the words counted since. As
+ * long as n stays the same, an answer is selected from those instead of from the whole vocabulary, which keeps
+ * the cost of a running answer to the size of a chunk rather than of the text so far.
+ * <p>
+ * The text of a stream may only grow to a maximum length, which also bounds its vocabulary, so one stream can't
+ * hold on to more memory than that however long it stays open.
+ */
+public class WordCountStream {
+    private static final String OPERATION = "countWordsInChunks";
+
+    private final WordCountMetrics metrics;
+    private final long maximumLength;
+    private final WordCountTable counts = new WordCountTable();
+    private final StreamingTokenizer tokenizer = new StreamingTokenizer(this::accept);
+    // the words counted since the previous top n answer, tracked once there is one
+    private WordCountTable touched;
+    private WordFrequency[] topWords;
+    private int topN;
+    private long length;
+    private boolean leadingEmptyWordAdded;
+    private boolean finished;
+
+    WordCountStream(WordCountMetrics metrics, long maximumLength) {
+        this.metrics = metrics;
+        this.maximumLength = maximumLength;
+    }
+
+    /**
+     * @throws WordProcessingException when the text would grow longer than the maximum length, the chunk isn't counted
+     */
+    public void add(String chunk) {
+        if (finished) {
+            throw new IllegalStateException("The stream is finished already.");
+        }
+        if (chunk.length() > maximumLength - length) {
+            throw new WordProcessingException(Reason.BODY_TOO_LARGE,
+                    String.format("A stream of more than %d characters can't be counted.", maximumLength));
+        }
+
+        tokenizer.feed(chunk);
+        length += chunk.length();
+        addLeadingEmptyWord();
+    }
+
+    /**
+     * Ends the text, which counts the word it ends with.
+     */
+    public void finish() {
+        if (!finished) {
+            finished = true;
+            tokenizer.finish();
+            addLeadingEmptyWord();
+
+            metrics.recordInputCharacters(OPERATION, length);
+            metrics.recordCounts(OPERATION, counts);
+        }
+    }
+
+    public int highestFrequency() {
+        return counts.highestCount();
+    }
+
+    public WordFrequency[] mostFrequentNWords(int n) {
+        if (topWords == null || n != topN) {
+            topWords = TopWordsSelector.select(counts, n);
+        } else {
+            var selector = new TopWordsSelector(n);
+
+            for (var wordFrequency : topWords) {
+                if (touched.count(wordFrequency.getWord()) == 0) {
+                    selector.offer(wordFrequency.getWord(), wordFrequency.getFrequency());
+                }
+            }
+            touched.forEach((word, count, delimitedCount) -> {
+                var total = counts.count(word);
+                if (selector.accepts(total)) {
+                    selector.offer(word, total);
+                }
+            });
+
+            topWords = selector.result();
+        }
+
+        topN = n;
+        touched = new WordCountTable();
+        return topWords.clone();
+    }
+
+    private void accept(char[] word, int length, boolean delimited) {
+        counts.accept(word, length, delimited);
+        if (touched != null) {
+            touched.accept(word, length, delimited);
+        }
+    }
+
+    // the empty word of a text starting with a separator is counted like the other counts do, once there is a word
+    private void addLeadingEmptyWord() {
+        if (!leadingEmptyWordAdded && tokenizer.startsWithSeparator() && !counts.isEmpty()) {
+            leadingEmptyWordAdded = true;
+            accept(new char[0], 0, false);
+        }
+    }
+}
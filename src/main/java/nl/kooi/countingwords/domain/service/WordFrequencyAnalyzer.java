@@ -1,11 +1,44 @@
 package nl.kooi.countingwords.domain.service;
 
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.AnalysisResult;
 import nl.kooi.countingwords.domain.WordFrequency;
 
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.List;
+
 public interface WordFrequencyAnalyzer {
     int calculateHighestFrequency(String text);
 
     int calculateFrequencyForWord(String text, String word);
 
+    // multi-word variants, which count all distinct words in one pass and return them in the order they were given
+    WordFrequency[] calculateFrequencyForWords(String text, List<String> words);
+
     WordFrequency[] calculateMostFrequentNWords(String text, int n);
-}
\ No newline at end of file
+
+    // streaming variants, which read and count the text in fixed-size buffers instead of holding it in memory
+    int calculateHighestFrequencyInStream(Reader reader);
+
+    int calculateFrequencyForWordInStream(Reader reader, String word);
+
+    WordFrequency[] calculateFrequencyForWordsInStream(Reader reader, List<String> words);
+
+    WordFrequency[] calculateMostFrequentNWordsInStream(Reader reader, int n);
+
+    // file variants, which memory-map a UTF-8 encoded file and count its bytes in place
+    int calculateHighestFrequencyInFile(Path file);
+
+    int calculateFrequencyForWordInFile(Path file, String word);
+
+    WordFrequency[] calculateMostFrequentNWordsInFile(Path file, int n);
+
+    // batch variants, which answer all questions of the query from a single count of the text
+    AnalysisResult analyze(String text, AnalysisQuery query);
+
+    AnalysisResult analyzeInStream(Reader reader, AnalysisQuery query);
+
+    // chunked variant, which counts a text arriving in chunks and answers for the chunks received so far
+    WordCountStream openStream();
+}
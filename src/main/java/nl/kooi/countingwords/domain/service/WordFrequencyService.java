@@ -2,50 +2,343 @@ package nl.kooi.countingwords.domain.service;
 
 
 import lombok.extern.slf4j.Slf4j;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.AnalysisResult;
+import nl.kooi.countingwords.domain.EstimatedWordFrequency;
 import nl.kooi.countingwords.domain.WordFrequency;
 import nl.kooi.countingwords.domain.WordFrequencyInfo;
+import nl.kooi.countingwords.domain.text.AsciiLetterTokenizer;
+import nl.kooi.countingwords.domain.text.ExactWordMatcher;
+import nl.kooi.countingwords.domain.text.MappedFileTokenizer;
+import nl.kooi.countingwords.domain.text.OffHeapWordCountTable;
+import nl.kooi.countingwords.domain.text.ParallelWordCounter;
+import nl.kooi.countingwords.domain.text.SpaceSavingCounter;
+import nl.kooi.countingwords.domain.text.StreamingTokenizer;
+import nl.kooi.countingwords.domain.text.TokenSink;
+import nl.kooi.countingwords.domain.text.Tokenizer;
+import nl.kooi.countingwords.domain.text.TopWordsSelector;
+import nl.kooi.countingwords.domain.text.Utf8Tokenizer;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+import nl.kooi.countingwords.domain.text.WordCounts;
+import nl.kooi.countingwords.domain.text.WordOccurrenceCounter;
+import nl.kooi.countingwords.domain.text.WordRanking;
+import nl.kooi.countingwords.domain.text.WordSetMatcher;
 import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import nl.kooi.countingwords.metrics.WordCountMetrics.Phase;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
-import java.util.regex.Pattern;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class WordFrequencyService implements WordFrequencyAnalyzer {
-    private static final String NON_WORD_REGEX = "[^A-Za-z]+";
-    private static final String WORD_REGEX = "[A-Za-z]+";
-    private static final String EXACT_WORD_REGEX = "(?i).*?\\b%s\\b.*?";
+    private static final int MATCHER_CACHE_SIZE = 1024;
+    private static final int WORD_SET_MATCHER_CACHE_SIZE = 64;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Tokenizer tokenizer;
+    private final int parallelThreshold;
+    private final ForkJoinPool countingPool;
+    private final ParallelWordCounter parallelCounter;
+    private final MappedFileTokenizer mappedFileTokenizer;
+    private final Utf8Tokenizer utf8Tokenizer = new Utf8Tokenizer();
+    private final WordCountCache cache;
+    private final WordCountMetrics metrics;
+    private final int approximateCounters;
+    private final boolean offHeap;
+    private final int offHeapThreshold;
+    private final long maximumStreamLength;
+    private final Map<String, ExactWordMatcher> matchers = Collections.synchronizedMap(new LruCache<>(MATCHER_CACHE_SIZE));
+    // keyed by the words as given, keyword monitoring clients send the same list with every text
+    private final Map<List<String>, WordSetMatcher> wordSetMatchers = Collections.synchronizedMap(new LruCache<>(WORD_SET_MATCHER_CACHE_SIZE));
+
+    @Autowired
+    public WordFrequencyService(WordCountProperties properties, WordCountCache cache, WordCountMetrics metrics) {
+        this(new AsciiLetterTokenizer(), properties, cache, metrics);
+    }
+
+    public WordFrequencyService(Tokenizer tokenizer, WordCountProperties properties, WordCountCache cache, WordCountMetrics metrics) {
+        var parallel = properties.getParallel();
+
+        this.tokenizer = tokenizer;
+        this.parallelThreshold = parallel.getThreshold();
+        this.countingPool = new ForkJoinPool(parallel.getParallelism());
+        this.parallelCounter = new ParallelWordCounter(tokenizer, countingPool, parallel.getChunkSize());
+        this.mappedFileTokenizer = new MappedFileTokenizer(countingPool, parallel.getThreshold());
+        this.cache = cache;
+        this.metrics = metrics;
+        this.approximateCounters = Math.max(1, Math.min(properties.getApproximate().getCounters(), SpaceSavingCounter.MAXIMUM_CAPACITY));
+        this.offHeap = properties.getOffHeap().isEnabled();
+        this.offHeapThreshold = Math.max(1, properties.getOffHeap().getThreshold());
+        this.maximumStreamLength = Math.max(1, properties.getStreams().getMaximumSize().toBytes());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        countingPool.shutdown();
+    }
 
     @Override
     public int calculateHighestFrequency(String text) {
         verifyText(text);
-        return countGroupedByWord(text).values().stream().mapToInt(Long::intValue).max().orElse(0);
+
+        return select(text, "calculateHighestFrequency", WordCounts::highestCount);
     }
 
-    private void verifyText(String text) {
+    static void verifyText(String text) {
         if (text == null) {
-            throw new WordProcessingException("Input text is null. Null texts cannot be analyzed.");
+            throw new WordProcessingException(Reason.NULL_TEXT, "Input text is null. Null texts cannot be analyzed.");
+        }
+    }
+
+    /**
+     * @return the counts of the words in the text, which may be shared with other requests and must not be modified
+     */
+    public WordCountTable countWords(String text) {
+        verifyText(text);
+        return countGroupedByWord(text, "countWords");
+    }
+
+    public WordCountTable countWordsInStream(Reader reader) {
+        var counts = new WordCountTable();
+        countGroupedByWord(reader, "countWordsInStream", counts);
+        return counts;
+    }
+
+    // large texts, streams and files are counted off-heap when enabled, and the memory is freed right after selecting,
+    // or right away when counting fails
+    private <T> T select(String text, String operation, Function<WordCounts, T> selection) {
+        if (!offHeap || text.length() < offHeapThreshold) {
+            var counts = countGroupedByWord(text, operation);
+            return metrics.time(operation, Phase.SELECT, () -> selection.apply(counts));
+        }
+
+        metrics.recordInputCharacters(operation, text.length());
+
+        try (var counts = metrics.time(operation, Phase.COUNT, () -> countOffHeap(text))) {
+            metrics.recordCounts(operation, counts);
+            return metrics.time(operation, Phase.SELECT, () -> selection.apply(counts));
+        }
+    }
+
+    private <T> T select(Reader reader, String operation, Function<WordCounts, T> selection) {
+        if (!offHeap) {
+            var counts = new WordCountTable();
+            countGroupedByWord(reader, operation, counts);
+            return metrics.time(operation, Phase.SELECT, () -> selection.apply(counts));
+        }
+
+        try (var counts = new OffHeapWordCountTable()) {
+            countGroupedByWord(reader, operation, counts);
+            return metrics.time(operation, Phase.SELECT, () -> selection.apply(counts));
+        }
+    }
+
+    private <T> T select(Path file, String operation, Function<WordCounts, T> selection) {
+        if (!offHeap) {
+            var counts = countGroupedByWord(file, operation, WordCountTable::new, WordCountTable::merge);
+            return metrics.time(operation, Phase.SELECT, () -> selection.apply(counts));
+        }
+
+        try (var counts = countOffHeap(tables -> countGroupedByWord(file, operation, tables, OffHeapWordCountTable::merge))) {
+            return metrics.time(operation, Phase.SELECT, () -> selection.apply(counts));
+        }
+    }
+
+    private <T> T select(ByteBuffer utf8, String operation, Function<WordCounts, T> selection) {
+        metrics.recordInputBytes(operation, utf8.limit());
+
+        if (!offHeap || utf8.limit() < offHeapThreshold) {
+            var counts = metrics.time(operation, Phase.COUNT, () -> count(utf8, WordCountTable::new, WordCountTable::merge));
+            metrics.recordCounts(operation, counts);
+            return metrics.time(operation, Phase.SELECT, () -> selection.apply(counts));
+        }
+
+        try (var counts = countOffHeap(tables -> metrics.time(operation, Phase.COUNT, () -> count(utf8, tables, OffHeapWordCountTable::merge)))) {
+            metrics.recordCounts(operation, counts);
+            return metrics.time(operation, Phase.SELECT, () -> selection.apply(counts));
+        }
+    }
+
+    private WordCountTable countGroupedByWord(String text, String operation) {
+        metrics.recordInputCharacters(operation, text.length());
+
+        var counts = metrics.time(operation, Phase.COUNT, () -> countGroupedByWord(text));
+
+        metrics.recordCounts(operation, counts);
+        return counts;
+    }
+
+    private WordCountTable countGroupedByWord(String text) {
+        if (isStringEmpty(text)) {
+            return new WordCountTable();
+        }
+
+        return cache.get(text, this::count);
+    }
+
+    private WordCountTable count(String text) {
+        var counts = text.length() >= parallelThreshold ? parallelCounter.count(text) : countSequentially(text, new WordCountTable());
+
+        addLeadingEmptyWord(counts, !AsciiLetterTokenizer.isLetter(text.charAt(0)));
+
+        return counts;
+    }
+
+    private OffHeapWordCountTable countOffHeap(String text) {
+        return countOffHeap(tables -> {
+            var counts = text.length() >= parallelThreshold ?
+                    parallelCounter.count(text, tables, OffHeapWordCountTable::merge) :
+                    countSequentially(text, tables.get());
+
+            addLeadingEmptyWord(counts, !AsciiLetterTokenizer.isLetter(text.charAt(0)));
+
+            return counts;
+        });
+    }
+
+    /**
+     * Counts into off-heap tables of the given supplier. When counting fails the result never reaches the
+     * try-with-resources that closes it, so then all tables the count allocated are closed before rethrowing.
+     * Counting has stopped by then, as the parallel counters wait for all of their tasks.
+     */
+    private static OffHeapWordCountTable countOffHeap(Function<Supplier<OffHeapWordCountTable>, OffHeapWordCountTable> counting) {
+        var tables = new ConcurrentLinkedQueue<OffHeapWordCountTable>();
+
+        try {
+            return counting.apply(() -> {
+                var table = new OffHeapWordCountTable();
+                tables.add(table);
+                return table;
+            });
+        } catch (RuntimeException | Error e) {
+            tables.forEach(OffHeapWordCountTable::close);
+            throw e;
+        }
+    }
+
+    private <T extends WordCounts & TokenSink> T count(ByteBuffer utf8, Supplier<T> tables, BinaryOperator<T> merge) {
+        T counts;
+
+        if (utf8.limit() >= parallelThreshold) {
+            counts = parallelCounter.count(utf8, tables, merge);
+        } else {
+            counts = tables.get();
+            utf8Tokenizer.tokenize(utf8, 0, utf8.limit(), counts);
+        }
+
+        addLeadingEmptyWord(counts, utf8.limit() > 0 && !AsciiLetterTokenizer.isLetter(utf8.get(0)));
+
+        return counts;
+    }
+
+    private <T extends WordCounts & TokenSink> void countGroupedByWord(Reader reader, String operation, T counts) {
+        var streamingTokenizer = new StreamingTokenizer(counts);
+
+        var length = metrics.time(operation, Phase.COUNT, () -> read(reader, streamingTokenizer));
+        addLeadingEmptyWord(counts, streamingTokenizer.startsWithSeparator());
+
+        metrics.recordInputCharacters(operation, length);
+        metrics.recordCounts(operation, counts);
+    }
+
+    private <T extends WordCounts & TokenSink> T countGroupedByWord(Path file, String operation, Supplier<T> tables, BinaryOperator<T> merge) {
+        try (var channel = openFile(file)) {
+            metrics.recordInputBytes(operation, channel.size());
+
+            var counts = metrics.time(operation, Phase.COUNT, () -> tokenize(file, channel, tables).stream()
+                    .reduce(merge)
+                    .orElseGet(tables));
+
+            addLeadingEmptyWord(counts, mappedFileTokenizer.startsWithSeparator(channel));
+
+            metrics.recordCounts(operation, counts);
+            return counts;
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Reading file %s failed.", file), e);
+        }
+    }
+
+    private <S extends TokenSink> List<S> tokenize(Path file, FileChannel channel, Supplier<S> sinks) {
+        try {
+            return mappedFileTokenizer.tokenize(channel, sinks);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Reading file %s failed.", file), e);
+        }
+    }
+
+    private FileChannel openFile(Path file) throws IOException {
+        if (file == null || !Files.isRegularFile(file)) {
+            throw new WordProcessingException(Reason.FILE_NOT_FOUND, String.format("File %s doesn't exist or is not a regular file.", file));
+        }
+
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    // splitting on non-word characters used to yield an empty leading word when the text starts with a separator
+    private static <T extends WordCounts & TokenSink> void addLeadingEmptyWord(T counts, boolean startsWithSeparator) {
+        if (startsWithSeparator && !counts.isEmpty()) {
+            counts.accept(new char[0], 0, false);
+        }
+    }
+
+    private static void addLeadingEmptyWord(SpaceSavingCounter counter, boolean startsWithSeparator) {
+        if (startsWithSeparator && !counter.isEmpty()) {
+            counter.accept(new char[0], 0, false);
         }
     }
 
-    private Map<String, Long> countGroupedByWord(String text) {
-        return getWordStreamByText(text)
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    /**
+     * @return the number of characters read
+     */
+    private long read(Reader reader, StreamingTokenizer streamingTokenizer) {
+        var buffer = new char[READ_BUFFER_SIZE];
+        var length = 0L;
+
+        try {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                streamingTokenizer.feed(buffer, 0, read);
+                length += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading the input text failed.", e);
+        }
+
+        streamingTokenizer.finish();
+        return length;
     }
 
-    private Stream<String> getWordStreamByText(String text) {
-        return isStringEmpty(text) ?
-                Stream.empty() :
-                Arrays.stream(text.split(NON_WORD_REGEX))
-                        .map(String::toLowerCase);
+    private <T extends TokenSink> T countSequentially(String text, T counts) {
+        tokenizer.tokenize(text, counts);
+        return counts;
     }
 
-    private boolean isStringEmpty(String text) {
+    private static boolean isStringEmpty(String text) {
         return text == null || "".equals(text);
     }
 
@@ -54,16 +347,87 @@ public class WordFrequencyService implements WordFrequencyAnalyzer {
         verifyWord(word);
         verifyText(text);
 
-        var pattern = Pattern.compile(String.format(EXACT_WORD_REGEX, word));
+        if (cache.isCacheable(text)) {
+            return countGroupedByWord(text, "calculateFrequencyForWord").delimitedCount(word.toLowerCase(Locale.ROOT));
+        }
+
+        metrics.recordInputCharacters("calculateFrequencyForWord", text.length());
+
+        var matcher = matchers.computeIfAbsent(word.toLowerCase(Locale.ROOT), ExactWordMatcher::of);
+
+        return metrics.time("calculateFrequencyForWord", Phase.COUNT, () -> matcher.count(text));
+    }
+
+    @Override
+    public int calculateFrequencyForWordInStream(Reader reader, String word) {
+        verifyWord(word);
+
+        var occurrences = new WordOccurrenceCounter(word);
+
+        var length = metrics.time("calculateFrequencyForWordInStream", Phase.COUNT,
+                () -> read(reader, new StreamingTokenizer(occurrences)));
+
+        metrics.recordInputCharacters("calculateFrequencyForWordInStream", length);
+        return occurrences.getCount();
+    }
+
+    @Override
+    public WordFrequency[] calculateFrequencyForWords(String text, List<String> words) {
+        var matcher = wordSetMatcher(words);
+        verifyText(text);
+
+        if (cache.isCacheable(text)) {
+            var counts = countGroupedByWord(text, "calculateFrequencyForWords");
+
+            return matcher.getWords().stream()
+                    .map(word -> WordFrequencyInfo.of(word, counts.delimitedCount(word)))
+                    .toArray(WordFrequency[]::new);
+        }
+
+        metrics.recordInputCharacters("calculateFrequencyForWords", text.length());
+
+        var counter = matcher.counter();
 
-        return Math.toIntExact(pattern.matcher(text.toLowerCase()).results().count());
+        metrics.time("calculateFrequencyForWords", Phase.COUNT, () -> countSequentially(text, counter));
+        return frequencies(matcher, counter);
     }
 
-    private void verifyWord(String word) {
-        var pattern = Pattern.compile(WORD_REGEX);
+    @Override
+    public WordFrequency[] calculateFrequencyForWordsInStream(Reader reader, List<String> words) {
+        var matcher = wordSetMatcher(words);
+        var counter = matcher.counter();
+
+        var length = metrics.time("calculateFrequencyForWordsInStream", Phase.COUNT,
+                () -> read(reader, new StreamingTokenizer(counter)));
+
+        metrics.recordInputCharacters("calculateFrequencyForWordsInStream", length);
+        return frequencies(matcher, counter);
+    }
+
+    private WordSetMatcher wordSetMatcher(List<String> words) {
+        if (words == null || words.isEmpty()) {
+            throw new WordProcessingException(Reason.INVALID_WORD, "No words were given to count.");
+        }
+        words.forEach(WordFrequencyService::verifyWord);
+
+        return wordSetMatchers.computeIfAbsent(List.copyOf(words), WordSetMatcher::of);
+    }
+
+    private static WordFrequency[] frequencies(WordSetMatcher matcher, WordSetMatcher.Counter counter) {
+        var words = matcher.getWords();
+        var counts = counter.getCounts();
+        var frequencies = new WordFrequency[counts.length];
+
+        for (int i = 0; i < counts.length; i++) {
+            frequencies[i] = WordFrequencyInfo.of(words.get(i), counts[i]);
+        }
 
-        if (isStringEmpty(word) || !pattern.matcher(word).matches()) {
-            throw new WordProcessingException(String.format("Word %s doesn't contain the required letters " +
+        return frequencies;
+    }
+
+    static void verifyWord(String word) {
+        if (isStringEmpty(word) || !word.chars().allMatch(AsciiLetterTokenizer::isLetter)) {
+            throw new WordProcessingException(Reason.INVALID_WORD, String.format("Word %s doesn't contain the required letters " +
                     "(a-z or A-Z).", word));
         }
     }
@@ -72,14 +436,231 @@ public class WordFrequencyService implements WordFrequencyAnalyzer {
     public WordFrequency[] calculateMostFrequentNWords(String text, int n) {
         verifyText(text);
 
-        var frequencyDescWordAscComparator =
-                Map.Entry.<String, Long>comparingByValue().reversed()
-                        .thenComparing(Map.Entry.comparingByKey());
+        return select(text, "calculateMostFrequentNWords", counts -> TopWordsSelector.select(counts, n));
+    }
+
+    @Override
+    public int calculateHighestFrequencyInStream(Reader reader) {
+        return select(reader, "calculateHighestFrequencyInStream", WordCounts::highestCount);
+    }
+
+    @Override
+    public WordFrequency[] calculateMostFrequentNWordsInStream(Reader reader, int n) {
+        return select(reader, "calculateMostFrequentNWordsInStream", counts -> TopWordsSelector.select(counts, n));
+    }
+
+    @Override
+    public int calculateHighestFrequencyInFile(Path file) {
+        return select(file, "calculateHighestFrequencyInFile", WordCounts::highestCount);
+    }
+
+    @Override
+    public int calculateFrequencyForWordInFile(Path file, String word) {
+        verifyWord(word);
+
+        try (var channel = openFile(file)) {
+            metrics.recordInputBytes("calculateFrequencyForWordInFile", channel.size());
+
+            return metrics.time("calculateFrequencyForWordInFile", Phase.COUNT,
+                    () -> tokenize(file, channel, () -> new WordOccurrenceCounter(word)).stream()
+                            .mapToInt(WordOccurrenceCounter::getCount)
+                            .sum());
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Reading file %s failed.", file), e);
+        }
+    }
+
+    @Override
+    public WordFrequency[] calculateMostFrequentNWordsInFile(Path file, int n) {
+        return select(file, "calculateMostFrequentNWordsInFile", counts -> TopWordsSelector.select(counts, n));
+    }
+
+    /**
+     * Calculates the highest frequency of one word in UTF-8 encoded text, from index 0 up to the limit of the
+     * buffer, without decoding the text into a String.
+     */
+    public int calculateHighestFrequencyInUtf8(ByteBuffer utf8) {
+        verifyUtf8(utf8);
+
+        return select(utf8, "calculateHighestFrequencyInUtf8", WordCounts::highestCount);
+    }
+
+    public int calculateFrequencyForWordInUtf8(ByteBuffer utf8, String word) {
+        verifyWord(word);
+        verifyUtf8(utf8);
+
+        metrics.recordInputBytes("calculateFrequencyForWordInUtf8", utf8.limit());
+
+        var occurrences = new WordOccurrenceCounter(word);
+
+        return metrics.time("calculateFrequencyForWordInUtf8", Phase.COUNT, () -> {
+            utf8Tokenizer.tokenize(utf8, 0, utf8.limit(), occurrences);
+            return occurrences.getCount();
+        });
+    }
+
+    public WordFrequency[] calculateMostFrequentNWordsInUtf8(ByteBuffer utf8, int n) {
+        verifyUtf8(utf8);
+
+        return select(utf8, "calculateMostFrequentNWordsInUtf8", counts -> TopWordsSelector.select(counts, n));
+    }
+
+    private static void verifyUtf8(ByteBuffer utf8) {
+        if (utf8 == null) {
+            throw new WordProcessingException(Reason.NULL_TEXT, "Input text is null. Null texts cannot be analyzed.");
+        }
+    }
+
+    @Override
+    public AnalysisResult analyze(String text, AnalysisQuery query) {
+        verifyText(text);
+        query.getWords().forEach(WordFrequencyService::verifyWord);
+
+        return select(text, "analyze", counts -> analyzeCounts(counts, query));
+    }
+
+    @Override
+    public AnalysisResult analyzeInStream(Reader reader, AnalysisQuery query) {
+        query.getWords().forEach(WordFrequencyService::verifyWord);
+
+        return select(reader, "analyzeInStream", counts -> analyzeCounts(counts, query));
+    }
+
+    @Override
+    public WordCountStream openStream() {
+        return new WordCountStream(metrics, maximumStreamLength);
+    }
+
+    /**
+     * Ranks the n most frequent words like {@link #calculateMostFrequentNWords(String, int)}, for results too large
+     * to hold as an array of word frequencies.
+     */
+    public WordRanking rankMostFrequentNWords(String text, int n) {
+        verifyText(text);
+
+        return select(text, "rankMostFrequentNWords", counts -> WordRanking.select(counts, n));
+    }
+
+    public WordRanking rankMostFrequentNWordsInStream(Reader reader, int n) {
+        return select(reader, "rankMostFrequentNWordsInStream", counts -> WordRanking.select(counts, n));
+    }
+
+    /**
+     * Estimates the highest frequency of one word with a fixed number of counters, for texts with a vocabulary
+     * too large to count exactly.
+     *
+     * @see SpaceSavingCounter
+     */
+    public EstimatedWordFrequency estimateHighestFrequency(String text) {
+        verifyText(text);
+
+        var counter = estimate(text, 1, "estimateHighestFrequency");
+
+        return metrics.time("estimateHighestFrequency", Phase.SELECT, () -> highestEstimate(counter));
+    }
+
+    public EstimatedWordFrequency estimateHighestFrequencyInStream(Reader reader) {
+        var counter = estimate(reader, 1, "estimateHighestFrequencyInStream");
+
+        return metrics.time("estimateHighestFrequencyInStream", Phase.SELECT, () -> highestEstimate(counter));
+    }
+
+    /**
+     * Estimates the top n words with a fixed number of counters, for texts with a vocabulary too large to count
+     * exactly. Every word that occurs more often than the number of words divided by the number of counters is
+     * found.
+     *
+     * @see SpaceSavingCounter
+     */
+    public EstimatedWordFrequency[] estimateMostFrequentNWords(String text, int n) {
+        verifyText(text);
+
+        var counter = estimate(text, n, "estimateMostFrequentNWords");
+
+        return metrics.time("estimateMostFrequentNWords", Phase.SELECT, () -> counter.select(n));
+    }
+
+    public EstimatedWordFrequency[] estimateMostFrequentNWordsInStream(Reader reader, int n) {
+        var counter = estimate(reader, n, "estimateMostFrequentNWordsInStream");
+
+        return metrics.time("estimateMostFrequentNWordsInStream", Phase.SELECT, () -> counter.select(n));
+    }
+
+    private SpaceSavingCounter estimate(String text, int n, String operation) {
+        verifyEstimatedWords(n);
+        metrics.recordInputCharacters(operation, text.length());
+
+        return metrics.time(operation, Phase.COUNT, () -> {
+            var counter = new SpaceSavingCounter(approximateCounters);
+
+            if (!isStringEmpty(text)) {
+                tokenizer.tokenize(text, counter);
+                addLeadingEmptyWord(counter, !AsciiLetterTokenizer.isLetter(text.charAt(0)));
+            }
+            return counter;
+        });
+    }
+
+    private SpaceSavingCounter estimate(Reader reader, int n, String operation) {
+        verifyEstimatedWords(n);
+
+        var counter = new SpaceSavingCounter(approximateCounters);
+        var streamingTokenizer = new StreamingTokenizer(counter);
+
+        var length = metrics.time(operation, Phase.COUNT, () -> read(reader, streamingTokenizer));
+        addLeadingEmptyWord(counter, streamingTokenizer.startsWithSeparator());
+
+        metrics.recordInputCharacters(operation, length);
+        return counter;
+    }
+
+    // the counters are fixed whatever n is asked for, so a single request can't take more memory than configured
+    private void verifyEstimatedWords(int n) {
+        if (n > approximateCounters) {
+            throw new WordProcessingException(Reason.TOO_MANY_ESTIMATED_WORDS, String.format("An approximate top n can't have " +
+                    "more than %d words.", approximateCounters));
+        }
+    }
+
+    private static EstimatedWordFrequency highestEstimate(SpaceSavingCounter counter) {
+        var highest = counter.select(1);
 
-        return countGroupedByWord(text).entrySet().stream()
-                .sorted(frequencyDescWordAscComparator)
-                .limit(Math.max(n, 0))
-                .map(e -> WordFrequencyInfo.of(e.getKey(), e.getValue().intValue()))
-                .toArray(WordFrequency[]::new);
+        return highest.length > 0 ? highest[0] : EstimatedWordFrequency.of("", 0, 0);
+    }
+
+    /**
+     * Answers the query from counts made before, such as merged snapshots.
+     */
+    public AnalysisResult analyzeCounts(WordCounts counts, AnalysisQuery query) {
+        var highestFrequency = query.isHighestFrequency() ? counts.highestCount() : null;
+
+        var wordFrequencies = query.getWords().stream()
+                .map(word -> word.toLowerCase(Locale.ROOT))
+                .map(word -> (WordFrequency) WordFrequencyInfo.of(word, counts.delimitedCount(word)))
+                .collect(Collectors.toList());
+
+        // every top n is a prefix of the largest one, so the words are only selected once
+        var topFrequencies = new LinkedHashMap<Integer, WordFrequency[]>();
+        if (!query.getTopN().isEmpty()) {
+            var top = TopWordsSelector.select(counts, Collections.max(query.getTopN()));
+
+            query.getTopN().forEach(n -> topFrequencies.put(n, Arrays.copyOf(top, Math.max(0, Math.min(n, top.length)))));
+        }
+
+        return AnalysisResult.of(highestFrequency, wordFrequencies, topFrequencies);
+    }
+
+    private static class LruCache<K, V> extends LinkedHashMap<K, V> {
+        private final int maximumSize;
+
+        LruCache(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maximumSize;
+        }
     }
 }
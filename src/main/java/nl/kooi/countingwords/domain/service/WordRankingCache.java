@@ -0,0 +1,62 @@
+package nl.kooi.countingwords.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.text.WordRanking;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Keeps the rankings of recent top n requests, so a large ranking can be read page by page without counting
+ * the text again.
+ * <p>
+ * Entries are weighed by their estimated heap size and expire a while after they were last read.
+ */
+@Component
+public class WordRankingCache implements MeterBinder {
+    private static final String CACHE_NAME = "word-rankings";
+
+    private final Cache<UUID, WordRanking> cache;
+
+    public WordRankingCache(WordCountProperties properties) {
+        var rankings = properties.getRankings();
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(rankings.getMaximumWeight().toBytes())
+                .weigher((UUID id, WordRanking ranking) -> (int) Math.min(ranking.estimatedHeapSize(), Integer.MAX_VALUE))
+                .expireAfterAccess(rankings.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the id the ranking can be read by
+     */
+    public UUID put(WordRanking ranking) {
+        var id = UUID.randomUUID();
+        cache.put(id, ranking);
+        return id;
+    }
+
+    public WordRanking get(UUID id) {
+        var ranking = cache.getIfPresent(id);
+
+        if (ranking == null) {
+            throw new WordProcessingException(Reason.UNKNOWN_RANKING, String.format("Ranking %s doesn't exist or has expired.", id));
+        }
+
+        return ranking;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+}
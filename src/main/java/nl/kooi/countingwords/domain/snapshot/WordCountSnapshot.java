@@ -0,0 +1,273 @@
+package nl.kooi.countingwords.domain.snapshot;
+
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.text.TopWordsSelector;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+import nl.kooi.countingwords.domain.text.WordCounts;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Word counts that are written in a compact binary form and combined with the counts of other texts, so the
+ * counts of the parts of a corpus, made on different instances, merge into the exact counts of the whole.
+ * <p>
+ * A snapshot is a magic number with the format version, the maximum error of its counts, the number of entries
+ * and the entries sorted by word, followed by the CRC-32 of all of that. An entry is a word, front coded as the
+ * number of UTF-8 bytes it shares with the previous word and the rest of its bytes, its count and its delimited
+ * count. Numbers are unsigned variable-length integers of 7 bits per byte. Snapshots can be concatenated, reading
+ * them adds them all up.
+ * <p>
+ * A snapshot may be pruned to the words that occurred at least a minimum number of times. The words left out
+ * occurred less often than that, so the count of any word in a pruned snapshot is at most the minimum minus one
+ * too low. That is the maximum error of the snapshot, and the maximum error of merged snapshots is the sum of
+ * theirs. Complete snapshots have no error.
+ */
+public class WordCountSnapshot {
+    public static final String MEDIA_TYPE = "application/vnd.counting-words.snapshot";
+
+    private static final byte[] MAGIC = {'W', 'C', 'S', 1};
+    private static final int MAXIMUM_WORD_BYTES = 1024 * 1024;
+
+    private final WordCountTable counts = new WordCountTable();
+    private long maximumError;
+
+    /**
+     * Adds the counts of a text.
+     *
+     * @throws WordProcessingException when a merged count no longer fits in an int
+     */
+    public void add(WordCounts other) {
+        other.forEach(this::add);
+    }
+
+    public void add(String word, int count, int delimitedCount) {
+        try {
+            counts.add(word, count, delimitedCount);
+        } catch (ArithmeticException e) {
+            throw new WordProcessingException(Reason.COUNT_TOO_LARGE,
+                    String.format("The snapshots can't be merged, the count of '%s' would exceed %d.", word, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Adds the counts and the maximum error of all snapshots in the stream, up to its end.
+     *
+     * @return the number of snapshots read
+     * @throws WordProcessingException when the stream holds anything else than complete snapshots, or when a merged
+     *                                 count no longer fits in an int
+     */
+    public int readFrom(InputStream in) throws IOException {
+        var buffered = new BufferedInputStream(in);
+        var snapshots = 0;
+
+        while (readSnapshot(buffered)) {
+            snapshots++;
+        }
+
+        return snapshots;
+    }
+
+    /**
+     * Writes the merged counts as one snapshot.
+     *
+     * @param minimumCount the count from which words are written, 1 for all of them
+     */
+    public void writeTo(OutputStream out, int minimumCount) throws IOException {
+        write(counts, minimumCount, maximumError, out);
+    }
+
+    /**
+     * Writes the counts of a text as a snapshot.
+     *
+     * @param minimumCount the count from which words are written, 1 for all of them
+     */
+    public static void write(WordCounts counts, int minimumCount, OutputStream out) throws IOException {
+        write(counts, minimumCount, 0, out);
+    }
+
+    public int highestFrequency() {
+        return counts.highestCount();
+    }
+
+    public int frequencyForWord(String word) {
+        return counts.delimitedCount(word.toLowerCase(Locale.ROOT));
+    }
+
+    public WordFrequency[] mostFrequentNWords(int n) {
+        return TopWordsSelector.select(counts, n);
+    }
+
+    public WordCounts getCounts() {
+        return counts;
+    }
+
+    /**
+     * @return how much lower than the actual counts the counts of the snapshot may be, 0 when they're exact
+     */
+    public long getMaximumError() {
+        return maximumError;
+    }
+
+    private static void write(WordCounts counts, int minimumCount, long maximumError, OutputStream out) throws IOException {
+        var words = new ArrayList<String>(counts.size());
+        counts.forEach((word, count, delimitedCount) -> {
+            if (count >= minimumCount) {
+                words.add(word);
+            }
+        });
+        Collections.sort(words);
+
+        var checksum = new CRC32();
+        var buffered = new BufferedOutputStream(out);
+        var checked = new CheckedOutputStream(buffered, checksum);
+
+        checked.write(MAGIC);
+        writeNumber(checked, maximumError + Math.max(minimumCount, 1) - 1);
+        writeNumber(checked, words.size());
+
+        var previous = new byte[0];
+
+        for (var word : words) {
+            var bytes = word.getBytes(StandardCharsets.UTF_8);
+            var mismatch = Arrays.mismatch(previous, bytes);
+            var shared = mismatch == -1 ? bytes.length : mismatch;
+
+            writeNumber(checked, shared);
+            writeNumber(checked, bytes.length - shared);
+            checked.write(bytes, shared, bytes.length - shared);
+            writeNumber(checked, counts.count(word));
+            writeNumber(checked, counts.delimitedCount(word));
+
+            previous = bytes;
+        }
+
+        var crc = (int) checksum.getValue();
+        buffered.write(new byte[]{(byte) (crc >>> 24), (byte) (crc >>> 16), (byte) (crc >>> 8), (byte) crc});
+        buffered.flush();
+    }
+
+    // returns false at the end of the stream, before the first byte of a snapshot
+    private boolean readSnapshot(InputStream in) throws IOException {
+        var checksum = new CRC32();
+        var checked = new CheckedInputStream(in, checksum);
+
+        var first = checked.read();
+        if (first == -1) {
+            return false;
+        }
+
+        var magic = new byte[MAGIC.length];
+        magic[0] = (byte) first;
+        readFully(checked, magic, 1, MAGIC.length - 1);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw invalid("it doesn't start with a snapshot header of a supported version");
+        }
+
+        var error = readNumber(checked);
+        var entries = readNumber(checked);
+        var word = new byte[64];
+        var wordLength = 0;
+        var table = new WordCountTable();
+
+        for (long i = 0; i < entries; i++) {
+            var shared = readNumber(checked);
+            var suffix = readNumber(checked);
+
+            if (shared > wordLength || suffix > MAXIMUM_WORD_BYTES) {
+                throw invalid("entry " + i + " is corrupt");
+            }
+
+            wordLength = (int) (shared + suffix);
+            if (word.length < wordLength) {
+                word = Arrays.copyOf(word, Math.max(wordLength, word.length * 2));
+            }
+            readFully(checked, word, (int) shared, (int) suffix);
+
+            var entry = new String(word, 0, wordLength, StandardCharsets.UTF_8);
+            try {
+                table.add(entry, readCount(checked), readCount(checked));
+            } catch (ArithmeticException e) {
+                throw invalid("the count of entry " + i + " is too large");
+            }
+        }
+
+        var crc = new byte[Integer.BYTES];
+        readFully(in, crc, 0, crc.length);
+        if ((int) checksum.getValue() != ((crc[0] & 0xFF) << 24 | (crc[1] & 0xFF) << 16 | (crc[2] & 0xFF) << 8 | crc[3] & 0xFF)) {
+            throw invalid("its checksum doesn't match");
+        }
+
+        // only a snapshot that was read completely adds to the counts
+        var mergedError = addError(maximumError, error);
+        add(table);
+        maximumError = mergedError;
+        return true;
+    }
+
+    private static long addError(long maximumError, long error) {
+        try {
+            return Math.addExact(maximumError, error);
+        } catch (ArithmeticException e) {
+            throw invalid("its maximum error is too large");
+        }
+    }
+
+    private static void writeNumber(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readNumber(InputStream in) throws IOException {
+        var value = 0L;
+
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            var b = in.read();
+            if (b == -1) {
+                throw invalid("it ends before its last entry");
+            }
+
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw invalid("it holds a number that is too large");
+    }
+
+    private static int readCount(InputStream in) throws IOException {
+        var count = readNumber(in);
+
+        if (count > Integer.MAX_VALUE) {
+            throw invalid("it holds a count that is too large");
+        }
+        return (int) count;
+    }
+
+    private static void readFully(InputStream in, byte[] bytes, int offset, int length) throws IOException {
+        if (in.readNBytes(bytes, offset, length) < length) {
+            throw invalid("it ends before its last entry");
+        }
+    }
+
+    private static WordProcessingException invalid(String problem) {
+        return new WordProcessingException(Reason.INVALID_SNAPSHOT, String.format("The snapshot can't be read, %s.", problem));
+    }
+}
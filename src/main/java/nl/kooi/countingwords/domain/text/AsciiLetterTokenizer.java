@@ -0,0 +1,112 @@
+package nl.kooi.countingwords.domain.text;
+
+import java.util.Arrays;
+
+/**
+ * Tokenizer that treats every run of ASCII letters as a word, which is what splitting on {@code [^A-Za-z]+}
+ * does, but in a single pass without a regex, an intermediate array or a String per token.
+ */
+public class AsciiLetterTokenizer implements Tokenizer {
+    private static final int INITIAL_WORD_CAPACITY = 32;
+
+    // maps an ASCII letter to its lower case variant and every other ASCII character to 0
+    private static final char[] LOWER_CASE_LETTERS = new char[128];
+    private static final boolean[] ASCII_WORD_CHARACTERS = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            LOWER_CASE_LETTERS[c] = c;
+            LOWER_CASE_LETTERS[Character.toUpperCase(c)] = c;
+        }
+
+        for (char c = 0; c < 128; c++) {
+            ASCII_WORD_CHARACTERS[c] = c == '_' || Character.isLetterOrDigit(c);
+        }
+    }
+
+    public static boolean isLetter(int c) {
+        return c >= 0 && c < 128 && LOWER_CASE_LETTERS[c] != 0;
+    }
+
+    /**
+     * @return the lower case variant of an ASCII letter, or 0 if {@code c} is not an ASCII letter
+     */
+    public static char toLowerCaseLetter(int c) {
+        return c >= 0 && c < 128 ? LOWER_CASE_LETTERS[c] : 0;
+    }
+
+    /**
+     * Whether the code point counts as a word character for the {@code \b} boundary of a regular expression.
+     * Like there, a non-spacing mark counts as one, which is right for a mark following a letter or digit, the
+     * only kind that can follow a word; {@link #isDelimited(CharSequence, int, int)} checks the base of a mark
+     * before a word.
+     */
+    public static boolean isWordCharacter(int codePoint) {
+        return codePoint < 128 ?
+                ASCII_WORD_CHARACTERS[codePoint] :
+                Character.isLetterOrDigit(codePoint) || isNonSpacingMark(codePoint);
+    }
+
+    public static boolean isNonSpacingMark(int codePoint) {
+        return codePoint >= 128 && Character.getType(codePoint) == Character.NON_SPACING_MARK;
+    }
+
+    public static boolean isDelimited(CharSequence text, int start, int end) {
+        return (start == 0 || !isWordCharacterBefore(text, start))
+                && (end == text.length() || !isWordCharacter(Character.codePointAt(text, end)));
+    }
+
+    // like \b, looks back char by char for the letter or digit a non-spacing mark belongs to, so surrogates end
+    // the search
+    private static boolean isWordCharacterBefore(CharSequence text, int index) {
+        var codePoint = Character.codePointBefore(text, index);
+
+        if (!isNonSpacingMark(codePoint)) {
+            return isWordCharacter(codePoint);
+        }
+
+        for (int i = index - 1; i > 0; i--) {
+            var c = text.charAt(i - 1);
+
+            if (!isNonSpacingMark(c)) {
+                return Character.isLetterOrDigit(c);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void tokenize(CharSequence text, int from, int to, TokenSink sink) {
+        var word = new char[INITIAL_WORD_CAPACITY];
+        var length = 0;
+        var start = from;
+
+        for (int i = from; i < to; i++) {
+            var letter = toLowerCaseLetter(text.charAt(i));
+
+            if (letter != 0) {
+                if (length == 0) {
+                    start = i;
+                } else if (length == word.length) {
+                    word = Arrays.copyOf(word, length * 2);
+                }
+                word[length++] = letter;
+            } else if (length > 0) {
+                sink.accept(word, length, isDelimited(text, start, i));
+                length = 0;
+            }
+        }
+
+        if (length > 0) {
+            sink.accept(word, length, isDelimited(text, start, to));
+        }
+    }
+
+    @Override
+    public int nextSplitIndex(CharSequence text, int index) {
+        while (index < text.length() && isLetter(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
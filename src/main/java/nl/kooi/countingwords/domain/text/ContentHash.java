@@ -0,0 +1,94 @@
+package nl.kooi.countingwords.domain.text;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 128-bit fingerprint of a text, computed with the MurmurHash3 mixing functions over four characters at a
+ * time. Accidental collisions are negligible, but the fingerprint is not collision resistant against texts
+ * that are crafted to collide; a secret seed makes crafting them harder, but users of the fingerprint still have
+ * to compare the texts when a collision would do harm.
+ */
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class ContentHash {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final long high;
+    private final long low;
+    private final int length;
+
+    public static ContentHash of(CharSequence text) {
+        return of(text, 0);
+    }
+
+    public static ContentHash of(CharSequence text, long seed) {
+        var h1 = seed;
+        var h2 = seed;
+        var length = text.length();
+        var i = 0;
+
+        for (; i + 8 <= length; i += 8) {
+            var k1 = pack(text, i);
+            var k2 = pack(text, i + 4);
+
+            h1 ^= mixK1(k1);
+            h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+        }
+
+        var k1 = 0L;
+        var k2 = 0L;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            if (shift < 64) {
+                k1 |= (long) text.charAt(i) << shift;
+            } else {
+                k2 |= (long) text.charAt(i) << (shift - 64);
+            }
+        }
+        h1 ^= mixK1(k1);
+        h2 ^= mixK2(k2);
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = finalMix(h1);
+        h2 = finalMix(h2);
+        h1 += h2;
+        h2 += h1;
+
+        return new ContentHash(h1, h2, length);
+    }
+
+    private static long pack(CharSequence text, int index) {
+        return text.charAt(index)
+                | (long) text.charAt(index + 1) << 16
+                | (long) text.charAt(index + 2) << 32
+                | (long) text.charAt(index + 3) << 48;
+    }
+
+    private static long mixK1(long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    private static long finalMix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
@@ -0,0 +1,51 @@
+package nl.kooi.countingwords.domain.text;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+
+/**
+ * Frees the memory of direct buffers right away, instead of whenever the garbage collector finds the buffer
+ * unreachable. The JDK only offers this through {@code sun.misc.Unsafe.invokeCleaner}; when that isn't
+ * available the memory is left to the collector.
+ */
+@Slf4j
+final class DirectBuffers {
+    private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+    private DirectBuffers() {
+    }
+
+    /**
+     * Frees the memory of the buffer, which must not be used afterwards, nor any view of it.
+     */
+    static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || buffer == null || !buffer.isDirect()) {
+            return;
+        }
+
+        try {
+            INVOKE_CLEANER.invokeExact(buffer);
+        } catch (Throwable e) {
+            log.warn("Freeing a direct buffer failed, its memory is freed by the garbage collector.", e);
+        }
+    }
+
+    private static MethodHandle invokeCleaner() {
+        try {
+            var unsafeClass = Class.forName("sun.misc.Unsafe");
+            var theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.info("Direct buffers can't be freed explicitly, their memory is freed by the garbage collector.");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package nl.kooi.countingwords.domain.text;
+
+import java.util.Arrays;
+
+/**
+ * Counts the case-insensitive occurrences of one word of ASCII letters that are delimited by non-word
+ * characters, which is what the regular expression {@code (?i)\bword\b} finds.
+ * <p>
+ * The text is scanned in place with the Boyer-Moore-Horspool bad character rule, so no lower case copy of
+ * the text is made and most characters are skipped instead of compared.
+ */
+public class ExactWordMatcher {
+    private final char[] word;
+    private final int[] shifts = new int[128];
+
+    private ExactWordMatcher(char[] word) {
+        this.word = word;
+
+        Arrays.fill(shifts, word.length);
+        for (int i = 0; i < word.length - 1; i++) {
+            shifts[word[i]] = word.length - 1 - i;
+        }
+    }
+
+    /**
+     * @param word a non-empty word consisting of ASCII letters only
+     */
+    public static ExactWordMatcher of(String word) {
+        if (word.isEmpty()) {
+            throw new IllegalArgumentException("Word is empty.");
+        }
+
+        var lowerCaseWord = new char[word.length()];
+
+        for (int i = 0; i < lowerCaseWord.length; i++) {
+            lowerCaseWord[i] = AsciiLetterTokenizer.toLowerCaseLetter(word.charAt(i));
+
+            if (lowerCaseWord[i] == 0) {
+                throw new IllegalArgumentException(String.format("Word %s contains other characters than a-z or A-Z.", word));
+            }
+        }
+
+        return new ExactWordMatcher(lowerCaseWord);
+    }
+
+    public int count(CharSequence text) {
+        return count(text, 0, text.length());
+    }
+
+    /**
+     * Counts the matches that lie within {@code text[from, to)}; characters outside the range are only used
+     * to check the word boundaries.
+     */
+    public int count(CharSequence text, int from, int to) {
+        var last = word.length - 1;
+        var count = 0;
+        var position = from;
+
+        while (position + last < to) {
+            // toLowerCaseLetter maps every non-letter to 0, which never occurs in the word and shifts a full word
+            var lastLetter = AsciiLetterTokenizer.toLowerCaseLetter(text.charAt(position + last));
+
+            if (lastLetter == word[last] && matchesAt(text, position)
+                    && AsciiLetterTokenizer.isDelimited(text, position, position + word.length)) {
+                count++;
+                position += word.length;
+            } else {
+                position += shifts[lastLetter];
+            }
+        }
+
+        return count;
+    }
+
+    private boolean matchesAt(CharSequence text, int position) {
+        for (int i = word.length - 2; i >= 0; i--) {
+            if (AsciiLetterTokenizer.toLowerCaseLetter(text.charAt(position + i)) != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,140 @@
+package nl.kooi.countingwords.domain.text;
+
+/**
+ * Works on the string literals of UTF-8 encoded JSON without decoding them into Strings.
+ */
+public final class JsonStrings {
+    private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+
+    private JsonStrings() {
+    }
+
+    /**
+     * @param from the index right after the opening quote of a string literal
+     * @return the index of the closing quote
+     * @throws IllegalArgumentException when the string literal isn't closed
+     */
+    public static int endOfString(byte[] json, int from) {
+        for (int i = from; i < json.length; i++) {
+            if (json[i] == '"') {
+                return i;
+            } else if (json[i] == '\\') {
+                i++;
+            }
+        }
+
+        throw new IllegalArgumentException("Unterminated JSON string.");
+    }
+
+    /**
+     * Replaces the escape sequences of the content of a string literal, {@code bytes[from, to)}, by the UTF-8
+     * encoding of the characters they stand for. That encoding is never longer than the escape sequence, so this
+     * happens in place. Unpaired surrogates become U+FFFD, which like them is no word character.
+     *
+     * @return the index after the last byte of the unescaped content
+     * @throws IllegalArgumentException when an escape sequence is invalid
+     */
+    public static int unescapeInPlace(byte[] bytes, int from, int to) {
+        var read = from;
+
+        while (read < to && bytes[read] != '\\') {
+            read++;
+        }
+
+        var write = read;
+
+        while (read < to) {
+            var b = bytes[read++];
+
+            if (b != '\\') {
+                bytes[write++] = b;
+                continue;
+            }
+
+            if (read >= to) {
+                throw new IllegalArgumentException("Incomplete JSON escape sequence.");
+            }
+
+            var escaped = bytes[read++];
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    bytes[write++] = escaped;
+                    break;
+                case 'b':
+                    bytes[write++] = '\b';
+                    break;
+                case 'f':
+                    bytes[write++] = '\f';
+                    break;
+                case 'n':
+                    bytes[write++] = '\n';
+                    break;
+                case 'r':
+                    bytes[write++] = '\r';
+                    break;
+                case 't':
+                    bytes[write++] = '\t';
+                    break;
+                case 'u':
+                    var codePoint = hex(bytes, read, to);
+                    read += 4;
+
+                    if (Character.isHighSurrogate((char) codePoint) && read + 6 <= to && bytes[read] == '\\' && bytes[read + 1] == 'u') {
+                        var low = hex(bytes, read + 2, to);
+
+                        if (Character.isLowSurrogate((char) low)) {
+                            codePoint = Character.toCodePoint((char) codePoint, (char) low);
+                            read += 6;
+                        }
+                    }
+
+                    write = encode(Character.isSurrogate((char) codePoint) && codePoint <= 0xFFFF ? REPLACEMENT_CHARACTER : codePoint, bytes, write);
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Invalid JSON escape sequence \\%c.", (char) escaped));
+            }
+        }
+
+        return write;
+    }
+
+    private static int hex(byte[] bytes, int from, int to) {
+        if (from + 4 > to) {
+            throw new IllegalArgumentException("Incomplete JSON unicode escape sequence.");
+        }
+
+        var value = 0;
+        for (int i = from; i < from + 4; i++) {
+            var digit = Character.digit(bytes[i], 16);
+
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid JSON unicode escape sequence.");
+            }
+            value = value << 4 | digit;
+        }
+
+        return value;
+    }
+
+    private static int encode(int codePoint, byte[] bytes, int index) {
+        if (codePoint < 0x80) {
+            bytes[index++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            bytes[index++] = (byte) (0xC0 | codePoint >> 6);
+            bytes[index++] = (byte) (0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000) {
+            bytes[index++] = (byte) (0xE0 | codePoint >> 12);
+            bytes[index++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            bytes[index++] = (byte) (0x80 | codePoint & 0x3F);
+        } else {
+            bytes[index++] = (byte) (0xF0 | codePoint >> 18);
+            bytes[index++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            bytes[index++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            bytes[index++] = (byte) (0x80 | codePoint & 0x3F);
+        }
+
+        return index;
+    }
+}
@@ -0,0 +1,132 @@
+package nl.kooi.countingwords.domain.text;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Tokenizes UTF-8 files by memory-mapping them and scanning the mapped bytes in place, so the file content
+ * never becomes a Java String.
+ * <p>
+ * A file is mapped in regions that are split at word boundaries. Files of at least the parallel threshold are
+ * cut into as many regions as the pool has threads, and the regions are tokenized in parallel.
+ */
+public class MappedFileTokenizer {
+    // regions are mapped with this many extra bytes on both sides to decode the characters around a word
+    private static final int MARGIN = 4;
+    private static final long MAXIMUM_REGION_SIZE = 1L << 30;
+    private static final int SPLIT_SEARCH_BUFFER_SIZE = 8 * 1024;
+
+    private final Utf8Tokenizer tokenizer = new Utf8Tokenizer();
+    private final ForkJoinPool pool;
+    private final long parallelThreshold;
+
+    public MappedFileTokenizer(ForkJoinPool pool, long parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * @return one sink per mapped region, every sink holding the words of its own region
+     */
+    public <S extends TokenSink> List<S> tokenize(FileChannel channel, Supplier<S> sinks) throws IOException {
+        var boundaries = regionBoundaries(channel);
+
+        if (boundaries.size() == 2) {
+            return List.of(tokenize(channel, boundaries.get(0), boundaries.get(1), sinks.get()));
+        }
+
+        var regions = new ArrayList<Callable<S>>();
+        for (int i = 0; i + 1 < boundaries.size(); i++) {
+            var from = boundaries.get(i);
+            var to = boundaries.get(i + 1);
+            regions.add(() -> tokenize(channel, from, to, sinks.get()));
+        }
+
+        var results = new ArrayList<S>(regions.size());
+        try {
+            for (var future : pool.invokeAll(regions)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while tokenizing the file.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        return results;
+    }
+
+    public boolean startsWithSeparator(FileChannel channel) throws IOException {
+        var first = ByteBuffer.allocate(1);
+        return channel.read(first, 0) == 1 && !AsciiLetterTokenizer.isLetter(first.get(0));
+    }
+
+    private <S extends TokenSink> S tokenize(FileChannel channel, long from, long to, S sink) {
+        try {
+            var mappedFrom = Math.max(0, from - MARGIN);
+            var mappedTo = Math.min(channel.size(), to + MARGIN);
+            var bytes = channel.map(FileChannel.MapMode.READ_ONLY, mappedFrom, mappedTo - mappedFrom);
+
+            tokenizer.tokenize(bytes, (int) (from - mappedFrom), (int) (to - mappedFrom), sink);
+            return sink;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Long> regionBoundaries(FileChannel channel) throws IOException {
+        var size = channel.size();
+        var regionCount = Math.max(1, (size + MAXIMUM_REGION_SIZE - 1) / MAXIMUM_REGION_SIZE);
+
+        if (size >= parallelThreshold) {
+            regionCount = Math.max(regionCount, pool.getParallelism());
+        }
+
+        var boundaries = new ArrayList<Long>();
+        boundaries.add(0L);
+
+        for (long region = 1; region < regionCount; region++) {
+            var boundary = nextSplitIndex(channel, Math.max(size / regionCount * region, boundaries.get(boundaries.size() - 1)));
+
+            if (boundary < size && boundary > boundaries.get(boundaries.size() - 1)) {
+                boundaries.add(boundary);
+            }
+        }
+
+        boundaries.add(size);
+        return boundaries;
+    }
+
+    private long nextSplitIndex(FileChannel channel, long index) throws IOException {
+        var buffer = ByteBuffer.allocate(SPLIT_SEARCH_BUFFER_SIZE);
+
+        while (true) {
+            buffer.clear();
+            var read = channel.read(buffer, index);
+
+            if (read <= 0) {
+                return channel.size();
+            }
+
+            for (int i = 0; i < read; i++) {
+                if (!AsciiLetterTokenizer.isLetter(buffer.get(i))) {
+                    return index + i;
+                }
+            }
+
+            index += read;
+        }
+    }
+}
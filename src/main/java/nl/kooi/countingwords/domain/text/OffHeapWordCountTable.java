@@ -0,0 +1,359 @@
+package nl.kooi.countingwords.domain.text;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open addressing hash table like {@link WordCountTable} that keeps all of its data outside of the Java heap,
+ * so counting a text with a huge vocabulary hardly adds to the heap and to the work of the garbage collector.
+ * <p>
+ * Words are stored once as UTF-8 bytes, prefixed by their length, in an arena of direct buffer chunks. The
+ * slots are parallel direct buffer regions of hashes, counts, delimited counts and references into the arena.
+ * Words only become Strings when they are handed out, and {@link #offerTo(TopWordsSelector)} only builds the
+ * words that can make it into the selection.
+ * <p>
+ * The memory is freed when the table is closed, and the table can't be used afterwards. Tables must be
+ * closed as soon as the request that counted them is done.
+ */
+public class OffHeapWordCountTable implements WordCounts, TokenSink, AutoCloseable {
+    private static final int MINIMUM_CAPACITY = 1024;
+    private static final int MAXIMUM_CAPACITY = 1 << 27;
+    private static final float LOAD_FACTOR = 0.6f;
+    // arena chunks double from the first to the maximum size, so small texts don't reserve a lot of memory
+    private static final int FIRST_ARENA_CHUNK_SIZE = 16 * 1024;
+    private static final int MAXIMUM_ARENA_CHUNK_SIZE = 1024 * 1024;
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int EMPTY = 0;
+
+    private final List<ByteBuffer> arena = new ArrayList<>();
+    private ByteBuffer chunk;
+
+    private ByteBuffer hashes;
+    private ByteBuffer counts;
+    private ByteBuffer delimitedCounts;
+    // reference into the arena plus one, so the zeroes of a new buffer mark empty slots
+    private ByteBuffer keys;
+    private int capacity;
+    private int size;
+    private int resizeThreshold;
+    private long totalCount;
+    private boolean closed;
+
+    // scratch space for encoding and comparing words, reused for every word
+    private byte[] encoded = new byte[64];
+    private byte[] stored = new byte[64];
+
+    public OffHeapWordCountTable() {
+        allocate(MINIMUM_CAPACITY);
+    }
+
+    @Override
+    public void accept(char[] word, int length, boolean delimited) {
+        verifyOpen();
+        add(hash(word, length), encode(word, length), 1, delimited ? 1 : 0);
+    }
+
+    public void add(String word, int count, int delimitedCount) {
+        verifyOpen();
+        add(word.hashCode(), encode(word), count, delimitedCount);
+    }
+
+    /**
+     * Adds the counts of the other table without turning its words into Strings.
+     */
+    public void addAll(OffHeapWordCountTable other) {
+        verifyOpen();
+        other.verifyOpen();
+
+        for (int slot = 0; slot < other.capacity; slot++) {
+            var key = other.keys.getLong(slot * Long.BYTES);
+
+            if (key != EMPTY) {
+                var length = other.readKey(key);
+                ensureScratchCapacity(length);
+                System.arraycopy(other.stored, 0, encoded, 0, length);
+
+                add(other.hashes.getInt(slot * Integer.BYTES), length,
+                        other.counts.getInt(slot * Integer.BYTES), other.delimitedCounts.getInt(slot * Integer.BYTES));
+            }
+        }
+    }
+
+    /**
+     * Merges the smaller table into the larger one and closes the smaller one.
+     *
+     * @return the table holding the counts of both
+     */
+    public static OffHeapWordCountTable merge(OffHeapWordCountTable first, OffHeapWordCountTable second) {
+        var larger = first.size() < second.size() ? second : first;
+        var smaller = larger == first ? second : first;
+
+        larger.addAll(smaller);
+        smaller.close();
+        return larger;
+    }
+
+    @Override
+    public int count(String word) {
+        verifyOpen();
+        var slot = find(word.hashCode(), encode(word));
+        return keys.getLong(slot * Long.BYTES) != EMPTY ? counts.getInt(slot * Integer.BYTES) : 0;
+    }
+
+    @Override
+    public int delimitedCount(String word) {
+        verifyOpen();
+        var slot = find(word.hashCode(), encode(word));
+        return keys.getLong(slot * Long.BYTES) != EMPTY ? delimitedCounts.getInt(slot * Integer.BYTES) : 0;
+    }
+
+    @Override
+    public int highestCount() {
+        verifyOpen();
+        var highest = 0;
+
+        for (int slot = 0; slot < capacity; slot++) {
+            if (keys.getLong(slot * Long.BYTES) != EMPTY) {
+                highest = Math.max(highest, counts.getInt(slot * Integer.BYTES));
+            }
+        }
+
+        return highest;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return the number of bytes this table holds outside of the heap
+     */
+    public long offHeapSize() {
+        return (long) capacity * (3 * Integer.BYTES + Long.BYTES) + arena.stream().mapToLong(ByteBuffer::capacity).sum();
+    }
+
+    @Override
+    public void forEach(WordCountConsumer consumer) {
+        verifyOpen();
+
+        for (int slot = 0; slot < capacity; slot++) {
+            var key = keys.getLong(slot * Long.BYTES);
+
+            if (key != EMPTY) {
+                consumer.accept(word(key), counts.getInt(slot * Integer.BYTES), delimitedCounts.getInt(slot * Integer.BYTES));
+            }
+        }
+    }
+
+    @Override
+    public void offerTo(TopWordsSelector selector) {
+        verifyOpen();
+
+        for (int slot = 0; slot < capacity; slot++) {
+            var key = keys.getLong(slot * Long.BYTES);
+
+            if (key != EMPTY && selector.accepts(counts.getInt(slot * Integer.BYTES))) {
+                selector.offer(word(key), counts.getInt(slot * Integer.BYTES));
+            }
+        }
+    }
+
+    /**
+     * Frees the memory of the table; calling it again has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        free(hashes, counts, delimitedCounts, keys);
+        arena.forEach(DirectBuffers::free);
+        arena.clear();
+        chunk = null;
+    }
+
+    // adds the first length bytes of the encoded scratch array as a word
+    private void add(int hash, int length, int count, int delimitedCount) {
+        var slot = find(hash, length);
+        totalCount += count;
+
+        if (keys.getLong(slot * Long.BYTES) != EMPTY) {
+            counts.putInt(slot * Integer.BYTES, counts.getInt(slot * Integer.BYTES) + count);
+            delimitedCounts.putInt(slot * Integer.BYTES, delimitedCounts.getInt(slot * Integer.BYTES) + delimitedCount);
+            return;
+        }
+
+        hashes.putInt(slot * Integer.BYTES, hash);
+        counts.putInt(slot * Integer.BYTES, count);
+        delimitedCounts.putInt(slot * Integer.BYTES, delimitedCount);
+        keys.putLong(slot * Long.BYTES, storeKey(length) + 1);
+
+        if (++size > resizeThreshold) {
+            resize();
+        }
+    }
+
+    private int find(int hash, int length) {
+        var mask = capacity - 1;
+        var slot = mix(hash) & mask;
+
+        while (true) {
+            var key = keys.getLong(slot * Long.BYTES);
+
+            if (key == EMPTY || hashes.getInt(slot * Integer.BYTES) == hash && readKey(key) == length
+                    && Arrays.equals(stored, 0, length, encoded, 0, length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // copies the bytes of the referenced word into the stored scratch array
+    private int readKey(long key) {
+        var reference = key - 1;
+        var keyChunk = arena.get((int) (reference >>> 32));
+        var offset = (int) reference;
+        var length = keyChunk.getInt(offset);
+
+        if (stored.length < length) {
+            stored = new byte[Math.max(length, stored.length * 2)];
+        }
+        keyChunk.get(offset + LENGTH_BYTES, stored, 0, length);
+        return length;
+    }
+
+    private long storeKey(int length) {
+        var needed = LENGTH_BYTES + length;
+
+        if (chunk == null || chunk.capacity() - chunk.position() < needed) {
+            var chunkSize = arena.size() < 6 ? FIRST_ARENA_CHUNK_SIZE << arena.size() : MAXIMUM_ARENA_CHUNK_SIZE;
+            chunk = ByteBuffer.allocateDirect(Math.max(chunkSize, needed));
+            arena.add(chunk);
+        }
+
+        var offset = chunk.position();
+        chunk.putInt(length);
+        chunk.put(encoded, 0, length);
+
+        return (long) (arena.size() - 1) << 32 | offset;
+    }
+
+    private String word(long key) {
+        var length = readKey(key);
+        return new String(stored, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void resize() {
+        if (capacity >= MAXIMUM_CAPACITY) {
+            throw new IllegalStateException(String.format("Off-heap word count table can't hold more than %d words.", resizeThreshold));
+        }
+
+        var oldCapacity = capacity;
+        var oldHashes = hashes;
+        var oldCounts = counts;
+        var oldDelimitedCounts = delimitedCounts;
+        var oldKeys = keys;
+
+        allocate(oldCapacity * 2);
+
+        var mask = capacity - 1;
+
+        for (int oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+            var key = oldKeys.getLong(oldSlot * Long.BYTES);
+
+            if (key != EMPTY) {
+                var hash = oldHashes.getInt(oldSlot * Integer.BYTES);
+                var slot = mix(hash) & mask;
+
+                while (keys.getLong(slot * Long.BYTES) != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+
+                hashes.putInt(slot * Integer.BYTES, hash);
+                counts.putInt(slot * Integer.BYTES, oldCounts.getInt(oldSlot * Integer.BYTES));
+                delimitedCounts.putInt(slot * Integer.BYTES, oldDelimitedCounts.getInt(oldSlot * Integer.BYTES));
+                keys.putLong(slot * Long.BYTES, key);
+            }
+        }
+
+        free(oldHashes, oldCounts, oldDelimitedCounts, oldKeys);
+    }
+
+    private void allocate(int capacity) {
+        this.capacity = capacity;
+        this.hashes = ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder());
+        this.counts = ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder());
+        this.delimitedCounts = ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder());
+        this.keys = ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder());
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int encode(char[] word, int length) {
+        ensureScratchCapacity(length * 3);
+
+        var ascii = 0;
+        while (ascii < length && word[ascii] < 0x80) {
+            encoded[ascii] = (byte) word[ascii];
+            ascii++;
+        }
+
+        if (ascii == length) {
+            return length;
+        }
+
+        return encode(new String(word, 0, length));
+    }
+
+    private int encode(String word) {
+        var bytes = word.getBytes(StandardCharsets.UTF_8);
+        ensureScratchCapacity(bytes.length);
+        System.arraycopy(bytes, 0, encoded, 0, bytes.length);
+        return bytes.length;
+    }
+
+    private void ensureScratchCapacity(int length) {
+        if (encoded.length < length) {
+            encoded = new byte[Math.max(length, encoded.length * 2)];
+        }
+    }
+
+    private void verifyOpen() {
+        if (closed) {
+            throw new IllegalStateException("Off-heap word count table is closed.");
+        }
+    }
+
+    private static void free(ByteBuffer... buffers) {
+        for (var buffer : buffers) {
+            DirectBuffers.free(buffer);
+        }
+    }
+
+    // same function as String.hashCode(), so a String key can be looked up by its cached hash
+    private static int hash(char[] word, int length) {
+        var hash = 0;
+
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + word[i];
+        }
+
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        var mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
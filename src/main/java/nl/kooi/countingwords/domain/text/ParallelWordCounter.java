@@ -0,0 +1,132 @@
+package nl.kooi.countingwords.domain.text;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Counts the words of a large text on a fork-join pool: the text is split at word boundaries into chunks,
+ * every chunk is counted into a table of its own and the partial tables are merged while joining.
+ */
+public class ParallelWordCounter {
+    private final Tokenizer tokenizer;
+    private final Utf8Tokenizer utf8Tokenizer = new Utf8Tokenizer();
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ParallelWordCounter(Tokenizer tokenizer, ForkJoinPool pool, int chunkSize) {
+        this.tokenizer = tokenizer;
+        this.pool = pool;
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    public WordCountTable count(CharSequence text) {
+        return count(text, WordCountTable::new, WordCountTable::merge);
+    }
+
+    /**
+     * Counts the text into tables of the given kind.
+     *
+     * @param tables creates the table of a chunk
+     * @param merge  merges two partial tables into one
+     */
+    public <T extends TokenSink> T count(CharSequence text, Supplier<T> tables, BinaryOperator<T> merge) {
+        return pool.invoke(new CountTask<>(text, 0, text.length(), tables, merge));
+    }
+
+    /**
+     * Counts UTF-8 encoded text, from index 0 up to the limit of the buffer, into tables of the given kind.
+     */
+    public <T extends TokenSink> T count(ByteBuffer utf8, Supplier<T> tables, BinaryOperator<T> merge) {
+        return pool.invoke(new Utf8CountTask<>(utf8, 0, utf8.limit(), tables, merge));
+    }
+
+    private class CountTask<T extends TokenSink> extends RecursiveTask<T> {
+        private final CharSequence text;
+        private final int from;
+        private final int to;
+        private final Supplier<T> tables;
+        private final BinaryOperator<T> merge;
+
+        CountTask(CharSequence text, int from, int to, Supplier<T> tables, BinaryOperator<T> merge) {
+            this.text = text;
+            this.from = from;
+            this.to = to;
+            this.tables = tables;
+            this.merge = merge;
+        }
+
+        @Override
+        protected T compute() {
+            var split = to - from > chunkSize ? tokenizer.nextSplitIndex(text, from + (to - from) / 2) : to;
+
+            if (split >= to) {
+                var counts = tables.get();
+                tokenizer.tokenize(text, from, to, counts);
+                return counts;
+            }
+
+            var right = new CountTask<>(text, split, to, tables, merge);
+            right.fork();
+            T leftCounts;
+            try {
+                leftCounts = new CountTask<>(text, from, split, tables, merge).compute();
+            } finally {
+                // a failure only ends the count once the forked half is done with its tables too
+                right.quietlyJoin();
+            }
+            var rightCounts = right.join();
+
+            return merge.apply(leftCounts, rightCounts);
+        }
+    }
+
+    private class Utf8CountTask<T extends TokenSink> extends RecursiveTask<T> {
+        private final ByteBuffer bytes;
+        private final int from;
+        private final int to;
+        private final Supplier<T> tables;
+        private final BinaryOperator<T> merge;
+
+        Utf8CountTask(ByteBuffer bytes, int from, int to, Supplier<T> tables, BinaryOperator<T> merge) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+            this.tables = tables;
+            this.merge = merge;
+        }
+
+        @Override
+        protected T compute() {
+            var split = to - from > chunkSize ? nextSplitIndex(from + (to - from) / 2) : to;
+
+            if (split >= to) {
+                var counts = tables.get();
+                utf8Tokenizer.tokenize(bytes, from, to, counts);
+                return counts;
+            }
+
+            var right = new Utf8CountTask<>(bytes, split, to, tables, merge);
+            right.fork();
+            T leftCounts;
+            try {
+                leftCounts = new Utf8CountTask<>(bytes, from, split, tables, merge).compute();
+            } finally {
+                right.quietlyJoin();
+            }
+            var rightCounts = right.join();
+
+            return merge.apply(leftCounts, rightCounts);
+        }
+
+        // any byte that isn't an ASCII letter ends a word, even one in the middle of a multi-byte character
+        private int nextSplitIndex(int index) {
+            while (index < to && AsciiLetterTokenizer.isLetter(bytes.get(index))) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
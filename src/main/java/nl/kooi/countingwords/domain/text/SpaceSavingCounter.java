@@ -0,0 +1,242 @@
+package nl.kooi.countingwords.domain.text;
+
+import nl.kooi.countingwords.domain.EstimatedWordFrequency;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Estimates the most frequent words of a text with the Space-Saving algorithm (Metwally, Agrawal and El Abbadi),
+ * in memory that depends on the number of counters only, however large the vocabulary is.
+ * <p>
+ * Every counter monitors one word. A word that isn't monitored while all counters are taken replaces the word
+ * with the lowest count, and inherits that count as its error. This gives, for a text of N words and k counters:
+ * <ul>
+ * <li>the count of a monitored word overestimates its frequency by at most its error, and the error is at most
+ * the lowest count, which is at most N / k;</li>
+ * <li>a word that isn't monitored occurs at most the lowest count times, so every word occurring more than
+ * N / k times is monitored.</li>
+ * </ul>
+ * The monitored words are kept in a min-heap on their counts, indexed by an open addressing table, so a word
+ * is counted in O(log k) without building a String for words that are monitored already.
+ */
+public class SpaceSavingCounter implements TokenSink {
+    /**
+     * The most counters a counter can have, so its index of four slots per counter still fits an array.
+     */
+    public static final int MAXIMUM_CAPACITY = 1 << 28;
+
+    private static final int EMPTY = -1;
+    private static final Comparator<EstimatedWordFrequency> FREQUENCY_DESC_WORD_ASC =
+            Comparator.comparingInt(EstimatedWordFrequency::getFrequency).reversed()
+                    .thenComparing(EstimatedWordFrequency::getWord);
+
+    private final int capacity;
+    // heap entries, with the lowest count at index 0
+    private final String[] words;
+    private final int[] hashes;
+    private final int[] counts;
+    private final int[] errors;
+    private final int[] slotOfEntry;
+    // open addressing index from word to heap entry
+    private final int[] slots;
+    private int size;
+    private long totalCount;
+    private boolean evicted;
+
+    public SpaceSavingCounter(int capacity) {
+        if (capacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException(String.format("A counter can't have more than %d counters.", MAXIMUM_CAPACITY));
+        }
+
+        this.capacity = Math.max(capacity, 1);
+        this.words = new String[this.capacity];
+        this.hashes = new int[this.capacity];
+        this.counts = new int[this.capacity];
+        this.errors = new int[this.capacity];
+        this.slotOfEntry = new int[this.capacity];
+        this.slots = new int[Integer.highestOneBit(this.capacity) * 4];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    @Override
+    public void accept(char[] word, int length, boolean delimited) {
+        var hash = hash(word, length);
+        var slot = find(hash, word, length);
+        totalCount++;
+
+        if (slots[slot] != EMPTY) {
+            var entry = slots[slot];
+            counts[entry]++;
+            siftDown(entry);
+        } else if (size < capacity) {
+            var entry = size++;
+            monitor(entry, slot, new String(word, 0, length), hash, 1, 0);
+            siftUp(entry);
+        } else {
+            // the word with the lowest count makes way, its count becomes the error of the new word
+            evicted = true;
+            removeSlot(slotOfEntry[0]);
+            monitor(0, find(hash, word, length), new String(word, 0, length), hash, counts[0] + 1, counts[0]);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @return the number of words counted
+     */
+    public long totalCount() {
+        return totalCount;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the most a word that isn't among the monitored words can occur, which is also the most any count
+     * overestimates
+     */
+    public int maximumError() {
+        return evicted ? counts[0] : 0;
+    }
+
+    /**
+     * @return the n monitored words with the highest counts, ordered by count descending and then by word ascending
+     */
+    public EstimatedWordFrequency[] select(int n) {
+        return IntStream.range(0, size)
+                .mapToObj(entry -> EstimatedWordFrequency.of(words[entry], counts[entry], errors[entry]))
+                .sorted(FREQUENCY_DESC_WORD_ASC)
+                .limit(Math.max(n, 0))
+                .toArray(EstimatedWordFrequency[]::new);
+    }
+
+    private void monitor(int entry, int slot, String word, int hash, int count, int error) {
+        words[entry] = word;
+        hashes[entry] = hash;
+        counts[entry] = count;
+        errors[entry] = error;
+        slotOfEntry[entry] = slot;
+        slots[slot] = entry;
+    }
+
+    private int find(int hash, char[] word, int length) {
+        var mask = slots.length - 1;
+        var slot = mix(hash) & mask;
+
+        while (slots[slot] != EMPTY && (hashes[slots[slot]] != hash || !equals(words[slots[slot]], word, length))) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    // backward shift deletion, which keeps every probe sequence free of holes without tombstones
+    private void removeSlot(int slot) {
+        var mask = slots.length - 1;
+        var hole = slot;
+        var next = (hole + 1) & mask;
+
+        while (slots[next] != EMPTY) {
+            var entry = slots[next];
+            var home = mix(hashes[entry]) & mask;
+
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = entry;
+                slotOfEntry[entry] = hole;
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        slots[hole] = EMPTY;
+    }
+
+    private void siftUp(int entry) {
+        while (entry > 0) {
+            var parent = (entry - 1) >>> 1;
+
+            if (counts[entry] >= counts[parent]) {
+                return;
+            }
+
+            swap(entry, parent);
+            entry = parent;
+        }
+    }
+
+    private void siftDown(int entry) {
+        while (true) {
+            var left = 2 * entry + 1;
+            var lowest = entry;
+
+            if (left < size && counts[left] < counts[lowest]) {
+                lowest = left;
+            }
+            if (left + 1 < size && counts[left + 1] < counts[lowest]) {
+                lowest = left + 1;
+            }
+            if (lowest == entry) {
+                return;
+            }
+
+            swap(entry, lowest);
+            entry = lowest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        var word = words[i];
+        var hash = hashes[i];
+        var count = counts[i];
+        var error = errors[i];
+        var slot = slotOfEntry[i];
+
+        words[i] = words[j];
+        hashes[i] = hashes[j];
+        counts[i] = counts[j];
+        errors[i] = errors[j];
+        slotOfEntry[i] = slotOfEntry[j];
+
+        words[j] = word;
+        hashes[j] = hash;
+        counts[j] = count;
+        errors[j] = error;
+        slotOfEntry[j] = slot;
+
+        slots[slotOfEntry[i]] = i;
+        slots[slotOfEntry[j]] = j;
+    }
+
+    // same function as String.hashCode()
+    private static int hash(char[] word, int length) {
+        var hash = 0;
+
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + word[i];
+        }
+
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        var mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    private static boolean equals(String key, char[] word, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != word[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package nl.kooi.countingwords.domain.text;
+
+import java.util.Arrays;
+
+/**
+ * Tokenizes text that arrives in chunks with the same rules as {@link AsciiLetterTokenizer}. Words and
+ * surrogate pairs that straddle two chunks are carried over, so the sink sees exactly the words it would see
+ * if the whole text had been tokenized at once.
+ */
+public class StreamingTokenizer {
+    private static final int INITIAL_WORD_CAPACITY = 32;
+    private static final int NONE = -1;
+
+    private final TokenSink sink;
+
+    private char[] word = new char[INITIAL_WORD_CAPACITY];
+    private int length;
+    private boolean precededByWordCharacter;
+    private char pendingHighSurrogate;
+    private boolean awaitingLowSurrogate;
+    private char lastChar;
+    private int lastCodePoint = NONE;
+    // whether the non-spacing marks fed last belong to a letter or digit, which \b looks for char by char
+    private boolean letterOrDigitBase;
+    private int firstChar = NONE;
+
+    public StreamingTokenizer(TokenSink sink) {
+        this.sink = sink;
+    }
+
+    public void feed(char[] chars, int offset, int count) {
+        if (count > 0 && firstChar == NONE) {
+            firstChar = chars[offset];
+        }
+
+        for (int i = offset; i < offset + count; i++) {
+            feed(chars[i]);
+        }
+    }
+
+    public void feed(CharSequence chars) {
+        if (chars.length() > 0 && firstChar == NONE) {
+            firstChar = chars.charAt(0);
+        }
+
+        for (int i = 0; i < chars.length(); i++) {
+            feed(chars.charAt(i));
+        }
+    }
+
+    private void feed(char c) {
+        if (awaitingLowSurrogate) {
+            awaitingLowSurrogate = false;
+            emit(!AsciiLetterTokenizer.isWordCharacter(Character.isLowSurrogate(c) ?
+                    Character.toCodePoint(pendingHighSurrogate, c) :
+                    pendingHighSurrogate));
+        }
+
+        var letter = AsciiLetterTokenizer.toLowerCaseLetter(c);
+
+        if (letter != 0) {
+            if (length == 0) {
+                precededByWordCharacter = lastCodePoint != NONE && (AsciiLetterTokenizer.isNonSpacingMark(lastCodePoint) ?
+                        Character.isBmpCodePoint(lastCodePoint) && letterOrDigitBase :
+                        AsciiLetterTokenizer.isWordCharacter(lastCodePoint));
+            } else if (length == word.length) {
+                word = Arrays.copyOf(word, length * 2);
+            }
+            word[length++] = letter;
+        } else if (length > 0) {
+            if (Character.isHighSurrogate(c)) {
+                pendingHighSurrogate = c;
+                awaitingLowSurrogate = true;
+            } else {
+                emit(!AsciiLetterTokenizer.isWordCharacter(c));
+            }
+        }
+
+        lastCodePoint = Character.isLowSurrogate(c) && Character.isHighSurrogate(lastChar) ?
+                Character.toCodePoint(lastChar, c) :
+                c;
+        lastChar = c;
+
+        if (!AsciiLetterTokenizer.isNonSpacingMark(c)) {
+            letterOrDigitBase = Character.isLetterOrDigit(c);
+        }
+    }
+
+    /**
+     * Signals the end of the text, which emits the last word if the text ended in one.
+     */
+    public void finish() {
+        if (awaitingLowSurrogate) {
+            awaitingLowSurrogate = false;
+            emit(!AsciiLetterTokenizer.isWordCharacter(pendingHighSurrogate));
+        } else if (length > 0) {
+            emit(true);
+        }
+    }
+
+    /**
+     * @return whether the text fed so far starts with a character that is not part of a word
+     */
+    public boolean startsWithSeparator() {
+        return firstChar != NONE && !AsciiLetterTokenizer.isLetter(firstChar);
+    }
+
+    private void emit(boolean followedByNonWordCharacter) {
+        sink.accept(word, length, !precededByWordCharacter && followedByNonWordCharacter);
+        length = 0;
+    }
+}
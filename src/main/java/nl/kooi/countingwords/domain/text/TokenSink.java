@@ -0,0 +1,19 @@
+package nl.kooi.countingwords.domain.text;
+
+/**
+ * Receives the words produced by a {@link Tokenizer}.
+ * <p>
+ * The {@code word} buffer is owned by the tokenizer and is reused for the next token, so implementations
+ * must copy whatever they want to keep.
+ */
+@FunctionalInterface
+public interface TokenSink {
+
+    /**
+     * @param word      buffer holding the lower case letters of the word
+     * @param length    the number of valid characters in {@code word}
+     * @param delimited whether the word is surrounded by non-word characters (the {@code \b} boundaries of a
+     *                  regular expression), so digits and underscores next to it make it {@code false}
+     */
+    void accept(char[] word, int length, boolean delimited);
+}
@@ -0,0 +1,21 @@
+package nl.kooi.countingwords.domain.text;
+
+public interface Tokenizer {
+
+    /**
+     * Splits {@code text[from, to)} into lower case words and hands them to the sink.
+     * The range is expected to start and end on word boundaries, characters outside the range are only
+     * looked at to decide whether a word is delimited.
+     */
+    void tokenize(CharSequence text, int from, int to, TokenSink sink);
+
+    default void tokenize(CharSequence text, TokenSink sink) {
+        tokenize(text, 0, text.length(), sink);
+    }
+
+    /**
+     * @return the first index at or after {@code index} where the text can be split without cutting a word in
+     * two, or {@code text.length()} if there is none
+     */
+    int nextSplitIndex(CharSequence text, int index);
+}
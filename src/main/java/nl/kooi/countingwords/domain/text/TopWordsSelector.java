@@ -0,0 +1,162 @@
+package nl.kooi.countingwords.domain.text;
+
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.WordFrequencyInfo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * Selects the n most frequent words, ordered by frequency descending and then by word ascending, with a
+ * bounded min-heap so only O(V log n) work is done instead of sorting the whole vocabulary.
+ */
+public class TopWordsSelector {
+    public static final Comparator<WordFrequency> FREQUENCY_DESC_WORD_ASC =
+            Comparator.comparingInt(WordFrequency::getFrequency).reversed()
+                    .thenComparing(WordFrequency::getWord);
+
+    // with n that close to the vocabulary size a full sort is as cheap as maintaining the heap
+    private static final int FULL_SORT_RATIO = 2;
+
+    private final int n;
+    private final String[] words;
+    private final int[] counts;
+    private int size;
+
+    public TopWordsSelector(int n) {
+        this.n = Math.max(n, 0);
+        this.words = new String[this.n];
+        this.counts = new int[this.n];
+    }
+
+    public static WordFrequency[] select(WordCounts table, int n) {
+        if (n <= 0) {
+            return new WordFrequency[0];
+        }
+
+        if ((long) n * FULL_SORT_RATIO >= table.size()) {
+            return sortAll(table, n);
+        }
+
+        var selector = new TopWordsSelector(n);
+        table.offerTo(selector);
+        return selector.result();
+    }
+
+    private static WordFrequency[] sortAll(WordCounts table, int n) {
+        var wordFrequencies = new ArrayList<WordFrequency>(table.size());
+
+        table.forEach((word, count, delimitedCount) -> wordFrequencies.add(WordFrequencyInfo.of(word, count)));
+
+        return wordFrequencies.stream()
+                .sorted(FREQUENCY_DESC_WORD_ASC)
+                .limit(n)
+                .toArray(WordFrequency[]::new);
+    }
+
+    /**
+     * Whether a word with this count could still make it into the selection, which lets callers skip
+     * building the word for counts that are too low.
+     */
+    public boolean accepts(int count) {
+        return size < n || (n > 0 && count >= counts[0]);
+    }
+
+    public void offer(String word, int count) {
+        if (size < n) {
+            words[size] = word;
+            counts[size] = count;
+            siftUp(size++);
+        } else if (n > 0 && isWorse(words[0], counts[0], word, count)) {
+            words[0] = word;
+            counts[0] = count;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @return the selected words, most frequent first; the selector is empty afterwards
+     */
+    public WordFrequency[] result() {
+        var result = new WordFrequency[size];
+
+        while (size > 0) {
+            result[size - 1] = WordFrequencyInfo.of(words[0], counts[0]);
+            size--;
+            words[0] = words[size];
+            counts[0] = counts[size];
+            words[size] = null;
+            siftDown(0);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the selected words as a ranking, most frequent first, without an object per word; the selector is
+     * empty afterwards
+     */
+    public WordRanking ranking() {
+        var rankedWords = new String[size];
+        var rankedCounts = new int[size];
+
+        while (size > 0) {
+            rankedWords[size - 1] = words[0];
+            rankedCounts[size - 1] = counts[0];
+            size--;
+            words[0] = words[size];
+            counts[0] = counts[size];
+            words[size] = null;
+            siftDown(0);
+        }
+
+        return new WordRanking(rankedWords, rankedCounts);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            var parent = (index - 1) >>> 1;
+
+            if (!isWorse(words[index], counts[index], words[parent], counts[parent])) {
+                return;
+            }
+
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            var left = 2 * index + 1;
+            var worst = index;
+
+            if (left < size && isWorse(words[left], counts[left], words[worst], counts[worst])) {
+                worst = left;
+            }
+            if (left + 1 < size && isWorse(words[left + 1], counts[left + 1], words[worst], counts[worst])) {
+                worst = left + 1;
+            }
+            if (worst == index) {
+                return;
+            }
+
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int i, int j) {
+        var word = words[i];
+        var count = counts[i];
+        words[i] = words[j];
+        counts[i] = counts[j];
+        words[j] = word;
+        counts[j] = count;
+    }
+
+    // the heap keeps the worst selected word on top: lowest count, and for equal counts the last word
+    private static boolean isWorse(String word, int count, String otherWord, int otherCount) {
+        return count != otherCount ? count < otherCount : word.compareTo(otherWord) > 0;
+    }
+}
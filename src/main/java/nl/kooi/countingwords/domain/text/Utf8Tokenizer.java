@@ -0,0 +1,130 @@
+package nl.kooi.countingwords.domain.text;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Tokenizes UTF-8 encoded bytes in place with the same rules as {@link AsciiLetterTokenizer}.
+ * <p>
+ * ASCII letters are single bytes in UTF-8 and every byte of a multi-byte sequence is outside the ASCII range,
+ * so words can be found without decoding. Only the characters right next to a word are decoded, to decide
+ * whether the word is delimited.
+ */
+public class Utf8Tokenizer {
+    private static final int INITIAL_WORD_CAPACITY = 32;
+    private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+
+    /**
+     * Splits {@code bytes[from, to)} (absolute indices) into lower case words. Bytes outside the range, but
+     * within the buffer's limit, are only looked at to decide whether a word is delimited.
+     */
+    public void tokenize(ByteBuffer bytes, int from, int to, TokenSink sink) {
+        var word = new char[INITIAL_WORD_CAPACITY];
+        var length = 0;
+        var start = from;
+
+        for (int i = from; i < to; i++) {
+            var letter = AsciiLetterTokenizer.toLowerCaseLetter(bytes.get(i));
+
+            if (letter != 0) {
+                if (length == 0) {
+                    start = i;
+                } else if (length == word.length) {
+                    word = Arrays.copyOf(word, length * 2);
+                }
+                word[length++] = letter;
+            } else if (length > 0) {
+                sink.accept(word, length, isDelimited(bytes, start, i));
+                length = 0;
+            }
+        }
+
+        if (length > 0) {
+            sink.accept(word, length, isDelimited(bytes, start, to));
+        }
+    }
+
+    public static boolean isDelimited(ByteBuffer bytes, int start, int end) {
+        return (start == 0 || !isWordCharacterBefore(bytes, start))
+                && (end == bytes.limit() || !AsciiLetterTokenizer.isWordCharacter(codePointAt(bytes, end)));
+    }
+
+    // like \b, looks back char by char for the letter or digit a non-spacing mark belongs to, so characters
+    // outside the BMP end the search
+    private static boolean isWordCharacterBefore(ByteBuffer bytes, int index) {
+        var codePoint = codePointBefore(bytes, index);
+
+        if (!AsciiLetterTokenizer.isNonSpacingMark(codePoint)) {
+            return AsciiLetterTokenizer.isWordCharacter(codePoint);
+        }
+
+        while (Character.isBmpCodePoint(codePoint) && AsciiLetterTokenizer.isNonSpacingMark(codePoint)) {
+            index -= codePoint < 0x800 ? 2 : 3;
+            if (index == 0) {
+                return false;
+            }
+            codePoint = codePointBefore(bytes, index);
+        }
+        return Character.isBmpCodePoint(codePoint) && Character.isLetterOrDigit(codePoint);
+    }
+
+    static int codePointAt(ByteBuffer bytes, int index) {
+        var first = bytes.get(index);
+        return first >= 0 ? first : decode(bytes, index, bytes.limit());
+    }
+
+    static int codePointBefore(ByteBuffer bytes, int index) {
+        var last = bytes.get(index - 1);
+
+        if (last >= 0) {
+            return last;
+        }
+
+        var start = index - 1;
+        while (start > 0 && start > index - 4 && isContinuation(bytes.get(start))) {
+            start--;
+        }
+
+        return sequenceLength(bytes.get(start)) == index - start ? decode(bytes, start, index) : REPLACEMENT_CHARACTER;
+    }
+
+    // decodes the sequence starting at index, malformed and truncated sequences decode to U+FFFD like String does
+    private static int decode(ByteBuffer bytes, int index, int limit) {
+        var lead = bytes.get(index) & 0xFF;
+        var length = sequenceLength(bytes.get(index));
+
+        if (length == 0 || index + length > limit) {
+            return REPLACEMENT_CHARACTER;
+        }
+
+        var codePoint = lead & (0xFF >> (length + 1));
+
+        for (int i = 1; i < length; i++) {
+            var next = bytes.get(index + i);
+
+            if (!isContinuation(next)) {
+                return REPLACEMENT_CHARACTER;
+            }
+            codePoint = codePoint << 6 | next & 0x3F;
+        }
+
+        var overlong = length == 2 && codePoint < 0x80 || length == 3 && codePoint < 0x800 || length == 4 && codePoint < 0x10000;
+
+        return overlong || codePoint > Character.MAX_CODE_POINT ? REPLACEMENT_CHARACTER : codePoint;
+    }
+
+    private static int sequenceLength(byte lead) {
+        if ((lead & 0xE0) == 0xC0) {
+            return 2;
+        } else if ((lead & 0xF0) == 0xE0) {
+            return 3;
+        } else if ((lead & 0xF8) == 0xF0) {
+            return 4;
+        }
+        return 0;
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+}
@@ -0,0 +1,247 @@
+package nl.kooi.countingwords.domain.text;
+
+/**
+ * Open addressing hash table counting words straight from a {@link Tokenizer}.
+ * <p>
+ * Words are hashed from the token buffer and only turned into a String the first time they are seen, counts
+ * are kept in plain int arrays, so the allocation of a count grows with the number of distinct words instead
+ * of with the number of words.
+ */
+public class WordCountTable implements WordCounts, TokenSink {
+    private static final int MINIMUM_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+    // rough sizes with compressed oops: a slot in each of the four arrays, and a String with its byte array
+    private static final int SLOT_BYTES = 16;
+    private static final int WORD_OVERHEAD_BYTES = 48;
+
+    private String[] words;
+    private int[] hashes;
+    private int[] counts;
+    private int[] delimitedCounts;
+    private int size;
+    private int resizeThreshold;
+    private long wordCharacters;
+    private long totalCount;
+
+    public WordCountTable() {
+        this(MINIMUM_CAPACITY);
+    }
+
+    public WordCountTable(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    @Override
+    public void accept(char[] word, int length, boolean delimited) {
+        var hash = hash(word, length);
+        var mask = words.length - 1;
+        var slot = mix(hash) & mask;
+
+        while (words[slot] != null) {
+            if (hashes[slot] == hash && equals(words[slot], word, length)) {
+                increment(slot, 1, delimited ? 1 : 0);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        insert(slot, new String(word, 0, length), hash, 1, delimited ? 1 : 0);
+    }
+
+    /**
+     * @throws ArithmeticException when the count of the word would no longer fit in an int, the table is left as it was
+     */
+    public void add(String word, int count, int delimitedCount) {
+        var slot = slotOf(word);
+
+        if (words[slot] != null) {
+            increment(slot, count, delimitedCount);
+        } else {
+            insert(slot, word, word.hashCode(), count, delimitedCount);
+        }
+    }
+
+    public void addAll(WordCountTable other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Merges the smaller table into the larger one, so the fewest words are re-inserted.
+     *
+     * @return the table holding the counts of both
+     */
+    public static WordCountTable merge(WordCountTable first, WordCountTable second) {
+        if (first.size() < second.size()) {
+            second.addAll(first);
+            return second;
+        }
+
+        first.addAll(second);
+        return first;
+    }
+
+    @Override
+    public int count(String word) {
+        var slot = slotOf(word);
+        return words[slot] != null ? counts[slot] : 0;
+    }
+
+    @Override
+    public int delimitedCount(String word) {
+        var slot = slotOf(word);
+        return words[slot] != null ? delimitedCounts[slot] : 0;
+    }
+
+    @Override
+    public int highestCount() {
+        var highest = 0;
+
+        for (int slot = 0; slot < words.length; slot++) {
+            if (words[slot] != null && counts[slot] > highest) {
+                highest = counts[slot];
+            }
+        }
+
+        return highest;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return an estimate of the heap used by this table, in bytes
+     */
+    public long estimatedHeapSize() {
+        return (long) words.length * SLOT_BYTES + (long) size * WORD_OVERHEAD_BYTES + wordCharacters;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void forEach(WordCountConsumer consumer) {
+        for (int slot = 0; slot < words.length; slot++) {
+            if (words[slot] != null) {
+                consumer.accept(words[slot], counts[slot], delimitedCounts[slot]);
+            }
+        }
+    }
+
+    private int slotOf(String word) {
+        var hash = word.hashCode();
+        var mask = words.length - 1;
+        var slot = mix(hash) & mask;
+
+        while (words[slot] != null && (hashes[slot] != hash || !words[slot].equals(word))) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void increment(int slot, int count, int delimitedCount) {
+        var newCount = Math.addExact(counts[slot], count);
+        var newDelimitedCount = Math.addExact(delimitedCounts[slot], delimitedCount);
+
+        counts[slot] = newCount;
+        delimitedCounts[slot] = newDelimitedCount;
+        totalCount += count;
+    }
+
+    private void insert(int slot, String word, int hash, int count, int delimitedCount) {
+        words[slot] = word;
+        hashes[slot] = hash;
+        counts[slot] = count;
+        delimitedCounts[slot] = delimitedCount;
+        wordCharacters += word.length();
+        totalCount += count;
+
+        if (++size > resizeThreshold) {
+            resize();
+        }
+    }
+
+    private void resize() {
+        var oldWords = words;
+        var oldHashes = hashes;
+        var oldCounts = counts;
+        var oldDelimitedCounts = delimitedCounts;
+
+        allocate(oldWords.length * 2);
+
+        var mask = words.length - 1;
+
+        for (int oldSlot = 0; oldSlot < oldWords.length; oldSlot++) {
+            if (oldWords[oldSlot] != null) {
+                var slot = mix(oldHashes[oldSlot]) & mask;
+
+                while (words[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                words[slot] = oldWords[oldSlot];
+                hashes[slot] = oldHashes[oldSlot];
+                counts[slot] = oldCounts[oldSlot];
+                delimitedCounts[slot] = oldDelimitedCounts[oldSlot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        words = new String[capacity];
+        hashes = new int[capacity];
+        counts = new int[capacity];
+        delimitedCounts = new int[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        var capacity = MINIMUM_CAPACITY;
+
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    // same function as String.hashCode(), so a String key can be looked up by its cached hash
+    private static int hash(char[] word, int length) {
+        var hash = 0;
+
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + word[i];
+        }
+
+        return hash;
+    }
+
+    // String hashes of short words are poorly distributed in the low bits that pick the slot
+    private static int mix(int hash) {
+        var mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    private static boolean equals(String key, char[] word, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != word[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package nl.kooi.countingwords.domain.text;
+
+/**
+ * The words of a text with how often each of them occurred.
+ */
+public interface WordCounts {
+
+    @FunctionalInterface
+    interface WordCountConsumer {
+        void accept(String word, int count, int delimitedCount);
+    }
+
+    int count(String word);
+
+    /**
+     * @return how often the word occurred surrounded by non-word characters
+     * @see TokenSink#accept(char[], int, boolean)
+     */
+    int delimitedCount(String word);
+
+    int highestCount();
+
+    /**
+     * @return the number of distinct words
+     */
+    int size();
+
+    /**
+     * @return the sum of the counts of all words
+     */
+    long totalCount();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    void forEach(WordCountConsumer consumer);
+
+    /**
+     * Offers every word to the selector. Implementations that have to build the words may skip the words with
+     * counts the selector doesn't accept.
+     */
+    default void offerTo(TopWordsSelector selector) {
+        forEach((word, count, delimitedCount) -> selector.offer(word, count));
+    }
+}
@@ -0,0 +1,27 @@
+package nl.kooi.countingwords.domain.text;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Counts the delimited occurrences of a single word, which matches what {@link ExactWordMatcher} finds.
+ */
+public class WordOccurrenceCounter implements TokenSink {
+    private final char[] word;
+    private int count;
+
+    public WordOccurrenceCounter(String word) {
+        this.word = word.toLowerCase(Locale.ROOT).toCharArray();
+    }
+
+    @Override
+    public void accept(char[] token, int length, boolean delimited) {
+        if (delimited && length == word.length && Arrays.equals(word, 0, length, token, 0, length)) {
+            count++;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
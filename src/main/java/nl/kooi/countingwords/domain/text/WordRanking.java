@@ -0,0 +1,56 @@
+package nl.kooi.countingwords.domain.text;
+
+/**
+ * The most frequent words of a text in order, frequency descending and then word ascending, kept in two
+ * parallel arrays so a ranking of a whole vocabulary costs no object per word beyond the words themselves.
+ */
+public class WordRanking {
+    // rough sizes with compressed oops: a slot in both arrays, and a String with its byte array
+    private static final int RANK_BYTES = 8;
+    private static final int WORD_OVERHEAD_BYTES = 48;
+
+    private final String[] words;
+    private final int[] counts;
+
+    WordRanking(String[] words, int[] counts) {
+        this.words = words;
+        this.counts = counts;
+    }
+
+    /**
+     * @return the ranking of the n most frequent words of the counts
+     */
+    public static WordRanking select(WordCounts counts, int n) {
+        var selector = new TopWordsSelector(Math.min(n, counts.size()));
+        counts.offerTo(selector);
+        return selector.ranking();
+    }
+
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * @param rank the zero-based rank, smaller than the size of the ranking
+     */
+    public String word(int rank) {
+        return words[rank];
+    }
+
+    public int frequency(int rank) {
+        return counts[rank];
+    }
+
+    /**
+     * @return an estimate of the heap used by this ranking, in bytes
+     */
+    public long estimatedHeapSize() {
+        var size = (long) words.length * (RANK_BYTES + WORD_OVERHEAD_BYTES);
+
+        for (var word : words) {
+            size += word.length();
+        }
+
+        return size;
+    }
+}
@@ -0,0 +1,135 @@
+package nl.kooi.countingwords.domain.text;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Counts the delimited occurrences of a set of words in a single pass over a text, which for every word matches
+ * what {@link ExactWordMatcher} finds.
+ * <p>
+ * The words are kept in an open addressing table that is looked up with the hash of each token, so counting
+ * costs one lookup per token however many words are counted. The matcher itself is immutable and can be shared
+ * between threads, every count gets its own {@link Counter}.
+ */
+public class WordSetMatcher {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final String[] words;
+    private final char[][] wordChars;
+    private final int[] hashes;
+    // index of the word in each slot plus one, 0 for an empty slot
+    private final int[] slots;
+
+    private WordSetMatcher(String[] words) {
+        this.words = words;
+        this.wordChars = new char[words.length][];
+        this.hashes = new int[words.length];
+        this.slots = new int[capacityFor(words.length)];
+
+        var mask = slots.length - 1;
+
+        for (int i = 0; i < words.length; i++) {
+            wordChars[i] = words[i].toCharArray();
+            hashes[i] = hash(wordChars[i], wordChars[i].length);
+
+            var slot = mix(hashes[i]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    /**
+     * @param words non-empty words consisting of ASCII letters only; they're counted case-insensitively and
+     *              duplicates are counted once
+     */
+    public static WordSetMatcher of(List<String> words) {
+        var lowerCaseWords = new LinkedHashSet<String>();
+
+        for (var word : words) {
+            if (word.isEmpty() || !word.chars().allMatch(AsciiLetterTokenizer::isLetter)) {
+                throw new IllegalArgumentException(String.format("Word %s is empty or contains other characters than a-z or A-Z.", word));
+            }
+            lowerCaseWords.add(word.toLowerCase(Locale.ROOT));
+        }
+
+        return new WordSetMatcher(lowerCaseWords.toArray(String[]::new));
+    }
+
+    /**
+     * @return the distinct lower case words, in the order they were given
+     */
+    public List<String> getWords() {
+        return List.of(words);
+    }
+
+    public Counter counter() {
+        return new Counter();
+    }
+
+    private int indexOf(char[] token, int length) {
+        var hash = hash(token, length);
+        var mask = slots.length - 1;
+        var slot = mix(hash) & mask;
+
+        while (slots[slot] != 0) {
+            var index = slots[slot] - 1;
+
+            if (hashes[index] == hash && Arrays.equals(wordChars[index], 0, wordChars[index].length, token, 0, length)) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private static int capacityFor(int size) {
+        var capacity = 2;
+        while (capacity * LOAD_FACTOR < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // the hash of String, so tokens hash like the words they equal
+    private static int hash(char[] chars, int length) {
+        var hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The counts of the words of one text.
+     */
+    public class Counter implements TokenSink {
+        private final int[] counts = new int[words.length];
+
+        @Override
+        public void accept(char[] token, int length, boolean delimited) {
+            if (delimited) {
+                var index = indexOf(token, length);
+
+                if (index >= 0) {
+                    counts[index]++;
+                }
+            }
+        }
+
+        /**
+         * @return the count of each word, in the order of {@link #getWords()}
+         */
+        public int[] getCounts() {
+            return counts.clone();
+        }
+    }
+}
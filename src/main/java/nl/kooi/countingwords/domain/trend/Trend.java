@@ -0,0 +1,159 @@
+package nl.kooi.countingwords.domain.trend;
+
+import lombok.Getter;
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.text.TopWordsSelector;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+import nl.kooi.countingwords.domain.text.WordCounts;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The words of a continuous stream of texts over a few sliding windows, like the last five minutes and the
+ * last hour. The counts of the texts are kept per interval in a ring of buckets that spans the longest window,
+ * and every window keeps running counts of the buckets it covers. When time moves on, the buckets that leave a
+ * window are subtracted from its counts and the oldest bucket is reused, so a query is answered from the
+ * running counts without merging buckets, and the memory of a trend is bounded by the words of its longest
+ * window.
+ * <p>
+ * A window covers the current, partly filled interval and the intervals before it, so its length is a whole
+ * number of intervals and it slides one interval at a time. Queries move the time on too, so every call
+ * changes the trend and all of them are serialized.
+ */
+public class Trend {
+    private static final long NONE = Long.MIN_VALUE;
+
+    @Getter
+    private final String name;
+    private final long intervalMillis;
+    private final Map<Duration, Window> windows = new LinkedHashMap<>();
+    private final WordCountTable[] buckets;
+    private final long[] bucketIntervals;
+    private long currentInterval = NONE;
+
+    /**
+     * @param interval the time the texts of one bucket arrive in
+     * @param windows  the windows to keep counts for, each at least one interval long
+     */
+    public Trend(String name, Duration interval, List<Duration> windows) {
+        this.name = name;
+        this.intervalMillis = Math.max(1, interval.toMillis());
+
+        var longest = 1;
+        for (var window : windows) {
+            var intervals = (int) Math.max(1, (window.toMillis() + intervalMillis - 1) / intervalMillis);
+            this.windows.put(window, new Window(intervals));
+            longest = Math.max(longest, intervals);
+        }
+
+        this.buckets = new WordCountTable[longest];
+        this.bucketIntervals = new long[longest];
+        Arrays.fill(bucketIntervals, NONE);
+    }
+
+    /**
+     * Adds the counts of a text that arrived at the given time, leaving out the empty word.
+     */
+    public synchronized void add(WordCounts text, long epochMillis) {
+        advance(epochMillis);
+
+        var slot = slot(currentInterval);
+        if (buckets[slot] == null) {
+            buckets[slot] = new WordCountTable();
+        }
+
+        var added = new WordCountTable(text.size());
+        text.forEach((word, count, delimitedCount) -> {
+            if (!word.isEmpty()) {
+                added.add(word, count, delimitedCount);
+            }
+        });
+
+        buckets[slot].addAll(added);
+        windows.values().forEach(window -> window.counts.add(added));
+    }
+
+    public synchronized int highestFrequency(Duration window, long epochMillis) {
+        return counts(window, epochMillis).highestCount();
+    }
+
+    /**
+     * @param word a lower case word
+     */
+    public synchronized int frequencyForWord(Duration window, String word, long epochMillis) {
+        return counts(window, epochMillis).delimitedCount(word);
+    }
+
+    public synchronized WordFrequency[] mostFrequentNWords(Duration window, int n, long epochMillis) {
+        return TopWordsSelector.select(counts(window, epochMillis), n);
+    }
+
+    /**
+     * @return the number of distinct words in the window
+     */
+    public synchronized int words(Duration window, long epochMillis) {
+        return counts(window, epochMillis).size();
+    }
+
+    private WordCounts counts(Duration window, long epochMillis) {
+        var kept = windows.get(window);
+
+        if (kept == null) {
+            throw new IllegalArgumentException(String.format("Trend %s has no window of %s.", name, window));
+        }
+
+        advance(epochMillis);
+        return kept.counts;
+    }
+
+    // a clock that goes back a little doesn't move the trend back in time, its texts count for the current interval
+    private void advance(long epochMillis) {
+        var interval = Math.floorDiv(epochMillis, intervalMillis);
+
+        if (currentInterval != NONE && interval <= currentInterval) {
+            return;
+        }
+
+        if (currentInterval == NONE || interval - currentInterval >= buckets.length) {
+            Arrays.fill(buckets, null);
+            Arrays.fill(bucketIntervals, NONE);
+            windows.values().forEach(window -> window.counts.clear());
+        } else {
+            for (var next = currentInterval + 1; next <= interval; next++) {
+                for (var window : windows.values()) {
+                    expire(window, next - window.intervals);
+                }
+
+                buckets[slot(next)] = null;
+            }
+        }
+
+        bucketIntervals[slot(interval)] = interval;
+        currentInterval = interval;
+    }
+
+    private void expire(Window window, long interval) {
+        var slot = slot(interval);
+
+        if (bucketIntervals[slot] == interval && buckets[slot] != null) {
+            window.counts.subtract(buckets[slot]);
+        }
+    }
+
+    private int slot(long interval) {
+        return (int) Math.floorMod(interval, (long) buckets.length);
+    }
+
+    private static class Window {
+        private final int intervals;
+        private final WindowCounts counts = new WindowCounts();
+
+        Window(int intervals) {
+            this.intervals = intervals;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package nl.kooi.countingwords.domain.trend;
+
+import nl.kooi.countingwords.domain.text.WordCounts;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The running word counts of one window of a {@link Trend}: the counts of a bucket are added when it is
+ * filled and subtracted again when it leaves the window, and words whose count drops to zero are removed, so
+ * the counts only hold the words of the buckets in the window.
+ * <p>
+ * The counts aren't thread-safe, {@link Trend} guards them.
+ */
+class WindowCounts implements WordCounts {
+    private final Map<String, int[]> counts = new HashMap<>();
+    private long totalCount;
+
+    void add(WordCounts bucket) {
+        bucket.forEach((word, count, delimitedCount) -> {
+            var counted = counts.computeIfAbsent(word, key -> new int[2]);
+            counted[0] += count;
+            counted[1] += delimitedCount;
+            totalCount += count;
+        });
+    }
+
+    void subtract(WordCounts bucket) {
+        bucket.forEach((word, count, delimitedCount) -> {
+            var counted = counts.get(word);
+
+            if (counted != null) {
+                counted[0] -= count;
+                counted[1] -= delimitedCount;
+                totalCount -= count;
+
+                if (counted[0] <= 0) {
+                    counts.remove(word);
+                }
+            }
+        });
+    }
+
+    void clear() {
+        counts.clear();
+        totalCount = 0;
+    }
+
+    @Override
+    public int count(String word) {
+        var counted = counts.get(word);
+        return counted != null ? counted[0] : 0;
+    }
+
+    @Override
+    public int delimitedCount(String word) {
+        var counted = counts.get(word);
+        return counted != null ? counted[1] : 0;
+    }
+
+    @Override
+    public int highestCount() {
+        var highest = 0;
+
+        for (var counted : counts.values()) {
+            highest = Math.max(highest, counted[0]);
+        }
+
+        return highest;
+    }
+
+    @Override
+    public int size() {
+        return counts.size();
+    }
+
+    @Override
+    public long totalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public void forEach(WordCountConsumer consumer) {
+        counts.forEach((word, counted) -> consumer.accept(word, counted[0], counted[1]));
+    }
+}
@@ -1,9 +1,43 @@
 package nl.kooi.countingwords.exception;
 
+import lombok.Getter;
+
+@Getter
 public class WordProcessingException extends RuntimeException {
 
+    private final Reason reason;
+
     public WordProcessingException(String message) {
+        this(Reason.OTHER, message);
+    }
+
+    public WordProcessingException(Reason reason, String message) {
         super(message);
+        this.reason = reason;
     }
 
+    public enum Reason {
+        NULL_TEXT,
+        INVALID_WORD,
+        FILE_ANALYSIS_DISABLED,
+        FILE_NOT_FOUND,
+        FILE_UNREADABLE,
+        INVALID_CORPUS_NAME,
+        UNKNOWN_CORPUS,
+        TOO_MANY_CORPORA,
+        UNKNOWN_JOB,
+        JOB_NOT_FINISHED,
+        UNKNOWN_RANKING,
+        INVALID_REQUEST_BODY,
+        INVALID_CONTENT_ENCODING,
+        BODY_TOO_LARGE,
+        INVALID_SNAPSHOT,
+        COUNT_TOO_LARGE,
+        INVALID_TREND_NAME,
+        UNKNOWN_TREND,
+        UNKNOWN_WINDOW,
+        TOO_MANY_TRENDS,
+        TOO_MANY_ESTIMATED_WORDS,
+        OTHER
+    }
 }
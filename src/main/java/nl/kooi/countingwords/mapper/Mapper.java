@@ -1,11 +1,60 @@
 package nl.kooi.countingwords.mapper;
 
+import nl.kooi.countingwords.api.dto.AnalysisDto;
+import nl.kooi.countingwords.api.dto.CorpusDto;
+import nl.kooi.countingwords.api.dto.JobDto;
+import nl.kooi.countingwords.api.dto.TopFrequencyDto;
 import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.domain.AnalysisResult;
+import nl.kooi.countingwords.domain.EstimatedWordFrequency;
 import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.corpus.CorpusSummary;
+import nl.kooi.countingwords.domain.job.AnalysisJob;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 public class Mapper {
 
     public static WordFrequencyDto map(WordFrequency wordFrequency) {
         return new WordFrequencyDto().word(wordFrequency.getWord()).frequency(wordFrequency.getFrequency());
     }
+
+    public static WordFrequencyDto map(EstimatedWordFrequency wordFrequency) {
+        return map((WordFrequency) wordFrequency).error(wordFrequency.getError());
+    }
+
+    public static AnalysisDto map(AnalysisResult analysisResult) {
+        var topFrequencies = analysisResult.getTopFrequencies().entrySet().stream()
+                .map(topN -> new TopFrequencyDto()
+                        .n(topN.getKey())
+                        .wordFrequencies(Arrays.stream(topN.getValue()).map(Mapper::map).collect(Collectors.toList())))
+                .collect(Collectors.toList());
+
+        return new AnalysisDto()
+                .highestFrequency(analysisResult.getHighestFrequency())
+                .wordFrequencies(analysisResult.getWordFrequencies().stream().map(Mapper::map).collect(Collectors.toList()))
+                .topFrequencies(topFrequencies);
+    }
+
+    public static CorpusDto map(CorpusSummary corpusSummary) {
+        return new CorpusDto()
+                .name(corpusSummary.getName())
+                .documents(corpusSummary.getDocuments())
+                .words(corpusSummary.getWords());
+    }
+
+    public static JobDto map(AnalysisJob job) {
+        return new JobDto()
+                .id(job.getId())
+                .state(job.getState())
+                .priority(job.getPriority())
+                .processedBytes(job.getProcessedBytes())
+                .totalBytes(job.getTotalBytes())
+                .submittedAt(job.getSubmittedAt().toString())
+                .startedAt(Objects.toString(job.getStartedAt(), null))
+                .finishedAt(Objects.toString(job.getFinishedAt(), null))
+                .error(job.getError());
+    }
 }
@@ -0,0 +1,38 @@
+package nl.kooi.countingwords.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.stream.Collectors;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Swaps the JSON message converter of the request handlers for one that times serialization. This happens
+     * before the adapter is initialized, as it hands its converters to the return value handlers then. The
+     * metrics are looked up only then, as a post processor is created before the other beans.
+     */
+    @Bean
+    public static BeanPostProcessor timedJsonSerialization(ObjectProvider<WordCountMetrics> metrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RequestMappingHandlerAdapter) {
+                    var adapter = (RequestMappingHandlerAdapter) bean;
+
+                    adapter.setMessageConverters(adapter.getMessageConverters().stream()
+                            .map(converter -> converter.getClass() == MappingJackson2HttpMessageConverter.class ?
+                                    new TimedJsonHttpMessageConverter(((MappingJackson2HttpMessageConverter) converter).getObjectMapper(), metrics.getObject()) :
+                                    converter)
+                            .collect(Collectors.toList()));
+                }
+                return bean;
+            }
+        };
+    }
+}
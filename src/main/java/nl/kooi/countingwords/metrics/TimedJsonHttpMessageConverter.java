@@ -0,0 +1,46 @@
+package nl.kooi.countingwords.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Records how long writing a JSON response takes, tagged with the URI pattern of the request. The time includes
+ * writing the serialized bytes to the response.
+ */
+public class TimedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final WordCountMetrics metrics;
+
+    public TimedJsonHttpMessageConverter(ObjectMapper objectMapper, WordCountMetrics metrics) {
+        super(objectMapper);
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        var start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            metrics.recordSerialization(uri(), System.nanoTime() - start);
+        }
+    }
+
+    private static String uri() {
+        var attributes = RequestContextHolder.getRequestAttributes();
+        var pattern = attributes != null ?
+                attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) :
+                null;
+
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+}
@@ -0,0 +1,152 @@
+package nl.kooi.countingwords.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.kooi.countingwords.domain.text.WordCounts;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of the word counting operations. Spring Boot binds them to the meter registry of the application at
+ * startup, so they show up at the actuator metrics and prometheus endpoints; until then they are kept in a
+ * registry of their own.
+ * <p>
+ * Phases and sizes are tagged with the analyzer operation, like {@code calculateMostFrequentNWords}. The meters
+ * of an operation, URI, outcome or reason are registered the first time it is recorded and reused afterwards,
+ * as there are only a few of each.
+ */
+@Component
+public class WordCountMetrics implements MeterBinder {
+    private static final String PHASE_TIMER = "counting.phase";
+    private static final String SERIALIZATION_TIMER = "counting.serialization";
+    private static final String INPUT_SIZE = "counting.input.size";
+    private static final String INPUT_BYTES = "counting.input.bytes";
+    private static final String TOKENS = "counting.tokens";
+    private static final String DISTINCT_WORDS = "counting.distinct.words";
+    private static final String ERRORS = "counting.errors";
+    private static final String ADMISSION_TIMER = "admission.wait";
+    // powers of four from 1 Ki to 1 Gi: coarse enough to keep the number of series down, fine enough to tell
+    // payload classes apart
+    private static final double[] SIZE_BUCKETS = {
+            1L << 10, 1L << 12, 1L << 14, 1L << 16, 1L << 18, 1L << 20, 1L << 22, 1L << 24, 1L << 26, 1L << 28, 1L << 30};
+
+    private final Map<Phase, Map<String, Timer>> phases = new EnumMap<>(Phase.class);
+    private final Map<String, DistributionSummary> inputCharacters = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> inputBytes = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> tokens = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> distinctWords = new ConcurrentHashMap<>();
+    private final Map<String, Timer> serializations = new ConcurrentHashMap<>();
+    private final Map<String, Timer> admissions = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry = new SimpleMeterRegistry();
+
+    public WordCountMetrics() {
+        for (var phase : Phase.values()) {
+            phases.put(phase, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Registers the meters in the given registry from now on, instead of the registry they were kept in.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+
+        phases.values().forEach(Map::clear);
+        List.of(inputCharacters, inputBytes, tokens, distinctWords, serializations, admissions, errors).forEach(Map::clear);
+    }
+
+    public enum Phase {
+        /**
+         * Tokenizing the text and counting its words, which happen in a single pass.
+         */
+        COUNT,
+        /**
+         * Reading the answer off the counts: the highest count, or selecting the top n words.
+         */
+        SELECT
+    }
+
+    public <T> T time(String operation, Phase phase, Supplier<T> action) {
+        var start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            phases.get(phase).computeIfAbsent(operation, key -> Timer.builder(PHASE_TIMER)
+                            .description("Time spent in a phase of a word counting operation")
+                            .tag("operation", key)
+                            .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                            .publishPercentileHistogram()
+                            .register(registry))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @param characters the number of characters of a text
+     */
+    public void recordInputCharacters(String operation, long characters) {
+        inputCharacters.computeIfAbsent(operation, key -> summary(INPUT_SIZE, "Number of characters of the analyzed texts", "characters", key))
+                .record(characters);
+    }
+
+    /**
+     * @param bytes the number of bytes of a file or of UTF-8 encoded text
+     */
+    public void recordInputBytes(String operation, long bytes) {
+        inputBytes.computeIfAbsent(operation, key -> summary(INPUT_BYTES, "Number of bytes of the analyzed files and UTF-8 encoded texts", "bytes", key))
+                .record(bytes);
+    }
+
+    public void recordCounts(String operation, WordCounts counts) {
+        tokens.computeIfAbsent(operation, key -> summary(TOKENS, "Number of words of the analyzed texts", "words", key))
+                .record(counts.totalCount());
+        distinctWords.computeIfAbsent(operation, key -> summary(DISTINCT_WORDS, "Number of distinct words of the analyzed texts", "words", key))
+                .record(counts.size());
+    }
+
+    public void recordSerialization(String uri, long nanos) {
+        serializations.computeIfAbsent(uri, key -> Timer.builder(SERIALIZATION_TIMER)
+                        .description("Time spent writing JSON responses")
+                        .tag("uri", key)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param outcome {@code admitted}, or the reason the request was rejected
+     */
+    public void recordAdmission(String outcome, long waitNanos) {
+        admissions.computeIfAbsent(outcome, key -> Timer.builder(ADMISSION_TIMER)
+                        .description("Time requests waited for the admission budget")
+                        .tag("outcome", key)
+                        .register(registry))
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordError(String reason) {
+        errors.computeIfAbsent(reason.toLowerCase(Locale.ROOT), key -> registry.counter(ERRORS, "reason", key)).increment();
+    }
+
+    private DistributionSummary summary(String name, String description, String baseUnit, String operation) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(baseUnit)
+                .tag("operation", operation)
+                .serviceLevelObjectives(SIZE_BUCKETS)
+                .register(registry);
+    }
+}
@@ -0,0 +1,178 @@
+package nl.kooi.countingwords.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlTest {
+
+    private final ExecutorService waiters = Executors.newCachedThreadPool();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdmissionControl admissionControl;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new WordCountProperties();
+        var admission = properties.getAdmission();
+        admission.setMaximumCost(DataSize.ofMegabytes(1));
+        admission.setRequestCost(DataSize.ofKilobytes(1));
+        admission.setBufferedCostPerByte(4);
+        admission.setStreamedCostPerByte(1);
+        admission.setUnknownSize(DataSize.ofKilobytes(100));
+        admission.setMaximumWaiting(1);
+        admission.setMaximumWait(Duration.ofMillis(200));
+        admission.setThroughput(DataSize.ofKilobytes(256));
+
+        var metrics = new WordCountMetrics();
+        metrics.bindTo(registry);
+
+        admissionControl = new AdmissionControl(properties, metrics);
+        admissionControl.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        waiters.shutdownNow();
+    }
+
+    @Test
+    void cost() {
+        assertThat(admissionControl.cost(1000, true)).isEqualTo(1024 + 4000);
+        assertThat(admissionControl.cost(1000, false)).isEqualTo(1024 + 1000);
+        assertThat(admissionControl.cost(-1, false)).isEqualTo(1024 + 100 * 1024);
+    }
+
+    @Test
+    void admit_WaitsForTheBudget() throws Exception {
+        var first = admissionControl.admit(700 * 1024, 700 * 1024);
+        var admitted = new CountDownLatch(1);
+
+        var second = CompletableFuture.supplyAsync(() -> {
+            var admission = admissionControl.admit(500 * 1024, 500 * 1024);
+            admitted.countDown();
+            return admission;
+        }, waiters);
+
+        assertThat(admitted.await(50, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(registry.get("admission.budget.used").gauge().value()).isEqualTo(700 * 1024);
+        first.release();
+        first.release();
+
+        second.get(10, TimeUnit.SECONDS).release();
+        admissionControl.admit(1024 * 1024, 1024 * 1024).release();
+    }
+
+    @Test
+    void admit_RejectedWhenTheBudgetDoesNotFreeUp() {
+        admissionControl.admit(900 * 1024, 900 * 1024);
+
+        assertThatThrownBy(() -> admissionControl.admit(200 * 1024, 200 * 1024))
+                .isInstanceOfSatisfying(AdmissionControl.RejectedException.class, rejection -> {
+                    assertThat(rejection.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(rejection.getRetryAfterSeconds()).isEqualTo(4);
+                });
+    }
+
+    @Test
+    void admit_RejectedWhenTooManyAreWaiting() throws Exception {
+        admissionControl.admit(1024 * 1024, 1024 * 1024);
+        var waiting = CompletableFuture.runAsync(() -> admissionControl.admit(1, 1), waiters);
+
+        while (!waiting.isDone() && !isWaiting()) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> admissionControl.admit(1, 1))
+                .isInstanceOfSatisfying(AdmissionControl.RejectedException.class,
+                        rejection -> assertThat(rejection.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+    }
+
+    @Test
+    void admit_CostAboveTheBudgetRunsAlone() {
+        var huge = admissionControl.admit(10L << 30, 10L << 30);
+
+        assertThatThrownBy(() -> admissionControl.admit(1, 1)).isInstanceOf(AdmissionControl.RejectedException.class);
+
+        huge.release();
+        admissionControl.admit(1, 1).release();
+    }
+
+    @Test
+    void heldBy_ReleasedOnceTheAnalysisIsDone() throws Exception {
+        var admission = admissionControl.admit(700 * 1024, 700 * 1024);
+        var analyzing = new CountDownLatch(1);
+        var done = new CountDownLatch(1);
+        var analysis = admission.heldBy(() -> {
+            analyzing.countDown();
+            done.await();
+            return "done";
+        });
+
+        var result = CompletableFuture.supplyAsync(() -> call(analysis), waiters);
+        analyzing.await();
+
+        // the response of a timed out analysis completes while the analysis keeps running
+        admission.releaseUnlessAnalyzing();
+        assertThat(registry.get("admission.budget.used").gauge().value()).isEqualTo(700 * 1024);
+
+        done.countDown();
+        assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(registry.get("admission.budget.used").gauge().value()).isZero();
+    }
+
+    @Test
+    void heldBy_ReleasedWhenTheAnalysisFails() {
+        var admission = admissionControl.admit(700 * 1024, 700 * 1024);
+        var analysis = admission.heldBy(() -> {
+            throw new IllegalStateException("failed");
+        });
+
+        assertThatThrownBy(analysis::call).isInstanceOf(IllegalStateException.class);
+        assertThat(registry.get("admission.budget.used").gauge().value()).isZero();
+    }
+
+    @Test
+    void heldBy_AnalysisNotStartedWhenTheResponseCompleted() {
+        var admission = admissionControl.admit(700 * 1024, 700 * 1024);
+        var started = new AtomicBoolean();
+        var analysis = admission.heldBy(() -> started.getAndSet(true));
+
+        admission.releaseUnlessAnalyzing();
+        assertThat(registry.get("admission.budget.used").gauge().value()).isZero();
+
+        assertThatThrownBy(analysis::call).isInstanceOf(CancellationException.class);
+        assertThat(started).isFalse();
+    }
+
+    private static <T> T call(Callable<T> analysis) {
+        try {
+            return analysis.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean isWaiting() {
+        return registry.get("admission.waiting").gauge().value() == 1;
+    }
+}
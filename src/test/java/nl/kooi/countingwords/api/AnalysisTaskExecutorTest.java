@@ -0,0 +1,67 @@
+package nl.kooi.countingwords.api;
+
+import nl.kooi.countingwords.WordCountProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalysisTaskExecutorTest {
+
+    private AnalysisTaskExecutor executor;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        var properties = new WordCountProperties();
+        properties.getExecution().setLargeTextThreshold(100);
+        properties.getExecution().setSmall(new WordCountProperties.Pool(1, 1));
+        properties.getExecution().setLarge(new WordCountProperties.Pool(1, 1));
+
+        executor = new AnalysisTaskExecutor(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void isLarge() {
+        assertThat(executor.isLarge(0)).isFalse();
+        assertThat(executor.isLarge(99)).isFalse();
+        assertThat(executor.isLarge(100)).isTrue();
+        assertThat(executor.isLarge(-1)).isTrue();
+    }
+
+    @Test
+    void submit_BusyLargePoolDoesNotDelaySmallTexts() throws Exception {
+        var running = new CountDownLatch(1);
+
+        start(executor.submit(1_000, () -> {
+            running.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        }));
+        assertThat(running.await(10, TimeUnit.SECONDS)).isTrue();
+        start(executor.submit(1_000, () -> release.await(10, TimeUnit.SECONDS)));
+
+        assertThatThrownBy(() -> start(executor.submit(1_000, () -> 1)))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(start(executor.submit(10, () -> 1)).get(10, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+
+    private static <T> Future<T> start(WebAsyncTask<T> task) {
+        return task.getExecutor().submit((Callable<T>) task.getCallable());
+    }
+}
@@ -0,0 +1,159 @@
+package nl.kooi.countingwords.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestDecompressionFilterTest {
+
+    private final RequestDecompressionFilter filter =
+            new RequestDecompressionFilter(new WordCountProperties(), new ObjectMapper(), new WordCountMetrics());
+
+    @Test
+    void setReadListener_DecompressedBodyReadOnceReceived() throws Exception {
+        var body = new NonBlockingInputStream(gzip("java kotlin java"));
+        var decompressed = new ByteArrayOutputStream();
+        var allDataRead = new AtomicBoolean();
+        var in = filter(request(body));
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                var buffer = new byte[4];
+                while (in.isReady() && !in.isFinished()) {
+                    var read = in.read(buffer);
+                    if (read != -1) {
+                        decompressed.write(buffer, 0, read);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        });
+
+        assertThat(in.isReady()).isFalse();
+
+        body.receive();
+
+        assertThat(decompressed.toString(StandardCharsets.UTF_8)).isEqualTo("java kotlin java");
+        assertThat(allDataRead).isTrue();
+    }
+
+    @Test
+    void setReadListener_CompressedBodyTooLarge() throws Exception {
+        var body = new NonBlockingInputStream(gzip("java kotlin java"));
+        var request = request(body);
+        request.setAttribute(RequestDecompressionFilter.MAXIMUM_SIZE_ATTRIBUTE, 8L);
+        var in = filter(request);
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+            }
+
+            @Override
+            public void onAllDataRead() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        });
+
+        var message = assertThrows(WordProcessingException.class, body::receive).getMessage();
+        assertThat(message).isEqualTo("The compressed request body is larger than 8 bytes.");
+    }
+
+    private ServletInputStream filter(HttpServletRequest request) throws Exception {
+        var filtered = new AtomicReference<ServletInputStream>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> filtered.set(req.getInputStream()));
+        return filtered.get();
+    }
+
+    private static MockHttpServletRequest request(ServletInputStream body) {
+        var request = new MockHttpServletRequest("POST", "/rest/word-count/highest-frequency") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return body;
+            }
+        };
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return request;
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A body that has nothing to read until it is received, and then tells its listener like a container does.
+     */
+    private static class NonBlockingInputStream extends ServletInputStream {
+        private final byte[] bytes;
+        private ReadListener listener;
+        private boolean received;
+        private int position;
+
+        NonBlockingInputStream(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        void receive() throws IOException {
+            received = true;
+            listener.onDataAvailable();
+            listener.onAllDataRead();
+        }
+
+        @Override
+        public int read() {
+            if (!received) {
+                throw new IllegalStateException("Not ready");
+            }
+            return position < bytes.length ? bytes[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return position == bytes.length;
+        }
+
+        @Override
+        public boolean isReady() {
+            return received;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            listener = readListener;
+        }
+    }
+}
@@ -2,14 +2,19 @@ package nl.kooi.countingwords.api;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.api.dto.AnalysisDto;
 import nl.kooi.countingwords.api.dto.ErrorResponseDto;
 import nl.kooi.countingwords.api.dto.FrequencyDto;
 import nl.kooi.countingwords.api.dto.FrequencyRequestDto;
 import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.AnalysisResult;
 import nl.kooi.countingwords.domain.WordFrequency;
 import nl.kooi.countingwords.domain.WordFrequencyInfo;
 import nl.kooi.countingwords.domain.service.WordFrequencyService;
 import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,16 +26,19 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.Reader;
 import java.util.List;
+import java.util.Map;
 
 import static nl.kooi.countingwords.util.TestUtil.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringJUnitConfig(WordCountController.class)
+@SpringJUnitConfig({WordCountController.class, AnalysisTaskExecutor.class, WordCountProperties.class})
 class WordCountControllerTest {
 
     @Autowired
@@ -48,7 +56,7 @@ class WordCountControllerTest {
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
-                .setControllerAdvice(ControllerExceptionAdvice.class).build();
+                .setControllerAdvice(new ControllerExceptionAdvice(new WordCountMetrics())).build();
 
         objectMapper = new ObjectMapper();
     }
@@ -106,6 +114,39 @@ class WordCountControllerTest {
         assertThat(response.get(1).getFrequency()).isEqualTo(2);
     }
 
+    @Test
+    void analyze() throws Exception {
+        var result = AnalysisResult.of(3,
+                List.of(WordFrequencyInfo.of("ordina", 1)),
+                Map.of(1, new WordFrequency[]{WordFrequencyInfo.of("test", 3)}));
+
+        when(service.analyze(eq(TEXT), any(AnalysisQuery.class))).thenReturn(result);
+
+        var mvcResult =
+                getAndVerifyResponse(BATCH_ENDPOINT, getAnalysisRequestDto(TEXT, List.of("Ordina"), List.of(1)), status().isOk());
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), AnalysisDto.class);
+
+        assertThat(response.getHighestFrequency()).isEqualTo(3);
+        assertThat(response.getWordFrequencies()).hasSize(1);
+        assertThat(response.getWordFrequencies().get(0).getWord()).isEqualTo("ordina");
+        assertThat(response.getTopFrequencies()).hasSize(1);
+        assertThat(response.getTopFrequencies().get(0).getN()).isEqualTo(1);
+        assertThat(response.getTopFrequencies().get(0).getWordFrequencies().get(0).getWord()).isEqualTo("test");
+    }
+
+    @Test
+    void analyze_NotPositiveTopN() throws Exception {
+        var mvcResult =
+                getAndVerifyResponse(BATCH_ENDPOINT, getAnalysisRequestDto(TEXT, List.of(), List.of(2, 0)), status().isBadRequest());
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), ErrorResponseDto.class);
+
+        assertThat(response.getReason())
+                .isEqualTo("The following fields were invalid: field [topN] can't contain values smaller than 1");
+        verify(service, never()).analyze(any(), any());
+    }
+
     @Test
     void calculateFrequencyForWord_NotNullableFieldsAreNull() throws Exception {
         var mvcResult =
@@ -177,12 +218,51 @@ class WordCountControllerTest {
     }
 
 
+    @Test
+    void calculateTopNFrequencyOfText() throws Exception {
+        var wfArray = new WordFrequency[]{WordFrequencyInfo.of("test", 3)};
+
+        when(service.calculateMostFrequentNWordsInStream(any(Reader.class), eq(1))).thenReturn(wfArray);
+
+        var mvcResult = perform(mockMvc, post(TOP_FREQUENCY_ENDPOINT)
+                        .param("n", "1")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(TEXT))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), new TypeReference<List<WordFrequencyDto>>() {
+        });
+
+        assertThat(response).hasSize(1);
+        assertThat(response.get(0).getWord()).isEqualTo("test");
+        assertThat(response.get(0).getFrequency()).isEqualTo(3);
+        verify(service, never()).calculateMostFrequentNWords(anyString(), anyInt());
+    }
+
+    @Test
+    void calculateFrequencyForWordInText_MissingWord() throws Exception {
+        var mvcResult = perform(mockMvc, post(HIGHEST_FREQUENCY_FOR_WORD_ENDPOINT)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(TEXT))
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse();
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), ErrorResponseDto.class);
+
+        assertThat(response.getReason()).contains("word");
+        verify(service, never()).calculateFrequencyForWordInStream(any(Reader.class), any());
+    }
+
+
     private <T extends FrequencyRequestDto> MockHttpServletResponse getAndVerifyResponse(String endpoint,
                                                                                          T requestDto,
                                                                                          ResultMatcher statusExpectation)
             throws Exception {
 
-        return mockMvc.perform(post(endpoint)
+        return perform(mockMvc, post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
@@ -0,0 +1,111 @@
+package nl.kooi.countingwords.api;
+
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import nl.kooi.countingwords.api.dto.FrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.TopFrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyRequestDto;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static nl.kooi.countingwords.util.TestUtil.getToprequencyRequestDto;
+import static nl.kooi.countingwords.util.TestUtil.getWordFrequencyRequestDto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WordCountProtobufTest {
+
+    @Test
+    void encode_Frequency() throws IOException {
+        assertThat(encode(new FrequencyDto().frequency(300)))
+                .containsExactly(0x08, 0xAC, 0x02);
+        assertThat(encode(new WordFrequencyDto().word("ab").frequency(1).error(2)))
+                .containsExactly(0x08, 0x01, 0x10, 0x02, 0x1A, 0x02, 'a', 'b');
+    }
+
+    @Test
+    void encode_Frequencies() throws IOException {
+        var frequencies = List.of(new WordFrequencyDto().word("a").frequency(2), new WordFrequencyDto().word("b").frequency(1));
+
+        assertThat(encode(frequencies))
+                .containsExactly(0x0A, 0x05, 0x08, 0x02, 0x1A, 0x01, 'a', 0x0A, 0x05, 0x08, 0x01, 0x1A, 0x01, 'b');
+        assertThat(encode(List.of())).isEmpty();
+    }
+
+    @Test
+    void encode_Error() throws IOException {
+        assertThat(encode(new ErrorResponseDto().reason("no")))
+                .containsExactly(0x0A, 0x02, 'n', 'o');
+    }
+
+    @Test
+    void decodeRequest_RoundTrip() {
+        var wordRequest = getWordFrequencyRequestDto("The sun shines over the lake, ëh", "the");
+        var topRequest = getToprequencyRequestDto("The sun shines over the lake", -1);
+
+        assertThat(WordCountProtobuf.decodeRequest(WordCountProtobuf.encodeRequest(wordRequest), WordFrequencyRequestDto.class))
+                .isEqualTo(wordRequest);
+        assertThat(WordCountProtobuf.decodeRequest(WordCountProtobuf.encodeRequest(topRequest), TopFrequencyRequestDto.class))
+                .isEqualTo(topRequest);
+    }
+
+    @Test
+    void decodeRequest_SkipsUnknownFields() {
+        // n = 3 as field 9, a fixed64 and a fixed32 field, a string field 2 the request doesn't have, and the text
+        var message = bytes(0x48, 0x03, 0x09, 1, 2, 3, 4, 5, 6, 7, 8, 0x15, 1, 2, 3, 4, 0x12, 0x01, 'x', 0x0A, 0x02, 'h', 'i');
+
+        var request = WordCountProtobuf.decodeRequest(message, FrequencyRequestDto.class);
+
+        assertThat(request.getClass()).isEqualTo(FrequencyRequestDto.class);
+        assertThat(request.getText()).isEqualTo("hi");
+    }
+
+    @Test
+    void decodeRequest_Malformed() {
+        assertThatThrownBy(() -> WordCountProtobuf.decodeRequest(bytes(0x0A, 0x05, 'h', 'i'), FrequencyRequestDto.class))
+                .isInstanceOf(WordProcessingException.class)
+                .hasMessage("The protobuf request body can't be decoded, it ends within a field.");
+        assertThatThrownBy(() -> WordCountProtobuf.decodeRequest(bytes(0x18, 0x80), TopFrequencyRequestDto.class))
+                .isInstanceOf(WordProcessingException.class)
+                .hasMessage("The protobuf request body can't be decoded, it ends within a number.");
+        assertThatThrownBy(() -> WordCountProtobuf.decodeRequest(bytes(0x0B), FrequencyRequestDto.class))
+                .isInstanceOf(WordProcessingException.class)
+                .hasMessage("The protobuf request body can't be decoded, it holds a field of unknown wire type 3.");
+    }
+
+    @Test
+    void readDelimitedRequest() throws IOException {
+        var in = new ByteArrayInputStream(bytes(0x04, 0x0A, 0x02, 'h', 'i', 0x00, 0x03, 0x0A));
+
+        assertThat(WordCountProtobuf.readDelimitedRequest(in, FrequencyRequestDto.class, 4).getText()).isEqualTo("hi");
+        assertThat(WordCountProtobuf.readDelimitedRequest(in, FrequencyRequestDto.class, 4).getText()).isNull();
+        assertThatThrownBy(() -> WordCountProtobuf.readDelimitedRequest(in, FrequencyRequestDto.class, 4))
+                .isInstanceOf(WordProcessingException.class)
+                .hasMessage("The protobuf request body can't be decoded, it ends within a message.");
+        assertThat(WordCountProtobuf.readDelimitedRequest(in, FrequencyRequestDto.class, 4)).isNull();
+
+        assertThatThrownBy(() -> WordCountProtobuf.readDelimitedRequest(new ByteArrayInputStream(bytes(0x05)), FrequencyRequestDto.class, 4))
+                .isInstanceOf(WordProcessingException.class)
+                .hasMessage("A message of 5 bytes is larger than the maximum of 4 bytes.");
+    }
+
+    private static byte[] encode(Object value) throws IOException {
+        var out = new ByteArrayOutputStream();
+        WordCountProtobuf.encode(value, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] bytes(int... values) {
+        var bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
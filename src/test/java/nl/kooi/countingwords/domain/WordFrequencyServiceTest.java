@@ -1,21 +1,41 @@
 package nl.kooi.countingwords.domain;
 
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.service.WordCountCache;
 import nl.kooi.countingwords.domain.service.WordFrequencyAnalyzer;
 import nl.kooi.countingwords.domain.service.WordFrequencyService;
 import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@SpringJUnitConfig(WordFrequencyService.class)
+@SpringJUnitConfig({WordFrequencyService.class, WordCountCache.class, WordCountMetrics.class, WordCountProperties.class})
 class WordFrequencyServiceTest {
 
     @Autowired
     private WordFrequencyAnalyzer wordFrequencyAnalyzer;
 
+    @Autowired
+    private WordFrequencyService wordFrequencyService;
+
     private static String TEXT = "Laurens, Laurens, Laurens, Ordina, Ordina, Assessment, Assessment, Nice";
 
     @Test
@@ -45,6 +65,11 @@ class WordFrequencyServiceTest {
         assertThat(wordFrequencyAnalyzer.calculateFrequencyForWord(TEXT, "Ord")).isEqualTo(0);
     }
 
+    @Test
+    void calculateFrequencyForWord_WordBoundaries() {
+        assertThat(wordFrequencyAnalyzer.calculateFrequencyForWord("java8 Java, _java java_ (JAVA)", "java")).isEqualTo(2);
+    }
+
     @Test
     void calculateFrequencyForWord_NullText() {
         var errorMessage = assertThrows(WordProcessingException.class,
@@ -90,6 +115,17 @@ class WordFrequencyServiceTest {
         assertThat(result[2].getWord()).isEqualTo("kotlin");
     }
 
+    @Test
+    void calculateMostFrequentNWords_TextStartsWithSeparator() {
+        var result = wordFrequencyAnalyzer.calculateMostFrequentNWords(", laurens", 2);
+
+        assertThat(result).hasSize(2);
+        assertThat(result[0].getFrequency()).isEqualTo(1);
+        assertThat(result[0].getWord()).isEmpty();
+        assertThat(result[1].getFrequency()).isEqualTo(1);
+        assertThat(result[1].getWord()).isEqualTo("laurens");
+    }
+
     @Test
     void calculateMostFrequentNWords_LessWordsThanN() {
         var result = wordFrequencyAnalyzer.calculateMostFrequentNWords(TEXT, 10);
@@ -102,6 +138,189 @@ class WordFrequencyServiceTest {
         assertThat(result).hasSize(0);
     }
 
+    @Test
+    void calculateMostFrequentNWords_ParallelCountingSameAsSequential() {
+        var properties = new WordCountProperties();
+        properties.getParallel().setThreshold(1);
+        properties.getParallel().setChunkSize(16);
+
+        var parallelAnalyzer = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+        var text = ", " + TEXT.repeat(50) + " PYthon&Java!kotlin+java8Angular3kotlin angular";
+
+        try {
+            var expected = wordFrequencyAnalyzer.calculateMostFrequentNWords(text, 10);
+            var result = parallelAnalyzer.calculateMostFrequentNWords(text, 10);
+
+            assertThat(result).usingRecursiveFieldByFieldElementComparator().containsExactly(expected);
+            assertThat(parallelAnalyzer.calculateHighestFrequency(text))
+                    .isEqualTo(wordFrequencyAnalyzer.calculateHighestFrequency(text));
+        } finally {
+            parallelAnalyzer.shutdown();
+        }
+    }
+
+    @Test
+    void cachedCounts_SameResultsAsUncached() {
+        var properties = new WordCountProperties();
+        properties.getCache().setMinimumTextLength(1);
+
+        var cachingAnalyzer = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+        var text = ", " + TEXT + " laurens_ordina Laurens8 caf\u00e9laurens laurens";
+
+        try {
+            for (int i = 0; i < 2; i++) {
+                assertThat(cachingAnalyzer.calculateHighestFrequency(text))
+                        .isEqualTo(wordFrequencyAnalyzer.calculateHighestFrequency(text));
+                assertThat(cachingAnalyzer.calculateFrequencyForWord(text, "LAURENS"))
+                        .isEqualTo(wordFrequencyAnalyzer.calculateFrequencyForWord(text, "LAURENS"));
+                assertThat(cachingAnalyzer.calculateMostFrequentNWords(text, 3))
+                        .usingRecursiveFieldByFieldElementComparator()
+                        .containsExactly(wordFrequencyAnalyzer.calculateMostFrequentNWords(text, 3));
+            }
+        } finally {
+            cachingAnalyzer.shutdown();
+        }
+    }
+
+    @Test
+    void offHeapCounts_SameResultsAsOnHeap(@TempDir Path directory) throws IOException {
+        var properties = new WordCountProperties();
+        properties.getOffHeap().setEnabled(true);
+        properties.getOffHeap().setThreshold(1);
+        properties.getParallel().setThreshold(64);
+        properties.getParallel().setChunkSize(16);
+
+        var offHeapAnalyzer = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+        var text = ", " + TEXT.repeat(20) + " caf\u00e9 na\u00efve\u20acLaurens PYthon&Java!kotlin+java8 \uD83D\uDE00laurens";
+        var file = Files.writeString(directory.resolve("text.txt"), text);
+        var query = AnalysisQuery.of(true, List.of("laurens", "kotlin"), List.of(5));
+
+        try {
+            assertThat(offHeapAnalyzer.calculateHighestFrequency(text))
+                    .isEqualTo(offHeapAnalyzer.calculateHighestFrequencyInStream(new TrickleReader(text)))
+                    .isEqualTo(offHeapAnalyzer.calculateHighestFrequencyInFile(file))
+                    .isEqualTo(wordFrequencyAnalyzer.calculateHighestFrequency(text));
+
+            var expected = wordFrequencyAnalyzer.calculateMostFrequentNWords(text, 5);
+
+            for (var result : List.of(offHeapAnalyzer.calculateMostFrequentNWords(text, 5),
+                    offHeapAnalyzer.calculateMostFrequentNWordsInStream(new TrickleReader(text), 5),
+                    offHeapAnalyzer.calculateMostFrequentNWordsInFile(file, 5),
+                    offHeapAnalyzer.analyze(text, query).getTopFrequencies().get(5))) {
+                assertThat(result).usingRecursiveFieldByFieldElementComparator().containsExactly(expected);
+            }
+
+            assertThat(offHeapAnalyzer.analyzeInStream(new TrickleReader(text), query).getWordFrequencies())
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyElementsOf(wordFrequencyAnalyzer.analyze(text, query).getWordFrequencies());
+        } finally {
+            offHeapAnalyzer.shutdown();
+        }
+    }
+
+    @Test
+    void utf8Variants_SameResultsAsText() {
+        var properties = new WordCountProperties();
+        properties.getParallel().setThreshold(64);
+        properties.getParallel().setChunkSize(16);
+
+        var parallelAnalyzer = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+        var text = ", " + TEXT.repeat(20) + " caf\u00e9 na\u00efve\u20acLaurens PYthon&Java!kotlin+java8 \uD83D\uDE00laurens";
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        try {
+            for (var analyzer : List.of(wordFrequencyService, parallelAnalyzer)) {
+                assertThat(analyzer.calculateHighestFrequencyInUtf8(ByteBuffer.wrap(bytes)))
+                        .isEqualTo(wordFrequencyAnalyzer.calculateHighestFrequency(text));
+                assertThat(analyzer.calculateFrequencyForWordInUtf8(ByteBuffer.wrap(bytes), "LAURENS"))
+                        .isEqualTo(wordFrequencyAnalyzer.calculateFrequencyForWord(text, "LAURENS"));
+                assertThat(analyzer.calculateMostFrequentNWordsInUtf8(ByteBuffer.wrap(bytes), 5))
+                        .usingRecursiveFieldByFieldElementComparator()
+                        .containsExactly(wordFrequencyAnalyzer.calculateMostFrequentNWords(text, 5));
+            }
+        } finally {
+            parallelAnalyzer.shutdown();
+        }
+    }
+
+    @Test
+    void analyze_SameResultsAsSeparateCalculations() {
+        var text = ", " + TEXT + " laurens_ordina Laurens8 caf\u00e9laurens java";
+        var query = AnalysisQuery.of(true, List.of("LAURENS", "ordina", "kotlin"), List.of(3, 1, 10));
+
+        for (var result : List.of(wordFrequencyAnalyzer.analyze(text, query),
+                wordFrequencyAnalyzer.analyzeInStream(new TrickleReader(text), query))) {
+            assertThat(result.getHighestFrequency()).isEqualTo(wordFrequencyAnalyzer.calculateHighestFrequency(text));
+            assertThat(result.getWordFrequencies())
+                    .extracting(WordFrequency::getWord, WordFrequency::getFrequency)
+                    .containsExactly(
+                            tuple("laurens", wordFrequencyAnalyzer.calculateFrequencyForWord(text, "laurens")),
+                            tuple("ordina", wordFrequencyAnalyzer.calculateFrequencyForWord(text, "ordina")),
+                            tuple("kotlin", 0));
+            assertThat(result.getTopFrequencies()).containsOnlyKeys(3, 1, 10);
+
+            for (var n : query.getTopN()) {
+                assertThat(result.getTopFrequencies().get(n))
+                        .usingRecursiveFieldByFieldElementComparator()
+                        .containsExactly(wordFrequencyAnalyzer.calculateMostFrequentNWords(text, n));
+            }
+        }
+    }
+
+    @Test
+    void calculateFrequencyForWords_SameResultsAsSingleWords() {
+        var text = ", " + TEXT + " laurens_ordina Laurens8 caf\u00e9laurens java";
+        var words = List.of("LAURENS", "ordina", "kotlin", "laurens", "java");
+
+        var properties = new WordCountProperties();
+        properties.getCache().setMinimumTextLength(1);
+        var cachingAnalyzer = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+
+        try {
+            for (var frequencies : List.of(wordFrequencyAnalyzer.calculateFrequencyForWords(text, words),
+                    wordFrequencyAnalyzer.calculateFrequencyForWordsInStream(new TrickleReader(text), words),
+                    cachingAnalyzer.calculateFrequencyForWords(text, words))) {
+                assertThat(frequencies)
+                        .extracting(WordFrequency::getWord, WordFrequency::getFrequency)
+                        .containsExactly(
+                                tuple("laurens", wordFrequencyAnalyzer.calculateFrequencyForWord(text, "laurens")),
+                                tuple("ordina", wordFrequencyAnalyzer.calculateFrequencyForWord(text, "ordina")),
+                                tuple("kotlin", 0),
+                                tuple("java", wordFrequencyAnalyzer.calculateFrequencyForWord(text, "java")));
+            }
+        } finally {
+            cachingAnalyzer.shutdown();
+        }
+    }
+
+    @Test
+    void calculateFrequencyForWords_NoWords() {
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> wordFrequencyAnalyzer.calculateFrequencyForWords(TEXT, List.of())).getMessage();
+
+        assertThat(errorMessage).isEqualTo("No words were given to count.");
+        assertThrows(WordProcessingException.class, () -> wordFrequencyAnalyzer.calculateFrequencyForWords(TEXT, List.of("laurens", "123")));
+    }
+
+    @Test
+    void analyze_OnlyWords() {
+        var result = wordFrequencyAnalyzer.analyze(TEXT, AnalysisQuery.of(false, List.of("nice"), null));
+
+        assertThat(result.getHighestFrequency()).isNull();
+        assertThat(result.getWordFrequencies()).hasSize(1);
+        assertThat(result.getTopFrequencies()).isEmpty();
+    }
+
+    @Test
+    void analyze_NoWord() {
+        var query = AnalysisQuery.of(true, List.of("laurens", "123"), List.of());
+
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> wordFrequencyAnalyzer.analyze(TEXT, query)).getMessage();
+
+        assertThat(errorMessage).isEqualTo("Word 123 doesn't contain the required letters (a-z or A-Z).");
+    }
+
     @Test
     void calculateMostFrequentNWords_NullText() {
         var errorMessage = assertThrows(WordProcessingException.class,
@@ -109,4 +328,101 @@ class WordFrequencyServiceTest {
         assertThat(errorMessage).isEqualTo("Input text is null. Null texts cannot be analyzed.");
     }
 
-}
\ No newline at end of file
+    @Test
+    void streamingVariants_SameResultsAsText() {
+        var text = ", " + TEXT + " PYthon&Java!kotlin+java8Angular3kotlin angular \uD83D\uDE00laurens";
+
+        assertThat(wordFrequencyAnalyzer.calculateHighestFrequencyInStream(new TrickleReader(text)))
+                .isEqualTo(wordFrequencyAnalyzer.calculateHighestFrequency(text));
+        assertThat(wordFrequencyAnalyzer.calculateFrequencyForWordInStream(new TrickleReader(text), "Laurens"))
+                .isEqualTo(wordFrequencyAnalyzer.calculateFrequencyForWord(text, "Laurens"));
+        assertThat(wordFrequencyAnalyzer.calculateMostFrequentNWordsInStream(new TrickleReader(text), 5))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(wordFrequencyAnalyzer.calculateMostFrequentNWords(text, 5));
+    }
+
+    @Test
+    void estimates_ExactWhenVocabularyFitsTheCounters() {
+        var text = ", " + TEXT + " PYthon&Java!kotlin+java8Angular3kotlin angular";
+
+        assertThat(wordFrequencyService.estimateMostFrequentNWords(text, 5))
+                .extracting(WordFrequency::getWord, WordFrequency::getFrequency, EstimatedWordFrequency::getError)
+                .containsExactly(Arrays.stream(wordFrequencyAnalyzer.calculateMostFrequentNWords(text, 5))
+                        .map(wordFrequency -> tuple(wordFrequency.getWord(), wordFrequency.getFrequency(), 0))
+                        .toArray(Tuple[]::new));
+        assertThat(wordFrequencyService.estimateMostFrequentNWordsInStream(new TrickleReader(text), 5))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(wordFrequencyService.estimateMostFrequentNWords(text, 5));
+        assertThat(wordFrequencyService.estimateHighestFrequency(text).getFrequency())
+                .isEqualTo(wordFrequencyService.estimateHighestFrequencyInStream(new StringReader(text)).getFrequency())
+                .isEqualTo(wordFrequencyAnalyzer.calculateHighestFrequency(text));
+        assertThat(wordFrequencyService.estimateHighestFrequency("").getFrequency()).isZero();
+    }
+
+    @Test
+    void estimates_NotMoreWordsThanCounters() {
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> wordFrequencyService.estimateMostFrequentNWords(TEXT, Integer.MAX_VALUE)).getMessage();
+        assertThat(errorMessage).isEqualTo("An approximate top n can't have more than 16384 words.");
+
+        assertThrows(WordProcessingException.class,
+                () -> wordFrequencyService.estimateMostFrequentNWordsInStream(new StringReader(TEXT), 16 * 1024 + 1));
+    }
+
+    @Test
+    void streamingVariants_NoWord() {
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> wordFrequencyAnalyzer.calculateFrequencyForWordInStream(new StringReader(TEXT), "123"))
+                .getMessage();
+
+        assertThat(errorMessage).isEqualTo("Word 123 doesn't contain the required letters (a-z or A-Z).");
+    }
+
+    @Test
+    void fileVariants_SameResultsAsText(@TempDir Path directory) throws IOException {
+        var text = ", " + TEXT.repeat(20) + " caf\u00e9 na\u00efve\u20acLaurens PYthon&Java!kotlin+java8 \uD83D\uDE00laurens";
+        var file = Files.writeString(directory.resolve("text.txt"), text);
+
+        var properties = new WordCountProperties();
+        properties.getParallel().setThreshold(1);
+        properties.getParallel().setParallelism(4);
+        var parallelAnalyzer = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+
+        try {
+            for (var analyzer : List.of(wordFrequencyAnalyzer, parallelAnalyzer)) {
+                assertThat(analyzer.calculateHighestFrequencyInFile(file))
+                        .isEqualTo(wordFrequencyAnalyzer.calculateHighestFrequency(text));
+                assertThat(analyzer.calculateFrequencyForWordInFile(file, "Laurens"))
+                        .isEqualTo(wordFrequencyAnalyzer.calculateFrequencyForWord(text, "Laurens"));
+                assertThat(analyzer.calculateMostFrequentNWordsInFile(file, 5))
+                        .usingRecursiveFieldByFieldElementComparator()
+                        .containsExactly(wordFrequencyAnalyzer.calculateMostFrequentNWords(text, 5));
+            }
+        } finally {
+            parallelAnalyzer.shutdown();
+        }
+    }
+
+    @Test
+    void fileVariants_FileDoesNotExist(@TempDir Path directory) {
+        var file = directory.resolve("missing.txt");
+
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> wordFrequencyAnalyzer.calculateHighestFrequencyInFile(file)).getMessage();
+
+        assertThat(errorMessage).isEqualTo("File " + file + " doesn't exist or is not a regular file.");
+    }
+
+    // hands out the text a few characters at a time, so words straddle the read buffers
+    private static class TrickleReader extends FilterReader {
+
+        TrickleReader(String text) {
+            super(new StringReader(text));
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(length, 3));
+        }
+    }
+}
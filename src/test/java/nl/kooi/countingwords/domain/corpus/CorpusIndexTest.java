@@ -0,0 +1,54 @@
+package nl.kooi.countingwords.domain.corpus;
+
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.text.AsciiLetterTokenizer;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CorpusIndexTest {
+
+    @Test
+    void addDocument_RankingFollowsCounts() {
+        var index = new CorpusIndex();
+
+        index.addDocument(count("java java kotlin"));
+        index.addDocument(count("kotlin kotlin python, java_8"));
+
+        assertThat(index.getDocuments()).isEqualTo(2);
+        assertThat(index.getWords()).isEqualTo(3);
+        assertThat(index.highestFrequency()).isEqualTo(3);
+        assertThat(index.frequencyForWord("java")).isEqualTo(2);
+        assertThat(index.mostFrequentNWords(10))
+                .extracting(WordFrequency::getWord, WordFrequency::getFrequency)
+                .containsExactly(tuple("java", 3), tuple("kotlin", 3), tuple("python", 1));
+    }
+
+    @Test
+    void addDocument_LeadingEmptyWordIgnored() {
+        var index = new CorpusIndex();
+        var document = count(", java");
+        document.add("", 1, 0);
+
+        index.addDocument(document);
+
+        assertThat(index.mostFrequentNWords(10)).extracting(WordFrequency::getWord).containsExactly("java");
+    }
+
+    @Test
+    void emptyIndex() {
+        var index = new CorpusIndex();
+
+        assertThat(index.highestFrequency()).isZero();
+        assertThat(index.frequencyForWord("java")).isZero();
+        assertThat(index.mostFrequentNWords(3)).isEmpty();
+    }
+
+    static WordCountTable count(String text) {
+        var counts = new WordCountTable();
+        new AsciiLetterTokenizer().tokenize(text, counts);
+        return counts;
+    }
+}
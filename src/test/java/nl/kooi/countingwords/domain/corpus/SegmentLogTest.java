@@ -0,0 +1,122 @@
+package nl.kooi.countingwords.domain.corpus;
+
+import nl.kooi.countingwords.domain.WordFrequency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static nl.kooi.countingwords.domain.corpus.CorpusIndexTest.count;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SegmentLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void open_ReplaysAppendedDocuments() throws IOException {
+        var index = new CorpusIndex();
+        try (var log = SegmentLog.open(directory, 1024, 4, index)) {
+            append(log, index, "java java kotlin");
+            append(log, index, "kotlin python");
+        }
+
+        var reloaded = reload(1024, 4);
+
+        assertThat(reloaded.getDocuments()).isEqualTo(2);
+        assertThat(reloaded.mostFrequentNWords(3))
+                .extracting(WordFrequency::getWord, WordFrequency::getFrequency)
+                .containsExactly(tuple("java", 2), tuple("kotlin", 2), tuple("python", 1));
+    }
+
+    @Test
+    void compact_ReplacesSegmentsBySnapshot() throws IOException {
+        var index = new CorpusIndex();
+        try (var log = SegmentLog.open(directory, 1, 2, index)) {
+            for (int i = 0; i < 10; i++) {
+                append(log, index, "java kotlin word" + (char) ('a' + i));
+
+                if (log.needsCompaction()) {
+                    log.compact(index);
+                }
+                assertThat(log.segmentCount()).isLessThanOrEqualTo(2);
+            }
+        }
+
+        var reloaded = reload(1, 2);
+
+        assertThat(reloaded.getDocuments()).isEqualTo(10);
+        assertThat(reloaded.getWords()).isEqualTo(12);
+        assertThat(reloaded.frequencyForWord("kotlin")).isEqualTo(10);
+    }
+
+    @Test
+    void open_CutsOffIncompleteRecord() throws IOException {
+        var index = new CorpusIndex();
+        try (var log = SegmentLog.open(directory, 1024, 4, index)) {
+            append(log, index, "java kotlin");
+            append(log, index, "python");
+        }
+
+        var segment = directory.resolve("segment-0000000001.log");
+        try (var channel = Files.newByteChannel(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        var reloaded = reload(1024, 4);
+
+        assertThat(reloaded.getDocuments()).isEqualTo(1);
+        assertThat(reloaded.frequencyForWord("python")).isZero();
+
+        // the log continues after the last complete record
+        try (var log = SegmentLog.open(directory, 1024, 4, reloaded)) {
+            append(log, reloaded, "python");
+        }
+        assertThat(reload(1024, 4).frequencyForWord("python")).isEqualTo(1);
+    }
+
+    @Test
+    void open_SkipsCorruptRecordsOfEarlierSegments() throws IOException {
+        var index = new CorpusIndex();
+        // every record gets a segment of its own
+        try (var log = SegmentLog.open(directory, 1, 8, index)) {
+            append(log, index, "java kotlin");
+            append(log, index, "python");
+            append(log, index, "java");
+        }
+
+        var first = directory.resolve("segment-0000000001.log");
+        var bytes = Files.readAllBytes(first);
+        bytes[bytes.length - 2] ^= 0x55;
+        Files.write(first, bytes);
+
+        var second = directory.resolve("segment-0000000002.log");
+        try (var channel = Files.newByteChannel(second, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        var reloaded = reload(1, 8);
+
+        assertThat(reloaded.getDocuments()).isEqualTo(1);
+        assertThat(reloaded.frequencyForWord("java")).isEqualTo(1);
+        assertThat(reloaded.frequencyForWord("kotlin")).isZero();
+        assertThat(reloaded.frequencyForWord("python")).isZero();
+    }
+
+    private void append(SegmentLog log, CorpusIndex index, String text) throws IOException {
+        var document = count(text);
+        log.append(document);
+        index.addDocument(document);
+    }
+
+    private CorpusIndex reload(long segmentSize, int maximumSegments) throws IOException {
+        var index = new CorpusIndex();
+        SegmentLog.open(directory, segmentSize, maximumSegments, index).close();
+        return index;
+    }
+}
@@ -0,0 +1,187 @@
+package nl.kooi.countingwords.domain.service;
+
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.AnalysisResult;
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.job.AnalysisJob;
+import nl.kooi.countingwords.domain.job.JobPriority;
+import nl.kooi.countingwords.domain.job.JobState;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnalysisJobServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final WordCountProperties properties = new WordCountProperties();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<AnalysisQuery> analyzed = new CopyOnWriteArrayList<>();
+
+    // reads the first character of every text, then waits for the test to release it
+    private final WordFrequencyService wordFrequencyService = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics()) {
+        @Override
+        public AnalysisResult analyzeInStream(Reader reader, AnalysisQuery query) {
+            analyzed.add(query);
+            try {
+                reader.read(new char[1]);
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.analyzeInStream(reader, query);
+        }
+    };
+
+    private AnalysisJobService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+        wordFrequencyService.shutdown();
+    }
+
+    @Test
+    void submitText_Succeeds() throws Exception {
+        properties.getJobs().setSpoolDirectory(directory);
+        service = start();
+
+        var job = service.submitText(" java java kotlin", AnalysisQuery.of(true, List.of("java"), List.of(1)), JobPriority.NORMAL);
+        release.countDown();
+        awaitFinished(job);
+
+        var result = service.getResult(job.getId());
+
+        assertThat(job.getState()).isEqualTo(JobState.SUCCEEDED);
+        assertThat(job.getProcessedBytes()).isEqualTo(job.getTotalBytes()).isEqualTo(17);
+        assertThat(result.getHighestFrequency()).isEqualTo(2);
+        assertThat(result.getWordFrequencies()).extracting(WordFrequency::getFrequency).containsExactly(2);
+        assertThat(result.getTopFrequencies().get(1)).extracting(WordFrequency::getWord).containsExactly("java");
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    void submitFile_LeavesFileInPlace() throws Exception {
+        Files.writeString(directory.resolve("text.txt"), " laurens ordina laurens");
+        properties.getFile().setDirectory(directory);
+        service = start();
+
+        var job = service.submitFile("text.txt", AnalysisQuery.of(true, null, null), JobPriority.NORMAL);
+        release.countDown();
+        awaitFinished(job);
+
+        assertThat(service.getResult(job.getId()).getHighestFrequency()).isEqualTo(2);
+        assertThat(directory.resolve("text.txt")).exists();
+    }
+
+    @Test
+    void submit_RunsQueuedJobsByPriority() throws Exception {
+        properties.getJobs().setConcurrency(1);
+        service = start();
+
+        var running = service.submitText("running", query("running"), JobPriority.LOW);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        var low = service.submitText("low", query("low"), JobPriority.LOW);
+        var high = service.submitText("high", query("high"), JobPriority.HIGH);
+        var normal = service.submitText("normal", query("normal"), JobPriority.NORMAL);
+        release.countDown();
+        awaitFinished(running, low, high, normal);
+
+        assertThat(analyzed).extracting(query -> query.getWords().get(0))
+                .containsExactly("running", "high", "normal", "low");
+    }
+
+    @Test
+    void cancel_QueuedAndRunningJobs() throws Exception {
+        properties.getJobs().setConcurrency(1);
+        properties.getJobs().setSpoolDirectory(directory);
+        service = start();
+
+        var running = service.submitText("java java", query("java"), JobPriority.NORMAL);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        var queued = service.submitText("kotlin", query("kotlin"), JobPriority.NORMAL);
+
+        assertThat(service.cancel(queued.getId()).getState()).isEqualTo(JobState.CANCELLED);
+        assertThat(service.cancel(running.getId()).getState()).isEqualTo(JobState.RUNNING);
+
+        release.countDown();
+        awaitFinished(running);
+
+        assertThat(running.getState()).isEqualTo(JobState.CANCELLED);
+        assertThat(analyzed).hasSize(1);
+        assertThat(directory).isEmptyDirectory();
+
+        var exception = assertThrows(WordProcessingException.class, () -> service.getResult(running.getId()));
+        assertThat(exception.getReason()).isEqualTo(Reason.JOB_NOT_FINISHED);
+    }
+
+    @Test
+    void submit_RejectedWhenQueueIsFull() throws Exception {
+        properties.getJobs().setConcurrency(1);
+        properties.getJobs().setQueueCapacity(1);
+        service = start();
+
+        service.submitText("running", query("running"), JobPriority.NORMAL);
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        service.submitText("queued", query("queued"), JobPriority.NORMAL);
+
+        assertThrows(RejectedExecutionException.class, () -> service.submitText("rejected", query("rejected"), JobPriority.HIGH));
+    }
+
+    @Test
+    void getJob_FinishedJobExpires() throws Exception {
+        properties.getJobs().setResultTtl(Duration.ofMillis(50));
+        service = start();
+
+        var job = service.submitText("java", query("java"), JobPriority.NORMAL);
+        release.countDown();
+        awaitFinished(job);
+        Thread.sleep(200);
+
+        var exception = assertThrows(WordProcessingException.class, () -> service.getJob(job.getId()));
+        assertThat(exception.getReason()).isEqualTo(Reason.UNKNOWN_JOB);
+    }
+
+    private AnalysisJobService start() {
+        return new AnalysisJobService(wordFrequencyService, new LocalFileResolver(properties), properties);
+    }
+
+    private static AnalysisQuery query(String word) {
+        return AnalysisQuery.of(false, List.of(word), null);
+    }
+
+    private static void awaitFinished(AnalysisJob... jobs) throws InterruptedException {
+        for (var job : jobs) {
+            for (int i = 0; i < 1000 && !job.isFinished(); i++) {
+                Thread.sleep(10);
+            }
+            assertThat(job.isFinished()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package nl.kooi.countingwords.domain.service;
+
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CorpusServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final WordCountProperties properties = new WordCountProperties();
+    private final WordFrequencyService wordFrequencyService = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+
+    @AfterEach
+    void tearDown() {
+        wordFrequencyService.shutdown();
+    }
+
+    @Test
+    void addDocument_CorpusSurvivesRestart() throws IOException {
+        properties.getCorpus().setDirectory(directory);
+
+        var service = start();
+        service.addDocument("news", "Laurens, Laurens, Ordina");
+        var summary = service.addDocumentInStream("news", new StringReader("ordina laurens assessment"));
+        service.closeCorpora();
+
+        assertThat(summary.getDocuments()).isEqualTo(2);
+        assertThat(summary.getWords()).isEqualTo(3);
+
+        var restarted = start();
+
+        assertThat(restarted.getSummary("news").getDocuments()).isEqualTo(2);
+        assertThat(restarted.calculateHighestFrequency("news")).isEqualTo(3);
+        assertThat(restarted.calculateFrequencyForWord("news", "ORDINA")).isEqualTo(2);
+        assertThat(restarted.calculateMostFrequentNWords("news", 2))
+                .extracting(WordFrequency::getWord)
+                .containsExactly("laurens", "ordina");
+        restarted.closeCorpora();
+    }
+
+    @Test
+    void addDocument_InMemoryWithoutDirectory() throws IOException {
+        var service = start();
+
+        service.addDocument("news", "java java kotlin");
+
+        assertThat(service.calculateHighestFrequency("news")).isEqualTo(2);
+    }
+
+    @Test
+    void unknownCorpus() throws IOException {
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> start().calculateHighestFrequency("unknown")).getMessage();
+
+        assertThat(errorMessage).isEqualTo("Corpus unknown doesn't exist.");
+    }
+
+    @Test
+    void addDocument_InvalidCorpusName() throws IOException {
+        var service = start();
+
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> service.addDocument("../news", "java")).getMessage();
+
+        assertThat(errorMessage).isEqualTo("Corpus name ../news is invalid, it may only contain 1 to 64 lower case " +
+                "letters, digits, '-' and '_'.");
+    }
+
+    @Test
+    void addDocument_TooManyCorpora() throws IOException {
+        properties.getCorpus().setMaximumCorpora(2);
+        var service = start();
+
+        service.addDocument("news", "java");
+        service.addDocument("blogs", "java");
+
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> service.addDocument("papers", "java")).getMessage();
+
+        assertThat(errorMessage).isEqualTo("Corpus papers can't be created, there are already 2 corpora.");
+        assertThat(service.addDocument("news", "kotlin").getDocuments()).isEqualTo(2);
+    }
+
+    private CorpusService start() throws IOException {
+        var service = new CorpusService(wordFrequencyService, properties);
+        service.loadCorpora();
+        return service;
+    }
+}
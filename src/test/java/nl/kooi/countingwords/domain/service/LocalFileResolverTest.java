@@ -0,0 +1,51 @@
+package nl.kooi.countingwords.domain.service;
+
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalFileResolverTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void resolve_FileInDirectory() throws IOException {
+        var file = Files.writeString(Files.createDirectories(root.resolve("corpus/logs")).resolve("app.log"), "text");
+
+        assertThat(resolverFor(root.resolve("corpus")).resolve("logs/app.log")).isEqualTo(file.toRealPath());
+    }
+
+    @Test
+    void resolve_PathOutsideDirectory() throws IOException {
+        Files.createDirectories(root.resolve("corpus"));
+        Files.writeString(root.resolve("secret.txt"), "text");
+
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> resolverFor(root.resolve("corpus")).resolve("../secret.txt")).getMessage();
+
+        assertThat(errorMessage).isEqualTo("File ../secret.txt doesn't exist in the analysis directory.");
+    }
+
+    @Test
+    void resolve_Disabled() {
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> new LocalFileResolver(new WordCountProperties()).resolve("app.log")).getMessage();
+
+        assertThat(errorMessage).isEqualTo("Analysis of local files is disabled.");
+    }
+
+    private static LocalFileResolver resolverFor(Path directory) {
+        var properties = new WordCountProperties();
+        properties.getFile().setDirectory(directory);
+        return new LocalFileResolver(properties);
+    }
+}
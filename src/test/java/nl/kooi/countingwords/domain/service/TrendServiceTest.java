@@ -0,0 +1,116 @@
+package nl.kooi.countingwords.domain.service;
+
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TrendServiceTest {
+
+    private final WordCountProperties properties = new WordCountProperties();
+    private final WordFrequencyService wordFrequencyService = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+    private final MovingClock clock = new MovingClock();
+    private final TrendService service = new TrendService(wordFrequencyService, properties, clock);
+
+    @AfterEach
+    void tearDown() {
+        wordFrequencyService.shutdown();
+    }
+
+    @Test
+    void addText_WindowsSlideWithTheClock() {
+        service.addText("news", "Laurens, Laurens, Ordina");
+        clock.move(Duration.ofMinutes(4));
+        service.addTextInStream("news", new StringReader("ordina ordina ordina assessment"));
+
+        assertThat(service.calculateHighestFrequency("news", null)).isEqualTo(4);
+        assertThat(service.calculateFrequencyForWord("news", "ORDINA", "5m")).isEqualTo(4);
+
+        clock.move(Duration.ofMinutes(2));
+
+        assertThat(service.calculateFrequencyForWord("news", "laurens", "5m")).isZero();
+        assertThat(service.calculateFrequencyForWord("news", "laurens", "PT1H")).isEqualTo(2);
+        assertThat(service.calculateMostFrequentNWords("news", 2, "5m"))
+                .extracting(WordFrequency::getWord)
+                .containsExactly("ordina", "assessment");
+    }
+
+    @Test
+    void unknownWindow() {
+        service.addText("news", "java");
+
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> service.calculateHighestFrequency("news", "7m")).getMessage();
+
+        assertThat(errorMessage).isEqualTo("Window 7m isn't kept, use one of: PT5M, PT1H.");
+    }
+
+    @Test
+    void unknownTrend() {
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> service.calculateHighestFrequency("unknown", null)).getMessage();
+
+        assertThat(errorMessage).isEqualTo("Trend unknown doesn't exist.");
+    }
+
+    @Test
+    void delete_TrendIsGone() {
+        service.addText("news", "java");
+        service.delete("news");
+
+        assertThrows(WordProcessingException.class, () -> service.calculateHighestFrequency("news", null));
+    }
+
+    @Test
+    void addText_InvalidTrendName() {
+        var errorMessage = assertThrows(WordProcessingException.class,
+                () -> service.addText("../news", "java")).getMessage();
+
+        assertThat(errorMessage).isEqualTo("Trend name ../news is invalid, it may only contain 1 to 64 lower case letters, digits, '-' and '_'.");
+    }
+
+    @Test
+    void addText_TooManyTrends() {
+        properties.getTrends().setMaximumTrends(1);
+        var limited = new TrendService(wordFrequencyService, properties);
+        limited.addText("news", "java");
+
+        assertThrows(WordProcessingException.class, () -> limited.addText("sports", "java"));
+        limited.addText("news", "kotlin");
+    }
+
+    private static class MovingClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T12:00:00Z");
+
+        void move(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package nl.kooi.countingwords.domain.service;
+
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.text.ContentHash;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WordCountCacheTest {
+    private final AtomicInteger computations = new AtomicInteger();
+    private final Function<String, WordCountTable> counter = text -> {
+        computations.incrementAndGet();
+        return new WordCountTable();
+    };
+
+    @Test
+    void get_SameTextComputedOnce() {
+        var cache = cacheWith(5, true);
+
+        var first = cache.get("laurens ordina", counter);
+        var second = cache.get(new String("laurens ordina"), counter);
+
+        assertThat(second).isSameAs(first);
+        assertThat(computations).hasValue(1);
+    }
+
+    @Test
+    void get_DifferentTextsComputedSeparately() {
+        var cache = cacheWith(5, true);
+
+        cache.get("laurens ordina", counter);
+        cache.get("ordina laurens", counter);
+
+        assertThat(computations).hasValue(2);
+    }
+
+    @Test
+    void get_OtherTextsNotBlockedByACount() throws Exception {
+        var cache = cacheWith(5, true);
+        var counting = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+
+        try {
+            var slow = executor.submit(() -> cache.get("laurens ordina", text -> {
+                counting.countDown();
+                await(release);
+                return counter.apply(text);
+            }));
+            counting.await();
+
+            cache.get("ordina laurens", counter);
+            assertThat(computations).hasValue(1);
+
+            release.countDown();
+            assertThat(slow.get()).isSameAs(cache.get("laurens ordina", counter));
+            assertThat(computations).hasValue(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_FailedCountNotCached() {
+        var cache = cacheWith(5, true);
+
+        assertThatThrownBy(() -> cache.get("laurens ordina", text -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+        cache.get("laurens ordina", counter);
+
+        assertThat(computations).hasValue(1);
+    }
+
+    @Test
+    void get_CollidingTextsNotAnsweredFromEachOther() {
+        var properties = new WordCountProperties();
+        properties.getCache().setMinimumTextLength(5);
+        // every text has the same fingerprint
+        var cache = new WordCountCache(properties, text -> ContentHash.of(""));
+
+        var first = cache.get("laurens ordina", counter);
+        var second = cache.get("ordina laurens", counter);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.get("laurens ordina", counter)).isSameAs(first);
+        assertThat(computations).hasValue(2);
+    }
+
+    @Test
+    void get_ShortTextNotCached() {
+        var cache = cacheWith(5, true);
+
+        cache.get("java", counter);
+        cache.get("java", counter);
+
+        assertThat(cache.isCacheable("java")).isFalse();
+        assertThat(computations).hasValue(2);
+    }
+
+    @Test
+    void get_Disabled() {
+        var cache = cacheWith(5, false);
+
+        cache.get("laurens ordina", counter);
+        cache.get("laurens ordina", counter);
+
+        assertThat(cache.isCacheable("laurens ordina")).isFalse();
+        assertThat(computations).hasValue(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static WordCountCache cacheWith(int minimumTextLength, boolean enabled) {
+        var properties = new WordCountProperties();
+        properties.getCache().setMinimumTextLength(minimumTextLength);
+        properties.getCache().setEnabled(enabled);
+        return new WordCountCache(properties);
+    }
+}
@@ -0,0 +1,123 @@
+package nl.kooi.countingwords.domain.service;
+
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WordCountStreamTest {
+
+    private static final String[] WORDS = {"the", "The", "sun", "shines", "Ordina", "x", "a_b", "a1", "ëh", "😀"};
+    private static final String[] SEPARATORS = {" ", ", ", ".\n", "-", "😀", "_", "1"};
+
+    private final WordCountProperties properties = new WordCountProperties();
+    private final WordFrequencyService service = new WordFrequencyService(properties, new WordCountCache(properties), new WordCountMetrics());
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void add_RunningAnswersAfterEveryChunk() {
+        var stream = service.openStream();
+
+        stream.add("the sun, the ");
+        assertThat(stream.mostFrequentNWords(2))
+                .extracting(WordFrequency::getWord, WordFrequency::getFrequency)
+                .containsExactly(tuple("the", 2), tuple("sun", 1));
+
+        // shines is split over two chunks, and is only counted once it ends
+        stream.add("moon shi");
+        assertThat(stream.mostFrequentNWords(5)).extracting(WordFrequency::getWord).doesNotContain("shi", "shines");
+
+        stream.add("nes on the");
+        assertThat(stream.highestFrequency()).isEqualTo(2);
+
+        stream.finish();
+        assertThat(stream.highestFrequency()).isEqualTo(3);
+        assertThat(stream.mostFrequentNWords(10)).extracting(WordFrequency::getWord).contains("shines").doesNotContain("shi", "nes");
+    }
+
+    @Test
+    void finish_SameAnswersAsTheWholeText() {
+        var random = new Random(42);
+
+        for (int round = 0; round < 200; round++) {
+            var text = new StringBuilder();
+            for (int i = 1 + random.nextInt(40); i > 0; i--) {
+                text.append(SEPARATORS[random.nextInt(SEPARATORS.length)]).append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            var stream = service.openStream();
+
+            for (int start = 0, end; start < text.length(); start = end) {
+                end = Math.min(text.length(), start + random.nextInt(8));
+                stream.add(text.substring(start, end));
+            }
+            stream.finish();
+
+            assertThat(stream.mostFrequentNWords(100))
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactly(service.calculateMostFrequentNWords(text.toString(), 100));
+            assertThat(stream.highestFrequency()).isEqualTo(service.calculateHighestFrequency(text.toString()));
+        }
+    }
+
+    @Test
+    void mostFrequentNWords_RunningAnswersSameAsSelectingFromAllWords() {
+        var random = new Random(7);
+
+        for (int round = 0; round < 100; round++) {
+            var n = 1 + random.nextInt(4);
+            var stream = service.openStream();
+            var chunks = new ArrayList<String>();
+
+            for (int i = random.nextInt(30); i > 0; i--) {
+                var chunk = new StringBuilder();
+                for (int j = random.nextInt(4); j > 0; j--) {
+                    chunk.append(WORDS[random.nextInt(WORDS.length)]).append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+                }
+                chunks.add(chunk.toString());
+                stream.add(chunk.toString());
+
+                // the first answer of a stream is selected from all its words
+                var selected = service.openStream();
+                chunks.forEach(selected::add);
+
+                assertThat(stream.mostFrequentNWords(n))
+                        .usingRecursiveFieldByFieldElementComparator()
+                        .containsExactly(selected.mostFrequentNWords(n));
+            }
+        }
+    }
+
+    @Test
+    void add_AfterFinish() {
+        var stream = service.openStream();
+        stream.finish();
+
+        assertThrows(IllegalStateException.class, () -> stream.add("text"));
+    }
+
+    @Test
+    void add_TooLong() {
+        var stream = new WordCountStream(new WordCountMetrics(), 16);
+        stream.add("the sun, the ");
+
+        assertThrows(WordProcessingException.class, () -> stream.add("moon"));
+
+        stream.finish();
+        assertThat(stream.mostFrequentNWords(1))
+                .extracting(WordFrequency::getWord, WordFrequency::getFrequency)
+                .containsExactly(tuple("the", 2));
+    }
+}
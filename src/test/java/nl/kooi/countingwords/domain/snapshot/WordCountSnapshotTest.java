@@ -0,0 +1,122 @@
+package nl.kooi.countingwords.domain.snapshot;
+
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.text.AsciiLetterTokenizer;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+import nl.kooi.countingwords.domain.text.WordCounts;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WordCountSnapshotTest {
+
+    @Test
+    void readFrom_SameCountsAsWritten() throws IOException {
+        var counts = count("java javascript java_8 jav kotlin, java");
+        counts.add("", 1, 0);
+
+        var snapshot = read(write(counts, 1));
+
+        assertThat(snapshot.getMaximumError()).isZero();
+        assertThat(snapshot.getCounts().size()).isEqualTo(counts.size());
+        counts.forEach((word, count, delimitedCount) -> {
+            assertThat(snapshot.getCounts().count(word)).as(word).isEqualTo(count);
+            assertThat(snapshot.getCounts().delimitedCount(word)).as(word).isEqualTo(delimitedCount);
+        });
+    }
+
+    @Test
+    void readFrom_ConcatenatedSnapshotsAreMerged() throws IOException {
+        var snapshot = read(concat(write(count("java java kotlin"), 1), write(count("kotlin kotlin python"), 1)));
+
+        assertThat(snapshot.highestFrequency()).isEqualTo(3);
+        assertThat(snapshot.frequencyForWord("JAVA")).isEqualTo(2);
+        assertThat(snapshot.mostFrequentNWords(2))
+                .extracting(WordFrequency::getWord, WordFrequency::getFrequency)
+                .containsExactly(tuple("kotlin", 3), tuple("java", 2));
+    }
+
+    @Test
+    void writeTo_PrunedSnapshotsAddUpTheirMaximumErrors() throws IOException {
+        var first = read(write(count("java java java kotlin kotlin python"), 2));
+        assertThat(first.getMaximumError()).isEqualTo(1);
+        assertThat(first.frequencyForWord("python")).isZero();
+
+        var out = new ByteArrayOutputStream();
+        first.writeTo(out, 3);
+        var merged = read(concat(out.toByteArray(), write(count("kotlin"), 1)));
+
+        assertThat(merged.getMaximumError()).isEqualTo(3);
+        assertThat(merged.mostFrequentNWords(10))
+                .extracting(WordFrequency::getWord, WordFrequency::getFrequency)
+                .containsExactly(tuple("java", 3), tuple("kotlin", 1));
+    }
+
+    @Test
+    void readFrom_CorruptSnapshot() throws IOException {
+        var bytes = write(count("java kotlin python"), 1);
+        bytes[bytes.length - 6] ^= 0x01;
+
+        var message = assertThrows(WordProcessingException.class, () -> read(bytes)).getMessage();
+        assertThat(message).isEqualTo("The snapshot can't be read, its checksum doesn't match.");
+    }
+
+    @Test
+    void readFrom_TruncatedSnapshotAddsNothing() throws IOException {
+        var complete = write(count("java"), 1);
+        var truncated = write(count("kotlin python"), 1);
+        var snapshot = new WordCountSnapshot();
+
+        assertThrows(WordProcessingException.class,
+                () -> snapshot.readFrom(new ByteArrayInputStream(concat(complete, Arrays.copyOf(truncated, truncated.length - 3)))));
+        assertThat(snapshot.mostFrequentNWords(10)).extracting(WordFrequency::getWord).containsExactly("java");
+    }
+
+    @Test
+    void readFrom_CountsTooLargeToMerge() throws IOException {
+        var counts = new WordCountTable();
+        counts.add("java", Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1);
+        var bytes = write(counts, 1);
+
+        var exception = assertThrows(WordProcessingException.class, () -> read(concat(bytes, bytes)));
+        assertThat(exception.getReason()).isEqualTo(WordProcessingException.Reason.COUNT_TOO_LARGE);
+        assertThat(exception.getMessage()).isEqualTo("The snapshots can't be merged, the count of 'java' would exceed 2147483647.");
+    }
+
+    @Test
+    void readFrom_NoSnapshot() {
+        assertThrows(WordProcessingException.class, () -> read("java".getBytes()));
+    }
+
+    private static WordCountTable count(String text) {
+        var counts = new WordCountTable();
+        new AsciiLetterTokenizer().tokenize(text, counts);
+        return counts;
+    }
+
+    private static byte[] write(WordCounts counts, int minimumCount) throws IOException {
+        var out = new ByteArrayOutputStream();
+        WordCountSnapshot.write(counts, minimumCount, out);
+        return out.toByteArray();
+    }
+
+    private static WordCountSnapshot read(byte[] bytes) throws IOException {
+        var snapshot = new WordCountSnapshot();
+        snapshot.readFrom(new ByteArrayInputStream(bytes));
+        return snapshot;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        var bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,62 @@
+package nl.kooi.countingwords.domain.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsciiLetterTokenizerTest {
+
+    private final Tokenizer tokenizer = new AsciiLetterTokenizer();
+
+    @Test
+    void tokenize_SameWordsAsSplittingOnNonLetters() {
+        var text = "PYthon&Java!kotlin+java8Angular3kotlin angular, ÉCOLE école_x naïve\n\tEnd";
+
+        var expected = Arrays.stream(text.split("[^A-Za-z]+"))
+                .filter(word -> !word.isEmpty())
+                .map(String::toLowerCase)
+                .collect(Collectors.toList());
+
+        assertThat(tokenize(text)).isEqualTo(expected);
+    }
+
+    @Test
+    void tokenize_LongWordsGrowTheBuffer() {
+        var word = "a".repeat(1000);
+
+        assertThat(tokenize(word + " " + word.toUpperCase())).containsExactly(word, word);
+    }
+
+    @Test
+    void tokenize_Range() {
+        var words = new ArrayList<String>();
+
+        tokenizer.tokenize("one two three", 4, 7, (word, length, delimited) -> words.add(new String(word, 0, length)));
+
+        assertThat(words).containsExactly("two");
+    }
+
+    @Test
+    void tokenize_DelimitedLikeRegexWordBoundaries() {
+        var delimitedWords = new ArrayList<String>();
+
+        tokenizer.tokenize("java8 java, _java java_ 1java java", (word, length, delimited) -> {
+            if (delimited) {
+                delimitedWords.add(new String(word, 0, length));
+            }
+        });
+
+        assertThat(delimitedWords).containsExactly("java", "java");
+    }
+
+    private List<String> tokenize(String text) {
+        var words = new ArrayList<String>();
+        tokenizer.tokenize(text, (word, length, delimited) -> words.add(new String(word, 0, length)));
+        return words;
+    }
+}
@@ -0,0 +1,60 @@
+package nl.kooi.countingwords.domain.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExactWordMatcherTest {
+
+    @Test
+    void count_CaseInsensitiveWholeWords() {
+        var matcher = ExactWordMatcher.of("Java");
+
+        assertThat(matcher.count("java JAVA jAvA, javascript java8 _java (java)")).isEqualTo(4);
+    }
+
+    @Test
+    void count_Range() {
+        var matcher = ExactWordMatcher.of("ordina");
+
+        assertThat(matcher.count("ordina ordina ordina", 7, 13)).isEqualTo(1);
+    }
+
+    @Test
+    void count_SameAsWordBoundaryRegex() {
+        var random = new Random(11);
+        var fragments = new String[]{"ab", "AB", "aba", "b", "a", " ", ",", "8", "_", "é", "\n", "bab", "\u0301", "\uD834\uDD67"};
+
+        for (int i = 0; i < 2_000; i++) {
+            var text = new StringBuilder();
+            for (int j = random.nextInt(40); j > 0; j--) {
+                text.append(fragments[random.nextInt(fragments.length)]);
+            }
+
+            for (var word : new String[]{"a", "ab", "aba", "bab"}) {
+                var expected = Pattern.compile("(?i)\\b" + word + "\\b").matcher(text).results().count();
+
+                assertThat(ExactWordMatcher.of(word).count(text)).as("%s in [%s]", word, text).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void count_CombiningMarks() {
+        var text = "cafe\u0301 cafe _\u0301cafe x\u0301\u0301cafe \u0301cafe";
+
+        assertThat(ExactWordMatcher.of("cafe").count(text))
+                .isEqualTo(Pattern.compile("\\bcafe\\b").matcher(text).results().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void of_RejectsNonLetters() {
+        assertThrows(IllegalArgumentException.class, () -> ExactWordMatcher.of("java8"));
+        assertThrows(IllegalArgumentException.class, () -> ExactWordMatcher.of(""));
+    }
+}
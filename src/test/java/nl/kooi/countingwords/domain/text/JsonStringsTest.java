@@ -0,0 +1,63 @@
+package nl.kooi.countingwords.domain.text;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonStringsTest {
+
+    private static final String[] FRAGMENTS = {"java", " ", "\"", "\\", "/", "\n", "\t", "\u0001", "é", "€", "😀", "日本"};
+
+    @Test
+    void unescapeInPlace_SameAsDecodedString() {
+        var random = new Random(5);
+
+        for (int i = 0; i < 1_000; i++) {
+            var text = new StringBuilder();
+            for (int j = random.nextInt(20); j > 0; j--) {
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+
+            var literal = "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(text.toString())) + "\"";
+            var bytes = literal.getBytes(StandardCharsets.UTF_8);
+            var end = JsonStrings.endOfString(bytes, 1);
+
+            assertThat(end).isEqualTo(bytes.length - 1);
+            assertThat(new String(bytes, 1, JsonStrings.unescapeInPlace(bytes, 1, end) - 1, StandardCharsets.UTF_8))
+                    .isEqualTo(text.toString());
+        }
+    }
+
+    @Test
+    void unescapeInPlace_UnicodeEscapes() {
+        assertThat(unescape("java\\u0038 \\u0041\\u00e9\\u20AC\\ud83d\\ude00\\/")).isEqualTo("java8 Aé€😀/");
+    }
+
+    @Test
+    void unescapeInPlace_UnpairedSurrogatesBecomeReplacementCharacters() {
+        assertThat(unescape("a\\ud83db\\ude00c\\ud83d")).isEqualTo("a�b�c�");
+    }
+
+    @Test
+    void unescapeInPlace_InvalidEscapes() {
+        assertThrows(IllegalArgumentException.class, () -> unescape("\\x"));
+        assertThrows(IllegalArgumentException.class, () -> unescape("\\u12g4"));
+        assertThrows(IllegalArgumentException.class, () -> unescape("\\u12"));
+    }
+
+    @Test
+    void endOfString_Unterminated() {
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonStrings.endOfString("\"text\\\"".getBytes(StandardCharsets.UTF_8), 1));
+    }
+
+    private static String unescape(String content) {
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        return new String(bytes, 0, JsonStrings.unescapeInPlace(bytes, 0, bytes.length), StandardCharsets.UTF_8);
+    }
+}
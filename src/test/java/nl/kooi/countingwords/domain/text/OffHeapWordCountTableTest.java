@@ -0,0 +1,97 @@
+package nl.kooi.countingwords.domain.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OffHeapWordCountTableTest {
+
+    private final Tokenizer tokenizer = new AsciiLetterTokenizer();
+
+    @Test
+    void accept_CountsTokens() {
+        try (var table = new OffHeapWordCountTable()) {
+            tokenizer.tokenize("Laurens, laurens8 LAURENS Ordina", table);
+
+            assertThat(table.size()).isEqualTo(2);
+            assertThat(table.totalCount()).isEqualTo(4);
+            assertThat(table.count("laurens")).isEqualTo(3);
+            assertThat(table.delimitedCount("laurens")).isEqualTo(2);
+            assertThat(table.count("ordina")).isEqualTo(1);
+            assertThat(table.count("nice")).isZero();
+            assertThat(table.highestCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void accept_ManyDistinctWordsSameAsOnHeap() {
+        var text = new StringBuilder("caf\u00e9 \u00e9t\u00e9 \uD83D\uDE00 ");
+
+        for (int i = 0; i < 20_000; i++) {
+            text.append(Integer.toString(i % 7_000, 26).chars()
+                            .map(c -> c <= '9' ? 'a' + c - '0' : c + 10)
+                            .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append))
+                    .append(i % 3 == 0 ? "1 " : " ");
+        }
+
+        var expected = new WordCountTable();
+        tokenizer.tokenize(text, expected);
+        expected.add("caf\u00e9", 2, 1);
+
+        try (var table = new OffHeapWordCountTable()) {
+            tokenizer.tokenize(text, table);
+            table.add("caf\u00e9", 2, 1);
+
+            var words = new HashMap<String, Integer>();
+            table.forEach((word, count, delimitedCount) -> words.put(word, count));
+
+            assertThat(table.size()).isEqualTo(expected.size());
+            assertThat(table.totalCount()).isEqualTo(expected.totalCount());
+            expected.forEach((word, count, delimitedCount) -> {
+                assertThat(words).containsEntry(word, count);
+                assertThat(table.count(word)).isEqualTo(count);
+                assertThat(table.delimitedCount(word)).isEqualTo(delimitedCount);
+            });
+            assertThat(TopWordsSelector.select(table, 10))
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactly(TopWordsSelector.select(expected, 10));
+        }
+    }
+
+    @Test
+    void merge_AddsSmallerIntoLargerAndClosesIt() {
+        var first = new OffHeapWordCountTable();
+        var second = new OffHeapWordCountTable();
+
+        tokenizer.tokenize("java kotlin java", first);
+        tokenizer.tokenize("kotlin2 scala", second);
+        first.add("", 1, 0);
+
+        try (var merged = OffHeapWordCountTable.merge(second, first)) {
+            assertThat(merged).isSameAs(first);
+            assertThat(merged.count("java")).isEqualTo(2);
+            assertThat(merged.count("kotlin")).isEqualTo(2);
+            assertThat(merged.delimitedCount("kotlin")).isEqualTo(1);
+            assertThat(merged.count("scala")).isEqualTo(1);
+            assertThat(merged.count("")).isEqualTo(1);
+            assertThat(merged.size()).isEqualTo(4);
+        }
+
+        assertThrows(IllegalStateException.class, () -> second.count("java"));
+    }
+
+    @Test
+    void close_TableCantBeUsedAfterwards() {
+        var table = new OffHeapWordCountTable();
+        tokenizer.tokenize("java", table);
+
+        table.close();
+        table.close();
+
+        assertThrows(IllegalStateException.class, () -> table.count("java"));
+        assertThrows(IllegalStateException.class, () -> tokenizer.tokenize("kotlin", table));
+    }
+}
@@ -0,0 +1,80 @@
+package nl.kooi.countingwords.domain.text;
+
+import nl.kooi.countingwords.domain.EstimatedWordFrequency;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SpaceSavingCounterTest {
+
+    private final Tokenizer tokenizer = new AsciiLetterTokenizer();
+
+    @Test
+    void select_ExactWhileWordsFit() {
+        var counter = new SpaceSavingCounter(3);
+
+        tokenizer.tokenize("Laurens, laurens LAURENS Ordina ordina nice", counter);
+
+        assertThat(counter.maximumError()).isZero();
+        assertThat(counter.select(2))
+                .extracting(EstimatedWordFrequency::getWord, EstimatedWordFrequency::getFrequency, EstimatedWordFrequency::getError)
+                .containsExactly(tuple("laurens", 3, 0), tuple("ordina", 2, 0));
+    }
+
+    @Test
+    void select_EstimatesStayWithinTheirBounds() {
+        var random = new Random(42);
+        var capacity = 200;
+        var counter = new SpaceSavingCounter(capacity);
+        var expected = new HashMap<String, Integer>();
+        var text = new StringBuilder();
+
+        // Zipf-like: a few frequent words and a long tail that keeps evicting counters
+        for (int i = 0; i < 200_000; i++) {
+            var rank = (int) Math.floor(Math.pow(50_000, random.nextDouble()));
+            var word = Integer.toString(rank, 26).chars()
+                    .map(c -> c <= '9' ? 'a' + c - '0' : c + 10)
+                    .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                    .toString();
+
+            expected.merge(word, 1, Integer::sum);
+            text.append(word).append(' ');
+        }
+        tokenizer.tokenize(text, counter);
+
+        var total = counter.totalCount();
+        var estimates = counter.select(capacity);
+
+        assertThat(total).isEqualTo(200_000);
+        assertThat(counter.maximumError()).isPositive().isLessThanOrEqualTo((int) (total / capacity));
+        assertThat(estimates).hasSize(capacity).allSatisfy(estimate -> {
+            assertThat(estimate.getFrequency()).isGreaterThanOrEqualTo(expected.get(estimate.getWord()));
+            assertThat(estimate.getFrequency() - estimate.getError()).isLessThanOrEqualTo(expected.get(estimate.getWord()));
+            assertThat(estimate.getError()).isLessThanOrEqualTo(counter.maximumError());
+        });
+
+        var monitored = new HashMap<String, EstimatedWordFrequency>();
+        for (var estimate : estimates) {
+            monitored.put(estimate.getWord(), estimate);
+        }
+        expected.forEach((word, count) -> {
+            if (count > total / capacity) {
+                assertThat(monitored).containsKey(word);
+            } else if (!monitored.containsKey(word)) {
+                assertThat(count).isLessThanOrEqualTo(counter.maximumError());
+            }
+        });
+    }
+
+    @Test
+    void capacity_TooLarge() {
+        assertThatThrownBy(() -> new SpaceSavingCounter(Integer.MAX_VALUE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("A counter can't have more than 268435456 counters.");
+    }
+}
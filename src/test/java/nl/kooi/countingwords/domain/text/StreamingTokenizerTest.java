@@ -0,0 +1,52 @@
+package nl.kooi.countingwords.domain.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingTokenizerTest {
+
+    private static final String TEXT = "PYthon&Java!kotlin+java8Angular3kotlin angular, _java 😀word word𝐀 écoLE cafe\u0301 _\u0301java x\u0301\uD834\uDD67java \u0301word";
+
+    @Test
+    void feed_SameTokensAsTokenizingAtOnce() {
+        var expected = new ArrayList<String>();
+        new AsciiLetterTokenizer().tokenize(TEXT, collect(expected));
+
+        for (int chunkSize = 1; chunkSize <= TEXT.length(); chunkSize++) {
+            var tokens = new ArrayList<String>();
+            var tokenizer = new StreamingTokenizer(collect(tokens));
+            var chars = TEXT.toCharArray();
+
+            for (int offset = 0; offset < chars.length; offset += chunkSize) {
+                tokenizer.feed(chars, offset, Math.min(chunkSize, chars.length - offset));
+            }
+            tokenizer.finish();
+
+            assertThat(tokens).as("chunk size %d", chunkSize).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void startsWithSeparator() {
+        var tokenizer = new StreamingTokenizer((word, length, delimited) -> {
+        });
+
+        assertThat(tokenizer.startsWithSeparator()).isFalse();
+
+        tokenizer.feed(", word");
+
+        assertThat(tokenizer.startsWithSeparator()).isTrue();
+    }
+
+    // records delimited words in upper case, so the test also verifies the delimited flag
+    private static TokenSink collect(List<String> tokens) {
+        return (word, length, delimited) -> {
+            var token = new String(word, 0, length);
+            tokens.add(delimited ? token.toUpperCase() : token);
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package nl.kooi.countingwords.domain.text;
+
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.WordFrequencyInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopWordsSelectorTest {
+
+    @Test
+    void select_SameOrderAsFullSort() {
+        var random = new Random(7);
+        var table = new WordCountTable();
+
+        for (int i = 0; i < 5_000; i++) {
+            var word = "w" + (char) ('a' + random.nextInt(26)) + (char) ('a' + random.nextInt(26));
+            table.add(word, 1 + random.nextInt(10), 0);
+        }
+
+        var sorted = new ArrayList<WordFrequency>();
+        table.forEach((word, count, delimitedCount) -> sorted.add(WordFrequencyInfo.of(word, count)));
+        sorted.sort(TopWordsSelector.FREQUENCY_DESC_WORD_ASC);
+
+        for (int n : new int[]{1, 10, 100, 300, 1_000}) {
+            var result = TopWordsSelector.select(table, n);
+
+            assertThat(result).hasSize(Math.min(n, table.size()));
+            for (int i = 0; i < result.length; i++) {
+                assertThat(result[i].getWord()).isEqualTo(sorted.get(i).getWord());
+                assertThat(result[i].getFrequency()).isEqualTo(sorted.get(i).getFrequency());
+            }
+        }
+    }
+
+    @Test
+    void ranking_SameOrderAsSelect() {
+        var table = new WordCountTable();
+
+        for (var word : new String[]{"delta", "alpha", "echo", "charlie", "bravo"}) {
+            table.add(word, word.length(), 0);
+        }
+
+        var expected = TopWordsSelector.select(table, 4);
+        var ranking = WordRanking.select(table, 4);
+
+        assertThat(ranking.size()).isEqualTo(4);
+        for (int rank = 0; rank < ranking.size(); rank++) {
+            assertThat(ranking.word(rank)).isEqualTo(expected[rank].getWord());
+            assertThat(ranking.frequency(rank)).isEqualTo(expected[rank].getFrequency());
+        }
+        assertThat(WordRanking.select(table, 1_000_000).size()).isEqualTo(5);
+    }
+
+    @Test
+    void select_TiesOrderedAlphabetically() {
+        var table = new WordCountTable();
+
+        for (var word : new String[]{"delta", "alpha", "echo", "charlie", "bravo", "foxtrot", "golf"}) {
+            table.add(word, 2, 0);
+        }
+        table.add("zulu", 3, 0);
+
+        var result = TopWordsSelector.select(table, 3);
+
+        assertThat(result).extracting(WordFrequency::getWord).containsExactly("zulu", "alpha", "bravo");
+    }
+
+    @Test
+    void select_NotPositiveN() {
+        var table = new WordCountTable();
+        table.add("word", 1, 1);
+
+        assertThat(TopWordsSelector.select(table, 0)).isEmpty();
+        assertThat(TopWordsSelector.select(table, -1)).isEmpty();
+    }
+}
@@ -0,0 +1,55 @@
+package nl.kooi.countingwords.domain.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Utf8TokenizerTest {
+
+    private static final String[] FRAGMENTS = {"java", "JAVA", "a", " ", ",", "8", "_", "é", "€", "😀", "𝐀", "ß", "\n", "日本", "\u0301", "\uD834\uDD67"};
+
+    @Test
+    void tokenize_SameTokensAsDecodedText() {
+        var random = new Random(3);
+
+        for (int i = 0; i < 2_000; i++) {
+            var text = new StringBuilder();
+            for (int j = random.nextInt(30); j > 0; j--) {
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+
+            var expected = new ArrayList<String>();
+            new AsciiLetterTokenizer().tokenize(text, collect(expected));
+
+            var bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+            var tokens = new ArrayList<String>();
+            new Utf8Tokenizer().tokenize(bytes, 0, bytes.limit(), collect(tokens));
+
+            assertThat(tokens).as("[%s]", text).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void tokenize_MalformedNeighboursAreNoWordCharacters() {
+        var bytes = ByteBuffer.wrap(new byte[]{(byte) 0xC3, 'w', 'o', 'r', 'd', (byte) 0xE2, (byte) 0x82});
+        var tokens = new ArrayList<String>();
+
+        new Utf8Tokenizer().tokenize(bytes, 0, bytes.limit(), collect(tokens));
+
+        assertThat(tokens).containsExactly("WORD");
+    }
+
+    // records delimited words in upper case, so the test also verifies the delimited flag
+    private static TokenSink collect(List<String> tokens) {
+        return (word, length, delimited) -> {
+            var token = new String(word, 0, length);
+            tokens.add(delimited ? token.toUpperCase() : token);
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package nl.kooi.countingwords.domain.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WordCountTableTest {
+
+    private final Tokenizer tokenizer = new AsciiLetterTokenizer();
+
+    @Test
+    void accept_CountsTokens() {
+        var table = new WordCountTable();
+
+        tokenizer.tokenize("Laurens, laurens8 LAURENS Ordina", table);
+
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.count("laurens")).isEqualTo(3);
+        assertThat(table.delimitedCount("laurens")).isEqualTo(2);
+        assertThat(table.count("ordina")).isEqualTo(1);
+        assertThat(table.count("nice")).isZero();
+        assertThat(table.highestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void accept_ManyDistinctWords() {
+        var table = new WordCountTable();
+        var expected = new HashMap<String, Integer>();
+        var text = new StringBuilder();
+
+        for (int i = 0; i < 20_000; i++) {
+            var word = Integer.toString(i, 26).chars()
+                    .map(c -> c <= '9' ? 'a' + c - '0' : c + 10)
+                    .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                    .toString();
+
+            expected.merge(word, 1, Integer::sum);
+            text.append(word).append(' ');
+        }
+
+        tokenizer.tokenize(text, table);
+
+        assertThat(table.size()).isEqualTo(expected.size());
+        expected.forEach((word, count) -> assertThat(table.count(word)).isEqualTo(count));
+    }
+
+    @Test
+    void addAll_MergesCounts() {
+        var first = new WordCountTable();
+        var second = new WordCountTable();
+
+        tokenizer.tokenize("java kotlin java", first);
+        tokenizer.tokenize("kotlin2 scala", second);
+
+        first.addAll(second);
+
+        assertThat(first.count("java")).isEqualTo(2);
+        assertThat(first.count("kotlin")).isEqualTo(2);
+        assertThat(first.delimitedCount("kotlin")).isEqualTo(1);
+        assertThat(first.count("scala")).isEqualTo(1);
+        assertThat(first.size()).isEqualTo(3);
+    }
+
+    @Test
+    void add_CountTooLarge() {
+        var table = new WordCountTable();
+        table.add("java", Integer.MAX_VALUE, 1);
+
+        assertThrows(ArithmeticException.class, () -> table.add("java", 1, 1));
+        assertThat(table.count("java")).isEqualTo(Integer.MAX_VALUE);
+        assertThat(table.delimitedCount("java")).isEqualTo(1);
+        assertThat(table.totalCount()).isEqualTo(Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,52 @@
+package nl.kooi.countingwords.domain.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WordSetMatcherTest {
+
+    @Test
+    void counter_CountsEveryWordInOnePass() {
+        var matcher = WordSetMatcher.of(List.of("Java", "kotlin", "JAVA", "scala"));
+        var counter = matcher.counter();
+
+        new AsciiLetterTokenizer().tokenize("java JAVA, javascript java8 kotlin _java (java)", counter);
+
+        assertThat(matcher.getWords()).containsExactly("java", "kotlin", "scala");
+        assertThat(counter.getCounts()).containsExactly(3, 1, 0);
+    }
+
+    @Test
+    void counter_SameAsExactWordMatcher() {
+        var random = new Random(22);
+        var fragments = new String[]{"ab", "AB", "aba", "b", "a", " ", ",", "8", "_", "é", "\n", "bab"};
+        var words = List.of("a", "ab", "aba", "bab", "abab");
+        var matcher = WordSetMatcher.of(words);
+
+        for (int i = 0; i < 2_000; i++) {
+            var text = new StringBuilder();
+            for (int j = random.nextInt(40); j > 0; j--) {
+                text.append(fragments[random.nextInt(fragments.length)]);
+            }
+
+            var counter = matcher.counter();
+            new AsciiLetterTokenizer().tokenize(text, counter);
+            var counts = counter.getCounts();
+
+            for (int w = 0; w < words.size(); w++) {
+                assertThat(counts[w]).as("%s in [%s]", words.get(w), text).isEqualTo(ExactWordMatcher.of(words.get(w)).count(text));
+            }
+        }
+    }
+
+    @Test
+    void of_RejectsNonLetters() {
+        assertThrows(IllegalArgumentException.class, () -> WordSetMatcher.of(List.of("java", "java8")));
+        assertThrows(IllegalArgumentException.class, () -> WordSetMatcher.of(List.of("")));
+    }
+}
@@ -0,0 +1,112 @@
+package nl.kooi.countingwords.domain.trend;
+
+import nl.kooi.countingwords.domain.WordFrequency;
+import nl.kooi.countingwords.domain.text.AsciiLetterTokenizer;
+import nl.kooi.countingwords.domain.text.WordCountTable;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class TrendTest {
+    private static final Duration SHORT = Duration.ofSeconds(30);
+    private static final Duration LONG = Duration.ofMinutes(2);
+    private static final long SECOND = 1000;
+
+    private final Trend trend = new Trend("news", Duration.ofSeconds(10), List.of(SHORT, LONG));
+
+    @Test
+    void add_WindowsCountRecentTexts() {
+        trend.add(count("java java kotlin"), 0);
+        trend.add(count("kotlin kotlin, java_8"), 25 * SECOND);
+
+        assertThat(trend.highestFrequency(SHORT, 25 * SECOND)).isEqualTo(3);
+        assertThat(trend.frequencyForWord(SHORT, "java", 25 * SECOND)).isEqualTo(2);
+        assertThat(trend.mostFrequentNWords(SHORT, 2, 25 * SECOND))
+                .extracting(WordFrequency::getWord, WordFrequency::getFrequency)
+                .containsExactly(tuple("java", 3), tuple("kotlin", 3));
+    }
+
+    @Test
+    void advance_ExpiredBucketsSubtracted() {
+        trend.add(count("java java kotlin"), 0);
+        trend.add(count("kotlin"), 20 * SECOND);
+
+        // the first bucket left the short window, but not the long one
+        assertThat(trend.mostFrequentNWords(SHORT, 3, 30 * SECOND))
+                .extracting(WordFrequency::getWord, WordFrequency::getFrequency)
+                .containsExactly(tuple("kotlin", 1));
+        assertThat(trend.words(SHORT, 30 * SECOND)).isEqualTo(1);
+        assertThat(trend.frequencyForWord(LONG, "java", 30 * SECOND)).isEqualTo(2);
+
+        assertThat(trend.frequencyForWord(LONG, "java", 2 * 60 * SECOND)).isZero();
+        assertThat(trend.frequencyForWord(LONG, "kotlin", 2 * 60 * SECOND)).isEqualTo(1);
+        assertThat(trend.highestFrequency(LONG, 10 * 60 * SECOND)).isZero();
+        assertThat(trend.words(LONG, 10 * 60 * SECOND)).isZero();
+    }
+
+    @Test
+    void add_ClockGoingBackCountsForCurrentInterval() {
+        trend.add(count("java"), 15 * SECOND);
+        trend.add(count("java"), 5 * SECOND);
+
+        assertThat(trend.highestFrequency(SHORT, 15 * SECOND)).isEqualTo(2);
+        assertThat(trend.highestFrequency(SHORT, 35 * SECOND)).isEqualTo(2);
+        assertThat(trend.highestFrequency(SHORT, 40 * SECOND)).isZero();
+    }
+
+    @Test
+    void add_LeadingEmptyWordIgnored() {
+        var text = count(", java");
+        text.add("", 1, 0);
+
+        trend.add(text, 0);
+
+        assertThat(trend.mostFrequentNWords(LONG, 10, 0)).extracting(WordFrequency::getWord).containsExactly("java");
+    }
+
+    @Test
+    void windows_SameCountsAsRecountingTheirTexts() {
+        var random = new Random(21);
+        var words = new String[]{"java", "kotlin", "scala", "groovy", "clojure"};
+        var texts = new String[300];
+        var times = new long[texts.length];
+
+        for (int i = 0; i < texts.length; i++) {
+            var text = new StringBuilder();
+            for (int w = random.nextInt(6); w >= 0; w--) {
+                text.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            texts[i] = text.toString();
+            times[i] = (i == 0 ? 0 : times[i - 1]) + random.nextInt(8 * (int) SECOND);
+
+            trend.add(count(texts[i]), times[i]);
+
+            for (var window : List.of(SHORT, LONG)) {
+                var expected = new WordCountTable();
+                var firstInterval = times[i] / 10_000 - window.toSeconds() / 10 + 1;
+                for (int t = 0; t <= i; t++) {
+                    if (times[t] / 10_000 >= firstInterval) {
+                        new AsciiLetterTokenizer().tokenize(texts[t], expected);
+                    }
+                }
+
+                assertThat(trend.highestFrequency(window, times[i])).isEqualTo(expected.highestCount());
+                assertThat(trend.words(window, times[i])).isEqualTo(expected.size());
+                for (var word : words) {
+                    assertThat(trend.frequencyForWord(window, word, times[i])).isEqualTo(expected.delimitedCount(word));
+                }
+            }
+        }
+    }
+
+    private static WordCountTable count(String text) {
+        var counts = new WordCountTable();
+        new AsciiLetterTokenizer().tokenize(text, counts);
+        return counts;
+    }
+}
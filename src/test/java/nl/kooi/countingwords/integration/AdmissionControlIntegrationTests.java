@@ -0,0 +1,154 @@
+package nl.kooi.countingwords.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.kooi.countingwords.api.AdmissionControl;
+import nl.kooi.countingwords.api.AdmissionControlFilter;
+import nl.kooi.countingwords.api.RequestDecompressionFilter;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import static nl.kooi.countingwords.util.TestUtil.HIGHEST_FREQUENCY_ENDPOINT;
+import static nl.kooi.countingwords.util.TestUtil.getFrequencyRequestDto;
+import static nl.kooi.countingwords.util.TestUtil.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "counting-words.admission.maximum-cost=1MB",
+        "counting-words.admission.maximum-wait=100ms",
+        "counting-words.admission.unknown-size=64KB",
+        "counting-words.file.directory=${java.io.tmpdir}"})
+public class AdmissionControlIntegrationTests {
+    private static final String TEXT = "test, test, test, mockmvc, mockmvc, ordina";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private AdmissionControlFilter filter;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private RequestDecompressionFilter decompressionFilter;
+
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(filter).build();
+    }
+
+    @Test
+    void calculateHighestFrequency_AdmittedAndReleased() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            var response = perform(mockMvc, post(HIGHEST_FREQUENCY_ENDPOINT)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(getFrequencyRequestDto(TEXT))))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse();
+
+            assertThat(objectMapper.readValue(response.getContentAsString(), FrequencyDto.class).getFrequency()).isEqualTo(3);
+        }
+
+        // every request gave its cost back, so the whole budget is free again
+        admissionControl.admit(1024 * 1024, 1024 * 1024).release();
+    }
+
+    @Test
+    void calculateHighestFrequency_BudgetUsedUp() throws Exception {
+        var admission = admissionControl.admit(1024 * 1024, 1024 * 1024);
+
+        try {
+            var response = mockMvc.perform(post(HIGHEST_FREQUENCY_ENDPOINT)
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .content(TEXT))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                    .andReturn()
+                    .getResponse();
+
+            assertThat(objectMapper.readValue(response.getContentAsString(), ErrorResponseDto.class).getReason())
+                    .isEqualTo("The server is too busy to analyze the text, try again later.");
+        } finally {
+            admission.release();
+        }
+    }
+
+    @Test
+    void calculateHighestFrequencyInFile_BudgetUsedUp() throws Exception {
+        var file = Files.writeString(Files.createTempFile("admission", ".txt"), TEXT);
+        var admission = admissionControl.admit(1024 * 1024, 1024 * 1024);
+
+        try {
+            mockMvc.perform(get("/rest/word-count/file/highest-frequency").param("path", file.getFileName().toString()))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        } finally {
+            admission.release();
+        }
+
+        var response = perform(mockMvc, get("/rest/word-count/file/highest-frequency").param("path", file.getFileName().toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), FrequencyDto.class).getFrequency()).isEqualTo(3);
+        Files.delete(file);
+        admissionControl.admit(1024 * 1024, 1024 * 1024).release();
+    }
+
+    @Test
+    void calculateHighestFrequency_CompressedBodyLimitedToTheAdmittedSize() throws Exception {
+        var compressingMockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(filter, decompressionFilter).build();
+        var text = "test ".repeat(20_000);
+
+        var response = perform(compressingMockMvc, post(HIGHEST_FREQUENCY_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(gzip(objectMapper.writeValueAsBytes(getFrequencyRequestDto(text)))))
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse();
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), ErrorResponseDto.class).getReason())
+                .isEqualTo("The request body decompresses to more than 65536 bytes.");
+
+        // a plain text body is counted while it is read, so it isn't held to the admitted size
+        perform(compressingMockMvc, post(HIGHEST_FREQUENCY_ENDPOINT)
+                .contentType(MediaType.TEXT_PLAIN)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(gzip(text.getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isOk());
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        var compressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
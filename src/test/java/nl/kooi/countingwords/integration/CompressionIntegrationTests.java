@@ -0,0 +1,166 @@
+package nl.kooi.countingwords.integration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.api.RequestDecompressionFilter;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static nl.kooi.countingwords.util.TestUtil.HIGHEST_FREQUENCY_ENDPOINT;
+import static nl.kooi.countingwords.util.TestUtil.TOP_FREQUENCY_ENDPOINT;
+import static nl.kooi.countingwords.util.TestUtil.getFrequencyRequestDto;
+import static nl.kooi.countingwords.util.TestUtil.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+public class CompressionIntegrationTests {
+    private static final String TEXT = "test, test, test, mockmvc, mockmvc, ordina, java";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private RequestDecompressionFilter filter;
+
+    @Autowired
+    private WordCountMetrics metrics;
+
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(filter).build();
+    }
+
+    @Test
+    void calculateHighestFrequency_GzipJsonBody() throws Exception {
+        var response = perform(mockMvc, post(HIGHEST_FREQUENCY_ENDPOINT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(gzip(objectMapper.writeValueAsBytes(getFrequencyRequestDto(TEXT)))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), FrequencyDto.class).getFrequency()).isEqualTo(3);
+    }
+
+    @Test
+    void calculateTopNFrequencyOfText_GzipAndDeflateBodies() throws Exception {
+        var text = (TEXT + " ").repeat(10_000).getBytes(StandardCharsets.UTF_8);
+
+        var bodies = Map.of("gzip", gzip(text), "deflate", deflate(text), "deflate, gzip", gzip(deflate(text)));
+
+        for (var encoding : bodies.keySet()) {
+            var response = perform(mockMvc, post(TOP_FREQUENCY_ENDPOINT)
+                    .param("n", "2")
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .header(HttpHeaders.CONTENT_ENCODING, encoding)
+                    .content(bodies.get(encoding)))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse();
+
+            assertThat(objectMapper.readValue(response.getContentAsString(), new TypeReference<List<WordFrequencyDto>>() {
+            }))
+                    .as(encoding)
+                    .extracting(WordFrequencyDto::getWord, WordFrequencyDto::getFrequency)
+                    .containsExactly(tuple("test", 30_000), tuple("mockmvc", 20_000));
+        }
+    }
+
+    @Test
+    void calculateHighestFrequency_UnsupportedEncoding() throws Exception {
+        var response = mockMvc.perform(post(HIGHEST_FREQUENCY_ENDPOINT)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .header(HttpHeaders.CONTENT_ENCODING, "zstd")
+                        .content(TEXT))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(header().string(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andReturn()
+                .getResponse();
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), ErrorResponseDto.class).getReason())
+                .isEqualTo("Content-Encoding zstd is not supported, use one of: gzip, deflate.");
+    }
+
+    @Test
+    void calculateHighestFrequency_CorruptBody() throws Exception {
+        var body = gzip(TEXT.getBytes(StandardCharsets.UTF_8));
+        body[body.length / 2] ^= 0x55;
+
+        var response = perform(mockMvc, post(HIGHEST_FREQUENCY_ENDPOINT)
+                .contentType(MediaType.TEXT_PLAIN)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(body))
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse();
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), ErrorResponseDto.class).getReason())
+                .startsWith("The request body can't be decompressed: ");
+    }
+
+    @Test
+    void calculateHighestFrequency_DecompressesToTooManyBytes() throws Exception {
+        var properties = new WordCountProperties();
+        properties.getCompression().setMaximumDecompressedSize(DataSize.ofKilobytes(64));
+        var limitedMockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(new RequestDecompressionFilter(properties, objectMapper, metrics))
+                .build();
+
+        var response = perform(limitedMockMvc, post(HIGHEST_FREQUENCY_ENDPOINT)
+                .contentType(MediaType.TEXT_PLAIN)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(gzip(TEXT.repeat(10_000).getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse();
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), ErrorResponseDto.class).getReason())
+                .isEqualTo("The request body decompresses to more than 65536 bytes.");
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        var compressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] bytes) throws IOException {
+        var compressed = new ByteArrayOutputStream();
+        try (var deflate = new DeflaterOutputStream(compressed)) {
+            deflate.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
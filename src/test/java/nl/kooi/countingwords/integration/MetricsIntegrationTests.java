@@ -0,0 +1,41 @@
+package nl.kooi.countingwords.integration;
+
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+import static nl.kooi.countingwords.util.TestUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMetrics
+public class MetricsIntegrationTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void prometheusEndpointExposesCountingMetrics() {
+        restTemplate.postForObject(TOP_FREQUENCY_ENDPOINT, getToprequencyRequestDto("java java kotlin", 1), WordFrequencyDto[].class);
+        restTemplate.postForObject(HIGHEST_FREQUENCY_FOR_WORD_ENDPOINT, getWordFrequencyRequestDto("java", "123"), ErrorResponseDto.class);
+        restTemplate.postForObject("/rest/word-count/utf8/highest-frequency", getFrequencyRequestDto("java java kotlin"), FrequencyDto.class);
+
+        var metrics = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        assertThat(metrics)
+                .contains("counting_phase_seconds_count{operation=\"calculateMostFrequentNWords\",phase=\"count\",}")
+                .contains("counting_phase_seconds_count{operation=\"calculateMostFrequentNWords\",phase=\"select\",}")
+                .contains("counting_input_size_characters_sum{operation=\"calculateMostFrequentNWords\",}")
+                .contains("counting_input_bytes_sum{operation=\"calculateHighestFrequencyInUtf8\",}")
+                .doesNotContain("counting_input_bytes_sum{operation=\"calculateMostFrequentNWords\",}")
+                .contains("counting_tokens_words_sum{operation=\"calculateMostFrequentNWords\",}")
+                .contains("counting_distinct_words_sum{operation=\"calculateMostFrequentNWords\",}")
+                .contains("counting_serialization_seconds_count{uri=\"/rest/word-count/top-frequency\",}")
+                .contains("counting_errors_total{reason=\"invalid_word\",}");
+    }
+}
@@ -0,0 +1,122 @@
+package nl.kooi.countingwords.integration;
+
+import nl.kooi.countingwords.api.ProtobufWordCountMessageConverter;
+import nl.kooi.countingwords.api.WordCountProtobuf;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static nl.kooi.countingwords.util.TestUtil.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+public class ProtobufIntegrationTests {
+    private static final String TEXT = "test, test, test, mockmvc, mockmvc, ordina";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void calculateHighestFrequency() throws Exception {
+        var response = perform(mockMvc, post(HIGHEST_FREQUENCY_ENDPOINT)
+                .contentType(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .accept(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .content(WordCountProtobuf.encodeRequest(getFrequencyRequestDto(TEXT))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn()
+                .getResponse();
+
+        assertThat(response.getContentAsByteArray()).isEqualTo(encode(new FrequencyDto().frequency(3)));
+    }
+
+    @Test
+    void calculateFrequencyForWord() throws Exception {
+        var response = perform(mockMvc, post(HIGHEST_FREQUENCY_FOR_WORD_ENDPOINT)
+                .contentType(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .accept(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .content(WordCountProtobuf.encodeRequest(getWordFrequencyRequestDto(TEXT, "MockMvc"))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertThat(response.getContentAsByteArray()).isEqualTo(encode(new WordFrequencyDto().word("mockmvc").frequency(2)));
+    }
+
+    @Test
+    void calculateTopNFrequency() throws Exception {
+        var response = perform(mockMvc, post(TOP_FREQUENCY_ENDPOINT)
+                .contentType(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .accept(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .content(WordCountProtobuf.encodeRequest(getToprequencyRequestDto(TEXT, 2))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertThat(response.getContentAsByteArray()).isEqualTo(encode(List.of(
+                new WordFrequencyDto().word("test").frequency(3),
+                new WordFrequencyDto().word("mockmvc").frequency(2))));
+    }
+
+    @Test
+    void calculateTopNFrequency_JsonAnswerToProtobufRequest() throws Exception {
+        perform(mockMvc, post(TOP_FREQUENCY_ENDPOINT)
+                .contentType(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .header(HttpHeaders.ACCEPT, MediaType.ALL_VALUE)
+                .content(WordCountProtobuf.encodeRequest(getToprequencyRequestDto(TEXT, 1))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("[{\"word\":\"test\",\"frequency\":3}]"));
+    }
+
+    @Test
+    void calculateTopNFrequency_InvalidN() throws Exception {
+        var response = perform(mockMvc, post(TOP_FREQUENCY_ENDPOINT)
+                .contentType(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .accept(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .content(WordCountProtobuf.encodeRequest(getToprequencyRequestDto(TEXT, 0))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF))
+                .andReturn()
+                .getResponse();
+
+        assertThat(new String(response.getContentAsByteArray())).contains("field [n] can't be smaller than 1");
+    }
+
+    @Test
+    void calculateHighestFrequency_MalformedBody() throws Exception {
+        perform(mockMvc, post(HIGHEST_FREQUENCY_ENDPOINT)
+                .contentType(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .content(new byte[]{0x0A, 0x05, 'h', 'i'}))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json("{\"reason\":\"The protobuf request body can't be decoded, it ends within a field.\"}"));
+    }
+
+    private static byte[] encode(Object value) throws IOException {
+        var out = new ByteArrayOutputStream();
+        WordCountProtobuf.encode(value, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,110 @@
+package nl.kooi.countingwords.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static nl.kooi.countingwords.util.TestUtil.getToprequencyRequestDto;
+import static nl.kooi.countingwords.util.TestUtil.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+public class RankingIntegrationTests {
+    private static final String RANKINGS_ENDPOINT = "/rest/word-count/rankings";
+    private static final String TEXT = "test, test, test, mockmvc, mockmvc, ordina, java";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void rankTopNFrequency_StreamsPagesOfTheRanking() throws Exception {
+        var firstPage = perform(mockMvc, post(RANKINGS_ENDPOINT + "?limit=2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(getToprequencyRequestDto(TEXT, 3))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertThat(firstPage.getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON_VALUE);
+        assertThat(firstPage.getHeader("X-Total-Count")).isEqualTo("3");
+        assertThat(readLines(firstPage))
+                .extracting(WordFrequencyDto::getWord, WordFrequencyDto::getFrequency)
+                .containsExactly(tuple("test", 3), tuple("mockmvc", 2));
+
+        var location = firstPage.getHeader(HttpHeaders.LOCATION);
+        assertThat(firstPage.getHeader(HttpHeaders.LINK)).isEqualTo("<" + location + "?offset=2&limit=2>; rel=\"next\"");
+
+        var nextPage = perform(mockMvc, get(location).param("offset", "2").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertThat(nextPage.getHeader(HttpHeaders.LINK)).isNull();
+        assertThat(readLines(nextPage))
+                .extracting(WordFrequencyDto::getWord, WordFrequencyDto::getFrequency)
+                .containsExactly(tuple("java", 1));
+    }
+
+    @Test
+    void rankTopNFrequencyOfText_WholeRankingWithoutLimit() throws Exception {
+        var response = perform(mockMvc, post(RANKINGS_ENDPOINT)
+                .param("n", "10")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(TEXT))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertThat(response.getHeader("X-Total-Count")).isEqualTo("4");
+        assertThat(readLines(response))
+                .extracting(WordFrequencyDto::getWord)
+                .containsExactly("test", "mockmvc", "java", "ordina");
+    }
+
+    @Test
+    void getRankingPage_UnknownRanking() throws Exception {
+        var response = perform(mockMvc, get(RANKINGS_ENDPOINT + "/00000000-0000-0000-0000-000000000000"))
+                .andExpect(status().isNotFound())
+                .andReturn()
+                .getResponse();
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), ErrorResponseDto.class).getReason())
+                .isEqualTo("Ranking 00000000-0000-0000-0000-000000000000 doesn't exist or has expired.");
+    }
+
+    private List<WordFrequencyDto> readLines(MockHttpServletResponse response) throws Exception {
+        var wordFrequencies = new ArrayList<WordFrequencyDto>();
+
+        for (var line : response.getContentAsString().split("\n")) {
+            wordFrequencies.add(objectMapper.readValue(line, WordFrequencyDto.class));
+        }
+
+        return wordFrequencies;
+    }
+}
@@ -0,0 +1,86 @@
+package nl.kooi.countingwords.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.domain.service.AnalysisJobService;
+import nl.kooi.countingwords.exception.WordProcessingException;
+import nl.kooi.countingwords.exception.WordProcessingException.Reason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+public class ResourceStatusIntegrationTests {
+    private static final String JOBS_ENDPOINT = "/rest/word-count/jobs/";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @SpyBean
+    private AnalysisJobService jobService;
+
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void getJob_UnknownJob() throws Exception {
+        var id = UUID.randomUUID();
+
+        assertThat(reasonOf(get(JOBS_ENDPOINT + id), status().isNotFound())).isEqualTo("Job " + id + " doesn't exist.");
+        assertThat(reasonOf(get(JOBS_ENDPOINT + id + "/result"), status().isNotFound())).isEqualTo("Job " + id + " doesn't exist.");
+    }
+
+    @Test
+    void getJobResult_JobNotFinished() throws Exception {
+        var id = UUID.randomUUID();
+        doThrow(new WordProcessingException(Reason.JOB_NOT_FINISHED, "Job " + id + " has no result, it is running."))
+                .when(jobService).getResult(id);
+
+        assertThat(reasonOf(get(JOBS_ENDPOINT + id + "/result"), status().isConflict()))
+                .isEqualTo("Job " + id + " has no result, it is running.");
+    }
+
+    @Test
+    void getCorpus_UnknownCorpus() throws Exception {
+        assertThat(reasonOf(get("/rest/word-count/corpus/unknown"), status().isNotFound()))
+                .isEqualTo("Corpus unknown doesn't exist.");
+    }
+
+    @Test
+    void trend_UnknownTrend() throws Exception {
+        assertThat(reasonOf(get("/rest/word-count/trends/unknown/top-frequency").param("n", "1"), status().isNotFound()))
+                .isEqualTo("Trend unknown doesn't exist.");
+        assertThat(reasonOf(delete("/rest/word-count/trends/unknown"), status().isNotFound()))
+                .isEqualTo("Trend unknown doesn't exist.");
+    }
+
+    private String reasonOf(MockHttpServletRequestBuilder request, ResultMatcher status) throws Exception {
+        var response = mockMvc.perform(request)
+                .andExpect(status)
+                .andReturn()
+                .getResponse();
+
+        return objectMapper.readValue(response.getContentAsString(), ErrorResponseDto.class).getReason();
+    }
+}
@@ -0,0 +1,123 @@
+package nl.kooi.countingwords.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.kooi.countingwords.WordCountProperties;
+import nl.kooi.countingwords.api.dto.AnalysisDto;
+import nl.kooi.countingwords.domain.AnalysisQuery;
+import nl.kooi.countingwords.domain.service.SnapshotService;
+import nl.kooi.countingwords.domain.service.WordFrequencyService;
+import nl.kooi.countingwords.domain.snapshot.WordCountSnapshot;
+import nl.kooi.countingwords.mapper.Mapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class SnapshotIntegrationTests {
+    private static final String SNAPSHOTS_ENDPOINT = "/rest/word-count/snapshots";
+    private static final String[] FRAGMENTS = {"java", "Java", "kotlin", "a", " ", ", ", "8", "_", "café", "€", "😀", "\n", "-"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private WordFrequencyService wordFrequencyService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void analyzeSnapshots_SameResultsAsWholeText() throws IOException {
+        var first = createSnapshot("Java, java kotlin ");
+        var second = createSnapshot("kotlin python java8 java");
+
+        var response = restTemplate.postForEntity(SNAPSHOTS_ENDPOINT + "/batch?highestFrequency=true&word=java&n=2",
+                entity(concat(first, second), WordCountSnapshot.MEDIA_TYPE), AnalysisDto.class);
+
+        var expected = wordFrequencyService.analyze("Java, java kotlin kotlin python java8 java",
+                AnalysisQuery.of(true, List.of("java"), List.of(2)));
+
+        assertThat(response.getHeaders().getFirst("X-Maximum-Error")).isEqualTo("0");
+        assertThat(objectMapper.writeValueAsString(response.getBody()))
+                .isEqualTo(objectMapper.writeValueAsString(Mapper.map(expected)));
+    }
+
+    @Test
+    void mergeSnapshots_PrunedSnapshotHasMaximumError() throws IOException {
+        var response = restTemplate.postForEntity(SNAPSHOTS_ENDPOINT + "/merge?minimumCount=2",
+                entity(concat(createSnapshot("java java kotlin"), createSnapshot("java python")), WordCountSnapshot.MEDIA_TYPE), byte[].class);
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType(WordCountSnapshot.MEDIA_TYPE));
+        assertThat(response.getHeaders().getFirst("X-Maximum-Error")).isEqualTo("1");
+
+        var merged = new WordCountSnapshot();
+        merged.readFrom(new ByteArrayInputStream(response.getBody()));
+
+        assertThat(merged.getMaximumError()).isEqualTo(1);
+        assertThat(merged.getCounts().size()).isEqualTo(1);
+        assertThat(merged.frequencyForWord("java")).isEqualTo(3);
+    }
+
+    @Test
+    void analyzeDistributed_SameResultsAsWholeText() {
+        var properties = new WordCountProperties();
+        // two parts go to this instance, one to an instance that doesn't exist and is counted here instead
+        properties.getSnapshots().setNodes(List.of(URI.create("http://localhost:" + port + "/"),
+                URI.create("http://localhost:1"), URI.create("http://localhost:" + port)));
+        properties.getSnapshots().setMinimumPartSize(16);
+
+        var snapshotService = new SnapshotService(wordFrequencyService, properties);
+        var random = new Random(11);
+        var query = AnalysisQuery.of(true, List.of("java", "a", "kotlin"), List.of(1, 5, 100));
+
+        for (int i = 0; i < 20; i++) {
+            var text = new StringBuilder();
+            for (int j = random.nextInt(200); j > 0; j--) {
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+
+            var expected = wordFrequencyService.analyze(text.toString(), query);
+            var actual = snapshotService.analyzeDistributed(text.toString(), query);
+
+            assertThat(actual.getHighestFrequency()).as("[%s]", text).isEqualTo(expected.getHighestFrequency());
+            assertThat(actual.getWordFrequencies()).as("[%s]", text)
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactlyElementsOf(expected.getWordFrequencies());
+            assertThat(actual.getTopFrequencies().get(100)).as("[%s]", text)
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .containsExactly(expected.getTopFrequencies().get(100));
+        }
+    }
+
+    private byte[] createSnapshot(String text) {
+        return restTemplate.postForObject(SNAPSHOTS_ENDPOINT, entity(text, MediaType.TEXT_PLAIN_VALUE), byte[].class);
+    }
+
+    private static <T> HttpEntity<T> entity(T body, String contentType) {
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        return new HttpEntity<>(body, headers);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        var bytes = new byte[first.length + second.length];
+        System.arraycopy(first, 0, bytes, 0, first.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
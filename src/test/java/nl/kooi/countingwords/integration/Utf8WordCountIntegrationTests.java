@@ -0,0 +1,96 @@
+package nl.kooi.countingwords.integration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.kooi.countingwords.api.dto.ErrorResponseDto;
+import nl.kooi.countingwords.api.dto.FrequencyDto;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static nl.kooi.countingwords.util.TestUtil.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+public class Utf8WordCountIntegrationTests {
+    private static final String UTF8_ENDPOINT = "/rest/word-count/utf8";
+    // escaped newline, letters, digit and quotes, which only separate the words once unescaped
+    private static final String TEXT = "test\\ntest, \\u0074est, caf\\u00e9 café java\\u0038 \\\"java\\\"";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void calculateHighestFrequency() throws Exception {
+        var response = postJson("/highest-frequency", "{\"text\":\"" + TEXT + "\"}", status().isOk());
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), FrequencyDto.class).getFrequency()).isEqualTo(3);
+    }
+
+    @Test
+    void calculateFrequencyForWord() throws Exception {
+        var response = postJson("/frequency-for-word", "{\"word\":\"JAVA\",\"ignored\":[1,{\"text\":null}],\"text\":\"" + TEXT + "\"}", status().isOk());
+
+        var wordFrequency = objectMapper.readValue(response.getContentAsString(), WordFrequencyDto.class);
+        assertThat(wordFrequency.getWord()).isEqualTo("java");
+        assertThat(wordFrequency.getFrequency()).isEqualTo(1);
+    }
+
+    @Test
+    void calculateTopNFrequency() throws Exception {
+        var response = postJson("/top-frequency", "{\"text\":\"" + TEXT + "\",\"n\":3}", status().isOk());
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), new TypeReference<List<WordFrequencyDto>>() {
+        }))
+                .extracting(WordFrequencyDto::getWord, WordFrequencyDto::getFrequency)
+                .containsExactly(tuple("test", 3), tuple("caf", 2), tuple("java", 2));
+    }
+
+    @Test
+    void calculateTopNFrequency_NotNegativeFieldsAreNull() throws Exception {
+        var response = postJson("/top-frequency", "{\"text\":\"test\",\"n\":0}", status().isBadRequest());
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), ErrorResponseDto.class).getReason())
+                .isEqualTo("The following fields were invalid: field [n] can't be smaller than 1");
+    }
+
+    @Test
+    void calculateHighestFrequency_InvalidJson() throws Exception {
+        var response = postJson("/highest-frequency", "{\"text\":\"test\\x\"}", status().isBadRequest());
+
+        assertThat(objectMapper.readValue(response.getContentAsString(), ErrorResponseDto.class).getReason())
+                .startsWith("The request body is not valid JSON: ");
+    }
+
+    private MockHttpServletResponse postJson(String path, String json, ResultMatcher expectedStatus) throws Exception {
+        return perform(mockMvc, post(UTF8_ENDPOINT + path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(expectedStatus)
+                .andReturn()
+                .getResponse();
+    }
+}
@@ -4,10 +4,13 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import nl.kooi.countingwords.api.ControllerExceptionAdvice;
 import nl.kooi.countingwords.api.WordCountController;
+import nl.kooi.countingwords.api.dto.AnalysisDto;
 import nl.kooi.countingwords.api.dto.ErrorResponseDto;
 import nl.kooi.countingwords.api.dto.FrequencyDto;
 import nl.kooi.countingwords.api.dto.FrequencyRequestDto;
+import nl.kooi.countingwords.api.dto.WordFrequenciesRequestDto;
 import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import nl.kooi.countingwords.metrics.WordCountMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +25,7 @@ import java.util.List;
 
 import static nl.kooi.countingwords.util.TestUtil.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -41,7 +45,7 @@ public class WordCountIntegrationTests {
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
-                .setControllerAdvice(ControllerExceptionAdvice.class).build();
+                .setControllerAdvice(new ControllerExceptionAdvice(new WordCountMetrics())).build();
 
         objectMapper = new ObjectMapper();
     }
@@ -72,6 +76,40 @@ public class WordCountIntegrationTests {
         assertThat(response.getWord()).isEqualTo("test");
     }
 
+    @Test
+    void calculateFrequencyForWords() throws Exception {
+        var body = new WordFrequenciesRequestDto();
+        body.setText(TEXT);
+        body.setWords(List.of("Test", "ordina", "java"));
+
+        var mvcResult = getAndVerifyResponse("/rest/word-count/frequency-for-words", body, status().isOk());
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), new TypeReference<List<WordFrequencyDto>>() {
+        });
+
+        assertThat(response)
+                .extracting(WordFrequencyDto::getWord, WordFrequencyDto::getFrequency)
+                .containsExactly(tuple("test", 3), tuple("ordina", 1), tuple("java", 0));
+    }
+
+    @Test
+    void calculateFrequencyForWordsInText() throws Exception {
+        var mvcResult = perform(mockMvc, post("/rest/word-count/frequency-for-words")
+                        .param("word", "mockmvc", "test")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(TEXT))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), new TypeReference<List<WordFrequencyDto>>() {
+        });
+
+        assertThat(response)
+                .extracting(WordFrequencyDto::getWord, WordFrequencyDto::getFrequency)
+                .containsExactly(tuple("mockmvc", 2), tuple("test", 3));
+    }
+
     @Test
     void calculateTopNFrequency() throws Exception {
         var mvcResult =
@@ -155,12 +193,98 @@ public class WordCountIntegrationTests {
     }
 
 
+    @Test
+    void analyze() throws Exception {
+        var mvcResult = getAndVerifyResponse(BATCH_ENDPOINT,
+                getAnalysisRequestDto(TEXT, List.of("Test", "java"), List.of(2, 1)),
+                status().isOk());
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), AnalysisDto.class);
+
+        assertThat(response.getHighestFrequency()).isEqualTo(3);
+        assertThat(response.getWordFrequencies())
+                .extracting(WordFrequencyDto::getWord, WordFrequencyDto::getFrequency)
+                .containsExactly(tuple("test", 3), tuple("java", 0));
+        assertThat(response.getTopFrequencies().get(0).getWordFrequencies())
+                .extracting(WordFrequencyDto::getWord)
+                .containsExactly("test", "mockmvc");
+        assertThat(response.getTopFrequencies().get(1).getWordFrequencies())
+                .extracting(WordFrequencyDto::getWord)
+                .containsExactly("test");
+    }
+
+    @Test
+    void analyzeText_NotPositiveN() throws Exception {
+        var mvcResult = perform(mockMvc, post(BATCH_ENDPOINT)
+                        .param("word", "test")
+                        .param("n", "2", "0")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(TEXT))
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse();
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), ErrorResponseDto.class);
+
+        assertThat(response.getReason())
+                .isEqualTo("The following parameters were invalid: parameter [n] can't be smaller than 1");
+    }
+
+    @Test
+    void calculateTopNFrequency_Approximate() throws Exception {
+        var mvcResult = getAndVerifyResponse(TOP_FREQUENCY_ENDPOINT + "?approximate=true", getToprequencyRequestDto(TEXT, 2), status().isOk());
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), new TypeReference<List<WordFrequencyDto>>() {
+        });
+
+        assertThat(response)
+                .extracting(WordFrequencyDto::getWord, WordFrequencyDto::getFrequency, WordFrequencyDto::getError)
+                .containsExactly(tuple("test", 3, 0), tuple("mockmvc", 2, 0));
+    }
+
+    @Test
+    void calculateTopNFrequencyOfText() throws Exception {
+        var mvcResult = perform(mockMvc, post(TOP_FREQUENCY_ENDPOINT)
+                        .param("n", "2")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(TEXT))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), new TypeReference<List<WordFrequencyDto>>() {
+        });
+
+        assertThat(response).hasSize(2);
+        assertThat(response.get(0).getWord()).isEqualTo("test");
+        assertThat(response.get(0).getFrequency()).isEqualTo(3);
+        assertThat(response.get(1).getWord()).isEqualTo("mockmvc");
+        assertThat(response.get(1).getFrequency()).isEqualTo(2);
+    }
+
+    @Test
+    void calculateTopNFrequencyOfText_NotPositiveN() throws Exception {
+        var mvcResult = perform(mockMvc, post(TOP_FREQUENCY_ENDPOINT)
+                        .param("n", "0")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(TEXT))
+                .andExpect(status().isBadRequest())
+                .andReturn()
+                .getResponse();
+
+        var response = objectMapper.readValue(mvcResult.getContentAsString(), ErrorResponseDto.class);
+
+        assertThat(response.getReason())
+                .isEqualTo("The following parameters were invalid: parameter [n] can't be smaller than 1");
+    }
+
+
     private <T extends FrequencyRequestDto> MockHttpServletResponse getAndVerifyResponse(String endpoint,
                                                                                          T requestDto,
                                                                                          ResultMatcher statusExpectation)
             throws Exception {
 
-        return mockMvc.perform(post(endpoint)
+        return perform(mockMvc, post(endpoint)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
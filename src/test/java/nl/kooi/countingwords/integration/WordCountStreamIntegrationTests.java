@@ -0,0 +1,189 @@
+package nl.kooi.countingwords.integration;
+
+import nl.kooi.countingwords.api.ProtobufWordCountMessageConverter;
+import nl.kooi.countingwords.api.WordCountProtobuf;
+import nl.kooi.countingwords.api.dto.WordFrequencyDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static nl.kooi.countingwords.util.TestUtil.getFrequencyRequestDto;
+import static nl.kooi.countingwords.util.TestUtil.perform;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "counting-words.streams.maximum-chunk-size=64B",
+        "counting-words.streams.maximum-size=128B"})
+public class WordCountStreamIntegrationTests {
+    private static final String TOP_FREQUENCY_STREAM_ENDPOINT = "/rest/word-count/streams/top-frequency";
+    private static final String RUNNING_TOP_FREQUENCY_STREAM_ENDPOINT = "/rest/word-count/streams/running-top-frequency";
+    private static final MediaType DELIMITED = MediaType.parseMediaType(WordCountProtobuf.DELIMITED_MEDIA_TYPE);
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void calculateTopNFrequency() throws Exception {
+        perform(mockMvc, post(TOP_FREQUENCY_STREAM_ENDPOINT)
+                .param("n", "2")
+                .contentType(DELIMITED)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(chunks("test, test, mock", "mvc, mockmvc, te", "st")))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"word\":\"test\",\"frequency\":3},{\"word\":\"mockmvc\",\"frequency\":2}]", true));
+    }
+
+    @Test
+    void calculateTopNFrequency_Protobuf() throws Exception {
+        var response = perform(mockMvc, post(TOP_FREQUENCY_STREAM_ENDPOINT)
+                .param("n", "1")
+                .contentType(DELIMITED)
+                .accept(ProtobufWordCountMessageConverter.APPLICATION_PROTOBUF)
+                .content(chunks("Ordina ordina ", "java")))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        var expected = new ByteArrayOutputStream();
+        WordCountProtobuf.encode(List.of(new WordFrequencyDto().word("ordina").frequency(2)), expected);
+
+        assertThat(response.getContentAsByteArray()).isEqualTo(expected.toByteArray());
+    }
+
+    @Test
+    void calculateTopNFrequency_ChunkTooLarge() throws Exception {
+        perform(mockMvc, post(TOP_FREQUENCY_STREAM_ENDPOINT)
+                .param("n", "1")
+                .contentType(DELIMITED)
+                .content(chunks("test", "test ".repeat(20))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json("{\"reason\":\"A message of 102 bytes is larger than the maximum of 64 bytes.\"}"));
+    }
+
+    @Test
+    void calculateTopNFrequency_StreamTooLarge() throws Exception {
+        perform(mockMvc, post(TOP_FREQUENCY_STREAM_ENDPOINT)
+                .param("n", "1")
+                .contentType(DELIMITED)
+                .content(chunks("test ".repeat(10), "test ".repeat(10), "test ".repeat(10))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json("{\"reason\":\"A stream of more than 128 characters can't be counted.\"}"));
+    }
+
+    @Test
+    void calculateRunningTopNFrequency() throws Exception {
+        var response = perform(mockMvc, post(RUNNING_TOP_FREQUENCY_STREAM_ENDPOINT)
+                .param("n", "2")
+                .contentType(DELIMITED)
+                .content(chunks("test, test, mock", "mvc, mockmvc, te", "st")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(DELIMITED))
+                .andReturn()
+                .getResponse();
+
+        var expected = new ByteArrayOutputStream();
+        WordCountProtobuf.encodeDelimited(List.of(new WordFrequencyDto().word("test").frequency(2)), expected);
+        WordCountProtobuf.encodeDelimited(List.of(
+                new WordFrequencyDto().word("mockmvc").frequency(2),
+                new WordFrequencyDto().word("test").frequency(2)), expected);
+        WordCountProtobuf.encodeDelimited(List.of(
+                new WordFrequencyDto().word("mockmvc").frequency(2),
+                new WordFrequencyDto().word("test").frequency(2)), expected);
+        WordCountProtobuf.encodeDelimited(List.of(
+                new WordFrequencyDto().word("test").frequency(3),
+                new WordFrequencyDto().word("mockmvc").frequency(2)), expected);
+
+        assertThat(response.getContentAsByteArray()).isEqualTo(expected.toByteArray());
+    }
+
+    @Test
+    void calculateRunningTopNFrequency_ChunkTooLarge() throws Exception {
+        var response = perform(mockMvc, post(RUNNING_TOP_FREQUENCY_STREAM_ENDPOINT)
+                .param("n", "1")
+                .contentType(DELIMITED)
+                .content(chunks("test", "test ".repeat(20))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        var expected = new ByteArrayOutputStream();
+        WordCountProtobuf.encodeDelimited(List.of(), expected);
+        var firstAnswer = expected.toByteArray();
+
+        assertThat(response.getContentAsByteArray()).startsWith(firstAnswer);
+        assertThat(new String(response.getContentAsByteArray())).contains("A message of 102 bytes is larger than the maximum of 64 bytes.");
+
+        // the error is field 2 of the last answer
+        assertThat(response.getContentAsByteArray()[firstAnswer.length + 1]).isEqualTo((byte) 0x12);
+    }
+
+    @Test
+    void calculateRunningTopNFrequency_StreamTooLarge() throws Exception {
+        var response = perform(mockMvc, post(RUNNING_TOP_FREQUENCY_STREAM_ENDPOINT)
+                .param("n", "1")
+                .contentType(DELIMITED)
+                .content(chunks("test ".repeat(10), "test ".repeat(10), "test ".repeat(10))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        var expected = new ByteArrayOutputStream();
+        WordCountProtobuf.encodeDelimited(List.of(new WordFrequencyDto().word("test").frequency(10)), expected);
+        WordCountProtobuf.encodeDelimited(List.of(new WordFrequencyDto().word("test").frequency(20)), expected);
+        var answers = expected.toByteArray();
+
+        assertThat(response.getContentAsByteArray()).startsWith(answers);
+        assertThat(new String(response.getContentAsByteArray())).contains("A stream of more than 128 characters can't be counted.");
+        assertThat(response.getContentAsByteArray()[answers.length + 1]).isEqualTo((byte) 0x12);
+    }
+
+    @Test
+    void calculateRunningTopNFrequency_InvalidN() throws Exception {
+        perform(mockMvc, post(RUNNING_TOP_FREQUENCY_STREAM_ENDPOINT)
+                .param("n", "0")
+                .contentType(DELIMITED)
+                .accept(DELIMITED, MediaType.APPLICATION_JSON)
+                .content(chunks("test")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static byte[] chunks(String... texts) throws IOException {
+        var out = new ByteArrayOutputStream();
+
+        for (var text : texts) {
+            var message = WordCountProtobuf.encodeRequest(getFrequencyRequestDto(text));
+
+            for (int length = message.length; ; length >>>= 7) {
+                if (length < 0x80) {
+                    out.write(length);
+                    break;
+                }
+                out.write(length & 0x7F | 0x80);
+            }
+            out.write(message);
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -1,14 +1,27 @@
 package nl.kooi.countingwords.util;
 
+import nl.kooi.countingwords.api.dto.AnalysisRequestDto;
 import nl.kooi.countingwords.api.dto.FrequencyRequestDto;
 import nl.kooi.countingwords.api.dto.TopFrequencyRequestDto;
 import nl.kooi.countingwords.api.dto.WordFrequencyRequestDto;
 
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultHandler;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
 public class TestUtil {
 
     public static final String HIGHEST_FREQUENCY_ENDPOINT = "/rest/word-count/highest-frequency";
     public static final String HIGHEST_FREQUENCY_FOR_WORD_ENDPOINT = "/rest/word-count/frequency-for-word";
     public static final String TOP_FREQUENCY_ENDPOINT = "/rest/word-count/top-frequency";
+    public static final String BATCH_ENDPOINT = "/rest/word-count/batch";
 
     public static FrequencyRequestDto getFrequencyRequestDto(String text) {
         var dto = new FrequencyRequestDto();
@@ -30,4 +43,43 @@ public class TestUtil {
         return dto;
     }
 
+    public static AnalysisRequestDto getAnalysisRequestDto(String text, List<String> words, List<Integer> topN) {
+        var dto = new AnalysisRequestDto();
+        dto.setText(text);
+        dto.setHighestFrequency(true);
+        dto.setWords(words);
+        dto.setTopN(topN);
+        return dto;
+    }
+
+
+    /**
+     * Performs the request and, when the controller answered it asynchronously, dispatches the async result.
+     */
+    public static ResultActions perform(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        var result = mockMvc.perform(request).andReturn();
+
+        if (result.getRequest().isAsyncStarted()) {
+            return mockMvc.perform(asyncDispatch(result));
+        }
+
+        return new ResultActions() {
+            @Override
+            public ResultActions andExpect(ResultMatcher matcher) throws Exception {
+                matcher.match(result);
+                return this;
+            }
+
+            @Override
+            public ResultActions andDo(ResultHandler handler) throws Exception {
+                handler.handle(result);
+                return this;
+            }
+
+            @Override
+            public MvcResult andReturn() {
+                return result;
+            }
+        };
+    }
 }